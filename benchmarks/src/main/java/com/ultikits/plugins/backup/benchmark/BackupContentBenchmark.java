@@ -0,0 +1,144 @@
+package com.ultikits.plugins.backup.benchmark;
+
+import com.ultikits.plugins.backup.FixtureItems;
+import com.ultikits.plugins.backup.InventoryCorpus;
+import com.ultikits.plugins.backup.entity.BackupContent;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link BackupContent} codecs, file I/O and checksums over realistic inventories
+ * from {@link InventoryCorpus}.
+ * Run through {@link BenchmarkMain} to also get allocation per operation.
+ * <p>
+ * 基于真实背包数据测量 {@link BackupContent} 编解码、文件读写和校验和的吞吐量。
+ * 通过 {@link BenchmarkMain} 运行可同时得到每次操作的内存分配量。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BackupContentBenchmark {
+
+    @Param({"SPARSE", "TYPICAL", "HEAVY", "FULL", "ENCHANTED", "BOOKS", "SHULKERS", "BUNDLES"})
+    public InventoryCorpus.Profile inventory;
+
+    private InventorySnapshot snapshot;
+    private InventorySnapshot next;
+    private BackupContent content;
+    private BackupContent delta;
+    private String yamlContent;
+    private String checksum;
+    private File directory;
+    private File file;
+    private File scratch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FixtureItems.register();
+        snapshot = InventoryCorpus.dataset(42L, inventory, 1).get(0);
+        content = BackupContent.fromSnapshot(snapshot);
+        next = changeTwoSlots(snapshot, new InventoryCorpus(43L).item(inventory));
+        delta = BackupContent.delta(snapshot, next, "base");
+        yamlContent = content.toYaml();
+        directory = Files.createTempDirectory("ultibackup-bench").toFile();
+        file = new File(directory, "backup.yml");
+        scratch = new File(directory, "scratch.yml");
+        checksum = content.saveToFile(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+        scratch.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public BackupContent serializeItems() {
+        return BackupContent.fromSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public BackupContent serializeDelta() {
+        return BackupContent.delta(snapshot, next, "base");
+    }
+
+    @Benchmark
+    public BackupContent applyDelta() {
+        return content.applyDelta(delta);
+    }
+
+    @Benchmark
+    public void deserializeItems(Blackhole blackhole) {
+        blackhole.consume(content.getInventoryItems());
+        blackhole.consume(content.getArmorItems());
+        blackhole.consume(content.getOffhandItemStack());
+        blackhole.consume(content.getEnderchestItems());
+    }
+
+    @Benchmark
+    public String saveToFile() throws IOException {
+        return content.saveToFile(scratch);
+    }
+
+    @Benchmark
+    public BackupContent loadFromFile() throws IOException {
+        return BackupContent.loadFromFile(file);
+    }
+
+    @Benchmark
+    public boolean verifyChecksum() throws IOException {
+        return BackupContent.verifyChecksum(file, checksum);
+    }
+
+    @Benchmark
+    public String calculateChecksum() {
+        return BackupContent.calculateChecksum(yamlContent);
+    }
+
+    /**
+     * The typical gap between two backups of a player: one slot picked up, one used up.
+     */
+    private static InventorySnapshot changeTwoSlots(InventorySnapshot base, ItemStack item) {
+        ItemStack[] storage = base.getStorageContents().clone();
+        storage[0] = item;
+        storage[storage.length - 1] = null;
+        return InventorySnapshot.builder()
+            .storageContents(storage)
+            .armorContents(base.getArmorContents())
+            .offhandItem(base.getOffhandItem())
+            .enderchestContents(base.getEnderchestContents())
+            .expLevel(base.getExpLevel())
+            .expProgress(base.getExpProgress())
+            .armorCaptured(base.isArmorCaptured())
+            .enderchestCaptured(base.isEnderchestCaptured())
+            .expCaptured(base.isExpCaptured())
+            .build();
+    }
+}
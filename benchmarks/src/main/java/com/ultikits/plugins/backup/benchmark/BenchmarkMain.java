@@ -0,0 +1,30 @@
+package com.ultikits.plugins.backup.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line and always adds the
+ * GC profiler, so every result reports {@code gc.alloc.rate.norm} (bytes allocated per operation).
+ * <p>
+ * 基准测试 jar 的入口。接受常规 JMH 命令行参数，并始终启用 GC 分析器，
+ * 使每项结果都包含 {@code gc.alloc.rate.norm}（每次操作分配的字节数）。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.ultikits.plugins.backup;
 
+import com.ultikits.plugins.backup.gui.GuiItems;
+import com.ultikits.plugins.backup.service.BackupService;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.UltiToolsModule;
 
@@ -18,6 +20,8 @@ import java.util.List;
 )
 public class UltiBackup extends UltiToolsPlugin {
 
+    private BackupService backupService;
+
     @Override
     public boolean registerSelf() {
         getLogger().info("UltiBackup has been enabled!");
@@ -26,14 +30,31 @@ public class UltiBackup extends UltiToolsPlugin {
 
     @Override
     public void unregisterSelf() {
+        // Quit events may not reach listeners during /stop; capture and flush everything now
+        if (backupService != null) {
+            backupService.shutdown();
+        }
         getLogger().info("UltiBackup has been disabled!");
     }
 
     @Override
     public void reloadSelf() {
+        // Language may have changed; rebuild prebuilt GUI items on next use
+        GuiItems.clear();
         getLogger().info("UltiBackup configuration reloaded!");
     }
 
+    /**
+     * Attach the backup service so pending writes can be drained on disable.
+     * <p>
+     * 关联备份服务，以便在卸载时等待待写入的备份完成。
+     *
+     * @param backupService the backup service
+     */
+    public void setBackupService(BackupService backupService) {
+        this.backupService = backupService;
+    }
+
     @Override
     public List<String> supported() {
         return Arrays.asList("zh", "en");
@@ -3,7 +3,11 @@ package com.ultikits.plugins.backup.commands;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
 import com.ultikits.plugins.backup.gui.BackupGUI;
 import com.ultikits.plugins.backup.gui.ForceRestoreConfirmPage;
+import com.ultikits.plugins.backup.service.BackupMetrics;
 import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.plugins.backup.service.IntegrityScrubber;
+import com.ultikits.plugins.backup.service.LatencyHistogram;
+import com.ultikits.plugins.backup.service.StorageLedger;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.abstracts.command.BaseCommandExecutor;
 import com.ultikits.ultitools.annotations.Autowired;
@@ -16,6 +20,7 @@ import org.bukkit.entity.Player;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -37,6 +42,16 @@ import java.util.stream.Collectors;
 )
 public class BackupCommand extends BaseCommandExecutor {
 
+    /**
+     * Players listed by storage use in {@code /backup stats}.
+     */
+    private static final int STATS_TOP_PLAYERS = 5;
+
+    /**
+     * Flagged backups listed in {@code /backup scrub}.
+     */
+    private static final int SCRUB_FLAGGED_SHOWN = 10;
+
     @Autowired
     private UltiToolsPlugin plugin;
 
@@ -146,21 +161,157 @@ public class BackupCommand extends BaseCommandExecutor {
     
     /**
      * Save all online players' backups.
+     * Runs on the main thread so inventories are captured safely; writes happen on the worker pool.
      * <p>
      * 保存所有在线玩家的备份。
+     * 在主线程执行以安全捕获背包；写入在工作线程池中进行。
      */
     @CmdMapping(format = "saveall")
     @CmdCD(60)
-    @RunAsync
     public void saveAllPlayers(@CmdSender Player sender) {
         if (!sender.hasPermission("ultibackup.admin")) {
             sender.sendMessage(i18n("backup.message.no_permission"));
             return;
         }
         
-        int count = backupService.saveAllOnlinePlayers();
-        sender.sendMessage(i18n("backup.message.saveall_complete")
-            .replace("{COUNT}", String.valueOf(count)));
+        // The batch completes on a worker thread; report back on the main thread
+        backupService.saveAllOnlinePlayers().thenAccept(report -> Bukkit.getScheduler().runTask(
+            Bukkit.getPluginManager().getPlugin("UltiTools"), () -> {
+                sender.sendMessage(i18n("backup.message.saveall_complete")
+                    .replace("{COUNT}", String.valueOf(report.getSucceeded())));
+                sender.sendMessage(i18n("backup.message.saveall_stats")
+                    .replace("{FAILED}", String.valueOf(report.getFailed()))
+                    .replace("{ELAPSED}", String.valueOf(report.getElapsedMillis()))
+                    .replace("{RATE}", String.format("%.1f", report.getThroughput())));
+            }));
+    }
+    
+    /**
+     * Show backup performance statistics (admin).
+     * <p>
+     * 显示备份性能统计（管理员）。
+     */
+    @CmdMapping(format = "stats")
+    public void showStats(@CmdSender Player sender) {
+        if (!sender.hasPermission("ultibackup.admin")) {
+            sender.sendMessage(i18n("backup.message.no_permission"));
+            return;
+        }
+        
+        BackupMetrics metrics = backupService.getMetrics();
+        Map<String, Number> gauges = backupService.collectMetrics();
+        sender.sendMessage(i18n("backup.message.stats_header")
+            .replace("{UPTIME}", String.valueOf(metrics.getUptimeSeconds())));
+        for (BackupMetrics.Operation operation : BackupMetrics.Operation.values()) {
+            LatencyHistogram latency = metrics.getLatency(operation);
+            sender.sendMessage(i18n("backup.message.stats_operation")
+                .replace("{NAME}", operation.name())
+                .replace("{COUNT}", String.valueOf(latency.getCount()))
+                .replace("{FAILED}", String.valueOf(metrics.getFailures(operation)))
+                .replace("{RATE}", String.format("%.2f", metrics.getThroughput(operation)))
+                .replace("{P50}", String.format("%.2f", latency.getPercentileMillis(0.50)))
+                .replace("{P99}", String.format("%.2f", latency.getPercentileMillis(0.99))));
+        }
+        for (BackupMetrics.Phase phase : BackupMetrics.Phase.values()) {
+            LatencyHistogram latency = metrics.getLatency(phase);
+            sender.sendMessage(i18n("backup.message.stats_phase")
+                .replace("{NAME}", phase.name())
+                .replace("{P50}", String.format("%.2f", latency.getPercentileMillis(0.50)))
+                .replace("{P99}", String.format("%.2f", latency.getPercentileMillis(0.99)))
+                .replace("{MAX}", String.format("%.2f", latency.getMaxMillis())));
+        }
+        sender.sendMessage(i18n("backup.message.stats_queue")
+            .replace("{QUEUED}", String.valueOf(gauges.getOrDefault("queue.queued", 0)))
+            .replace("{PENDING}", String.valueOf(gauges.getOrDefault("queue.pending", 0)))
+            .replace("{HELD}", String.valueOf(gauges.getOrDefault("rate_limit.held", 0)))
+            .replace("{SHED}", String.valueOf(gauges.getOrDefault("queue.shed", 0))));
+        long mainThreadMillis = gauges.getOrDefault("main_thread.last_minute_ms", 0).longValue();
+        sender.sendMessage(i18n("backup.message.stats_main_thread")
+            .replace("{MS}", String.valueOf(mainThreadMillis))
+            .replace("{PERCENT}", String.format("%.2f", mainThreadMillis / 600.0)));
+        sender.sendMessage(i18n("backup.message.stats_written")
+            .replace("{KB}", String.valueOf(metrics.getBytesWritten() / 1024L)));
+        
+        StorageLedger storage = backupService.getStorageLedger();
+        sender.sendMessage(i18n("backup.message.stats_storage")
+            .replace("{BACKUPS}", String.valueOf(storage.getTotalBackups()))
+            .replace("{KB}", String.valueOf(storage.getTotalBytes() / 1024L))
+            .replace("{ITEMS}", String.valueOf(storage.getTotalItems()))
+            .replace("{PLAYERS}", String.valueOf(storage.getPlayerCount())));
+        for (Map.Entry<String, StorageLedger.Usage> entry : storage.getTopPlayers(STATS_TOP_PLAYERS)) {
+            StorageLedger.Usage usage = entry.getValue();
+            sender.sendMessage(i18n("backup.message.stats_storage_player")
+                .replace("{PLAYER}", usage.getPlayerName() != null ? usage.getPlayerName() : entry.getKey())
+                .replace("{BACKUPS}", String.valueOf(usage.getBackups()))
+                .replace("{KB}", String.valueOf(usage.getBytes() / 1024L)));
+        }
+    }
+    
+    /**
+     * Show integrity scrub progress and flagged backups (admin).
+     * <p>
+     * 显示完整性巡检进度与被标记的备份（管理员）。
+     */
+    @CmdMapping(format = "scrub")
+    public void showScrub(@CmdSender Player sender) {
+        if (!sender.hasPermission("ultibackup.admin")) {
+            sender.sendMessage(i18n("backup.message.no_permission"));
+            return;
+        }
+        
+        IntegrityScrubber scrubber = backupService.getScrubber();
+        sender.sendMessage(i18n("backup.message.scrub_status")
+            .replace("{STATE}", i18n(scrubber.isPaused()
+                ? "backup.message.scrub_state_paused" : "backup.message.scrub_state_active"))
+            .replace("{CHECKED}", String.valueOf(scrubber.getPassChecked()))
+            .replace("{CORRUPT}", String.valueOf(scrubber.getPassCorrupt()))
+            .replace("{MISSING}", String.valueOf(scrubber.getPassMissing())));
+        sender.sendMessage(i18n("backup.message.scrub_last_pass")
+            .replace("{PASSES}", String.valueOf(scrubber.getPasses()))
+            .replace("{CHECKED}", String.valueOf(scrubber.getLastPassChecked()))
+            .replace("{RATE}", String.format("%.2f", scrubber.getLastPassCorruptionRate() * 100.0)));
+        int shown = 0;
+        for (Map.Entry<String, String> entry : scrubber.getFlagged().entrySet()) {
+            if (shown++ == SCRUB_FLAGGED_SHOWN) {
+                break;
+            }
+            sender.sendMessage(i18n("backup.message.scrub_flagged")
+                .replace("{ID}", entry.getKey())
+                .replace("{PATH}", String.valueOf(entry.getValue()))
+                .replace("{REASON}", String.valueOf(scrubber.getFlagReason(entry.getKey()))));
+        }
+    }
+    
+    /**
+     * Pause the integrity scrub until resumed, across restarts (admin).
+     * <p>
+     * 暂停完整性巡检直到恢复，重启后仍保持（管理员）。
+     */
+    @CmdMapping(format = "scrub pause")
+    public void pauseScrub(@CmdSender Player sender) {
+        if (!sender.hasPermission("ultibackup.admin")) {
+            sender.sendMessage(i18n("backup.message.no_permission"));
+            return;
+        }
+        
+        backupService.getScrubber().pause();
+        sender.sendMessage(i18n("backup.message.scrub_paused"));
+    }
+    
+    /**
+     * Resume the integrity scrub where it stopped (admin).
+     * <p>
+     * 从停止处恢复完整性巡检（管理员）。
+     */
+    @CmdMapping(format = "scrub resume")
+    public void resumeScrub(@CmdSender Player sender) {
+        if (!sender.hasPermission("ultibackup.admin")) {
+            sender.sendMessage(i18n("backup.message.no_permission"));
+            return;
+        }
+        
+        backupService.getScrubber().resume();
+        sender.sendMessage(i18n("backup.message.scrub_resumed"));
     }
     
     /**
@@ -240,6 +391,8 @@ public class BackupCommand extends BaseCommandExecutor {
         sender.sendMessage(i18n("backup.help.restore_force"));
         if (sender.hasPermission("ultibackup.admin")) {
             sender.sendMessage(i18n("backup.help.saveall"));
+            sender.sendMessage(i18n("backup.help.stats"));
+            sender.sendMessage(i18n("backup.help.scrub"));
             sender.sendMessage(i18n("backup.help.admin"));
             sender.sendMessage(i18n("backup.help.admin_create"));
         }
@@ -251,8 +404,15 @@ public class BackupCommand extends BaseCommandExecutor {
      * 处理恢复操作（带校验和验证）。
      */
     private void handleRestore(Player sender, Player target, BackupMetadata backup) {
-        BackupService.RestoreResult result = backupService.restoreBackup(target, backup);
-        
+        backupService.restoreBackupAsync(target, backup, result -> reportRestore(sender, target, result));
+    }
+    
+    /**
+     * Report a restore result to the sender and target.
+     * <p>
+     * 向发送者和目标玩家报告恢复结果。
+     */
+    private void reportRestore(Player sender, Player target, BackupService.RestoreResult result) {
         switch (result) {
             case SUCCESS:
                 sender.sendMessage(i18n("backup.message.restored"));
@@ -298,7 +458,7 @@ public class BackupCommand extends BaseCommandExecutor {
      * 为 Tab 补全建议子命令。
      */
     public List<String> suggestSubcommands() {
-        return Arrays.asList("list", "create", "restore", "help", "admin", "saveall");
+        return Arrays.asList("list", "create", "restore", "help", "admin", "saveall", "stats", "scrub");
     }
     
     /**
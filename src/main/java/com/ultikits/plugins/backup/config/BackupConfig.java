@@ -35,7 +35,7 @@ public class BackupConfig extends AbstractConfigEntity {
     private boolean backupOnQuit = true;
 
     @Range(min = 1, max = 1000)
-    @ConfigEntry(path = "max_backups_per_player", comment = "Maximum number of backups to keep per player (1-1000)")
+    @ConfigEntry(path = "max_backups_per_player", comment = "Maximum number of backups to keep per player; with delta backups, older backups a kept delta depends on stay until their chain expires (1-1000)")
     private int maxBackupsPerPlayer = 10;
 
     @ConfigEntry(path = "backup_armor", comment = "Include armor in backups")
@@ -47,6 +47,111 @@ public class BackupConfig extends AbstractConfigEntity {
     @ConfigEntry(path = "backup_exp", comment = "Include experience levels in backups")
     private boolean backupExp = true;
 
+    @Range(min = 1, max = 32)
+    @ConfigEntry(path = "performance.worker_threads", comment = "Worker threads for serializing and writing backups (1-32)")
+    private int workerThreads = 2;
+
+    @Range(min = 1, max = 200)
+    @ConfigEntry(path = "performance.captures_per_tick", comment = "Maximum players captured per server tick during mass backups (1-200)")
+    private int capturesPerTick = 10;
+
+    @Range(min = 0, max = 1000)
+    @ConfigEntry(path = "performance.adaptive.mspt_threshold", comment = "Average tick time in ms above which mass backups slow down and auto backups wait; ticks never measure below 50 (0 disables, 0-1000)")
+    private int msptThreshold = 55;
+
+    @Range(min = 0, max = 3600)
+    @ConfigEntry(path = "performance.adaptive.max_defer_seconds", comment = "Longest an auto backup waits for the server to catch up before it runs anyway (0-3600)")
+    private int maxDeferSeconds = 300;
+
+    @Range(min = 1, max = 100000)
+    @ConfigEntry(path = "performance.queue_capacity", comment = "Backups waiting to be written before queued AUTO backups are dropped; other backups are never dropped and may exceed it (1-100000)")
+    private int queueCapacity = 1000;
+
+    @Range(min = 0, max = 5000)
+    @ConfigEntry(path = "performance.coalesce_window_ms", comment = "Merge backups of the same player triggered within this many milliseconds (0 disables, 0-5000)")
+    private int coalesceWindowMs = 250;
+
+    @ConfigEntry(path = "performance.fsync_policy", comment = "When to fsync backup files: none, per_file or batched")
+    private String fsyncPolicy = "batched";
+
+    @Range(min = 1, max = 10000)
+    @ConfigEntry(path = "performance.fsync_batch_interval_ms", comment = "Interval between batched fsyncs in milliseconds (1-10000)")
+    private int fsyncBatchIntervalMs = 100;
+
+    @Range(min = 0, max = 6000)
+    @ConfigEntry(path = "rate_limit.player_backups_per_minute", comment = "Backups per player per minute before further ones are held back (0 disables, 0-6000)")
+    private int playerBackupsPerMinute = 6;
+
+    @Range(min = 1, max = 100)
+    @ConfigEntry(path = "rate_limit.player_burst", comment = "Backups a player may make back to back before the per-minute limit applies (1-100)")
+    private int playerBurst = 3;
+
+    @Range(min = 0, max = 1048576)
+    @ConfigEntry(path = "rate_limit.player_kb_per_second", comment = "Backup kilobytes written per player per second (0 disables, 0-1048576)")
+    private int playerKbPerSecond = 512;
+
+    @Range(min = 0, max = 10000)
+    @ConfigEntry(path = "rate_limit.global_backups_per_second", comment = "Backups per second across all players (0 disables, 0-10000)")
+    private int globalBackupsPerSecond = 50;
+
+    @Range(min = 0, max = 1048576)
+    @ConfigEntry(path = "rate_limit.global_kb_per_second", comment = "Backup kilobytes written per second across all players (0 disables, 0-1048576)")
+    private int globalKbPerSecond = 16384;
+
+    @Range(min = 0, max = 1048576)
+    @ConfigEntry(path = "io.foreground_kb_per_second", comment = "Disk kilobytes per second for death, quit and manual backups and restores (0 disables, 0-1048576)")
+    private int foregroundKbPerSecond = 32768;
+
+    @Range(min = 0, max = 100000)
+    @ConfigEntry(path = "io.foreground_ops_per_second", comment = "Disk operations per second for death, quit and manual backups and restores (0 disables, 0-100000)")
+    private int foregroundOpsPerSecond = 1000;
+
+    @Range(min = 0, max = 1048576)
+    @ConfigEntry(path = "io.background_kb_per_second", comment = "Disk kilobytes per second for auto backups, saveall, cleanup and journal replay (0 disables, 0-1048576)")
+    private int backgroundKbPerSecond = 4096;
+
+    @Range(min = 0, max = 100000)
+    @ConfigEntry(path = "io.background_ops_per_second", comment = "Disk operations per second for auto backups, saveall, cleanup and journal replay (0 disables, 0-100000)")
+    private int backgroundOpsPerSecond = 100;
+
+    @Range(min = 0, max = 1000)
+    @ConfigEntry(path = "watchdog.threshold_ms", comment = "Log backup work that holds the main thread longer than this many ms (0 disables, 0-1000)")
+    private int watchdogThresholdMs = 5;
+
+    @ConfigEntry(path = "metrics.write_file", comment = "Write backup metrics to backups/metrics.yml every minute")
+    private boolean metricsFileEnabled = true;
+
+    @ConfigEntry(path = "metrics.http.enabled", comment = "Serve Prometheus metrics at /metrics and a JSON health summary at /health")
+    private boolean metricsHttpEnabled = false;
+
+    @ConfigEntry(path = "metrics.http.host", comment = "Address the metrics endpoint binds to (keep 127.0.0.1 unless scraped from another host)")
+    private String metricsHttpHost = "127.0.0.1";
+
+    @Range(min = 1, max = 65535)
+    @ConfigEntry(path = "metrics.http.port", comment = "Port of the metrics endpoint (1-65535)")
+    private int metricsHttpPort = 9465;
+
+    @ConfigEntry(path = "scrub.enabled", comment = "Re-verify stored backups in the background and flag corrupt or missing files")
+    private boolean scrubEnabled = true;
+
+    @Range(min = 1, max = 1000)
+    @ConfigEntry(path = "scrub.batch_size", comment = "Backups verified per scrub batch, one batch a minute (1-1000)")
+    private int scrubBatchSize = 32;
+
+    @Range(min = 1, max = 16)
+    @ConfigEntry(path = "scrub.threads", comment = "Threads hashing backups during a scrub batch (1-16)")
+    private int scrubThreads = 2;
+
+    @ConfigEntry(path = "scrub.quarantine", comment = "Move corrupt backup files to backups/quarantine")
+    private boolean scrubQuarantine = true;
+
+    @ConfigEntry(path = "delta.enabled", comment = "Store only the slots that changed since the player's previous backup. One-way: versions without delta support restore deltas as partial inventories")
+    private boolean deltaEnabled = false;
+
+    @Range(min = 1, max = 100)
+    @ConfigEntry(path = "delta.keyframe_interval", comment = "Write a full backup every this many backups of a player (1 writes only full backups, 1-100)")
+    private int deltaKeyframeInterval = 10;
+
     public BackupConfig(String configFilePath) {
         super(configFilePath);
     }
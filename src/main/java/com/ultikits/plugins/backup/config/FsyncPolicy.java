@@ -0,0 +1,37 @@
+package com.ultikits.plugins.backup.config;
+
+/**
+ * When backup files are flushed to stable storage.
+ * <p>
+ * 备份文件何时刷写到持久存储。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public enum FsyncPolicy {
+    /** Never fsync; rely on the OS page cache */
+    NONE,
+    /** Fsync every file before it is renamed into place */
+    PER_FILE,
+    /** Fsync all files written within a short interval together */
+    BATCHED;
+
+    /**
+     * Parse a config value, falling back to {@link #BATCHED} for unknown values.
+     * <p>
+     * 解析配置值，无法识别时回退为 {@link #BATCHED}。
+     *
+     * @param value the config value (none, per_file, batched)
+     * @return the policy
+     */
+    public static FsyncPolicy parse(String value) {
+        if (value == null) {
+            return BATCHED;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return BATCHED;
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package com.ultikits.plugins.backup.entity;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -49,6 +60,11 @@ public class BackupContent {
         "# Checksum: %s\n" +
         "\n";
     
+    /**
+     * Suffix of the temporary file a backup is written to before the atomic rename.
+     */
+    public static final String TEMP_SUFFIX = ".tmp";
+    
     /**
      * Serialized inventory contents (YAML format).
      */
@@ -79,6 +95,13 @@ public class BackupContent {
      */
     private float expProgress;
     
+    /**
+     * ID of the backup this content is a delta against, or null for a full keyframe.
+     * A delta holds only the slots that changed (cleared slots are listed under {@code cleared})
+     * and a null offhand item when the offhand did not change.
+     */
+    private String baseId;
+    
     /**
      * Create backup content from player.
      * <p>
@@ -92,47 +115,144 @@ public class BackupContent {
      */
     public static BackupContent fromPlayer(Player player, boolean backupArmor, 
             boolean backupEnderchest, boolean backupExp) {
+        return fromSnapshot(InventorySnapshot.capture(
+            player, null, backupArmor, backupEnderchest, backupExp));
+    }
+    
+    /**
+     * Create backup content from a captured snapshot.
+     * Only reads the snapshot's copied items, so it is safe to call off the main thread.
+     * <p>
+     * 从已捕获的快照创建备份内容。
+     * 只读取快照中复制的物品，可在主线程之外调用。
+     *
+     * @param snapshot the snapshot
+     * @return the backup content
+     */
+    public static BackupContent fromSnapshot(InventorySnapshot snapshot) {
         BackupContentBuilder builder = BackupContent.builder();
         
         // Serialize inventory
-        builder.inventoryContents(serializeItems(player.getInventory().getStorageContents()));
+        builder.inventoryContents(serializeItems(snapshot.getStorageContents()));
         
         // Serialize armor
-        if (backupArmor) {
-            builder.armorContents(serializeItems(player.getInventory().getArmorContents()));
-            builder.offhandItem(serializeItem(player.getInventory().getItemInOffHand()));
+        if (snapshot.isArmorCaptured()) {
+            builder.armorContents(serializeItems(snapshot.getArmorContents()));
+            builder.offhandItem(serializeItem(snapshot.getOffhandItem()));
         }
         
         // Serialize ender chest
-        if (backupEnderchest) {
-            builder.enderchestContents(serializeItems(player.getEnderChest().getContents()));
+        if (snapshot.isEnderchestCaptured()) {
+            builder.enderchestContents(serializeItems(snapshot.getEnderchestContents()));
         }
         
         // Experience
-        if (backupExp) {
-            builder.expLevel(player.getLevel());
-            builder.expProgress(player.getExp());
+        if (snapshot.isExpCaptured()) {
+            builder.expLevel(snapshot.getExpLevel());
+            builder.expProgress(snapshot.getExpProgress());
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * Create delta content holding only what changed between two snapshots of a player.
+     * Both snapshots must capture the same sections.
+     * <p>
+     * 创建仅包含两个快照之间变化部分的增量内容。两个快照必须捕获相同的部分。
+     *
+     * @param base the snapshot of the base backup
+     * @param snapshot the new snapshot
+     * @param baseId the ID of the base backup
+     * @return the delta content
+     */
+    public static BackupContent delta(InventorySnapshot base, InventorySnapshot snapshot, String baseId) {
+        BackupContentBuilder builder = BackupContent.builder().baseId(baseId);
+        
+        builder.inventoryContents(serializeChanges(base.getStorageContents(), snapshot.getStorageContents()));
+        
+        if (snapshot.isArmorCaptured()) {
+            builder.armorContents(serializeChanges(base.getArmorContents(), snapshot.getArmorContents()));
+            if (!Objects.equals(normalize(base.getOffhandItem()), normalize(snapshot.getOffhandItem()))) {
+                builder.offhandItem(serializeItem(snapshot.getOffhandItem()));
+            }
+        }
+        
+        if (snapshot.isEnderchestCaptured()) {
+            builder.enderchestContents(serializeChanges(base.getEnderchestContents(), snapshot.getEnderchestContents()));
+        }
+        
+        if (snapshot.isExpCaptured()) {
+            builder.expLevel(snapshot.getExpLevel());
+            builder.expProgress(snapshot.getExpProgress());
         }
         
         return builder.build();
     }
     
+    /**
+     * Check whether this content is a delta against another backup.
+     * <p>
+     * 检查此内容是否为相对于另一个备份的增量。
+     */
+    public boolean isDelta() {
+        return baseId != null;
+    }
+    
+    /**
+     * Apply a delta on top of this content. Applied to a keyframe the result is a keyframe;
+     * applied to another delta the result is one delta combining both, against this content's base.
+     * <p>
+     * 在此内容之上应用增量。应用于关键帧时结果为关键帧；
+     * 应用于另一个增量时，结果为基于此内容基准的合并增量。
+     *
+     * @param delta the delta whose base is this content
+     * @return the combined content
+     */
+    public BackupContent applyDelta(BackupContent delta) {
+        boolean keepCleared = isDelta();
+        return BackupContent.builder()
+            .inventoryContents(overlayItems(inventoryContents, delta.inventoryContents, keepCleared))
+            .armorContents(overlayItems(armorContents, delta.armorContents, keepCleared))
+            .offhandItem(delta.offhandItem != null ? delta.offhandItem : offhandItem)
+            .enderchestContents(overlayItems(enderchestContents, delta.enderchestContents, keepCleared))
+            .expLevel(delta.expLevel)
+            .expProgress(delta.expProgress)
+            .baseId(baseId)
+            .build();
+    }
+    
     /**
      * Save content to file with SHA-256 checksum.
+     * The file is written to a temporary sibling and atomically renamed into place,
+     * so a crash never leaves a truncated backup at the final path.
      * <p>
      * 将内容保存到文件（带 SHA-256 校验和）。
+     * 先写入同目录下的临时文件再原子重命名，崩溃时不会在最终路径留下不完整的备份。
      *
      * @param file the file to save to
      * @return the SHA-256 checksum of the content
      * @throws IOException if save fails
      */
     public String saveToFile(File file) throws IOException {
-        // Ensure parent directory exists
-        if (file.getParentFile() != null && !file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
-        }
+        String yamlContent = toYaml();
 
-        // Create YAML content
+        // Calculate SHA-256 checksum
+        String checksum = calculateChecksum(yamlContent);
+        
+        writeAtomically(file, toFileText(yamlContent, checksum).getBytes(StandardCharsets.UTF_8), false);
+        
+        return checksum;
+    }
+    
+    /**
+     * Render the YAML body that the checksum covers.
+     * <p>
+     * 生成校验和所覆盖的 YAML 正文。
+     *
+     * @return the YAML content
+     */
+    public String toYaml() {
         YamlConfiguration yaml = new YamlConfiguration();
         yaml.set("inventory", inventoryContents);
         yaml.set("armor", armorContents);
@@ -140,20 +260,62 @@ public class BackupContent {
         yaml.set("enderchest", enderchestContents);
         yaml.set("expLevel", expLevel);
         yaml.set("expProgress", expProgress);
-
-        String yamlContent = yaml.saveToString();
-
-        // Calculate SHA-256 checksum
-        String checksum = calculateChecksum(yamlContent);
+        if (baseId != null) {
+            yaml.set("base", baseId);
+        }
+        return yaml.saveToString();
+    }
+    
+    /**
+     * Build the full file text: warning header followed by the YAML body.
+     * <p>
+     * 生成完整文件文本：警告头加 YAML 正文。
+     *
+     * @param yamlContent the YAML body
+     * @param checksum the checksum of the YAML body
+     * @return the file text
+     */
+    public static String toFileText(String yamlContent, String checksum) {
+        return String.format(FILE_HEADER, checksum) + yamlContent;
+    }
+    
+    /**
+     * Write bytes to a temporary sibling file, optionally fsync it, then atomically
+     * rename it over the target.
+     * <p>
+     * 将字节写入同目录临时文件，可选 fsync，然后原子重命名覆盖目标文件。
+     *
+     * @param file the target file
+     * @param data the bytes to write
+     * @param sync whether to fsync the data before the rename
+     * @throws IOException if writing or renaming fails
+     */
+    public static void writeAtomically(File file, byte[] data, boolean sync) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
         
-        // Write file with header
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
-            writer.write(String.format(FILE_HEADER, checksum));
-            writer.write(yamlContent);
+        Path temp = new File(parent, file.getName() + TEMP_SUFFIX).toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
         
-        return checksum;
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
     
     /**
@@ -167,14 +329,17 @@ public class BackupContent {
      */
     public static BackupContent loadFromFile(File file) throws IOException {
         YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        String baseId = yaml.getString("base");
         
         return BackupContent.builder()
             .inventoryContents(yaml.getString("inventory", ""))
             .armorContents(yaml.getString("armor", ""))
-            .offhandItem(yaml.getString("offhand", ""))
+            // A delta without an offhand entry keeps the base's offhand
+            .offhandItem(baseId != null ? yaml.getString("offhand") : yaml.getString("offhand", ""))
             .enderchestContents(yaml.getString("enderchest", ""))
             .expLevel(yaml.getInt("expLevel", 0))
             .expProgress((float) yaml.getDouble("expProgress", 0.0))
+            .baseId(baseId)
             .build();
     }
     
@@ -350,6 +515,88 @@ public class BackupContent {
         return yaml.saveToString();
     }
     
+    /**
+     * Serialize the slots that differ between two item arrays; emptied slots are listed under {@code cleared}.
+     */
+    private static String serializeChanges(ItemStack[] before, ItemStack[] after) {
+        int length = Math.max(before != null ? before.length : 0, after != null ? after.length : 0);
+        YamlConfiguration yaml = new YamlConfiguration();
+        List<Integer> cleared = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            ItemStack previous = normalize(before != null && i < before.length ? before[i] : null);
+            ItemStack current = normalize(after != null && i < after.length ? after[i] : null);
+            if (Objects.equals(previous, current)) {
+                continue;
+            }
+            if (current == null) {
+                cleared.add(i);
+            } else {
+                yaml.set("items." + i, current);
+            }
+        }
+        if (!cleared.isEmpty()) {
+            yaml.set("cleared", cleared);
+        }
+        return yaml.getKeys(false).isEmpty() ? "" : yaml.saveToString();
+    }
+    
+    /**
+     * Overlay the slot changes of a delta section on a base section.
+     *
+     * @param keepCleared whether the result is itself a delta and must keep cleared slots
+     */
+    private static String overlayItems(String base, String delta, boolean keepCleared) {
+        if (delta == null || delta.isEmpty()) {
+            return base;
+        }
+        
+        try {
+            Map<Integer, Object> items = new TreeMap<>();
+            TreeSet<Integer> cleared = new TreeSet<>();
+            if (base != null && !base.isEmpty()) {
+                YamlConfiguration baseYaml = new YamlConfiguration();
+                baseYaml.loadFromString(base);
+                readSlots(baseYaml, items, cleared);
+            }
+            YamlConfiguration deltaYaml = new YamlConfiguration();
+            deltaYaml.loadFromString(delta);
+            Map<Integer, Object> changed = new TreeMap<>();
+            TreeSet<Integer> emptied = new TreeSet<>();
+            readSlots(deltaYaml, changed, emptied);
+            for (Integer slot : emptied) {
+                items.remove(slot);
+            }
+            cleared.removeAll(changed.keySet());
+            cleared.addAll(emptied);
+            items.putAll(changed);
+            
+            YamlConfiguration merged = new YamlConfiguration();
+            for (Map.Entry<Integer, Object> entry : items.entrySet()) {
+                merged.set("items." + entry.getKey(), entry.getValue());
+            }
+            if (keepCleared && !cleared.isEmpty()) {
+                merged.set("cleared", new ArrayList<>(cleared));
+            }
+            return merged.getKeys(false).isEmpty() ? "" : merged.saveToString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to apply backup delta", e);
+        }
+    }
+    
+    private static void readSlots(YamlConfiguration yaml, Map<Integer, Object> items, TreeSet<Integer> cleared) {
+        ConfigurationSection section = yaml.getConfigurationSection("items");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                items.put(Integer.parseInt(key), section.get(key));
+            }
+        }
+        cleared.addAll(yaml.getIntegerList("cleared"));
+    }
+    
+    private static ItemStack normalize(ItemStack item) {
+        return item == null || item.getType().isAir() ? null : item;
+    }
+    
     /**
      * Serialize single item to YAML string.
      */
@@ -12,8 +12,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Backup metadata entity (hot data).
@@ -66,6 +67,37 @@ public class BackupMetadata extends BaseDataEntity<String> {
     @Column("exp_level")
     private int expLevel;
     
+    /**
+     * Size of the backup file in bytes, recorded when it is written (0 for older backups).
+     */
+    @Column("payload_bytes")
+    private long payloadBytes;
+    
+    /**
+     * Non-empty item stacks in the backup, recorded when it is written (0 for older backups).
+     */
+    @Column("item_count")
+    private int itemCount;
+    
+    /**
+     * ID of the backup this one is a delta against, or null for a full keyframe.
+     */
+    @Column("base_id")
+    private String baseId;
+    
+    /**
+     * ID given to the snapshot when it is journaled, so a replay can tell it was already stored
+     * even if its file path changed on write (null for backups that were never journaled).
+     */
+    @Column("capture_id")
+    private String captureId;
+    
+    /**
+     * Shared, thread-safe formatter for backup times.
+     */
+    private static final DateTimeFormatter TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    
     /**
      * Lifecycle hook: Delete associated cold data file when metadata is deleted.
      * <p>
@@ -114,8 +146,7 @@ public class BackupMetadata extends BaseDataEntity<String> {
      * @return formatted time string
      */
     public String getFormattedTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return sdf.format(new Date(backupTime));
+        return TIME_FORMATTER.format(Instant.ofEpochMilli(backupTime));
     }
     
     /**
@@ -0,0 +1,143 @@
+package com.ultikits.plugins.backup.entity;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Point-in-time copy of a player's inventory state.
+ * Captured on the main thread by cloning live item stacks, so serialization,
+ * hashing and disk writes can run on worker threads without touching the
+ * live {@code PlayerInventory}.
+ * <p>
+ * 玩家背包状态的时间点副本。
+ * 在主线程通过克隆实时物品堆捕获，之后的序列化、哈希和磁盘写入可在工作线程执行，
+ * 不会访问实时的 {@code PlayerInventory}。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class InventorySnapshot {
+
+    /**
+     * Metadata describing this backup (player, time, reason, location).
+     * Null for content-only snapshots.
+     */
+    private final BackupMetadata metadata;
+
+    private final ItemStack[] storageContents;
+
+    private final ItemStack[] armorContents;
+
+    private final ItemStack offhandItem;
+
+    private final ItemStack[] enderchestContents;
+
+    private final int expLevel;
+
+    private final float expProgress;
+
+    private final boolean armorCaptured;
+
+    private final boolean enderchestCaptured;
+
+    private final boolean expCaptured;
+
+    /**
+     * Capture a snapshot from a player. Must be called on the main thread.
+     * <p>
+     * 从玩家捕获快照。必须在主线程调用。
+     *
+     * @param player the player
+     * @param metadata the backup metadata, or null for content-only snapshots
+     * @param backupArmor whether to capture armor and offhand
+     * @param backupEnderchest whether to capture ender chest
+     * @param backupExp whether to capture experience
+     * @return the snapshot
+     */
+    public static InventorySnapshot capture(Player player, BackupMetadata metadata, boolean backupArmor,
+            boolean backupEnderchest, boolean backupExp) {
+        InventorySnapshotBuilder builder = InventorySnapshot.builder()
+            .metadata(metadata)
+            .storageContents(copyItems(player.getInventory().getStorageContents()))
+            .armorCaptured(backupArmor)
+            .enderchestCaptured(backupEnderchest)
+            .expCaptured(backupExp);
+
+        if (backupArmor) {
+            builder.armorContents(copyItems(player.getInventory().getArmorContents()));
+            builder.offhandItem(copyItem(player.getInventory().getItemInOffHand()));
+        }
+
+        if (backupEnderchest) {
+            builder.enderchestContents(copyItems(player.getEnderChest().getContents()));
+        }
+
+        if (backupExp) {
+            builder.expLevel(player.getLevel());
+            builder.expProgress(player.getExp());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Get the player UUID string of this snapshot.
+     * <p>
+     * 获取此快照的玩家 UUID 字符串。
+     */
+    public String getPlayerUuid() {
+        return metadata.getPlayerUuid();
+    }
+
+    /**
+     * Count the non-empty item stacks captured in this snapshot.
+     * <p>
+     * 统计此快照中捕获的非空物品堆数量。
+     *
+     * @return the number of stacks across storage, armor, offhand and ender chest
+     */
+    public int countItems() {
+        int count = countItems(storageContents) + countItems(armorContents) + countItems(enderchestContents);
+        return isEmpty(offhandItem) ? count : count + 1;
+    }
+
+    private static int countItems(ItemStack[] items) {
+        if (items == null) {
+            return 0;
+        }
+        int count = 0;
+        for (ItemStack item : items) {
+            if (!isEmpty(item)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType().isAir();
+    }
+
+    private static ItemStack[] copyItems(ItemStack[] items) {
+        if (items == null) {
+            return null;
+        }
+        ItemStack[] copy = new ItemStack[items.length];
+        for (int i = 0; i < items.length; i++) {
+            copy[i] = copyItem(items[i]);
+        }
+        return copy;
+    }
+
+    private static ItemStack copyItem(ItemStack item) {
+        return item == null ? null : item.clone();
+    }
+}
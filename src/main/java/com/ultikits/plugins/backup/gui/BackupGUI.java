@@ -2,12 +2,11 @@ package com.ultikits.plugins.backup.gui;
 
 import com.ultikits.plugins.backup.entity.BackupMetadata;
 import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.plugins.backup.service.MainThreadWatchdog;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.entities.Colors;
-import com.ultikits.ultitools.utils.XVersionUtils;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -16,7 +15,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -37,71 +38,115 @@ public class BackupGUI implements InventoryHolder {
     private final UUID targetUuid;
     private final String targetName;
     private final Inventory inventory;
-    private final List<BackupMetadata> backups;
+    private final List<BackupMetadata> backups = new ArrayList<>();
     private int currentPage = 0;
+    private boolean loading = true;
+    private int loadGeneration = 0;
+    private final SlotRenderer renderer = new SlotRenderer(INVENTORY_SIZE);
+    private final Map<BackupMetadata, ItemStack> backupItems = new IdentityHashMap<>();
+    private ItemStack pageIndicator;
+    private int pageIndicatorCurrent;
+    private int pageIndicatorTotal;
 
+    private static final int INVENTORY_SIZE = 54;
     private static final int ITEMS_PER_PAGE = 45;
 
+    /**
+     * Create the GUI. The inventory is rendered with placeholders right away
+     * and the backup list is fetched off the main thread.
+     * <p>
+     * 创建 GUI。物品栏立即以占位物品渲染，备份列表在主线程之外加载。
+     */
     public BackupGUI(UltiToolsPlugin plugin, BackupService backupService, Player viewer, UUID targetUuid, String targetName) {
         this.plugin = plugin;
         this.backupService = backupService;
         this.viewer = viewer;
         this.targetUuid = targetUuid;
         this.targetName = targetName;
-        this.backups = backupService.getBackups(targetUuid);
         
         String title = i18n("backup.gui.title")
             .replace("{PLAYER}", targetName);
         
-        this.inventory = Bukkit.createInventory(this, 54, title);
+        this.inventory = Bukkit.createInventory(this, INVENTORY_SIZE, title);
         updateInventory();
+        loadBackups();
+    }
+    
+    /**
+     * Fetch backups asynchronously and re-render on the main thread when they arrive.
+     * Responses from superseded loads are discarded.
+     * <p>
+     * 异步获取备份，到达后在主线程重新渲染。过期的加载结果会被丢弃。
+     */
+    private void loadBackups() {
+        int generation = ++loadGeneration;
+        backupService.getBackupsAsync(targetUuid, result -> {
+            if (generation != loadGeneration) {
+                return;
+            }
+            backups.clear();
+            backups.addAll(result);
+            backupItems.clear();
+            loading = false;
+            
+            int totalPages = Math.max(1, (int) Math.ceil((double) backups.size() / ITEMS_PER_PAGE));
+            if (currentPage > totalPages - 1) {
+                currentPage = totalPages - 1;
+            }
+            updateInventory();
+        });
     }
     
     /**
      * Update inventory contents.
+     * Builds the target layout and writes only the slots that changed.
+     * Backup items are built once per loaded list so unchanged slots keep their instance.
      * <p>
      * 更新物品栏内容。
+     * 构建目标布局，仅写入发生变化的槽位。
+     * 备份物品在每次加载列表后只构建一次，未变化的槽位保持同一实例。
      */
     public void updateInventory() {
-        inventory.clear();
-        
-        int start = currentPage * ITEMS_PER_PAGE;
-        int end = Math.min(start + ITEMS_PER_PAGE, backups.size());
-        
-        for (int i = start; i < end; i++) {
-            BackupMetadata backup = backups.get(i);
-            inventory.setItem(i - start, createBackupItem(backup));
+        try (MainThreadWatchdog.Timing timing = MainThreadWatchdog.start(backupService.getWatchdog(), "gui.render")) {
+            ItemStack[] layout = new ItemStack[INVENTORY_SIZE];
+            
+            if (loading) {
+                ItemStack placeholder = GuiItems.pane(plugin, Colors.WHITE, "backup.gui.loading");
+                for (int i = 0; i < ITEMS_PER_PAGE; i++) {
+                    layout[i] = placeholder;
+                }
+            } else {
+                int start = currentPage * ITEMS_PER_PAGE;
+                int end = Math.min(start + ITEMS_PER_PAGE, backups.size());
+                
+                for (int i = start; i < end; i++) {
+                    BackupMetadata backup = backups.get(i);
+                    layout[i - start] = backupItems.computeIfAbsent(backup, this::createBackupItem);
+                }
+            }
+            
+            // Navigation row
+            addNavigationRow(layout);
+            timing.mark("layout");
+            
+            renderer.render(inventory, layout);
+            timing.mark("render");
         }
-        
-        // Navigation row
-        addNavigationRow();
     }
     
     /**
-     * Create an item representing a backup.
+     * Create an item representing a backup, using precompiled lore templates.
      * <p>
-     * 创建表示备份的物品。
+     * 创建表示备份的物品（使用预编译的描述模板）。
      */
     private ItemStack createBackupItem(BackupMetadata backup) {
         ItemStack item = new ItemStack(Material.CHEST);
         ItemMeta meta = item.getItemMeta();
         
         if (meta != null) {
-            meta.setDisplayName(ChatColor.GOLD + backup.getFormattedTime());
-            
-            List<String> lore = new ArrayList<>();
-            lore.add(i18n("backup.gui.reason").replace("{REASON}", backup.getReasonDisplay()));
-            lore.add(i18n("backup.gui.world").replace("{WORLD}", backup.getWorldName()));
-            lore.add(i18n("backup.gui.location").replace("{LOCATION}", 
-                String.format("%.1f, %.1f, %.1f", 
-                    backup.getLocationX(), backup.getLocationY(), backup.getLocationZ())));
-            lore.add(i18n("backup.gui.level").replace("{LEVEL}", String.valueOf(backup.getExpLevel())));
-            lore.add("");
-            lore.add(i18n("backup.gui.click_restore"));
-            lore.add(i18n("backup.gui.click_preview"));
-            lore.add(i18n("backup.gui.click_delete"));
-            
-            meta.setLore(lore);
+            BackupLoreRenderer renderer = BackupLoreRenderer.get(plugin);
+            meta.setDisplayName(renderer.displayName(backup));
+            meta.setLore(renderer.lore(backup));
             item.setItemMeta(meta);
         }
         
@@ -110,68 +155,57 @@ public class BackupGUI implements InventoryHolder {
     
     /**
      * Add navigation row with cross-version compatible materials.
+     * Static buttons come prebuilt from {@link GuiItems}; only the page indicator is per-instance.
      * <p>
      * 添加导航行（使用跨版本兼容材料）。
+     * 静态按钮来自 {@link GuiItems} 预构建物品；只有页码指示器按实例生成。
      */
-    private void addNavigationRow() {
+    private void addNavigationRow(ItemStack[] layout) {
         int totalPages = (int) Math.ceil((double) backups.size() / ITEMS_PER_PAGE);
         if (totalPages == 0) totalPages = 1;
         
         // Fill bottom row with gray glass - using XVersionUtils for cross-version compatibility
-        ItemStack filler = XVersionUtils.getColoredPlaneGlass(Colors.GRAY);
-        setFillerName(filler, " ");
+        ItemStack filler = GuiItems.pane(plugin, Colors.GRAY, null);
         for (int i = 45; i < 54; i++) {
-            inventory.setItem(i, filler);
+            layout[i] = filler;
         }
         
         // Previous page
         if (currentPage > 0) {
-            ItemStack prevBtn = XVersionUtils.getColoredPlaneGlass(Colors.LIME);
-            setFillerName(prevBtn, i18n("backup.gui.previous_page"));
-            inventory.setItem(45, prevBtn);
+            layout[45] = GuiItems.pane(plugin, Colors.LIME, "backup.gui.previous_page");
         }
         
         // Page indicator
-        ItemStack pageIndicator = new ItemStack(Material.BOOK);
-        ItemMeta pageMeta = pageIndicator.getItemMeta();
-        if (pageMeta != null) {
-            pageMeta.setDisplayName(i18n("backup.gui.page_indicator")
-                .replace("{CURRENT}", String.valueOf(currentPage + 1))
-                .replace("{TOTAL}", String.valueOf(totalPages)));
-            pageIndicator.setItemMeta(pageMeta);
-        }
-        inventory.setItem(49, pageIndicator);
+        layout[49] = getPageIndicator(currentPage + 1, totalPages);
         
         // Next page
         if (currentPage < totalPages - 1) {
-            ItemStack nextBtn = XVersionUtils.getColoredPlaneGlass(Colors.LIME);
-            setFillerName(nextBtn, i18n("backup.gui.next_page"));
-            inventory.setItem(53, nextBtn);
+            layout[53] = GuiItems.pane(plugin, Colors.LIME, "backup.gui.next_page");
         }
         
         // Create new backup button
-        ItemStack createBtn = new ItemStack(Material.EMERALD);
-        ItemMeta createMeta = createBtn.getItemMeta();
-        if (createMeta != null) {
-            createMeta.setDisplayName(i18n("backup.gui.create_new"));
-            List<String> lore = new ArrayList<>();
-            lore.add(i18n("backup.gui.create_new_lore"));
-            createMeta.setLore(lore);
-            createBtn.setItemMeta(createMeta);
-        }
-        inventory.setItem(47, createBtn);
+        layout[47] = GuiItems.named(plugin, Material.EMERALD,
+            "backup.gui.create_new", "backup.gui.create_new_lore");
     }
     
     /**
-     * Set display name for filler item.
+     * Get the page indicator, rebuilding it only when the page numbers change.
      */
-    private void setFillerName(ItemStack item, String name) {
-        if (item == null) return;
-        ItemMeta meta = item.getItemMeta();
-        if (meta != null) {
-            meta.setDisplayName(name);
-            item.setItemMeta(meta);
+    private ItemStack getPageIndicator(int current, int total) {
+        if (pageIndicator == null || pageIndicatorCurrent != current || pageIndicatorTotal != total) {
+            ItemStack indicator = new ItemStack(Material.BOOK);
+            ItemMeta pageMeta = indicator.getItemMeta();
+            if (pageMeta != null) {
+                pageMeta.setDisplayName(i18n("backup.gui.page_indicator")
+                    .replace("{CURRENT}", String.valueOf(current))
+                    .replace("{TOTAL}", String.valueOf(total)));
+                indicator.setItemMeta(pageMeta);
+            }
+            pageIndicator = indicator;
+            pageIndicatorCurrent = current;
+            pageIndicatorTotal = total;
         }
+        return pageIndicator;
     }
     
     /**
@@ -214,14 +248,21 @@ public class BackupGUI implements InventoryHolder {
     }
     
     /**
-     * Refresh backups list.
+     * Refresh backups list asynchronously; the current page stays visible until the new list arrives.
      * <p>
-     * 刷新备份列表。
+     * 异步刷新备份列表；新列表到达前保持显示当前页。
      */
     public void refresh() {
-        backups.clear();
-        backups.addAll(backupService.getBackups(targetUuid));
-        updateInventory();
+        loadBackups();
+    }
+    
+    /**
+     * Whether the initial backup list is still loading.
+     * <p>
+     * 初始备份列表是否仍在加载。
+     */
+    public boolean isLoading() {
+        return loading;
     }
     
     public Player getViewer() {
@@ -0,0 +1,160 @@
+package com.ultikits.plugins.backup.gui;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+
+import org.bukkit.ChatColor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders backup item names and lore from templates compiled once per language.
+ * Rendered lore is memoized per backup in a bounded LRU, so repeated page renders
+ * and other viewers reuse the same list.
+ * <p>
+ * 使用每种语言只编译一次的模板渲染备份物品名称和描述。
+ * 渲染结果按备份缓存于有界 LRU 中，重复翻页和其他查看者可复用同一列表。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+final class BackupLoreRenderer {
+
+    private static final int MAX_MEMOIZED = 1024;
+    private static volatile BackupLoreRenderer instance;
+
+    private final LoreTemplate reason;
+    private final LoreTemplate world;
+    private final LoreTemplate location;
+    private final LoreTemplate level;
+    private final String clickRestore;
+    private final String clickPreview;
+    private final String clickDelete;
+    private final Map<String, List<String>> memo;
+
+    private BackupLoreRenderer(UltiToolsPlugin plugin) {
+        this.reason = LoreTemplate.compile(plugin.i18n("backup.gui.reason"));
+        this.world = LoreTemplate.compile(plugin.i18n("backup.gui.world"));
+        this.location = LoreTemplate.compile(plugin.i18n("backup.gui.location"));
+        this.level = LoreTemplate.compile(plugin.i18n("backup.gui.level"));
+        this.clickRestore = plugin.i18n("backup.gui.click_restore");
+        this.clickPreview = plugin.i18n("backup.gui.click_preview");
+        this.clickDelete = plugin.i18n("backup.gui.click_delete");
+        this.memo = new LinkedHashMap<String, List<String>>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > MAX_MEMOIZED;
+            }
+        };
+    }
+
+    /**
+     * Get the renderer for the current language, compiling templates on first use.
+     * <p>
+     * 获取当前语言的渲染器，首次使用时编译模板。
+     */
+    static BackupLoreRenderer get(UltiToolsPlugin plugin) {
+        BackupLoreRenderer renderer = instance;
+        if (renderer == null) {
+            synchronized (BackupLoreRenderer.class) {
+                renderer = instance;
+                if (renderer == null) {
+                    renderer = new BackupLoreRenderer(plugin);
+                    instance = renderer;
+                }
+            }
+        }
+        return renderer;
+    }
+
+    /**
+     * Drop compiled templates and memoized lore (language may have changed).
+     * <p>
+     * 清除已编译模板和缓存的描述（语言可能已变更）。
+     */
+    static void reset() {
+        instance = null;
+    }
+
+    /**
+     * Get the display name for a backup item.
+     */
+    String displayName(BackupMetadata backup) {
+        return ChatColor.GOLD + backup.getFormattedTime();
+    }
+
+    /**
+     * Get the lore for a backup, memoized by backup ID and time.
+     * <p>
+     * 获取备份的描述，按备份 ID 和时间缓存。
+     *
+     * @return an unmodifiable lore list
+     */
+    List<String> lore(BackupMetadata backup) {
+        if (backup.getId() == null) {
+            return render(backup);
+        }
+        String key = backup.getId() + '@' + backup.getBackupTime();
+        synchronized (memo) {
+            List<String> cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<String> rendered = render(backup);
+        synchronized (memo) {
+            memo.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    private List<String> render(BackupMetadata backup) {
+        return Collections.unmodifiableList(Arrays.asList(
+            reason.render((name, out) -> out.append("REASON".equals(name) ? backup.getReasonDisplay() : "{" + name + "}")),
+            world.render((name, out) -> out.append("WORLD".equals(name) ? backup.getWorldName() : "{" + name + "}")),
+            location.render((name, out) -> {
+                if ("LOCATION".equals(name)) {
+                    appendOneDecimal(out, backup.getLocationX());
+                    out.append(", ");
+                    appendOneDecimal(out, backup.getLocationY());
+                    out.append(", ");
+                    appendOneDecimal(out, backup.getLocationZ());
+                } else {
+                    out.append('{').append(name).append('}');
+                }
+            }),
+            level.render((name, out) -> {
+                if ("LEVEL".equals(name)) {
+                    out.append(backup.getExpLevel());
+                } else {
+                    out.append('{').append(name).append('}');
+                }
+            }),
+            "",
+            clickRestore,
+            clickPreview,
+            clickDelete
+        ));
+    }
+
+    /**
+     * Append a value rounded to one decimal place without going through {@link String#format}.
+     * <p>
+     * 追加保留一位小数的数值，不经过 {@link String#format}。
+     */
+    static void appendOneDecimal(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        long tenths = Math.round(Math.abs(value) * 10);
+        if (value < 0) {
+            out.append('-');
+        }
+        out.append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
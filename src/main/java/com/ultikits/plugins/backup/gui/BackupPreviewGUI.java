@@ -3,9 +3,9 @@ package com.ultikits.plugins.backup.gui;
 import com.ultikits.plugins.backup.entity.BackupContent;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
 import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.plugins.backup.service.MainThreadWatchdog;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.entities.Colors;
-import com.ultikits.ultitools.utils.XVersionUtils;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -35,6 +35,11 @@ public class BackupPreviewGUI implements InventoryHolder {
     private final BackupContent content;
     private final Inventory inventory;
     private int currentView = 0; // 0: inventory, 1: armor, 2: enderchest
+    private final ItemStack[][] decoded = new ItemStack[DecodedSectionCache.Section.values().length][];
+    private final SlotRenderer renderer = new SlotRenderer(INVENTORY_SIZE);
+    private ItemStack infoPanel;
+
+    private static final int INVENTORY_SIZE = 54;
 
     public BackupPreviewGUI(UltiToolsPlugin plugin, Player viewer, BackupMetadata metadata, BackupContent content) {
         this.plugin = plugin;
@@ -45,7 +50,7 @@ public class BackupPreviewGUI implements InventoryHolder {
         String title = i18n("backup.preview.title")
             .replace("{TIME}", metadata.getFormattedTime());
         
-        this.inventory = Bukkit.createInventory(this, 54, title);
+        this.inventory = Bukkit.createInventory(this, INVENTORY_SIZE, title);
         updateInventory();
     }
     
@@ -55,35 +60,41 @@ public class BackupPreviewGUI implements InventoryHolder {
      * 打开备份的预览 GUI。
      */
     public static void open(UltiToolsPlugin plugin, Player viewer, BackupMetadata metadata, BackupService backupService) {
-        BackupContent content = backupService.loadBackupContent(metadata);
-        if (content == null) {
-            viewer.sendMessage(plugin.i18n("backup.message.load_failed"));
-            return;
-        }
+        try (MainThreadWatchdog.Timing timing = MainThreadWatchdog.start(backupService.getWatchdog(), "gui.preview")) {
+            BackupContent content = backupService.loadBackupContent(metadata);
+            timing.mark("load");
+            if (content == null) {
+                viewer.sendMessage(plugin.i18n("backup.message.load_failed"));
+                return;
+            }
 
-        BackupPreviewGUI gui = new BackupPreviewGUI(plugin, viewer, metadata, content);
-        viewer.openInventory(gui.getInventory());
+            BackupPreviewGUI gui = new BackupPreviewGUI(plugin, viewer, metadata, content);
+            viewer.openInventory(gui.getInventory());
+            timing.mark("render");
+        }
     }
     
     /**
      * Update inventory contents.
+     * Builds the target layout and writes only the slots that changed.
      * <p>
      * 更新物品栏内容。
+     * 构建目标布局，仅写入发生变化的槽位。
      */
     public void updateInventory() {
-        inventory.clear();
+        ItemStack[] layout = new ItemStack[INVENTORY_SIZE];
         
         // Display items based on current view
         ItemStack[] items;
         switch (currentView) {
             case 0: // Inventory
-                items = content.getInventoryItems();
+                items = getSection(DecodedSectionCache.Section.INVENTORY);
                 break;
             case 1: // Armor
-                items = content.getArmorItems();
+                items = getSection(DecodedSectionCache.Section.ARMOR);
                 break;
             case 2: // Enderchest
-                items = content.getEnderchestItems();
+                items = getSection(DecodedSectionCache.Section.ENDERCHEST);
                 break;
             default:
                 items = null;
@@ -91,89 +102,124 @@ public class BackupPreviewGUI implements InventoryHolder {
         
         if (items != null) {
             for (int i = 0; i < Math.min(items.length, 45); i++) {
-                if (items[i] != null) {
-                    inventory.setItem(i, items[i]);
-                }
+                layout[i] = items[i];
             }
         }
         
         // Add offhand item for armor view
         if (currentView == 1) {
-            ItemStack offhand = content.getOffhandItemStack();
-            if (offhand != null) {
-                inventory.setItem(44, offhand);
+            ItemStack[] offhand = getSection(DecodedSectionCache.Section.OFFHAND);
+            if (offhand != null && offhand[0] != null) {
+                layout[44] = offhand[0];
             }
         }
         
         // Navigation row
-        addNavigationRow();
+        addNavigationRow(layout);
+        
+        renderer.render(inventory, layout);
+    }
+    
+    /**
+     * Get a decoded section, checking this session first, then the shared cache,
+     * and decoding from YAML only on a miss in both.
+     * <p>
+     * 获取已解码的分区：先查本会话，再查共享缓存，两者都未命中时才解码 YAML。
+     *
+     * @return the decoded items, or null if the section is empty
+     */
+    private ItemStack[] getSection(DecodedSectionCache.Section section) {
+        ItemStack[] items = decoded[section.ordinal()];
+        if (items == null) {
+            String backupId = metadata.getId();
+            DecodedSectionCache shared = DecodedSectionCache.shared();
+            items = backupId != null ? shared.get(backupId, section) : null;
+            if (items == null) {
+                items = decode(section);
+                if (items == null) {
+                    items = DecodedSectionCache.EMPTY;
+                }
+                if (backupId != null) {
+                    shared.put(backupId, section, items);
+                }
+            }
+            decoded[section.ordinal()] = items;
+        }
+        return items == DecodedSectionCache.EMPTY ? null : items;
+    }
+    
+    /**
+     * Decode a section from the backup content.
+     */
+    private ItemStack[] decode(DecodedSectionCache.Section section) {
+        switch (section) {
+            case INVENTORY:
+                return content.getInventoryItems();
+            case ARMOR:
+                return content.getArmorItems();
+            case ENDERCHEST:
+                return content.getEnderchestItems();
+            case OFFHAND:
+                ItemStack offhand = content.getOffhandItemStack();
+                return offhand != null ? new ItemStack[] {offhand} : null;
+            default:
+                return null;
+        }
     }
     
     /**
      * Add navigation row.
+     * Tabs and buttons come prebuilt from {@link GuiItems}; the info panel is built once per session.
      * <p>
      * 添加导航行。
+     * 标签页和按钮来自 {@link GuiItems} 预构建物品；信息面板每个会话只构建一次。
      */
-    private void addNavigationRow() {
+    private void addNavigationRow(ItemStack[] layout) {
         // Fill bottom row with gray glass
-        ItemStack filler = XVersionUtils.getColoredPlaneGlass(Colors.GRAY);
-        setItemName(filler, " ");
+        ItemStack filler = GuiItems.pane(plugin, Colors.GRAY, null);
         for (int i = 45; i < 54; i++) {
-            inventory.setItem(i, filler);
+            layout[i] = filler;
         }
         
         // Inventory tab (slot 45)
-        ItemStack invTab = currentView == 0 
-            ? XVersionUtils.getColoredPlaneGlass(Colors.LIME)
-            : XVersionUtils.getColoredPlaneGlass(Colors.WHITE);
-        setItemName(invTab, i18n("backup.preview.tab_inventory"));
-        inventory.setItem(45, invTab);
+        layout[45] = GuiItems.pane(plugin, currentView == 0 ? Colors.LIME : Colors.WHITE,
+            "backup.preview.tab_inventory");
         
         // Armor tab (slot 46)
-        ItemStack armorTab = currentView == 1 
-            ? XVersionUtils.getColoredPlaneGlass(Colors.LIME)
-            : XVersionUtils.getColoredPlaneGlass(Colors.WHITE);
-        setItemName(armorTab, i18n("backup.preview.tab_armor"));
-        inventory.setItem(46, armorTab);
+        layout[46] = GuiItems.pane(plugin, currentView == 1 ? Colors.LIME : Colors.WHITE,
+            "backup.preview.tab_armor");
         
         // Enderchest tab (slot 47)
-        ItemStack enderTab = currentView == 2 
-            ? XVersionUtils.getColoredPlaneGlass(Colors.LIME)
-            : XVersionUtils.getColoredPlaneGlass(Colors.WHITE);
-        setItemName(enderTab, i18n("backup.preview.tab_enderchest"));
-        inventory.setItem(47, enderTab);
+        layout[47] = GuiItems.pane(plugin, currentView == 2 ? Colors.LIME : Colors.WHITE,
+            "backup.preview.tab_enderchest");
         
         // Info panel (slot 49)
-        ItemStack info = new ItemStack(Material.PAPER);
-        ItemMeta infoMeta = info.getItemMeta();
-        if (infoMeta != null) {
-            infoMeta.setDisplayName(ChatColor.GOLD + i18n("backup.preview.info"));
-            List<String> lore = new ArrayList<>();
-            lore.add(i18n("backup.preview.info_time").replace("{TIME}", metadata.getFormattedTime()));
-            lore.add(i18n("backup.preview.info_reason").replace("{REASON}", metadata.getReasonDisplay()));
-            lore.add(i18n("backup.preview.info_level").replace("{LEVEL}", String.valueOf(content.getExpLevel())));
-            lore.add(i18n("backup.preview.info_world").replace("{WORLD}", metadata.getWorldName()));
-            infoMeta.setLore(lore);
-            info.setItemMeta(infoMeta);
-        }
-        inventory.setItem(49, info);
+        layout[49] = getInfoPanel();
         
         // Close button (slot 53)
-        ItemStack closeBtn = XVersionUtils.getColoredPlaneGlass(Colors.RED);
-        setItemName(closeBtn, i18n("backup.preview.close"));
-        inventory.setItem(53, closeBtn);
+        layout[53] = GuiItems.pane(plugin, Colors.RED, "backup.preview.close");
     }
     
     /**
-     * Set item display name.
+     * Get the info panel, building it on first use.
      */
-    private void setItemName(ItemStack item, String name) {
-        if (item == null) return;
-        ItemMeta meta = item.getItemMeta();
-        if (meta != null) {
-            meta.setDisplayName(name);
-            item.setItemMeta(meta);
+    private ItemStack getInfoPanel() {
+        if (infoPanel == null) {
+            ItemStack info = new ItemStack(Material.PAPER);
+            ItemMeta infoMeta = info.getItemMeta();
+            if (infoMeta != null) {
+                infoMeta.setDisplayName(ChatColor.GOLD + i18n("backup.preview.info"));
+                List<String> lore = new ArrayList<>();
+                lore.add(i18n("backup.preview.info_time").replace("{TIME}", metadata.getFormattedTime()));
+                lore.add(i18n("backup.preview.info_reason").replace("{REASON}", metadata.getReasonDisplay()));
+                lore.add(i18n("backup.preview.info_level").replace("{LEVEL}", String.valueOf(content.getExpLevel())));
+                lore.add(i18n("backup.preview.info_world").replace("{WORLD}", metadata.getWorldName()));
+                infoMeta.setLore(lore);
+                info.setItemMeta(infoMeta);
+            }
+            infoPanel = info;
         }
+        return infoPanel;
     }
     
     /**
@@ -0,0 +1,77 @@
+package com.ultikits.plugins.backup.gui;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU of decoded backup sections shared across preview sessions,
+ * so several viewers of the same backup pay for one YAML decode per section.
+ * Arrays handed out are shared and must not be mutated; inventories copy
+ * items on {@code setItem}.
+ * <p>
+ * 在预览会话之间共享的已解码备份分区有界 LRU 缓存，
+ * 多个查看同一备份的玩家每个分区只需解码一次 YAML。
+ * 返回的数组为共享实例，不得修改；物品栏在 {@code setItem} 时会复制物品。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+final class DecodedSectionCache {
+
+    /**
+     * Sentinel for sections that decoded to nothing.
+     */
+    static final ItemStack[] EMPTY = new ItemStack[0];
+
+    private static final int MAX_ENTRIES = 256;
+    private static final DecodedSectionCache SHARED = new DecodedSectionCache(MAX_ENTRIES);
+
+    private final Map<String, ItemStack[]> entries;
+
+    DecodedSectionCache(int maxEntries) {
+        this.entries = new LinkedHashMap<String, ItemStack[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ItemStack[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    static DecodedSectionCache shared() {
+        return SHARED;
+    }
+
+    synchronized ItemStack[] get(String backupId, Section section) {
+        return entries.get(key(backupId, section));
+    }
+
+    synchronized void put(String backupId, Section section, ItemStack[] items) {
+        entries.put(key(backupId, section), items);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(String backupId, Section section) {
+        return backupId + ':' + section.name();
+    }
+
+    /**
+     * Decodable backup sections.
+     * <p>
+     * 可解码的备份分区。
+     */
+    enum Section {
+        INVENTORY,
+        ARMOR,
+        OFFHAND,
+        ENDERCHEST
+    }
+}
@@ -98,8 +98,10 @@ public class ForceRestoreConfirmPage extends BaseConfirmationPage {
         Player viewer = (Player) event.getWhoClicked();
         
         // Perform force restore
-        BackupService.RestoreResult result = backupService.forceRestore(target, metadata);
-        
+        backupService.forceRestoreAsync(target, metadata, result -> reportRestore(viewer, result));
+    }
+    
+    private void reportRestore(Player viewer, BackupService.RestoreResult result) {
         switch (result) {
             case SUCCESS:
                 viewer.sendMessage(i18n("backup.message.force_restored"));
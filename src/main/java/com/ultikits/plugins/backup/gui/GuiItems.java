@@ -0,0 +1,93 @@
+package com.ultikits.plugins.backup.gui;
+
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+import com.ultikits.ultitools.entities.Colors;
+import com.ultikits.ultitools.utils.XVersionUtils;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prebuilt static GUI items (fillers, navigation buttons, tabs).
+ * Items are built once per locale and shared by every GUI instance; the cache
+ * is cleared on module reload, which is when the language can change.
+ * Shared items must not be mutated; inventories copy items on {@code setItem}.
+ * <p>
+ * 预构建的静态 GUI 物品（填充物、导航按钮、标签页）。
+ * 每种语言只构建一次并由所有 GUI 实例共享；模块重载（语言可能变更）时清空缓存。
+ * 共享物品不得修改；物品栏在 {@code setItem} 时会复制物品。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public final class GuiItems {
+
+    private static final Map<String, ItemStack> CACHE = new ConcurrentHashMap<>();
+
+    private GuiItems() {}
+
+    /**
+     * Get a colored glass pane with an i18n display name.
+     * <p>
+     * 获取带 i18n 显示名称的彩色玻璃板。
+     *
+     * @param plugin the plugin used for i18n
+     * @param color the pane color
+     * @param nameKey the i18n key for the name, or null for a blank filler
+     * @return the shared item
+     */
+    static ItemStack pane(UltiToolsPlugin plugin, Colors color, String nameKey) {
+        return CACHE.computeIfAbsent("pane:" + color.name() + ":" + nameKey, k -> {
+            ItemStack item = XVersionUtils.getColoredPlaneGlass(color);
+            setMeta(item, nameKey == null ? " " : plugin.i18n(nameKey), null);
+            return item;
+        });
+    }
+
+    /**
+     * Get an item with an i18n display name and optional single-line lore.
+     * <p>
+     * 获取带 i18n 显示名称和可选单行描述的物品。
+     *
+     * @param plugin the plugin used for i18n
+     * @param material the item material
+     * @param nameKey the i18n key for the name
+     * @param loreKey the i18n key for the lore line, or null
+     * @return the shared item
+     */
+    static ItemStack named(UltiToolsPlugin plugin, Material material, String nameKey, String loreKey) {
+        return CACHE.computeIfAbsent("item:" + material.name() + ":" + nameKey + ":" + loreKey, k -> {
+            ItemStack item = new ItemStack(material);
+            setMeta(item, plugin.i18n(nameKey), loreKey == null ? null : plugin.i18n(loreKey));
+            return item;
+        });
+    }
+
+    /**
+     * Drop all prebuilt items and compiled lore templates so they are rebuilt
+     * with the current language.
+     * <p>
+     * 清除所有预构建物品和已编译的描述模板，以便使用当前语言重新构建。
+     */
+    public static void clear() {
+        CACHE.clear();
+        BackupLoreRenderer.reset();
+    }
+
+    private static void setMeta(ItemStack item, String name, String loreLine) {
+        if (item == null) return;
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            if (loreLine != null) {
+                meta.setLore(Collections.singletonList(loreLine));
+            }
+            item.setItemMeta(meta);
+        }
+    }
+}
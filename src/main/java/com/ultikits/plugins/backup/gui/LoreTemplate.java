@@ -0,0 +1,95 @@
+package com.ultikits.plugins.backup.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled {@code {PLACEHOLDER}} template.
+ * The pattern is split once into literal and placeholder segments so rendering
+ * is a single pass into a {@link StringBuilder} instead of chained
+ * {@link String#replace} calls.
+ * <p>
+ * 预编译的 {@code {占位符}} 模板。
+ * 模板只拆分一次为字面量和占位符片段，渲染时一次写入 {@link StringBuilder}，
+ * 无需链式调用 {@link String#replace}。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+final class LoreTemplate {
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private LoreTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile a template. Text in braces is treated as a placeholder name;
+     * an unmatched brace is kept as literal text.
+     * <p>
+     * 编译模板。花括号内的文本视为占位符名称；未配对的花括号保留为字面量。
+     *
+     * @param pattern the template text
+     * @return the compiled template
+     */
+    static LoreTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int close = c == '{' ? pattern.indexOf('}', i + 1) : -1;
+            if (close > i + 1) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(pattern.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new LoreTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * Render the template, letting the resolver append each placeholder value.
+     * <p>
+     * 渲染模板，由解析器追加每个占位符的值。
+     *
+     * @param resolver appends the value for a placeholder name
+     * @return the rendered text
+     */
+    String render(Resolver resolver) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        StringBuilder sb = new StringBuilder(literalLength + 16 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(literals[i]);
+            resolver.append(placeholders[i], sb);
+        }
+        sb.append(literals[placeholders.length]);
+        return sb.toString();
+    }
+
+    /**
+     * Appends placeholder values.
+     * <p>
+     * 追加占位符值。
+     */
+    interface Resolver {
+        void append(String placeholder, StringBuilder out);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ultikits.plugins.backup.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * Diff-based inventory renderer.
+ * Remembers the last layout written to an inventory and only writes slots whose
+ * item instance changed, so page switches and refreshes send slot updates instead
+ * of a full window rebuild. Callers reuse item instances for unchanged content;
+ * comparing by identity keeps the diff free of ItemMeta comparisons.
+ * <p>
+ * 基于差异的物品栏渲染器。
+ * 记录上次写入物品栏的布局，仅写入物品实例发生变化的槽位，
+ * 翻页和刷新时只发送槽位更新而非整个窗口重建。
+ * 调用方对未变化的内容复用物品实例；按引用比较可避免 ItemMeta 比较开销。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+final class SlotRenderer {
+
+    private final ItemStack[] rendered;
+
+    SlotRenderer(int size) {
+        this.rendered = new ItemStack[size];
+    }
+
+    /**
+     * Apply a target layout, writing only changed slots.
+     * <p>
+     * 应用目标布局，仅写入发生变化的槽位。
+     *
+     * @param inventory the inventory to update
+     * @param layout the target items, one per slot (null for empty)
+     * @return the number of slots written
+     */
+    int render(Inventory inventory, ItemStack[] layout) {
+        int writes = 0;
+        for (int slot = 0; slot < rendered.length; slot++) {
+            ItemStack target = slot < layout.length ? layout[slot] : null;
+            ItemStack current = rendered[slot];
+            if (target == current) {
+                continue;
+            }
+            inventory.setItem(slot, target);
+            rendered[slot] = target;
+            writes++;
+        }
+        return writes;
+    }
+
+    /**
+     * Forget the remembered layout so the next render writes every slot.
+     * <p>
+     * 清除记录的布局，下一次渲染将写入所有槽位。
+     */
+    void invalidate() {
+        Arrays.fill(rendered, null);
+    }
+}
@@ -5,6 +5,7 @@ import com.ultikits.plugins.backup.gui.BackupGUI;
 import com.ultikits.plugins.backup.gui.BackupPreviewGUI;
 import com.ultikits.plugins.backup.gui.ForceRestoreConfirmPage;
 import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.plugins.backup.service.MainThreadWatchdog;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.EventListener;
@@ -44,6 +45,17 @@ public class BackupListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerDeath(PlayerDeathEvent event) {
+        try (MainThreadWatchdog.Timing ignored = MainThreadWatchdog.start(backupService.getWatchdog(), "listener.death")) {
+            handlePlayerDeath(event);
+        }
+    }
+    
+    /**
+     * Create a death backup if enabled.
+     * <p>
+     * 如果启用则创建死亡备份。
+     */
+    private void handlePlayerDeath(PlayerDeathEvent event) {
         Player player = event.getEntity();
         
         if (!backupService.getConfig().isBackupOnDeath()) {
@@ -54,8 +66,8 @@ public class BackupListener implements Listener {
             return;
         }
         
-        // Create backup before death drops
-        backupService.createBackup(player, "DEATH");
+        // Capture before death drops; a quit right after merges into this backup
+        backupService.submitBackup(player, "DEATH");
     }
     
     /**
@@ -65,6 +77,17 @@ public class BackupListener implements Listener {
      */
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        try (MainThreadWatchdog.Timing ignored = MainThreadWatchdog.start(backupService.getWatchdog(), "listener.quit")) {
+            handlePlayerQuit(event);
+        }
+    }
+    
+    /**
+     * Create a quit backup if enabled.
+     * <p>
+     * 如果启用则创建退出备份。
+     */
+    private void handlePlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         
         if (!backupService.getConfig().isBackupOnQuit()) {
@@ -75,7 +98,8 @@ public class BackupListener implements Listener {
             return;
         }
         
-        backupService.createBackup(player, "QUIT");
+        // Capture now, write off the main thread
+        backupService.backupOnQuit(player);
     }
     
     /**
@@ -85,10 +109,22 @@ public class BackupListener implements Listener {
      */
     @EventHandler
     public void onBackupGUIClick(InventoryClickEvent event) {
+        // Clicks in other inventories are not this module's cost
         if (!(event.getInventory().getHolder() instanceof BackupGUI)) {
             return;
         }
         
+        try (MainThreadWatchdog.Timing ignored = MainThreadWatchdog.start(backupService.getWatchdog(), "listener.gui_click")) {
+            handleBackupGUIClick(event);
+        }
+    }
+    
+    /**
+     * Dispatch a click in a BackupGUI.
+     * <p>
+     * 分发备份 GUI 中的点击。
+     */
+    private void handleBackupGUIClick(InventoryClickEvent event) {
         event.setCancelled(true);
         
         BackupGUI gui = (BackupGUI) event.getInventory().getHolder();
@@ -156,6 +192,17 @@ public class BackupListener implements Listener {
             return;
         }
         
+        try (MainThreadWatchdog.Timing ignored = MainThreadWatchdog.start(backupService.getWatchdog(), "listener.preview_click")) {
+            handlePreviewGUIClick(event);
+        }
+    }
+    
+    /**
+     * Dispatch a click in a BackupPreviewGUI.
+     * <p>
+     * 分发备份预览 GUI 中的点击。
+     */
+    private void handlePreviewGUIClick(InventoryClickEvent event) {
         event.setCancelled(true);
         
         BackupPreviewGUI gui = (BackupPreviewGUI) event.getInventory().getHolder();
@@ -180,8 +227,16 @@ public class BackupListener implements Listener {
             return;
         }
         
-        BackupService.RestoreResult result = backupService.restoreBackup(target, backup);
-        
+        backupService.restoreBackupAsync(target, backup, result -> reportRestore(sender, target, backup, result));
+    }
+    
+    /**
+     * Report a restore result, offering a force restore when the checksum failed.
+     * <p>
+     * 报告恢复结果，校验和失败时提供强制恢复。
+     */
+    private void reportRestore(Player sender, Player target, BackupMetadata backup,
+            BackupService.RestoreResult result) {
         switch (result) {
             case SUCCESS:
                 sender.sendMessage(i18n("backup.message.restored"));
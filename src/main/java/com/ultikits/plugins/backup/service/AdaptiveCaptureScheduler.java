@@ -0,0 +1,224 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sizes the per-tick capture budget of mass backups from the measured tick time.
+ * Each batch samples the interval between its own ticks (never below 50 ms, so it reads
+ * as MSPT once the server falls behind). While the smoothed value is above the threshold,
+ * AUTO rounds capture nobody and wait, up to a maximum deferral measured on the clock
+ * (lagging ticks run longer than 50 ms, so counting them would overshoot); other batches halve their
+ * budget every tick down to one player. Once headroom returns the budget grows back by one per tick.
+ * <p>
+ * 根据测得的刻耗时调整批量备份每刻的捕获数量。
+ * 每个批次采样自身相邻两刻的间隔（不低于 50 毫秒，因此服务器落后时即等同于 MSPT）。
+ * 平滑值高于阈值时，AUTO 轮次暂停捕获并等待（不超过按时钟计算的最长推迟时间；卡顿时每刻超过 50 毫秒，按刻计数会超出该时间）；其他批次每刻将预算减半，最低每刻一名玩家。
+ * 恢复余量后预算每刻增加一。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class AdaptiveCaptureScheduler {
+
+    private static final double SMOOTHING = 0.2;
+    /**
+     * One tick at 20 TPS; a batch polled more often than that is not measuring server lag.
+     */
+    private static final double MIN_TICK_MILLIS = 50.0;
+
+    private final int maxPerTick;
+    private final double thresholdMillis;
+    private final long maxDeferNanos;
+    private final LongSupplier clock;
+
+    private final AtomicLong sampledTicks = new AtomicLong();
+    private final AtomicLong throttledTicks = new AtomicLong();
+    private final AtomicLong deferredTicks = new AtomicLong();
+    private final AtomicLong deferredRounds = new AtomicLong();
+    private final AtomicLong forcedRounds = new AtomicLong();
+    private volatile double averageTickMillis;
+    private volatile int lastBudget;
+
+    AdaptiveCaptureScheduler(int maxPerTick, int thresholdMillis, int maxDeferSeconds) {
+        this(maxPerTick, thresholdMillis, maxDeferSeconds, System::nanoTime);
+    }
+
+    AdaptiveCaptureScheduler(int maxPerTick, int thresholdMillis, int maxDeferSeconds, LongSupplier clock) {
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.thresholdMillis = thresholdMillis;
+        this.maxDeferNanos = TimeUnit.SECONDS.toNanos(Math.max(0, maxDeferSeconds));
+        this.clock = clock;
+        this.lastBudget = this.maxPerTick;
+    }
+
+    /**
+     * Start budgeting a new mass backup run.
+     * <p>
+     * 为新的批量备份开始计算预算。
+     *
+     * @param deferrable whether the run may pause entirely under load (AUTO rounds)
+     * @return the per-run budget, to be polled once per tick on the main thread
+     */
+    Run start(boolean deferrable) {
+        return new Run(deferrable);
+    }
+
+    /**
+     * Whether tick-time adaptation is enabled.
+     * <p>
+     * 是否启用按刻耗时自适应。
+     */
+    boolean isEnabled() {
+        return thresholdMillis > 0;
+    }
+
+    /**
+     * Get the smoothed tick time seen by the last batch, in milliseconds.
+     * <p>
+     * 获取上一批次观测到的平滑刻耗时（毫秒）。
+     */
+    double getAverageTickMillis() {
+        return averageTickMillis;
+    }
+
+    /**
+     * Get the capture budget of the most recent tick.
+     * <p>
+     * 获取最近一刻的捕获预算。
+     */
+    int getLastBudget() {
+        return lastBudget;
+    }
+
+    /**
+     * Get how many ticks mass backups ran.
+     * <p>
+     * 获取批量备份运行的刻数。
+     */
+    long getSampledTicks() {
+        return sampledTicks.get();
+    }
+
+    /**
+     * Get how many ticks ran with a budget below the configured maximum.
+     * <p>
+     * 获取预算低于配置上限的刻数。
+     */
+    long getThrottledTicks() {
+        return throttledTicks.get();
+    }
+
+    /**
+     * Get how many ticks an AUTO round captured nobody because the server was lagging.
+     * <p>
+     * 获取 AUTO 轮次因服务器卡顿而未捕获任何玩家的刻数。
+     */
+    long getDeferredTicks() {
+        return deferredTicks.get();
+    }
+
+    /**
+     * Get how many AUTO rounds were deferred at least once.
+     * <p>
+     * 获取至少被推迟过一次的 AUTO 轮次数。
+     */
+    long getDeferredRounds() {
+        return deferredRounds.get();
+    }
+
+    /**
+     * Get how many AUTO rounds hit the maximum deferral and resumed while still lagging.
+     * <p>
+     * 获取达到最长推迟时间后在卡顿中继续执行的 AUTO 轮次数。
+     */
+    long getForcedRounds() {
+        return forcedRounds.get();
+    }
+
+    /**
+     * Budget state of one mass backup run.
+     * <p>
+     * 单次批量备份的预算状态。
+     */
+    final class Run {
+        private final boolean deferrable;
+        private boolean started;
+        private long lastTick;
+        private double average;
+        private int budget = maxPerTick;
+        private long deferred;
+        private long deferredSince;
+        private boolean forced;
+
+        private Run(boolean deferrable) {
+            this.deferrable = deferrable;
+        }
+
+        /**
+         * Record a tick and get how many players may be captured in it.
+         * <p>
+         * 记录一刻并返回本刻可捕获的玩家数量。
+         *
+         * @return the capture budget for this tick, 0 to skip it
+         */
+        int next() {
+            long now = clock.getAsLong();
+            boolean first = !started;
+            if (!first) {
+                double millis = Math.max(MIN_TICK_MILLIS,
+                    (double) (now - lastTick) / TimeUnit.MILLISECONDS.toNanos(1));
+                average = average == 0 ? millis : average + SMOOTHING * (millis - average);
+                averageTickMillis = average;
+            }
+            started = true;
+            lastTick = now;
+            sampledTicks.incrementAndGet();
+
+            if (first && deferrable && isEnabled()) {
+                // Measure one tick before an AUTO round commits to capturing anyone
+                lastBudget = 0;
+                return 0;
+            }
+            if (!isEnabled() || average <= thresholdMillis) {
+                budget = Math.min(maxPerTick, budget + 1);
+            } else {
+                budget = deferrable ? 0 : Math.max(1, budget / 2);
+            }
+
+            int allowed = budget;
+            if (allowed == 0) {
+                if (deferrable && deferred == 0) {
+                    deferredSince = now;
+                }
+                if (deferrable && now - deferredSince < maxDeferNanos) {
+                    if (deferred++ == 0) {
+                        deferredRounds.incrementAndGet();
+                    }
+                    deferredTicks.incrementAndGet();
+                } else {
+                    if (deferrable && !forced) {
+                        forced = true;
+                        forcedRounds.incrementAndGet();
+                    }
+                    allowed = 1;
+                }
+            }
+            if (allowed < maxPerTick) {
+                throttledTicks.incrementAndGet();
+            }
+            lastBudget = allowed;
+            return allowed;
+        }
+
+        /**
+         * Get how many ticks this run has been deferred.
+         * <p>
+         * 获取本次运行已被推迟的刻数。
+         */
+        long getDeferredTicks() {
+            return deferred;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ultikits.plugins.backup.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a mass backup run (saveall / auto backup).
+ * <p>
+ * 批量备份（saveall / 自动备份）的执行结果。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class BackupBatchReport {
+
+    /**
+     * Number of players selected for backup.
+     */
+    private final int total;
+
+    /**
+     * Number of backups persisted successfully.
+     */
+    private final int succeeded;
+
+    /**
+     * Wall-clock time from the first capture to the last write, in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Get the number of failed backups.
+     * <p>
+     * 获取失败的备份数量。
+     */
+    public int getFailed() {
+        return total - succeeded;
+    }
+
+    /**
+     * Get throughput in successful backups per second.
+     * <p>
+     * 获取吞吐量（每秒成功备份数）。
+     */
+    public double getThroughput() {
+        if (elapsedMillis <= 0) {
+            return succeeded;
+        }
+        return succeeded * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput counters for backup operations and for the phases of a backup
+ * write (serialization, checksum, disk write, metadata insert, retention cleanup).
+ * Callers chain phases by passing the previous timestamp:
+ * {@code t = metrics.phase(Phase.SERIALIZE, t);}.
+ * <p>
+ * 备份操作及备份写入各阶段（序列化、校验和、磁盘写入、元数据插入、保留清理）的延迟与吞吐计数。
+ * 调用方通过传入上一个时间戳串联各阶段：{@code t = metrics.phase(Phase.SERIALIZE, t);}。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class BackupMetrics {
+
+    /**
+     * Backup operations with their own latency and failure counts.
+     * <p>
+     * 单独统计延迟与失败次数的备份操作。
+     */
+    public enum Operation {
+        CREATE,
+        VERIFY,
+        LOAD,
+        RESTORE
+    }
+
+    /**
+     * Phases of writing one backup.
+     * <p>
+     * 写入一次备份的各个阶段。
+     */
+    public enum Phase {
+        SERIALIZE,
+        CHECKSUM,
+        WRITE,
+        INSERT,
+        CLEANUP
+    }
+
+    private final long startedNanos = System.nanoTime();
+    private final Map<Operation, LatencyHistogram> operations = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public BackupMetrics() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new LatencyHistogram());
+            failures.put(operation, new LongAdder());
+        }
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Record a phase that started at {@code startNanos} and ends now.
+     * <p>
+     * 记录一个从 {@code startNanos} 开始、到现在结束的阶段。
+     *
+     * @param phase the phase
+     * @param startNanos the {@link System#nanoTime()} at which it started
+     * @return the current {@link System#nanoTime()}, to start the next phase
+     */
+    public long phase(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phases.get(phase).record(now - startNanos);
+        return now;
+    }
+
+    /**
+     * Record a finished operation.
+     * <p>
+     * 记录一次已完成的操作。
+     *
+     * @param operation the operation
+     * @param startNanos the {@link System#nanoTime()} at which it started
+     * @param success whether it succeeded
+     */
+    public void operation(Operation operation, long startNanos, boolean success) {
+        operations.get(operation).record(System.nanoTime() - startNanos);
+        if (!success) {
+            failures.get(operation).increment();
+        }
+    }
+
+    /**
+     * Count bytes written to backup files.
+     * <p>
+     * 统计写入备份文件的字节数。
+     *
+     * @param bytes the bytes written
+     */
+    public void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Get the latency histogram of an operation.
+     * <p>
+     * 获取某操作的延迟直方图。
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return operations.get(operation);
+    }
+
+    /**
+     * Get the latency histogram of a backup write phase.
+     * <p>
+     * 获取备份写入某阶段的延迟直方图。
+     */
+    public LatencyHistogram getLatency(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Get how many times an operation failed.
+     * <p>
+     * 获取某操作失败的次数。
+     */
+    public long getFailures(Operation operation) {
+        return failures.get(operation).sum();
+    }
+
+    /**
+     * Get the bytes written to backup files.
+     * <p>
+     * 获取写入备份文件的字节数。
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Get the seconds since these metrics started.
+     * <p>
+     * 获取指标开始统计以来的秒数。
+     */
+    public long getUptimeSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedNanos);
+    }
+
+    /**
+     * Get the average rate of an operation since start, per second.
+     * <p>
+     * 获取自启动以来某操作的平均速率（每秒）。
+     */
+    public double getThroughput(Operation operation) {
+        long seconds = Math.max(1L, getUptimeSeconds());
+        return (double) getLatency(operation).getCount() / seconds;
+    }
+
+    /**
+     * Add every counter to a flat map under dotted lowercase keys,
+     * e.g. {@code operations.create.p99_ms} and {@code phases.write.count}.
+     * <p>
+     * 以小写点分键将所有计数写入扁平映射，例如 {@code operations.create.p99_ms}、{@code phases.write.count}。
+     *
+     * @param out the map to fill
+     */
+    public void writeTo(Map<String, Number> out) {
+        out.put("uptime_seconds", getUptimeSeconds());
+        out.put("bytes_written", getBytesWritten());
+        for (Operation operation : Operation.values()) {
+            String prefix = "operations." + operation.name().toLowerCase(Locale.ROOT) + ".";
+            writeHistogram(out, prefix, getLatency(operation));
+            out.put(prefix + "failures", getFailures(operation));
+            out.put(prefix + "per_second", getThroughput(operation));
+        }
+        for (Phase phase : Phase.values()) {
+            writeHistogram(out, "phases." + phase.name().toLowerCase(Locale.ROOT) + ".", getLatency(phase));
+        }
+    }
+
+    private static void writeHistogram(Map<String, Number> out, String prefix, LatencyHistogram histogram) {
+        out.put(prefix + "count", histogram.getCount());
+        out.put(prefix + "mean_ms", histogram.getMeanMillis());
+        out.put(prefix + "p50_ms", histogram.getPercentileMillis(0.50));
+        out.put(prefix + "p99_ms", histogram.getPercentileMillis(0.99));
+        out.put(prefix + "max_ms", histogram.getMaxMillis());
+    }
+}
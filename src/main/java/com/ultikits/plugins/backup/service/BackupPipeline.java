@@ -0,0 +1,312 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Asynchronous persistence stage for captured snapshots.
+ * Serialization, hashing and disk writes fan out across a fixed set of worker threads;
+ * capture stays on the main thread in {@link BackupService}.
+ * Queued snapshots are served by reason priority, then age. When the queue is over
+ * capacity the youngest lowest-priority AUTO entry is shed and handed to the discard callback.
+ * Other reasons are never shed: with no AUTO entry to drop they are admitted over capacity,
+ * so death and quit backups always land. Work whose I/O lane is out of budget is held in the queue
+ * rather than taken by a worker, so workers never sleep on background debt while
+ * player-facing work waits.
+ * <p>
+ * 已捕获快照的异步持久化阶段。
+ * 序列化、哈希和磁盘写入分发到固定数量的工作线程；捕获仍在 {@link BackupService} 的主线程中进行。
+ * 排队的快照按原因优先级、再按等待时间处理。队列超出容量时丢弃最新的最低优先级 AUTO 条目，
+ * 并交给丢弃回调。其他原因的条目永不丢弃：没有可丢弃的 AUTO 条目时允许超出容量入队，
+ * 确保死亡和退出备份一定写入。I/O 通道预算不足的任务留在队列中而不被工作线程取走，
+ * 因此工作线程不会因后台欠额休眠而让面向玩家的任务等待。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class BackupPipeline {
+
+    private final Function<InventorySnapshot, BackupMetadata> persister;
+    private final Consumer<InventorySnapshot> discarded;
+    private final IntToLongFunction admission;
+    private final int capacity;
+    private final TreeSet<Task> queue = new TreeSet<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong deferredNanos = new AtomicLong();
+
+    private long sequence;
+    private boolean closed;
+
+    BackupPipeline(int workerThreads, Function<InventorySnapshot, BackupMetadata> persister) {
+        this(workerThreads, Integer.MAX_VALUE, persister);
+    }
+
+    BackupPipeline(int workerThreads, int capacity, Function<InventorySnapshot, BackupMetadata> persister) {
+        this(workerThreads, capacity, persister, snapshot -> { });
+    }
+
+    BackupPipeline(int workerThreads, int capacity, Function<InventorySnapshot, BackupMetadata> persister,
+            Consumer<InventorySnapshot> discarded) {
+        this(workerThreads, capacity, persister, discarded, priority -> 0L);
+    }
+
+    /**
+     * @param admission nanoseconds until work of a {@link ReasonPriority} may start, 0 if now
+     */
+    BackupPipeline(int workerThreads, int capacity, Function<InventorySnapshot, BackupMetadata> persister,
+            Consumer<InventorySnapshot> discarded, IntToLongFunction admission) {
+        this.persister = persister;
+        this.discarded = discarded;
+        this.admission = admission;
+        this.capacity = Math.max(1, capacity);
+        for (int i = 1; i <= Math.max(1, workerThreads); i++) {
+            Thread thread = new Thread(this::workLoop, "UltiBackup-Worker-" + i);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue a snapshot for persistence.
+     * <p>
+     * 将快照加入持久化队列。
+     *
+     * @param snapshot the captured snapshot
+     * @return future completed with the stored metadata, or null if persisting failed or the entry was shed
+     */
+    CompletableFuture<BackupMetadata> submit(InventorySnapshot snapshot) {
+        pending.incrementAndGet();
+        Task task;
+        Task victim = null;
+        synchronized (this) {
+            if (closed) {
+                task = null;
+            } else {
+                task = new Task(snapshot, ReasonPriority.of(reasonOf(snapshot)), ++sequence);
+                queue.add(task);
+                if (queue.size() > capacity) {
+                    Task last = queue.last();
+                    if (last.priority == ReasonPriority.LOWEST) {
+                        queue.remove(last);
+                        victim = last;
+                    }
+                }
+                notify();
+            }
+        }
+
+        if (task == null) {
+            // Workers already drained for shutdown; write on the caller rather than drop the backup
+            CompletableFuture<BackupMetadata> future = new CompletableFuture<>();
+            run(snapshot, future);
+            return future;
+        }
+        if (victim != null) {
+            shed.incrementAndGet();
+            pending.decrementAndGet();
+            discarded.accept(victim.snapshot);
+            victim.future.complete(null);
+        }
+        return task.future;
+    }
+
+    /**
+     * Get the number of snapshots accepted but not yet persisted.
+     * <p>
+     * 获取已接收但尚未持久化的快照数量。
+     */
+    int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Get the number of snapshots waiting for a worker.
+     * <p>
+     * 获取等待工作线程处理的快照数量。
+     */
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Get how many AUTO snapshots were dropped because the queue was full.
+     * <p>
+     * 获取因队列已满而丢弃的 AUTO 快照数量。
+     */
+    long getShedCount() {
+        return shed.get();
+    }
+
+    /**
+     * Get how many snapshots were held in the queue because their I/O lane was out of budget.
+     * <p>
+     * 获取因 I/O 通道预算不足而在队列中暂缓的快照数量。
+     */
+    long getDeferredCount() {
+        return deferred.get();
+    }
+
+    /**
+     * Get the total time snapshots were held for I/O budget, in milliseconds.
+     * <p>
+     * 获取快照因 I/O 预算而暂缓的总时间（毫秒）。
+     */
+    long getDeferredMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deferredNanos.get());
+    }
+
+    /**
+     * Stop accepting work; queued snapshots still run to completion.
+     * <p>
+     * 停止接收新任务；已排队的快照仍会执行完毕。
+     */
+    synchronized void shutdown() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Stop accepting work and wait for queued snapshots to be written.
+     * <p>
+     * 停止接收新任务并等待已排队的快照写入完成。
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the time unit
+     * @return true if every queued snapshot finished, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        shutdown();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            worker.join(remainingMillis);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void workLoop() {
+        while (true) {
+            Task task;
+            synchronized (this) {
+                try {
+                    task = take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (task == null) {
+                // Closed and nothing left
+                return;
+            }
+            run(task.snapshot, task.future);
+        }
+    }
+
+    /**
+     * Remove the first queued task whose lane has I/O budget, waiting while none has.
+     * Once closed the backlog is written without waiting for budget. Caller holds the monitor.
+     *
+     * @return the task, or null once closed and empty
+     */
+    private Task take() throws InterruptedException {
+        while (true) {
+            if (queue.isEmpty()) {
+                if (closed) {
+                    return null;
+                }
+                wait();
+                continue;
+            }
+            long now = System.nanoTime();
+            long nextDue = Long.MAX_VALUE;
+            int checkedPriority = Integer.MIN_VALUE;
+            long delay = 0;
+            for (Iterator<Task> it = queue.iterator(); it.hasNext(); ) {
+                Task task = it.next();
+                if (task.priority != checkedPriority) {
+                    // Tasks are sorted by priority, so each one is checked once per pass
+                    checkedPriority = task.priority;
+                    delay = closed ? 0L : admission.applyAsLong(task.priority);
+                }
+                if (delay <= 0) {
+                    it.remove();
+                    if (task.held) {
+                        deferred.incrementAndGet();
+                        deferredNanos.addAndGet(now - task.deferredSince);
+                    }
+                    return task;
+                }
+                if (!task.held) {
+                    task.held = true;
+                    task.deferredSince = now;
+                }
+                nextDue = Math.min(nextDue, delay);
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, nextDue);
+        }
+    }
+
+    private void run(InventorySnapshot snapshot, CompletableFuture<BackupMetadata> future) {
+        try {
+            future.complete(persister.apply(snapshot));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    private static String reasonOf(InventorySnapshot snapshot) {
+        return snapshot.getMetadata() != null ? snapshot.getMetadata().getBackupReason() : null;
+    }
+
+    /**
+     * Queue entry ordered by priority (highest first), then by arrival (oldest first).
+     */
+    private static final class Task implements Comparable<Task> {
+        private final InventorySnapshot snapshot;
+        private final int priority;
+        private final long sequence;
+        private final CompletableFuture<BackupMetadata> future = new CompletableFuture<>();
+        private boolean held;
+        private long deferredSince;
+
+        private Task(InventorySnapshot snapshot, int priority, long sequence) {
+            this.snapshot = snapshot;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Token-bucket admission in front of the persistence queue, per player and server-wide,
+ * in backups and bytes per second. A player over the limit is not dropped: their
+ * snapshot is held and replaced by later ones (unless of lower {@link ReasonPriority}),
+ * then released once tokens are available again; the snapshot that lost is handed to the
+ * discard callback. Bytes are charged after the file is
+ * written, so a large backup delays the player's next one instead of being refused.
+ * <p>
+ * 位于持久化队列之前的令牌桶准入控制，按玩家和全服分别限制每秒备份数与字节数。
+ * 超出限制的玩家不会被丢弃：其快照被暂存，并被之后的快照替换（除非原因优先级更低），
+ * 待令牌恢复后再放行；被淘汰的快照交给丢弃回调。字节数在文件写入后扣除，因此较大的备份会推迟该玩家的下一次备份，而不是被拒绝。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class BackupRateLimiter {
+
+    private static final long RETRY_INTERVAL_MS = 100L;
+    private static final int PRUNE_THRESHOLD = 256;
+
+    private final Limits limits;
+    private final LongSupplier clock;
+    private final Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream;
+    private final ToLongFunction<BackupMetadata> sizeOf;
+    private final Consumer<InventorySnapshot> discarded;
+    private final TokenBucket globalCount;
+    private final TokenBucket globalBytes;
+    private final Map<String, PlayerBuckets> players = new HashMap<>();
+    private final Map<String, Held> held = new LinkedHashMap<>();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+
+    private ScheduledExecutorService retry;
+    private boolean closed;
+
+    BackupRateLimiter(Limits limits, Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream,
+            ToLongFunction<BackupMetadata> sizeOf) {
+        this(limits, downstream, sizeOf, snapshot -> { });
+    }
+
+    BackupRateLimiter(Limits limits, Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream,
+            ToLongFunction<BackupMetadata> sizeOf, Consumer<InventorySnapshot> discarded) {
+        this(limits, System::nanoTime, downstream, sizeOf, discarded);
+    }
+
+    BackupRateLimiter(Limits limits, LongSupplier clock,
+            Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream,
+            ToLongFunction<BackupMetadata> sizeOf) {
+        this(limits, clock, downstream, sizeOf, snapshot -> { });
+    }
+
+    BackupRateLimiter(Limits limits, LongSupplier clock,
+            Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream,
+            ToLongFunction<BackupMetadata> sizeOf, Consumer<InventorySnapshot> discarded) {
+        this.limits = limits;
+        this.clock = clock;
+        this.downstream = downstream;
+        this.sizeOf = sizeOf;
+        this.discarded = discarded;
+        this.globalCount = bucket(limits.getGlobalBackupsPerSecond(), limits.getGlobalBackupsPerSecond());
+        this.globalBytes = bucket(limits.getGlobalBytesPerSecond(), limits.getGlobalBytesPerSecond());
+    }
+
+    /**
+     * Submit a snapshot, holding it if its player or the server is over the limit.
+     * <p>
+     * 提交快照；若该玩家或全服超出限制则暂存。
+     *
+     * @param snapshot the snapshot
+     * @return future completed with the metadata of the write this snapshot ended up in
+     */
+    CompletableFuture<BackupMetadata> submit(InventorySnapshot snapshot) {
+        String key = snapshot.getPlayerUuid();
+        Held existing = null;
+        InventorySnapshot dropped = null;
+        synchronized (this) {
+            if (!closed && key != null && limits.isEnabled()) {
+                existing = held.get(key);
+                if (existing != null) {
+                    if (ReasonPriority.of(reasonOf(snapshot)) >= ReasonPriority.of(reasonOf(existing.snapshot))) {
+                        dropped = existing.snapshot;
+                        existing.snapshot = snapshot;
+                    } else {
+                        dropped = snapshot;
+                    }
+                    merged.incrementAndGet();
+                } else if (admitDelay(key) > 0) {
+                    Held entry = new Held(snapshot);
+                    held.put(key, entry);
+                    deferred.incrementAndGet();
+                    startRetry();
+                    return entry.future;
+                }
+            }
+        }
+        if (existing != null) {
+            discarded.accept(dropped);
+            return existing.future;
+        }
+        return dispatch(key, snapshot);
+    }
+
+    /**
+     * Forward every held snapshot whose player now has tokens, oldest first.
+     * <p>
+     * 按暂存顺序放行所有已恢复令牌的玩家的快照。
+     */
+    void release() {
+        List<Held> ready = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Held>> it = held.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Held> entry = it.next();
+                if (admitDelay(entry.getKey()) == 0) {
+                    it.remove();
+                    keys.add(entry.getKey());
+                    ready.add(entry.getValue());
+                }
+            }
+        }
+        for (int i = 0; i < ready.size(); i++) {
+            forward(keys.get(i), ready.get(i));
+        }
+    }
+
+    /**
+     * Stop limiting and forward every held snapshot immediately.
+     * Later submissions go straight to the workers.
+     * <p>
+     * 停止限流并立即放行所有暂存的快照。之后的提交会直接交给工作线程。
+     */
+    void shutdown() {
+        ScheduledExecutorService current;
+        Map<String, Held> remaining;
+        synchronized (this) {
+            closed = true;
+            current = retry;
+            retry = null;
+            remaining = new LinkedHashMap<>(held);
+            held.clear();
+        }
+        if (current != null) {
+            current.shutdownNow();
+        }
+        for (Map.Entry<String, Held> entry : remaining.entrySet()) {
+            forward(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Get how many snapshots were held back because a limit was reached.
+     * <p>
+     * 获取因达到限制而被暂存的快照数量。
+     */
+    long getDeferredCount() {
+        return deferred.get();
+    }
+
+    /**
+     * Get how many submissions replaced or joined an already held snapshot.
+     * <p>
+     * 获取替换或并入已暂存快照的提交次数。
+     */
+    long getMergedCount() {
+        return merged.get();
+    }
+
+    synchronized int getHeldCount() {
+        return held.size();
+    }
+
+    /**
+     * Take one backup token from the player and global buckets if every limit allows it.
+     *
+     * @return 0 if admitted, otherwise nanoseconds until the tightest limit clears
+     */
+    private long admitDelay(String key) {
+        PlayerBuckets buckets = bucketsFor(key);
+        long wait = 0;
+        wait = Math.max(wait, nanosUntil(buckets.count, 1));
+        wait = Math.max(wait, nanosUntil(buckets.bytes, 0));
+        wait = Math.max(wait, nanosUntil(globalCount, 1));
+        wait = Math.max(wait, nanosUntil(globalBytes, 0));
+        if (wait == 0) {
+            charge(buckets.count, 1);
+            charge(globalCount, 1);
+        }
+        return wait;
+    }
+
+    private CompletableFuture<BackupMetadata> dispatch(String key, InventorySnapshot snapshot) {
+        CompletableFuture<BackupMetadata> result = downstream.apply(snapshot);
+        if (key != null && (limits.getPlayerBytesPerSecond() > 0 || globalBytes != null)) {
+            result.thenAccept(metadata -> {
+                if (metadata != null) {
+                    chargeBytes(key, sizeOf.applyAsLong(metadata));
+                }
+            });
+        }
+        return result;
+    }
+
+    private void forward(String key, Held entry) {
+        try {
+            dispatch(key, entry.snapshot).whenComplete((metadata, error) -> {
+                if (error != null) {
+                    entry.future.completeExceptionally(error);
+                } else {
+                    entry.future.complete(metadata);
+                }
+            });
+        } catch (RuntimeException e) {
+            entry.future.completeExceptionally(e);
+        }
+    }
+
+    private synchronized void chargeBytes(String key, long bytes) {
+        charge(bucketsFor(key).bytes, bytes);
+        charge(globalBytes, bytes);
+    }
+
+    private PlayerBuckets bucketsFor(String key) {
+        PlayerBuckets buckets = players.get(key);
+        if (buckets == null) {
+            if (players.size() >= PRUNE_THRESHOLD) {
+                // A full bucket is indistinguishable from a new one
+                players.entrySet().removeIf(entry -> entry.getValue().isIdle() && !held.containsKey(entry.getKey()));
+            }
+            buckets = new PlayerBuckets(
+                bucket(limits.getPlayerBackupsPerSecond(), limits.getPlayerBurst()),
+                bucket(limits.getPlayerBytesPerSecond(), limits.getPlayerBytesPerSecond()));
+            players.put(key, buckets);
+        }
+        return buckets;
+    }
+
+    private TokenBucket bucket(double perSecond, double capacity) {
+        return perSecond > 0 ? new TokenBucket(perSecond, capacity, clock) : null;
+    }
+
+    private synchronized void startRetry() {
+        if (retry == null) {
+            retry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiBackup-RateLimit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            retry.scheduleWithFixedDelay(this::release, RETRY_INTERVAL_MS, RETRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static long nanosUntil(TokenBucket bucket, double amount) {
+        return bucket == null ? 0 : bucket.nanosUntil(amount);
+    }
+
+    private static void charge(TokenBucket bucket, double amount) {
+        if (bucket != null) {
+            bucket.charge(amount);
+        }
+    }
+
+    private static String reasonOf(InventorySnapshot snapshot) {
+        return snapshot.getMetadata() != null ? snapshot.getMetadata().getBackupReason() : null;
+    }
+
+    /**
+     * Rate limits; a rate of 0 disables that limit.
+     * <p>
+     * 速率限制；速率为 0 表示不限制。
+     */
+    @Getter
+    @Builder
+    static final class Limits {
+        private final double playerBackupsPerSecond;
+        private final int playerBurst;
+        private final long playerBytesPerSecond;
+        private final double globalBackupsPerSecond;
+        private final long globalBytesPerSecond;
+
+        boolean isEnabled() {
+            return playerBackupsPerSecond > 0 || playerBytesPerSecond > 0
+                || globalBackupsPerSecond > 0 || globalBytesPerSecond > 0;
+        }
+    }
+
+    private static final class PlayerBuckets {
+        private final TokenBucket count;
+        private final TokenBucket bytes;
+
+        private PlayerBuckets(TokenBucket count, TokenBucket bytes) {
+            this.count = count;
+            this.bytes = bytes;
+        }
+
+        private boolean isIdle() {
+            return (count == null || count.isFull()) && (bytes == null || bytes.isFull());
+        }
+    }
+
+    private static final class Held {
+        private final CompletableFuture<BackupMetadata> future = new CompletableFuture<>();
+        private InventorySnapshot snapshot;
+
+        private Held(InventorySnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
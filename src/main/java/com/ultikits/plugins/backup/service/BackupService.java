@@ -1,8 +1,11 @@
 package com.ultikits.plugins.backup.service;
 
+import com.ultikits.plugins.backup.UltiBackup;
 import com.ultikits.plugins.backup.config.BackupConfig;
+import com.ultikits.plugins.backup.config.FsyncPolicy;
 import com.ultikits.plugins.backup.entity.BackupContent;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.Scheduled;
@@ -10,13 +13,26 @@ import com.ultikits.ultitools.annotations.Service;
 import com.ultikits.ultitools.interfaces.DataOperator;
 
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import com.ultikits.ultitools.annotations.PostConstruct;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service for inventory backup operations.
@@ -45,6 +61,40 @@ public class BackupService {
     private File backupsDirectory;
     private Plugin bukkitPlugin;
 
+    private static final int VERIFICATION_CACHE_SIZE = 1024;
+    private final VerificationCache verificationCache = new VerificationCache(VERIFICATION_CACHE_SIZE);
+    private static final int DELTA_BASE_CACHE_SIZE = 1024;
+    private static final int MAX_DELTA_CHAIN = 256;
+    private final DeltaTracker deltaTracker = new DeltaTracker(DELTA_BASE_CACHE_SIZE);
+    private BackupPipeline pipeline;
+    private SnapshotCoalescer coalescer;
+    private BackupRateLimiter rateLimiter;
+    private AdaptiveCaptureScheduler captureScheduler;
+    private IoThrottle ioThrottle;
+    private MainThreadWatchdog watchdog;
+    private BackupJournal journal;
+    private ExecutorService journalSyncer;
+    private final AtomicBoolean journalSyncQueued = new AtomicBoolean();
+    // Keyed by identity: snapshots carry their journal entry through every stage to the worker
+    private final Map<InventorySnapshot, Journaled> journaled = new ConcurrentHashMap<>();
+    private DurableWriter writer;
+    private MetricsEndpoint metricsEndpoint;
+    private IntegrityScrubber scrubber;
+
+    private static final int LOCK_STRIPES = 64;
+    private final StripedLocks playerLocks = new StripedLocks(LOCK_STRIPES);
+    // Retention runs outside the player lock; this keeps two cleanups of a player from overlapping
+    private final StripedLocks cleanupLocks = new StripedLocks(LOCK_STRIPES);
+
+    private static final long DRAIN_LOG_INTERVAL_SECONDS = 5L;
+    private static final String JOURNAL_FILE = "pending.journal";
+    private static final String METRICS_FILE = "metrics.yml";
+    private static final Pattern REBASED_SUFFIX = Pattern.compile("\\.r(\\d+)$");
+    private final BackupMetrics metrics = new BackupMetrics();
+    private final StorageLedger storage = new StorageLedger();
+    private final Set<UUID> shutdownCaptured = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
     /**
      * Initialize the service.
      * <p>
@@ -60,52 +110,421 @@ public class BackupService {
         if (!backupsDirectory.exists()) {
             backupsDirectory.mkdirs();
         }
+
+        // Totals first, so replayed backups are counted once
+        loadStorageTotals();
+        
+        // Replay backups accepted before a crash but never persisted
+        this.journal = new BackupJournal(new File(backupsDirectory, JOURNAL_FILE));
+        replayJournal();
+
+        // Let the module drain pending writes from unregisterSelf
+        if (plugin instanceof UltiBackup) {
+            ((UltiBackup) plugin).setBackupService(this);
+        }
+
+        if (config.isMetricsHttpEnabled()) {
+            startMetricsEndpoint();
+        }
     }
     
     /**
-     * Create a backup for a player.
+     * Create a backup for a player synchronously (capture and persist on the calling thread).
      * <p>
-     * 为玩家创建备份。
+     * 同步为玩家创建备份（在调用线程中捕获并持久化）。
      *
      * @param player the player
      * @param reason the backup reason
      * @return the backup metadata
      */
     public BackupMetadata createBackup(Player player, String reason) {
-        // Create metadata
-        BackupMetadata metadata = BackupMetadata.fromPlayer(player, reason);
-        
-        // Create content from player
-        BackupContent content = BackupContent.fromPlayer(
+        return persistSnapshot(captureSnapshot(player, reason));
+    }
+    
+    /**
+     * Capture a player's inventory now and persist it on the worker pool.
+     * Must be called on the main thread.
+     * <p>
+     * 立即捕获玩家背包并在工作线程池中持久化。必须在主线程调用。
+     *
+     * @param player the player
+     * @param reason the backup reason
+     * @return future completed with the metadata, or null if persisting failed
+     */
+    public CompletableFuture<BackupMetadata> submitBackup(Player player, String reason) {
+        return submitSnapshot(captureSnapshot(player, reason));
+    }
+    
+    /**
+     * Capture a snapshot of a player's inventory according to the config flags.
+     * Must be called on the main thread.
+     * <p>
+     * 按配置捕获玩家背包快照。必须在主线程调用。
+     *
+     * @param player the player
+     * @param reason the backup reason
+     * @return the snapshot
+     */
+    public InventorySnapshot captureSnapshot(Player player, String reason) {
+        return InventorySnapshot.capture(
             player,
+            BackupMetadata.fromPlayer(player, reason),
             config.isBackupArmor(),
             config.isBackupEnderchest(),
             config.isBackupExp()
         );
-        
+    }
+    
+    /**
+     * Journal a captured snapshot and hand it to the worker pool.
+     * Snapshots of the same player within {@code performance.coalesce_window_ms} are written once.
+     * <p>
+     * 记录已捕获的快照到日志，并交给工作线程池。
+     * 同一玩家在 {@code performance.coalesce_window_ms} 内的快照只写入一次。
+     *
+     * @param snapshot the snapshot
+     * @return future completed with the metadata, or null if persisting failed
+     */
+    public CompletableFuture<BackupMetadata> submitSnapshot(InventorySnapshot snapshot) {
+        journalAppend(snapshot);
+        return getCoalescer().submit(snapshot);
+    }
+    
+    /**
+     * Serialize, hash and write a snapshot, then store its metadata.
+     * Safe to call off the main thread; backups of the same player are serialized.
+     * <p>
+     * 序列化、哈希并写入快照，然后保存元数据。可在主线程之外调用；同一玩家的备份串行执行。
+     *
+     * @param snapshot the snapshot
+     * @return the backup metadata, or null if writing failed
+     */
+    BackupMetadata persistSnapshot(InventorySnapshot snapshot) {
+        long startNanos = System.nanoTime();
+        BackupMetadata result = null;
+        Journaled entry = journalClaim(snapshot);
+        try {
+            BackupMetadata metadata = snapshot.getMetadata();
+            boolean deltas = config.isDeltaEnabled();
+            DeltaTracker.Base base = deltas
+                ? deltaTracker.baseFor(snapshot, config.getDeltaKeyframeInterval()) : null;
+            BackupContent content = base != null
+                ? BackupContent.delta(base.getSnapshot(), snapshot, base.getBackupId())
+                : keyframe(snapshot, entry);
+            String yamlContent = content.toYaml();
+            metrics.phase(BackupMetrics.Phase.SERIALIZE, startNanos);
+            
+            metadata.setItemCount(snapshot.countItems());
+            Lock lock = playerLocks.forKey(metadata.getPlayerUuid());
+            lock.lock();
+            try {
+                if (base != null && !deltaTracker.isCurrent(metadata.getPlayerUuid(), base)) {
+                    // Another backup of this player was written first; fall back to a keyframe
+                    base = null;
+                    content = keyframe(snapshot, entry);
+                    yamlContent = content.toYaml();
+                }
+                metadata.setBaseId(content.getBaseId());
+                ensureUniqueFilePath(metadata);
+                // The pipeline only starts a snapshot once its lane has budget, so the charge never waits
+                result = writeBackup(metadata, yamlContent, entry != null ? entry.sequence : -1L,
+                    IoThrottle.Lane.forReason(metadata.getBackupReason()));
+                if (result != null && deltas) {
+                    deltaTracker.record(result.getId(), snapshot, base);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (result != null) {
+                cleanupAfterWrite(result);
+            }
+            return result;
+        } finally {
+            metrics.operation(BackupMetrics.Operation.CREATE, startNanos, result != null);
+        }
+    }
+    
+    /**
+     * Get the full content of a snapshot, reusing what was serialized for the journal.
+     */
+    private static BackupContent keyframe(InventorySnapshot snapshot, Journaled entry) {
+        return entry != null && entry.content != null ? entry.content : BackupContent.fromSnapshot(snapshot);
+    }
+    
+    /**
+     * Move the backup time forward until its file path is free, so two backups of the
+     * same player in the same millisecond never share a file. Caller holds the player lock.
+     */
+    private void ensureUniqueFilePath(BackupMetadata metadata) {
+        while (new File(bukkitPlugin.getDataFolder(), metadata.getFilePath()).exists()) {
+            metadata.setBackupTime(metadata.getBackupTime() + 1);
+            metadata.setFilePath(metadata.generateFilePath());
+        }
+    }
+    
+    /**
+     * Write backup content to its file and insert the metadata row. Caller holds the player lock.
+     * The journal entry is committed once the file is durable under the fsync policy.
+     * <p>
+     * 将备份内容写入文件并插入元数据行。调用方需持有玩家锁。
+     * 文件按 fsync 策略落盘后提交对应的日志条目。
+     *
+     * @param metadata the backup metadata
+     * @param yamlContent the serialized backup content
+     * @param entry the journal sequence number, or -1 if not journaled
+     * @param lane the I/O lane charged with the encoded file size
+     * @return the backup metadata, or null if writing failed
+     */
+    private BackupMetadata writeBackup(BackupMetadata metadata, String yamlContent, long entry, IoThrottle.Lane lane) {
         try {
-            // Save cold data to file
+            // Save cold data to file (temp file + atomic rename)
             File backupFile = new File(bukkitPlugin.getDataFolder(), metadata.getFilePath());
-            String checksum = content.saveToFile(backupFile);
+            long phaseStart = System.nanoTime();
+            String checksum = BackupContent.calculateChecksum(yamlContent);
+            byte[] data = BackupContent.toFileText(yamlContent, checksum).getBytes(StandardCharsets.UTF_8);
+            phaseStart = metrics.phase(BackupMetrics.Phase.CHECKSUM, phaseStart);
+            getIoThrottle().charge(lane, data.length);
+            CompletableFuture<Void> durable = getWriter().write(backupFile, data);
+            phaseStart = metrics.phase(BackupMetrics.Phase.WRITE, phaseStart);
+            metrics.addBytesWritten(data.length);
             metadata.setChecksum(checksum);
+            metadata.setPayloadBytes(data.length);
             
             // Save metadata to database
             dataOperator.insert(metadata);
+            storage.add(metadata);
+            phaseStart = metrics.phase(BackupMetrics.Phase.INSERT, phaseStart);
             
-            // Clean up old backups
-            cleanupOldBackups(UUID.fromString(player.getUniqueId().toString()));
+            // Journal entry can go once the file is on stable storage
+            durable.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warn(error, "Failed to fsync backup " + metadata.getFilePath());
+                } else {
+                    journalCommit(entry);
+                }
+            });
             
-            plugin.getLogger().info("Created backup for " + player.getName() + 
+            plugin.getLogger().info("Created backup for " + metadata.getPlayerName() + 
                 ": " + metadata.getFilePath());
             
             return metadata;
         } catch (IOException e) {
             plugin.getLogger().error(e, 
-                "Failed to create backup for " + player.getName());
+                "Failed to create backup for " + metadata.getPlayerName());
             return null;
         }
     }
     
+    /**
+     * Apply retention after a backup was written, outside the player lock so restores and
+     * other writers of the player never wait on retention queries. If a cleanup of the
+     * player is already running it is left to that one; the next backup catches anything missed.
+     */
+    private void cleanupAfterWrite(BackupMetadata latest) {
+        Lock lock = cleanupLocks.forKey(latest.getPlayerUuid());
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            long phaseStart = System.nanoTime();
+            cleanupOldBackups(latest);
+            metrics.phase(BackupMetrics.Phase.CLEANUP, phaseStart);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Record an accepted snapshot in the journal before it waits in the coalescer, the rate
+     * limiter or the queue. The caller only tags the snapshot with a capture ID; serializing,
+     * appending and fsyncing happen on the journal thread, so a main-thread caller never
+     * serializes or waits for the disk.
+     */
+    private void journalAppend(InventorySnapshot snapshot) {
+        BackupMetadata metadata = snapshot.getMetadata();
+        if (journal == null || metadata == null) {
+            return;
+        }
+        metadata.setCaptureId(UUID.randomUUID().toString());
+        Journaled entry = new Journaled();
+        journaled.put(snapshot, entry);
+        Runnable write = () -> journalWrite(snapshot, entry);
+        try {
+            getJournalSyncer().execute(write);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; journal on the caller
+            write.run();
+        }
+    }
+    
+    /**
+     * Serialize and append the journal record of a snapshot on the journal thread, unless a
+     * worker already claimed it to write the backup itself.
+     */
+    private void journalWrite(InventorySnapshot snapshot, Journaled entry) {
+        BackupMetadata metadata = snapshot.getMetadata();
+        synchronized (entry) {
+            if (entry.claimed) {
+                return;
+            }
+            try {
+                metadata.setItemCount(snapshot.countItems());
+                entry.content = BackupContent.fromSnapshot(snapshot);
+                entry.sequence = journal.write(metadata, entry.content);
+            } catch (IOException e) {
+                plugin.getLogger().warn(e, "Failed to journal backup for " + metadata.getPlayerName());
+                return;
+            }
+        }
+        requestJournalSync();
+    }
+    
+    /**
+     * Take the journal entry of a snapshot that is about to be written or dropped. A record
+     * the journal thread has not written yet is skipped; one being written is waited for.
+     *
+     * @return the entry, or null if the snapshot was not journaled
+     */
+    private Journaled journalClaim(InventorySnapshot snapshot) {
+        Journaled entry = journaled.remove(snapshot);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.claimed = true;
+            }
+        }
+        return entry;
+    }
+    
+    /**
+     * Fsync the journal on its own thread; appends that arrive while a sync is queued share it.
+     */
+    private void requestJournalSync() {
+        if (!journalSyncQueued.compareAndSet(false, true)) {
+            return;
+        }
+        Runnable sync = () -> {
+            journalSyncQueued.set(false);
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                plugin.getLogger().warn(e, "Failed to fsync backup journal");
+            }
+        };
+        try {
+            getJournalSyncer().execute(sync);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; sync on the caller
+            sync.run();
+        }
+    }
+    
+    /**
+     * Commit the journal entry of a snapshot that will never be written, because a newer
+     * snapshot of the same player replaced it or the queue shed it.
+     */
+    private void journalDiscard(InventorySnapshot snapshot) {
+        Journaled entry = journalClaim(snapshot);
+        if (entry != null) {
+            journalCommit(entry.sequence);
+        }
+    }
+    
+    /**
+     * Mark a journaled backup as durable.
+     */
+    private void journalCommit(long entry) {
+        if (journal == null || entry < 0) {
+            return;
+        }
+        try {
+            journal.commit(entry);
+        } catch (IOException e) {
+            plugin.getLogger().warn(e, "Failed to commit journal entry " + entry);
+        }
+    }
+    
+    /**
+     * Persist journal entries left behind by a crash.
+     * Entries whose metadata row already exists, found by capture ID, are only marked committed.
+     * <p>
+     * 持久化崩溃后遗留在日志中的条目。
+     * 元数据行已存在的条目只会被标记为已提交。
+     */
+    private void replayJournal() {
+        List<BackupJournal.Entry> entries;
+        try {
+            entries = journal.recover();
+        } catch (IOException e) {
+            plugin.getLogger().error(e, "Failed to read backup journal");
+            return;
+        }
+        
+        int replayed = 0;
+        int failed = 0;
+        for (BackupJournal.Entry entry : entries) {
+            BackupMetadata metadata = entry.getMetadata();
+            boolean persisted = metadata.getCaptureId() != null
+                ? !dataOperator.query().where("capture_id").eq(metadata.getCaptureId()).list().isEmpty()
+                // Journaled before capture IDs were recorded
+                : !dataOperator.query().where("file_path").eq(metadata.getFilePath()).list().isEmpty();
+            if (persisted) {
+                journalCommit(entry.getSequence());
+            } else {
+                String yamlContent = entry.getContent().toYaml();
+                BackupMetadata written;
+                Lock lock = playerLocks.forKey(metadata.getPlayerUuid());
+                lock.lock();
+                try {
+                    // Startup runs on the main thread; the charge accounts for the I/O without sleeping
+                    written = writeBackup(metadata, yamlContent, entry.getSequence(), IoThrottle.Lane.BACKGROUND);
+                } finally {
+                    lock.unlock();
+                }
+                if (written != null) {
+                    cleanupAfterWrite(written);
+                    replayed++;
+                } else {
+                    // Left outstanding so the journal is kept for the next start
+                    failed++;
+                }
+            }
+        }
+        
+        if (replayed > 0 || failed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " journaled backups (" + failed + " failed)");
+        }
+    }
+    
+    /**
+     * Seed the storage totals from every stored backup. Backups written before sizes were
+     * recorded are measured from their files once. A database failure leaves the totals
+     * empty rather than failing startup.
+     */
+    private void loadStorageTotals() {
+        try {
+            List<BackupMetadata> stored = dataOperator.query().list();
+            for (BackupMetadata metadata : stored) {
+                if (metadata.getPayloadBytes() <= 0 && metadata.getFilePath() != null) {
+                    metadata.setPayloadBytes(new File(bukkitPlugin.getDataFolder(), metadata.getFilePath()).length());
+                }
+            }
+            storage.reset(stored);
+        } catch (RuntimeException e) {
+            plugin.getLogger().warn(e, "Failed to load backup storage totals");
+        }
+    }
+    
+    /**
+     * Get the running per-player and server-wide storage totals.
+     * <p>
+     * 获取按玩家与全服累计的存储统计。
+     *
+     * @return the storage ledger
+     */
+    public StorageLedger getStorageLedger() {
+        return storage;
+    }
+    
     /**
      * Get all backups for a player.
      * <p>
@@ -125,6 +544,30 @@ public class BackupService {
         return backups;
     }
     
+    /**
+     * Get all backups for a player off the main thread.
+     * The query runs on an async task and the callback is invoked on the main thread.
+     * <p>
+     * 在主线程之外获取玩家的所有备份。
+     * 查询在异步任务中执行，回调在主线程中调用。
+     *
+     * @param playerUuid the player UUID
+     * @param callback receives the backups sorted by time descending (empty on failure)
+     */
+    public void getBackupsAsync(UUID playerUuid, Consumer<List<BackupMetadata>> callback) {
+        Bukkit.getScheduler().runTaskAsynchronously(bukkitPlugin, () -> {
+            List<BackupMetadata> backups;
+            try {
+                backups = getBackups(playerUuid);
+            } catch (Exception e) {
+                plugin.getLogger().warn(e, "Failed to load backups for " + playerUuid);
+                backups = new ArrayList<>();
+            }
+            List<BackupMetadata> result = backups;
+            Bukkit.getScheduler().runTask(bukkitPlugin, () -> callback.accept(result));
+        });
+    }
+    
     /**
      * Get a specific backup by ID.
      * <p>
@@ -139,13 +582,23 @@ public class BackupService {
     
     /**
      * Verify backup checksum.
+     * Results are cached per backup and file identity, so repeat verifications
+     * of an unchanged file skip the re-hash.
      * <p>
      * 验证备份校验和。
+     * 结果按备份和文件标识缓存，未变化文件的重复校验不会重新计算哈希。
      *
      * @param metadata the backup metadata
      * @return true if checksum is valid
      */
     public boolean verifyChecksum(BackupMetadata metadata) {
+        return verifyChecksum(metadata, 0);
+    }
+    
+    /**
+     * Verify a backup and, for a delta, every base it is applied to.
+     */
+    private boolean verifyChecksum(BackupMetadata metadata, int depth) {
         if (metadata == null || metadata.getFilePath() == null) {
             return false;
         }
@@ -156,7 +609,25 @@ public class BackupService {
         }
         
         try {
-            return BackupContent.verifyChecksum(backupFile, metadata.getChecksum());
+            // Identity is read before hashing so a concurrent change invalidates the entry
+            String cacheKey = metadata.getId() != null
+                ? metadata.getId() : backupFile.getAbsolutePath();
+            VerificationCache.FileIdentity identity = VerificationCache.identify(backupFile);
+            Boolean valid = verificationCache.get(cacheKey, identity, metadata.getChecksum());
+            if (valid == null) {
+                long startNanos = System.nanoTime();
+                getIoThrottle().charge(IoThrottle.Lane.FOREGROUND, backupFile.length());
+                valid = BackupContent.verifyChecksum(backupFile, metadata.getChecksum());
+                metrics.operation(BackupMetrics.Operation.VERIFY, startNanos, valid);
+                verificationCache.put(cacheKey, identity, metadata.getChecksum(), valid);
+            }
+            
+            // A delta restores only as well as the backups beneath it
+            if (valid && metadata.getBaseId() != null) {
+                return depth < MAX_DELTA_CHAIN
+                    && verifyChecksum(dataOperator.getById(metadata.getBaseId()), depth + 1);
+            }
+            return valid;
         } catch (IOException e) {
             plugin.getLogger().warn(e, 
                 "Failed to verify checksum for backup: " + metadata.getId());
@@ -182,13 +653,50 @@ public class BackupService {
             return null;
         }
         
+        long startNanos = System.nanoTime();
+        BackupContent content = null;
         try {
-            return BackupContent.loadFromFile(backupFile);
+            getIoThrottle().charge(IoThrottle.Lane.FOREGROUND, backupFile.length());
+            BackupContent loaded = BackupContent.loadFromFile(backupFile);
+            content = loaded.isDelta() ? resolveDelta(loaded) : loaded;
+            return content;
         } catch (IOException e) {
             plugin.getLogger().warn(e, 
                 "Failed to load backup content: " + metadata.getId());
             return null;
+        } finally {
+            metrics.operation(BackupMetrics.Operation.LOAD, startNanos, content != null);
+        }
+    }
+    
+    /**
+     * Rebuild the full content of a delta by walking its bases back to the keyframe
+     * and applying the deltas forward.
+     */
+    private BackupContent resolveDelta(BackupContent delta) throws IOException {
+        Deque<BackupContent> chain = new ArrayDeque<>();
+        BackupContent current = delta;
+        while (current.isDelta()) {
+            if (chain.size() >= MAX_DELTA_CHAIN) {
+                throw new IOException("Delta chain longer than " + MAX_DELTA_CHAIN + " backups");
+            }
+            BackupMetadata base = dataOperator.getById(current.getBaseId());
+            File baseFile = base != null ? base.getBackupFile() : null;
+            if (baseFile == null || !baseFile.exists()) {
+                throw new IOException("Base backup " + current.getBaseId() + " is missing");
+            }
+            getIoThrottle().charge(IoThrottle.Lane.FOREGROUND, baseFile.length());
+            chain.push(current);
+            current = BackupContent.loadFromFile(baseFile);
+        }
+        try {
+            while (!chain.isEmpty()) {
+                current = current.applyDelta(chain.pop());
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(e);
         }
+        return current;
     }
     
     /**
@@ -230,11 +738,113 @@ public class BackupService {
             return RestoreResult.NOT_FOUND;
         }
         
+        long startNanos = System.nanoTime();
+        RestoreResult result;
+        try (MainThreadWatchdog.Timing timing = getWatchdog().start("restore")) {
+            result = restoreContent(player, metadata, timing);
+        }
+        metrics.operation(BackupMetrics.Operation.RESTORE, startNanos, result == RestoreResult.SUCCESS);
+        return result;
+    }
+    
+    /**
+     * Restore a backup to a player (with checksum verification), verifying and loading it
+     * off the main thread. Only applying the content to the player runs on the main thread.
+     * <p>
+     * 将备份恢复到玩家（带校验和验证）。校验和加载在主线程之外进行，
+     * 仅将内容应用到玩家时在主线程中执行。
+     *
+     * @param player the player
+     * @param metadata the backup metadata
+     * @param callback receives the result on the main thread
+     */
+    public void restoreBackupAsync(Player player, BackupMetadata metadata, Consumer<RestoreResult> callback) {
+        restoreAsync(player, metadata, true, callback);
+    }
+    
+    /**
+     * Force restore a backup without checksum verification, loading it off the main thread.
+     * <p>
+     * 强制恢复备份（跳过校验和验证），在主线程之外加载。
+     *
+     * @param player the player
+     * @param metadata the backup metadata
+     * @param callback receives the result on the main thread
+     */
+    public void forceRestoreAsync(Player player, BackupMetadata metadata, Consumer<RestoreResult> callback) {
+        restoreAsync(player, metadata, false, callback);
+    }
+    
+    private void restoreAsync(Player player, BackupMetadata metadata, boolean verify,
+            Consumer<RestoreResult> callback) {
+        if (metadata == null) {
+            callback.accept(RestoreResult.NOT_FOUND);
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(bukkitPlugin, () -> {
+            long startNanos = System.nanoTime();
+            LoadedBackup loaded = loadForRestore(metadata, verify);
+            Bukkit.getScheduler().runTask(bukkitPlugin, () -> {
+                RestoreResult result;
+                if (loaded.failure != null) {
+                    result = loaded.failure;
+                } else {
+                    try (MainThreadWatchdog.Timing timing = getWatchdog().start("restore")) {
+                        result = applyContent(player, loaded.metadata, loaded.content, timing);
+                    }
+                }
+                if (result != RestoreResult.NOT_FOUND && result != RestoreResult.CHECKSUM_FAILED) {
+                    metrics.operation(BackupMetrics.Operation.RESTORE, startNanos, result == RestoreResult.SUCCESS);
+                }
+                callback.accept(result);
+            });
+        });
+    }
+    
+    /**
+     * Verify and load a backup for restore without taking the player lock.
+     * The row is re-read first, since cleanup or a rebase may have deleted or moved the
+     * backup after the caller listed it; a failed load is re-checked the same way.
+     */
+    private LoadedBackup loadForRestore(BackupMetadata metadata, boolean verify) {
+        try {
+            BackupMetadata current = metadata.getId() != null ? dataOperator.getById(metadata.getId()) : metadata;
+            if (current == null) {
+                return new LoadedBackup(RestoreResult.NOT_FOUND);
+            }
+            if (verify && !verifyChecksum(current)) {
+                return new LoadedBackup(RestoreResult.CHECKSUM_FAILED);
+            }
+            BackupContent content = loadBackupContent(current);
+            if (content == null && current.getId() != null) {
+                BackupMetadata latest = dataOperator.getById(current.getId());
+                if (latest == null) {
+                    return new LoadedBackup(RestoreResult.NOT_FOUND);
+                }
+                if (!Objects.equals(latest.getFilePath(), current.getFilePath())) {
+                    // Rebased onto a new file while we read; the rewritten file holds the same content
+                    current = latest;
+                    content = loadBackupContent(current);
+                }
+            }
+            return content != null ? new LoadedBackup(current, content) : new LoadedBackup(RestoreResult.LOAD_FAILED);
+        } catch (Exception e) {
+            plugin.getLogger().warn(e, "Failed to load backup for restore: " + metadata.getId());
+            return new LoadedBackup(RestoreResult.LOAD_FAILED);
+        }
+    }
+    
+    private RestoreResult restoreContent(Player player, BackupMetadata metadata, MainThreadWatchdog.Timing timing) {
         BackupContent content = loadBackupContent(metadata);
+        timing.mark("load");
         if (content == null) {
             return RestoreResult.LOAD_FAILED;
         }
-        
+        return applyContent(player, metadata, content, timing);
+    }
+    
+    private RestoreResult applyContent(Player player, BackupMetadata metadata, BackupContent content,
+            MainThreadWatchdog.Timing timing) {
         try {
             content.restoreToPlayer(
                 player,
@@ -242,6 +852,7 @@ public class BackupService {
                 config.isBackupEnderchest(),
                 config.isBackupExp()
             );
+            timing.mark("apply");
             
             plugin.getLogger().info("Restored backup " + metadata.getId() + 
                 " to player " + player.getName());
@@ -263,19 +874,141 @@ public class BackupService {
      * @return true if deleted successfully
      */
     public boolean deleteBackup(BackupMetadata metadata) {
+        return deleteBackup(metadata, null);
+    }
+    
+    /**
+     * Delete a backup, first folding it into any delta stored against it.
+     *
+     * @param siblings the player's backups if already loaded, or null to query them
+     * @return false if a dependent delta could not be rebased and the backup was kept
+     */
+    private boolean deleteBackup(BackupMetadata metadata, List<BackupMetadata> siblings) {
         if (metadata == null) {
             return false;
         }
         
-        // Trigger onDelete hook which will delete the cold data file
-        metadata.onDelete();
+        Lock lock = playerLocks.forKey(metadata.getPlayerUuid());
+        lock.lock();
+        try {
+            if (!rebaseDependents(metadata, siblings)) {
+                return false;
+            }
+            
+            // Trigger onDelete hook which will delete the cold data file
+            metadata.onDelete();
+            if (metadata.getId() != null) {
+                verificationCache.invalidate(metadata.getId());
+                deltaTracker.forget(metadata.getPlayerUuid(), metadata.getId());
+            }
+            
+            // Delete metadata from database
+            dataOperator.delById(metadata.getId());
+            storage.remove(metadata);
+        } finally {
+            lock.unlock();
+        }
         
-        // Delete metadata from database
-        dataOperator.delById(metadata.getId());
+        return true;
+    }
+    
+    /**
+     * Rewrite every delta stored against a backup that is about to be deleted so it applies
+     * to that backup's own base instead; a delta against a keyframe becomes a keyframe.
+     * The rewritten content goes to a new file, fsynced before the row is pointed at it, and the
+     * old file is removed only afterwards, so a failed update leaves the dependent intact and a
+     * reader holding the old row never sees a file whose checksum changed under it.
+     * Caller holds the player lock.
+     *
+     * @return false if a dependent could not be rewritten
+     */
+    private boolean rebaseDependents(BackupMetadata metadata, List<BackupMetadata> siblings) {
+        if (metadata.getId() == null || metadata.getPlayerUuid() == null || metadata.getFilePath() == null) {
+            return true;
+        }
         
+        List<BackupMetadata> backups = siblings != null
+            ? siblings : getBackups(UUID.fromString(metadata.getPlayerUuid()));
+        File baseFile = new File(bukkitPlugin.getDataFolder(), metadata.getFilePath());
+        for (BackupMetadata dependent : backups) {
+            if (!metadata.getId().equals(dependent.getBaseId())) {
+                continue;
+            }
+            if (!baseFile.exists()) {
+                plugin.getLogger().warn("Backup " + dependent.getFilePath() + " is a delta against "
+                    + metadata.getFilePath() + ", which is missing; it can no longer be restored");
+                continue;
+            }
+            
+            File file = new File(bukkitPlugin.getDataFolder(), dependent.getFilePath());
+            try {
+                getIoThrottle().charge(IoThrottle.Lane.BACKGROUND, baseFile.length() + file.length());
+                BackupContent rebased = BackupContent.loadFromFile(baseFile)
+                    .applyDelta(BackupContent.loadFromFile(file));
+                String yamlContent = rebased.toYaml();
+                String checksum = BackupContent.calculateChecksum(yamlContent);
+                byte[] data = BackupContent.toFileText(yamlContent, checksum).getBytes(StandardCharsets.UTF_8);
+                getIoThrottle().charge(IoThrottle.Lane.BACKGROUND, data.length);
+                String rebasedPath = rebasedFilePath(dependent.getFilePath());
+                File rebasedFile = new File(bukkitPlugin.getDataFolder(), rebasedPath);
+                // Always fsync: the base holding the only other copy of these slots goes next
+                BackupContent.writeAtomically(rebasedFile, data, true);
+                
+                String oldFilePath = dependent.getFilePath();
+                String oldChecksum = dependent.getChecksum();
+                String oldBaseId = dependent.getBaseId();
+                long oldPayloadBytes = dependent.getPayloadBytes();
+                storage.remove(dependent);
+                dependent.setFilePath(rebasedPath);
+                dependent.setChecksum(checksum);
+                dependent.setBaseId(rebased.getBaseId());
+                dependent.setPayloadBytes(data.length);
+                verificationCache.invalidate(dependent.getId());
+                try {
+                    dataOperator.update(dependent);
+                } catch (Exception e) {
+                    dependent.setFilePath(oldFilePath);
+                    dependent.setChecksum(oldChecksum);
+                    dependent.setBaseId(oldBaseId);
+                    dependent.setPayloadBytes(oldPayloadBytes);
+                    rebasedFile.delete();
+                    throw e;
+                } finally {
+                    storage.add(dependent);
+                }
+                if (!file.delete()) {
+                    plugin.getLogger().warn("Could not remove " + oldFilePath + " after rebasing it to " + rebasedPath);
+                }
+                deltaTracker.recordRebase();
+            } catch (Exception e) {
+                plugin.getLogger().error(e, "Failed to rebase backup " + dependent.getFilePath()
+                    + " before deleting " + metadata.getFilePath());
+                return false;
+            }
+        }
         return true;
     }
     
+    /**
+     * Get an unused path for the rebased copy of a backup file: {@code name.yml} becomes
+     * {@code name.r1.yml}, and a rebased copy {@code name.rN.yml} becomes {@code name.rN+1.yml}.
+     */
+    private String rebasedFilePath(String filePath) {
+        int dot = filePath.lastIndexOf('.');
+        String stem = dot > filePath.lastIndexOf('/') ? filePath.substring(0, dot) : filePath;
+        String extension = filePath.substring(stem.length());
+        int generation = 1;
+        Matcher matcher = REBASED_SUFFIX.matcher(stem);
+        if (matcher.find()) {
+            stem = stem.substring(0, matcher.start());
+            generation = Integer.parseInt(matcher.group(1)) + 1;
+        }
+        while (new File(bukkitPlugin.getDataFolder(), stem + ".r" + generation + extension).exists()) {
+            generation++;
+        }
+        return stem + ".r" + generation + extension;
+    }
+    
     /**
      * Delete a backup by ID.
      * <p>
@@ -291,22 +1024,15 @@ public class BackupService {
     
     /**
      * Save all online players' backups.
+     * Capture runs on the main thread in tick-bounded slices; persistence runs on the worker pool.
      * <p>
      * 保存所有在线玩家的备份。
+     * 捕获在主线程中按刻分片执行；持久化在工作线程池中执行。
      *
-     * @return the number of backups created
+     * @return future completed with the batch report once every backup is written
      */
-    public int saveAllOnlinePlayers() {
-        int count = 0;
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (player.hasPermission("ultibackup.auto")) {
-                BackupMetadata result = createBackup(player, "ADMIN");
-                if (result != null) {
-                    count++;
-                }
-            }
-        }
-        return count;
+    public CompletableFuture<BackupBatchReport> saveAllOnlinePlayers() {
+        return backupOnlinePlayers("ADMIN");
     }
     
     /**
@@ -323,38 +1049,582 @@ public class BackupService {
             return;
         }
 
-        int count = 0;
+        backupOnlinePlayers("AUTO").thenAccept(report -> {
+            if (report.getSucceeded() > 0) {
+                plugin.getLogger().info("Auto backup completed: " + report.getSucceeded() + " players");
+            }
+        });
+    }
+    
+    /**
+     * Back up every online player with the auto permission.
+     * At most {@code performance.captures_per_tick} players are captured per tick, fewer
+     * while the server is lagging; AUTO rounds wait for headroom (see {@link AdaptiveCaptureScheduler}).
+     * <p>
+     * 备份所有拥有自动备份权限的在线玩家。
+     * 每刻最多捕获 {@code performance.captures_per_tick} 名玩家，服务器卡顿时减少；
+     * AUTO 轮次会等待服务器恢复余量（见 {@link AdaptiveCaptureScheduler}）。
+     *
+     * @param reason the backup reason
+     * @return future completed with the batch report once every backup is written
+     */
+    CompletableFuture<BackupBatchReport> backupOnlinePlayers(String reason) {
+        List<Player> targets = new ArrayList<>();
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (player.hasPermission("ultibackup.auto")) {
-                BackupMetadata result = createBackup(player, "AUTO");
-                if (result != null) {
-                    count++;
+                targets.add(player);
+            }
+        }
+        
+        long startNanos = System.nanoTime();
+        CompletableFuture<BackupBatchReport> done = new CompletableFuture<>();
+        if (targets.isEmpty()) {
+            done.complete(new BackupBatchReport(0, 0, 0L));
+            return done;
+        }
+        
+        AdaptiveCaptureScheduler.Run budget = getCaptureScheduler().start("AUTO".equals(reason));
+        Iterator<Player> remaining = targets.iterator();
+        List<CompletableFuture<BackupMetadata>> pending = new ArrayList<>(targets.size());
+        
+        String operation = "batch." + reason.toLowerCase(Locale.ROOT);
+        Bukkit.getScheduler().runTaskTimer(bukkitPlugin, task -> {
+            int allowed = budget.next();
+            try (MainThreadWatchdog.Timing ignored = getWatchdog().start(operation)) {
+                for (int i = 0; i < allowed && remaining.hasNext(); i++) {
+                    Player player = remaining.next();
+                    if (!player.isOnline()) {
+                        continue;
+                    }
+                    try {
+                        pending.add(submitSnapshot(captureSnapshot(player, reason)));
+                    } catch (Exception e) {
+                        plugin.getLogger().error(e, "Failed to capture backup for " + player.getName());
+                    }
+                }
+            }
+            if (remaining.hasNext()) {
+                return;
+            }
+            task.cancel();
+            if (budget.getDeferredTicks() > 0) {
+                plugin.getLogger().info("Backup (" + reason + ") waited " + budget.getDeferredTicks()
+                    + " ticks for the server to catch up");
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+                int succeeded = 0;
+                for (CompletableFuture<BackupMetadata> future : pending) {
+                    if (!future.isCompletedExceptionally() && future.join() != null) {
+                        succeeded++;
+                    }
+                }
+                long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+                done.complete(new BackupBatchReport(targets.size(), succeeded, elapsedMillis));
+            });
+        }, 0L, 1L);
+        
+        return done;
+    }
+    
+    /**
+     * Back up a quitting player. Capture runs now; the write runs on the worker pool.
+     * Players already captured by the shutdown pass are skipped.
+     * <p>
+     * 备份退出的玩家。立即捕获，写入在工作线程池中执行。
+     * 已在关服批量捕获中备份的玩家会被跳过。
+     *
+     * @param player the quitting player
+     * @return future completed with the metadata, or null if skipped or persisting failed
+     */
+    public CompletableFuture<BackupMetadata> backupOnQuit(Player player) {
+        if (shuttingDown && shutdownCaptured.contains(player.getUniqueId())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submitBackup(player, "QUIT");
+    }
+    
+    /**
+     * Prepare for server shutdown: capture a QUIT backup of every online player in
+     * one pass, then block until every pending write has reached disk and the database.
+     * Must be called on the main thread before the data source closes.
+     * <p>
+     * 为关服做准备：一次性为所有在线玩家捕获退出备份，
+     * 然后阻塞直到所有待写入的备份都已落盘并写入数据库。
+     * 必须在主线程、数据源关闭之前调用。
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        
+        if (config.isBackupOnQuit()) {
+            int captured = 0;
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (!player.hasPermission("ultibackup.auto") || shutdownCaptured.contains(player.getUniqueId())) {
+                    continue;
                 }
+                try {
+                    submitSnapshot(captureSnapshot(player, "QUIT"));
+                    shutdownCaptured.add(player.getUniqueId());
+                    captured++;
+                } catch (Exception e) {
+                    plugin.getLogger().error(e, "Failed to capture shutdown backup for " + player.getName());
+                }
+            }
+            if (captured > 0) {
+                plugin.getLogger().info("Captured shutdown backups for " + captured + " players");
             }
         }
-        if (count > 0) {
-            plugin.getLogger().info("Auto backup completed: " + count + " players");
+        
+        // Nothing may wait out a coalescing window once the pool starts draining
+        SnapshotCoalescer currentCoalescer;
+        synchronized (this) {
+            currentCoalescer = coalescer;
         }
+        if (currentCoalescer != null) {
+            currentCoalescer.shutdown();
+        }
+        
+        // Held-back snapshots are written now rather than lost with the process
+        BackupRateLimiter currentLimiter;
+        synchronized (this) {
+            currentLimiter = rateLimiter;
+        }
+        if (currentLimiter != null) {
+            currentLimiter.shutdown();
+        }
+        
+        drainPipeline();
+        
+        DurableWriter currentWriter;
+        synchronized (this) {
+            currentWriter = writer;
+        }
+        if (currentWriter != null) {
+            currentWriter.shutdown();
+        }
+        
+        ExecutorService currentSyncer;
+        synchronized (this) {
+            currentSyncer = journalSyncer;
+        }
+        if (currentSyncer != null) {
+            currentSyncer.shutdown();
+            try {
+                currentSyncer.awaitTermination(DRAIN_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                plugin.getLogger().warn(e, "Failed to close backup journal");
+            }
+        }
+        
+        MetricsEndpoint currentEndpoint;
+        IntegrityScrubber currentScrubber;
+        synchronized (this) {
+            currentEndpoint = metricsEndpoint;
+            metricsEndpoint = null;
+            currentScrubber = scrubber;
+        }
+        if (currentEndpoint != null) {
+            currentEndpoint.stop();
+        }
+        if (currentScrubber != null) {
+            currentScrubber.shutdown();
+        }
+    }
+    
+    /**
+     * Check whether the service is shutting down.
+     * <p>
+     * 检查服务是否正在关闭。
+     */
+    public boolean isShuttingDown() {
+        return shuttingDown;
     }
     
     /**
-     * Clean up old backups for a player.
+     * Get the latency and throughput metrics of backup operations.
      * <p>
-     * 清理玩家的旧备份。
+     * 获取备份操作的延迟与吞吐指标。
      *
-     * @param playerUuid the player UUID
+     * @return the metrics
+     */
+    public BackupMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Collect every backup metric and gauge (queue depth, held and shed backups,
+     * scheduler and I/O throttle decisions, storage totals) under dotted lowercase keys.
+     * <p>
+     * 以小写点分键收集所有备份指标与状态量（队列深度、暂存与丢弃的备份、调度与 I/O 限流决策、存储统计）。
+     *
+     * @return the metrics, in a stable order
+     */
+    public Map<String, Number> collectMetrics() {
+        Map<String, Number> out = new LinkedHashMap<>();
+        metrics.writeTo(out);
+        
+        BackupPipeline currentPipeline;
+        SnapshotCoalescer currentCoalescer;
+        BackupRateLimiter currentLimiter;
+        synchronized (this) {
+            currentPipeline = pipeline;
+            currentCoalescer = coalescer;
+            currentLimiter = rateLimiter;
+        }
+        out.put("queue.queued", currentPipeline != null ? currentPipeline.getQueued() : 0);
+        out.put("queue.pending", currentPipeline != null ? currentPipeline.getPending() : 0);
+        out.put("queue.shed", currentPipeline != null ? currentPipeline.getShedCount() : 0L);
+        out.put("queue.io_deferred", currentPipeline != null ? currentPipeline.getDeferredCount() : 0L);
+        out.put("queue.io_deferred_ms", currentPipeline != null ? currentPipeline.getDeferredMillis() : 0L);
+        out.put("coalesce.pending", currentCoalescer != null ? currentCoalescer.getPendingCount() : 0);
+        out.put("coalesce.merged", currentCoalescer != null ? currentCoalescer.getCoalescedCount() : 0L);
+        out.put("rate_limit.held", currentLimiter != null ? currentLimiter.getHeldCount() : 0);
+        out.put("rate_limit.deferred", currentLimiter != null ? currentLimiter.getDeferredCount() : 0L);
+        out.put("rate_limit.merged", currentLimiter != null ? currentLimiter.getMergedCount() : 0L);
+        
+        AdaptiveCaptureScheduler scheduler = getCaptureScheduler();
+        out.put("scheduler.average_tick_ms", scheduler.getAverageTickMillis());
+        out.put("scheduler.last_budget", scheduler.getLastBudget());
+        out.put("scheduler.throttled_ticks", scheduler.getThrottledTicks());
+        out.put("scheduler.deferred_ticks", scheduler.getDeferredTicks());
+        out.put("scheduler.deferred_rounds", scheduler.getDeferredRounds());
+        out.put("scheduler.forced_rounds", scheduler.getForcedRounds());
+        
+        MainThreadWatchdog currentWatchdog = getWatchdog();
+        out.put("main_thread.last_minute_ms", currentWatchdog.getLastMinuteMillis());
+        for (Map.Entry<String, LatencyHistogram> entry : currentWatchdog.getOperations().entrySet()) {
+            String prefix = "main_thread." + entry.getKey() + ".";
+            out.put(prefix + "count", entry.getValue().getCount());
+            out.put(prefix + "mean_ms", entry.getValue().getMeanMillis());
+            out.put(prefix + "max_ms", entry.getValue().getMaxMillis());
+        }
+        
+        out.put("storage.backups", storage.getTotalBackups());
+        out.put("storage.bytes", storage.getTotalBytes());
+        out.put("storage.items", storage.getTotalItems());
+        out.put("storage.players", storage.getPlayerCount());
+        out.put("delta.keyframes", deltaTracker.getKeyframeCount());
+        out.put("delta.deltas", deltaTracker.getDeltaCount());
+        out.put("delta.rebased", deltaTracker.getRebaseCount());
+        
+        IntegrityScrubber currentScrubber;
+        synchronized (this) {
+            currentScrubber = scrubber;
+        }
+        out.put("scrub.checked", currentScrubber != null ? currentScrubber.getPassChecked() : 0L);
+        out.put("scrub.corrupt", currentScrubber != null ? currentScrubber.getPassCorrupt() : 0L);
+        out.put("scrub.missing", currentScrubber != null ? currentScrubber.getPassMissing() : 0L);
+        out.put("scrub.flagged", currentScrubber != null ? currentScrubber.getFlagged().size() : 0);
+        out.put("scrub.passes", currentScrubber != null ? currentScrubber.getPasses() : 0L);
+        out.put("scrub.last_pass_corruption_rate",
+            currentScrubber != null ? currentScrubber.getLastPassCorruptionRate() : 0.0);
+        
+        IoThrottle throttle = getIoThrottle();
+        for (IoThrottle.Lane lane : IoThrottle.Lane.values()) {
+            String prefix = "io." + lane.name().toLowerCase(Locale.ROOT) + ".";
+            out.put(prefix + "ops", throttle.getOps(lane));
+            out.put(prefix + "bytes", throttle.getBytes(lane));
+            out.put(prefix + "throttled", throttle.getThrottledCount(lane));
+            out.put(prefix + "waited_ms", throttle.getWaitedMillis(lane));
+        }
+        return out;
+    }
+    
+    /**
+     * Write {@link #collectMetrics()} to {@code backups/metrics.yml} every minute (1200 ticks)
+     * when {@code metrics.write_file} is enabled.
+     * <p>
+     * 当启用 {@code metrics.write_file} 时，每分钟（1200 刻）将 {@link #collectMetrics()} 写入
+     * {@code backups/metrics.yml}。
+     */
+    @Scheduled(period = 1200, async = true)
+    public void writeMetricsFile() {
+        if (!config.isMetricsFileEnabled() || backupsDirectory == null) {
+            return;
+        }
+        
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("generated_at", System.currentTimeMillis());
+        for (Map.Entry<String, Number> entry : collectMetrics().entrySet()) {
+            yaml.set(entry.getKey(), entry.getValue());
+        }
+        try {
+            BackupContent.writeAtomically(new File(backupsDirectory, METRICS_FILE),
+                yaml.saveToString().getBytes(StandardCharsets.UTF_8), false);
+        } catch (IOException e) {
+            plugin.getLogger().warn(e, "Failed to write backup metrics file");
+        }
+    }
+    
+    /**
+     * Verify the next batch of stored backups every minute (1200 ticks) when
+     * {@code scrub.enabled} is set. Checksums are recomputed from disk, bypassing the
+     * verification cache, so bit rot that leaves file size and timestamps alone is caught.
+     * <p>
+     * 当启用 {@code scrub.enabled} 时，每分钟（1200 刻）校验下一批已存储的备份。
+     * 校验和直接从磁盘重新计算、绕过校验缓存，因此不改变文件大小和时间戳的位腐烂也能被发现。
      */
-    private void cleanupOldBackups(UUID playerUuid) {
-        List<BackupMetadata> backups = getBackups(playerUuid);
+    @Scheduled(period = 1200, async = true)
+    public void scrubBackups() {
+        if (!config.isScrubEnabled() || backupsDirectory == null || shuttingDown) {
+            return;
+        }
         
-        if (backups.size() > config.getMaxBackupsPerPlayer()) {
-            // Remove oldest backups
-            for (int i = config.getMaxBackupsPerPlayer(); i < backups.size(); i++) {
-                deleteBackup(backups.get(i));
+        try {
+            List<BackupMetadata> flagged = getScrubber().runBatch(config.getScrubBatchSize(),
+                () -> dataOperator.query().list(), metadata -> dataOperator.getById(metadata.getId()));
+            for (BackupMetadata metadata : flagged) {
+                verificationCache.invalidate(metadata.getId());
+                // Never take a delta against a damaged file
+                deltaTracker.forget(metadata.getPlayerUuid(), metadata.getId());
             }
+        } catch (RuntimeException e) {
+            plugin.getLogger().warn(e, "Failed to scrub backups");
         }
     }
     
+    /**
+     * Get the background integrity scrubber, creating it from the config on first use.
+     * <p>
+     * 获取后台完整性巡检器，首次使用时根据配置创建。
+     *
+     * @return the scrubber
+     */
+    public synchronized IntegrityScrubber getScrubber() {
+        if (scrubber == null) {
+            scrubber = new IntegrityScrubber(backupsDirectory, bukkitPlugin.getDataFolder(), getIoThrottle(),
+                config.getScrubThreads(), config.isScrubQuarantine(), message -> plugin.getLogger().warn(message));
+        }
+        return scrubber;
+    }
+    
+    /**
+     * Start the HTTP metrics endpoint on the configured address. A bind failure is logged
+     * and leaves backups running without it.
+     */
+    private synchronized void startMetricsEndpoint() {
+        MetricsEndpoint endpoint = new MetricsEndpoint(this, config.getMetricsHttpHost(), config.getMetricsHttpPort());
+        try {
+            endpoint.start();
+            metricsEndpoint = endpoint;
+            plugin.getLogger().info("Backup metrics endpoint listening on http://" + config.getMetricsHttpHost()
+                + ":" + endpoint.getPort() + "/metrics");
+        } catch (IOException e) {
+            plugin.getLogger().warn(e, "Failed to start backup metrics endpoint on "
+                + config.getMetricsHttpHost() + ":" + config.getMetricsHttpPort());
+        }
+    }
+    
+    /**
+     * Get the HTTP metrics endpoint.
+     * <p>
+     * 获取 HTTP 指标端点。
+     *
+     * @return the running endpoint, or null when disabled or not started
+     */
+    public synchronized MetricsEndpoint getMetricsEndpoint() {
+        return metricsEndpoint;
+    }
+    
+    /**
+     * Wait for every queued write without a deadline, logging progress periodically.
+     */
+    private void drainPipeline() {
+        BackupPipeline current;
+        synchronized (this) {
+            current = pipeline;
+        }
+        if (current == null) {
+            return;
+        }
+        
+        long startNanos = System.nanoTime();
+        try {
+            while (!current.drain(DRAIN_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().info("Waiting for " + current.getPending() + " pending backups to be written...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().warn(e, "Interrupted while waiting for " + current.getPending() + " pending backups");
+            return;
+        }
+        plugin.getLogger().info("All pending backups written in "
+            + (System.nanoTime() - startNanos) / 1_000_000L + " ms");
+    }
+    
+    /**
+     * Get the thread that serializes and appends journal records and fsyncs them in groups,
+     * creating it on first use.
+     */
+    private synchronized ExecutorService getJournalSyncer() {
+        if (journalSyncer == null) {
+            journalSyncer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiBackup-Journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return journalSyncer;
+    }
+    
+    /**
+     * Get the durable file writer, creating it from the config on first use.
+     */
+    private synchronized DurableWriter getWriter() {
+        if (writer == null) {
+            writer = new DurableWriter(FsyncPolicy.parse(config.getFsyncPolicy()), config.getFsyncBatchIntervalMs());
+        }
+        return writer;
+    }
+    
+    /**
+     * Get the main-thread time watchdog, creating it from the config on first use.
+     * <p>
+     * 获取主线程耗时看门狗，首次使用时根据配置创建。
+     *
+     * @return the watchdog
+     */
+    public synchronized MainThreadWatchdog getWatchdog() {
+        if (watchdog == null) {
+            watchdog = new MainThreadWatchdog(config.getWatchdogThresholdMs(),
+                message -> plugin.getLogger().warn(message));
+        }
+        return watchdog;
+    }
+    
+    /**
+     * Get the shared I/O throttle, creating it from the config on first use.
+     */
+    synchronized IoThrottle getIoThrottle() {
+        if (ioThrottle == null) {
+            ioThrottle = new IoThrottle(
+                config.getForegroundKbPerSecond() * 1024L, config.getForegroundOpsPerSecond(),
+                config.getBackgroundKbPerSecond() * 1024L, config.getBackgroundOpsPerSecond());
+        }
+        return ioThrottle;
+    }
+    
+    /**
+     * Get the tick-time adaptive capture scheduler, creating it on first use.
+     */
+    synchronized AdaptiveCaptureScheduler getCaptureScheduler() {
+        if (captureScheduler == null) {
+            captureScheduler = new AdaptiveCaptureScheduler(config.getCapturesPerTick(),
+                config.getMsptThreshold(), config.getMaxDeferSeconds());
+        }
+        return captureScheduler;
+    }
+    
+    /**
+     * Get the coalescing stage in front of the worker pipeline, creating it on first use.
+     */
+    private synchronized SnapshotCoalescer getCoalescer() {
+        if (coalescer == null) {
+            coalescer = new SnapshotCoalescer(config.getCoalesceWindowMs(), snapshot -> getRateLimiter().submit(snapshot),
+                this::journalDiscard);
+        }
+        return coalescer;
+    }
+    
+    /**
+     * Get the rate limiting stage between coalescing and the worker pipeline, creating it on first use.
+     */
+    private synchronized BackupRateLimiter getRateLimiter() {
+        if (rateLimiter == null) {
+            BackupRateLimiter.Limits limits = BackupRateLimiter.Limits.builder()
+                .playerBackupsPerSecond(config.getPlayerBackupsPerMinute() / 60.0)
+                .playerBurst(config.getPlayerBurst())
+                .playerBytesPerSecond(config.getPlayerKbPerSecond() * 1024L)
+                .globalBackupsPerSecond(config.getGlobalBackupsPerSecond())
+                .globalBytesPerSecond(config.getGlobalKbPerSecond() * 1024L)
+                .build();
+            rateLimiter = new BackupRateLimiter(limits, snapshot -> getPipeline().submit(snapshot),
+                metadata -> new File(bukkitPlugin.getDataFolder(), metadata.getFilePath()).length(),
+                this::journalDiscard);
+        }
+        return rateLimiter;
+    }
+    
+    /**
+     * Get the worker pipeline, creating it on first use.
+     */
+    private synchronized BackupPipeline getPipeline() {
+        if (pipeline == null) {
+            int capacity = config.getQueueCapacity() > 0 ? config.getQueueCapacity() : Integer.MAX_VALUE;
+            pipeline = new BackupPipeline(config.getWorkerThreads(), capacity, this::persistSnapshot,
+                this::journalDiscard,
+                priority -> getIoThrottle().nanosUntilAvailable(IoThrottle.Lane.forPriority(priority)));
+        }
+        return pipeline;
+    }
+    
+    /**
+     * Clean up old backups for a player, keeping the newest {@code max_backups_per_player}.
+     * A delta chain (a keyframe and the deltas stored against it) is deleted as a whole, newest
+     * first, once none of it is kept, so retention never rewrites a delta into a keyframe.
+     * Older members of a chain still in use stay until the whole chain has expired.
+     * <p>
+     * 清理玩家的旧备份，保留最新的 {@code max_backups_per_player} 个。
+     * 增量链（关键帧及以其为基准的增量）在整条链都不再保留时才从新到旧整体删除，因此清理不会把增量改写为关键帧；
+     * 仍在使用的链中较旧的备份会保留到整条链过期。
+     *
+     * @param latest the backup just written
+     */
+    private void cleanupOldBackups(BackupMetadata latest) {
+        List<BackupMetadata> backups = getBackups(UUID.fromString(latest.getPlayerUuid()));
+        int keep = config.getMaxBackupsPerPlayer();
+        if (backups.size() <= keep) {
+            return;
+        }
+        
+        Map<String, BackupMetadata> byId = new HashMap<>();
+        for (BackupMetadata backup : backups) {
+            byId.put(backup.getId(), backup);
+        }
+        Set<String> keptChains = new HashSet<>();
+        for (int i = 0; i < keep; i++) {
+            keptChains.add(chainOf(backups.get(i), byId));
+        }
+        List<BackupMetadata> expired = new ArrayList<>();
+        for (int i = keep; i < backups.size(); i++) {
+            if (!keptChains.contains(chainOf(backups.get(i), byId))) {
+                expired.add(backups.get(i));
+            }
+        }
+        
+        // Newest first: a backup's dependents are gone before it is, so nothing needs rebasing
+        for (BackupMetadata backup : expired) {
+            getIoThrottle().charge(IoThrottle.Lane.BACKGROUND,
+                new File(bukkitPlugin.getDataFolder(), backup.getFilePath()).length());
+            if (deleteBackup(backup, backups)) {
+                backups.remove(backup);
+            }
+        }
+    }
+    
+    /**
+     * Get the ID of the backup a delta chain starts at: its keyframe, or the oldest base
+     * still stored if the chain is broken.
+     */
+    private static String chainOf(BackupMetadata backup, Map<String, BackupMetadata> byId) {
+        BackupMetadata current = backup;
+        for (int depth = 0; depth < MAX_DELTA_CHAIN && current.getBaseId() != null; depth++) {
+            BackupMetadata base = byId.get(current.getBaseId());
+            if (base == null) {
+                break;
+            }
+            current = base;
+        }
+        return current.getId();
+    }
+    
     /**
      * Get the config.
      * <p>
@@ -377,6 +1647,37 @@ public class BackupService {
         return backupsDirectory;
     }
     
+    /**
+     * Journal entry of an accepted snapshot, with the content serialized for it.
+     * Filled in by the journal thread until a worker claims it; guarded by its own monitor.
+     */
+    /**
+     * Backup loaded for restore, or the reason it could not be.
+     */
+    private static final class LoadedBackup {
+        private final BackupMetadata metadata;
+        private final BackupContent content;
+        private final RestoreResult failure;
+        
+        private LoadedBackup(BackupMetadata metadata, BackupContent content) {
+            this.metadata = metadata;
+            this.content = content;
+            this.failure = null;
+        }
+        
+        private LoadedBackup(RestoreResult failure) {
+            this.metadata = null;
+            this.content = null;
+            this.failure = failure;
+        }
+    }
+    
+    private static final class Journaled {
+        private long sequence = -1L;
+        private BackupContent content;
+        private boolean claimed;
+    }
+    
     /**
      * Restore result enum.
      * <p>
@@ -0,0 +1,146 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU map from player to the last persisted snapshot, which the next backup of that
+ * player is stored as a delta against. A player without an entry (first backup since start,
+ * evicted, or base deleted) gets a full keyframe.
+ * <p>
+ * 有界 LRU 映射：记录每个玩家最近一次持久化的快照，该玩家的下一个备份以它为基准存储为增量。
+ * 没有记录的玩家（启动后的首次备份、被淘汰或基准已删除）会写入完整关键帧。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class DeltaTracker {
+
+    private final Map<String, Base> bases;
+    private final AtomicLong keyframes = new AtomicLong();
+    private final AtomicLong deltas = new AtomicLong();
+    private final AtomicLong rebases = new AtomicLong();
+
+    DeltaTracker(int capacity) {
+        this.bases = new LinkedHashMap<String, Base>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Base> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the base the next backup of a player may be a delta against.
+     * <p>
+     * 获取玩家下一个备份可作为增量基准的记录。
+     *
+     * @param snapshot the new snapshot
+     * @param keyframeInterval backups per keyframe; 1 means every backup is a keyframe
+     * @return the base, or null if the backup must be a keyframe
+     */
+    synchronized Base baseFor(InventorySnapshot snapshot, int keyframeInterval) {
+        Base base = bases.get(snapshot.getPlayerUuid());
+        if (base == null || base.chainLength + 1 >= keyframeInterval) {
+            return null;
+        }
+        InventorySnapshot previous = base.snapshot;
+        // A delta cannot express a section that was captured in one backup and not the other
+        if (previous.isArmorCaptured() != snapshot.isArmorCaptured()
+                || previous.isEnderchestCaptured() != snapshot.isEnderchestCaptured()
+                || previous.isExpCaptured() != snapshot.isExpCaptured()) {
+            return null;
+        }
+        return base;
+    }
+
+    /**
+     * Check whether a base is still the current one for its player.
+     */
+    synchronized boolean isCurrent(String playerUuid, Base base) {
+        return bases.get(playerUuid) == base;
+    }
+
+    /**
+     * Remember a persisted backup as the next base of its player.
+     * <p>
+     * 记录已持久化的备份，作为该玩家下一个备份的基准。
+     *
+     * @param backupId the ID of the persisted backup
+     * @param snapshot its snapshot
+     * @param base the base it is a delta against, or null for a keyframe
+     */
+    synchronized void record(String backupId, InventorySnapshot snapshot, Base base) {
+        if (base == null) {
+            keyframes.incrementAndGet();
+        } else {
+            deltas.incrementAndGet();
+        }
+        if (backupId == null) {
+            bases.remove(snapshot.getPlayerUuid());
+            return;
+        }
+        bases.put(snapshot.getPlayerUuid(), new Base(backupId, snapshot, base != null ? base.chainLength + 1 : 0));
+    }
+
+    /**
+     * Forget a player's base if it is the given backup, e.g. after it was deleted.
+     * <p>
+     * 如果玩家的基准是给定备份（例如已被删除），则将其遗忘。
+     */
+    synchronized void forget(String playerUuid, String backupId) {
+        Base base = bases.get(playerUuid);
+        if (base != null && base.backupId.equals(backupId)) {
+            bases.remove(playerUuid);
+        }
+    }
+
+    /**
+     * Count a delta folded into its dependent before deletion.
+     */
+    void recordRebase() {
+        rebases.incrementAndGet();
+    }
+
+    long getKeyframeCount() {
+        return keyframes.get();
+    }
+
+    long getDeltaCount() {
+        return deltas.get();
+    }
+
+    long getRebaseCount() {
+        return rebases.get();
+    }
+
+    /**
+     * The last persisted backup of a player and its distance from the keyframe.
+     */
+    static final class Base {
+        private final String backupId;
+        private final InventorySnapshot snapshot;
+        private final int chainLength;
+
+        private Base(String backupId, InventorySnapshot snapshot, int chainLength) {
+            this.backupId = backupId;
+            this.snapshot = snapshot;
+            this.chainLength = chainLength;
+        }
+
+        String getBackupId() {
+            return backupId;
+        }
+
+        InventorySnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        int getChainLength() {
+            return chainLength;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.config.FsyncPolicy;
+import com.ultikits.plugins.backup.entity.BackupContent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes backup files with temp-file-and-rename and applies the configured fsync policy.
+ * With {@link FsyncPolicy#BATCHED}, files renamed within one interval are fsynced together
+ * by a single background thread, and their parent directories once per batch.
+ * <p>
+ * 以“临时文件 + 重命名”方式写入备份文件，并按配置的 fsync 策略刷盘。
+ * 使用 {@link FsyncPolicy#BATCHED} 时，同一间隔内重命名的文件由后台线程统一 fsync，
+ * 其父目录每批只刷一次。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class DurableWriter {
+
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    private final FsyncPolicy policy;
+    private final long batchIntervalMs;
+    private final List<PendingSync> pending = new ArrayList<>();
+
+    private ScheduledExecutorService flusher;
+
+    DurableWriter(FsyncPolicy policy, long batchIntervalMs) {
+        this.policy = policy;
+        this.batchIntervalMs = Math.max(1L, batchIntervalMs);
+    }
+
+    /**
+     * Atomically write a file.
+     * <p>
+     * 原子写入文件。
+     *
+     * @param target the final path
+     * @param data the file bytes
+     * @return future completed once the file is durable under the configured policy
+     * @throws IOException if writing or renaming fails
+     */
+    CompletableFuture<Void> write(File target, byte[] data) throws IOException {
+        BackupContent.writeAtomically(target, data, policy == FsyncPolicy.PER_FILE);
+        switch (policy) {
+            case PER_FILE:
+                syncDirectory(target.getAbsoluteFile().getParentFile());
+                return DURABLE;
+            case BATCHED:
+                return enqueue(target);
+            default:
+                return DURABLE;
+        }
+    }
+
+    FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Fsync every file written since the last batch.
+     * <p>
+     * 对上一批之后写入的所有文件执行 fsync。
+     */
+    void flush() {
+        List<PendingSync> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        Set<File> directories = new LinkedHashSet<>();
+        for (PendingSync sync : batch) {
+            try {
+                force(sync.file);
+                directories.add(sync.file.getAbsoluteFile().getParentFile());
+            } catch (NoSuchFileException e) {
+                // Deleted by cleanup before the batch ran; nothing left to make durable
+            } catch (IOException e) {
+                sync.future.completeExceptionally(e);
+            }
+        }
+        for (File directory : directories) {
+            syncDirectory(directory);
+        }
+        for (PendingSync sync : batch) {
+            sync.future.complete(null);
+        }
+    }
+
+    /**
+     * Stop the batch thread and flush whatever is still pending.
+     * <p>
+     * 停止批量刷盘线程并刷写所有剩余文件。
+     */
+    void shutdown() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = flusher;
+            flusher = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(batchIntervalMs * 10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private synchronized CompletableFuture<Void> enqueue(File target) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pending.add(new PendingSync(target, future));
+        if (flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiBackup-Fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    private static void force(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Persist the rename itself by fsyncing the directory entry.
+     */
+    private static void syncDirectory(File directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for fsync on every platform (e.g. Windows)
+        }
+    }
+
+    private static final class PendingSync {
+        private final File file;
+        private final CompletableFuture<Void> future;
+
+        private PendingSync(File file, CompletableFuture<Void> future) {
+            this.file = file;
+            this.future = future;
+        }
+    }
+}
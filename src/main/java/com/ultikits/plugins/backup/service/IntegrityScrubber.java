@@ -0,0 +1,521 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupContent;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Background integrity scrubber that re-hashes every stored backup, a batch at a time,
+ * on a small thread pool under the background I/O budget.
+ * A pass walks backups in file-path order; the cursor, counters, last-verified times and
+ * flagged backups are saved after every batch, so a pass can be paused and survives restarts.
+ * Corrupt files are moved to {@code backups/quarantine} when quarantining is enabled.
+ * <p>
+ * 后台完整性巡检：在后台 I/O 预算内，以小型线程池分批重新计算所有已存储备份的哈希。
+ * 每轮按文件路径顺序遍历备份；游标、计数、最后校验时间和已标记的备份在每批之后保存，
+ * 因此巡检可以暂停，并在重启后继续。启用隔离时，损坏的文件会被移动到 {@code backups/quarantine}。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class IntegrityScrubber {
+
+    /**
+     * Reason recorded for a file whose content does not match its checksum.
+     */
+    public static final String REASON_CHECKSUM = "checksum";
+
+    /**
+     * Reason recorded for a stored backup whose file is gone.
+     */
+    public static final String REASON_MISSING = "missing";
+
+    private final File stateFile;
+    private final File quarantineDirectory;
+    private final File dataFolder;
+    private final IoThrottle throttle;
+    private final boolean quarantine;
+    private final int threads;
+    private final LongSupplier clock;
+    private final Consumer<String> reporter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ExecutorService pool;
+    private Deque<BackupMetadata> pending;
+
+    // Persisted state, guarded by this
+    private boolean paused;
+    private String cursor;
+    private long passStarted;
+    private long passChecked;
+    private long passCorrupt;
+    private long passMissing;
+    private long passes;
+    private long lastPassFinished;
+    private long lastPassChecked;
+    private long lastPassCorrupt;
+    private long lastPassMissing;
+    private final Map<String, Long> verified = new HashMap<>();
+    private final Map<String, Flag> flagged = new LinkedHashMap<>();
+
+    IntegrityScrubber(File backupsDirectory, File dataFolder, IoThrottle throttle, int threads,
+            boolean quarantine, Consumer<String> reporter) {
+        this(new File(backupsDirectory, "scrub.yml"), new File(backupsDirectory, "quarantine"), dataFolder,
+            throttle, threads, quarantine, System::currentTimeMillis, reporter);
+    }
+
+    IntegrityScrubber(File stateFile, File quarantineDirectory, File dataFolder, IoThrottle throttle, int threads,
+            boolean quarantine, LongSupplier clock, Consumer<String> reporter) {
+        this.stateFile = stateFile;
+        this.quarantineDirectory = quarantineDirectory;
+        this.dataFolder = dataFolder;
+        this.throttle = throttle;
+        this.threads = Math.max(1, threads);
+        this.quarantine = quarantine;
+        this.clock = clock;
+        this.reporter = reporter;
+        load();
+    }
+
+    /**
+     * Verify the next batch of the current pass, starting a new pass when the last one finished.
+     * Returns immediately when paused or when another batch is still running.
+     * <p>
+     * 校验当前巡检轮次的下一批备份，上一轮结束后开始新一轮。暂停或已有批次运行时立即返回。
+     *
+     * @param batchSize the number of backups to verify
+     * @param source every stored backup, read once at the start of a pass
+     * @param reload the backup's row as stored now, or null if it was deleted; a failed check is
+     *               repeated against it, since the pass's copy can be hours old
+     * @return the backups flagged in this batch
+     */
+    public List<BackupMetadata> runBatch(int batchSize, Supplier<List<BackupMetadata>> source,
+            Function<BackupMetadata, BackupMetadata> reload) {
+        List<BackupMetadata> newlyFlagged = new ArrayList<>();
+        if (!running.compareAndSet(false, true)) {
+            return newlyFlagged;
+        }
+        try {
+            List<BackupMetadata> batch = nextBatch(batchSize, source);
+            if (batch == null) {
+                return newlyFlagged;
+            }
+            if (batch.isEmpty()) {
+                finishPass();
+                return newlyFlagged;
+            }
+
+            List<Future<String>> results = new ArrayList<>(batch.size());
+            ExecutorService executor = getPool();
+            for (BackupMetadata metadata : batch) {
+                results.add(executor.submit(() -> verify(metadata)));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                String reason;
+                try {
+                    reason = results.get(i).get();
+                } catch (InterruptedException e) {
+                    // The cursor stays put, so the batch is verified again next time
+                    Thread.currentThread().interrupt();
+                    return newlyFlagged;
+                } catch (ExecutionException e) {
+                    reason = REASON_CHECKSUM;
+                }
+                BackupMetadata metadata = batch.get(i);
+                if (reason != null) {
+                    BackupMetadata current = reload.apply(metadata);
+                    if (current == null) {
+                        // Deleted while the pass was running
+                        continue;
+                    }
+                    if (!Objects.equals(current.getFilePath(), metadata.getFilePath())
+                            || !Objects.equals(current.getChecksum(), metadata.getChecksum())) {
+                        // Rewritten while the pass was running, e.g. rebased to a new file
+                        metadata = current;
+                        reason = verify(current);
+                    }
+                }
+                if (record(metadata, reason)) {
+                    newlyFlagged.add(metadata);
+                }
+            }
+            synchronized (this) {
+                cursor = batch.get(batch.size() - 1).getFilePath();
+            }
+            save();
+            return newlyFlagged;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private synchronized List<BackupMetadata> nextBatch(int batchSize, Supplier<List<BackupMetadata>> source) {
+        if (paused) {
+            return null;
+        }
+        if (pending == null) {
+            List<BackupMetadata> all = new ArrayList<>(source.get());
+            all.removeIf(metadata -> metadata.getFilePath() == null
+                || (cursor != null && metadata.getFilePath().compareTo(cursor) <= 0));
+            all.sort((a, b) -> a.getFilePath().compareTo(b.getFilePath()));
+            pending = new ArrayDeque<>(all);
+            if (passStarted == 0L) {
+                passStarted = clock.getAsLong();
+            }
+        }
+        List<BackupMetadata> batch = new ArrayList<>(Math.max(0, batchSize));
+        while (batch.size() < batchSize && !pending.isEmpty()) {
+            batch.add(pending.poll());
+        }
+        return batch;
+    }
+
+    /**
+     * Hash one backup file under the background I/O budget.
+     *
+     * @return null when intact, otherwise the reason it is flagged
+     */
+    private String verify(BackupMetadata metadata) {
+        File file = new File(dataFolder, metadata.getFilePath());
+        if (!file.isFile()) {
+            return REASON_MISSING;
+        }
+        if (metadata.getChecksum() == null) {
+            // Written before checksums were recorded; existence is all that can be checked
+            return null;
+        }
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, file.length());
+        try {
+            return BackupContent.verifyChecksum(file, metadata.getChecksum()) ? null : REASON_CHECKSUM;
+        } catch (IOException e) {
+            return REASON_CHECKSUM;
+        }
+    }
+
+    /**
+     * Count one verified backup and flag it if bad.
+     *
+     * @return true if the backup was not flagged before
+     */
+    private boolean record(BackupMetadata metadata, String reason) {
+        long now = clock.getAsLong();
+        boolean isNew;
+        synchronized (this) {
+            passChecked++;
+            if (metadata.getId() != null) {
+                verified.put(metadata.getId(), now);
+            }
+            if (reason == null) {
+                if (metadata.getId() != null) {
+                    flagged.remove(metadata.getId());
+                }
+                return false;
+            }
+            if (REASON_MISSING.equals(reason)) {
+                passMissing++;
+            } else {
+                passCorrupt++;
+            }
+            Flag previous = metadata.getId() != null
+                ? flagged.put(metadata.getId(), new Flag(reason, metadata.getFilePath(), now)) : null;
+            isNew = previous == null;
+        }
+        if (isNew) {
+            reporter.accept("Backup " + metadata.getFilePath() + " of " + metadata.getPlayerName()
+                + " failed integrity check (" + reason + ")");
+            if (quarantine && REASON_CHECKSUM.equals(reason)) {
+                quarantine(metadata);
+            }
+        }
+        return isNew;
+    }
+
+    private void quarantine(BackupMetadata metadata) {
+        File file = new File(dataFolder, metadata.getFilePath());
+        try {
+            Files.createDirectories(quarantineDirectory.toPath());
+            Files.move(file.toPath(), new File(quarantineDirectory, file.getName()).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            reporter.accept("Failed to quarantine " + metadata.getFilePath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close the pass, keeping its figures and forgetting backups not seen in it.
+     */
+    private void finishPass() {
+        synchronized (this) {
+            passes++;
+            lastPassFinished = clock.getAsLong();
+            lastPassChecked = passChecked;
+            lastPassCorrupt = passCorrupt;
+            lastPassMissing = passMissing;
+            // Every backup still stored was verified during the pass
+            long started = passStarted;
+            verified.values().removeIf(time -> time < started);
+            flagged.values().removeIf(flag -> flag.detectedAt < started);
+            cursor = null;
+            passStarted = 0L;
+            passChecked = 0L;
+            passCorrupt = 0L;
+            passMissing = 0L;
+            pending = null;
+        }
+        save();
+    }
+
+    /**
+     * Stop starting new batches until {@link #resume()}; the paused state is saved.
+     * <p>
+     * 在 {@link #resume()} 之前不再开始新的批次；暂停状态会被保存。
+     */
+    public void pause() {
+        synchronized (this) {
+            paused = true;
+        }
+        save();
+    }
+
+    /**
+     * Continue the pass from where it stopped.
+     * <p>
+     * 从停止处继续巡检。
+     */
+    public void resume() {
+        synchronized (this) {
+            paused = false;
+        }
+        save();
+    }
+
+    /**
+     * Stop the verification threads.
+     * <p>
+     * 停止校验线程。
+     */
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private synchronized ExecutorService getPool() {
+        if (pool == null) {
+            AtomicInteger index = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "UltiBackup-Scrub-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return pool;
+    }
+
+    // ==================== State ====================
+
+    private synchronized void load() {
+        if (!stateFile.isFile()) {
+            return;
+        }
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(stateFile);
+        paused = yaml.getBoolean("paused");
+        cursor = yaml.getString("cursor");
+        passStarted = yaml.getLong("pass.started");
+        passChecked = yaml.getLong("pass.checked");
+        passCorrupt = yaml.getLong("pass.corrupt");
+        passMissing = yaml.getLong("pass.missing");
+        passes = yaml.getLong("passes");
+        lastPassFinished = yaml.getLong("last_pass.finished");
+        lastPassChecked = yaml.getLong("last_pass.checked");
+        lastPassCorrupt = yaml.getLong("last_pass.corrupt");
+        lastPassMissing = yaml.getLong("last_pass.missing");
+        ConfigurationSection verifiedSection = yaml.getConfigurationSection("verified");
+        if (verifiedSection != null) {
+            for (String id : verifiedSection.getKeys(false)) {
+                verified.put(id, verifiedSection.getLong(id));
+            }
+        }
+        ConfigurationSection flaggedSection = yaml.getConfigurationSection("flagged");
+        if (flaggedSection != null) {
+            for (String id : flaggedSection.getKeys(false)) {
+                flagged.put(id, new Flag(flaggedSection.getString(id + ".reason"),
+                    flaggedSection.getString(id + ".path"), flaggedSection.getLong(id + ".time")));
+            }
+        }
+    }
+
+    private void save() {
+        String text;
+        synchronized (this) {
+            YamlConfiguration yaml = new YamlConfiguration();
+            yaml.set("paused", paused);
+            yaml.set("cursor", cursor);
+            yaml.set("pass.started", passStarted);
+            yaml.set("pass.checked", passChecked);
+            yaml.set("pass.corrupt", passCorrupt);
+            yaml.set("pass.missing", passMissing);
+            yaml.set("passes", passes);
+            yaml.set("last_pass.finished", lastPassFinished);
+            yaml.set("last_pass.checked", lastPassChecked);
+            yaml.set("last_pass.corrupt", lastPassCorrupt);
+            yaml.set("last_pass.missing", lastPassMissing);
+            for (Map.Entry<String, Long> entry : verified.entrySet()) {
+                yaml.set("verified." + entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, Flag> entry : flagged.entrySet()) {
+                yaml.set("flagged." + entry.getKey() + ".reason", entry.getValue().reason);
+                yaml.set("flagged." + entry.getKey() + ".path", entry.getValue().path);
+                yaml.set("flagged." + entry.getKey() + ".time", entry.getValue().detectedAt);
+            }
+            text = yaml.saveToString();
+        }
+        try {
+            BackupContent.writeAtomically(stateFile, text.getBytes(StandardCharsets.UTF_8), false);
+        } catch (IOException e) {
+            reporter.accept("Failed to save scrub state: " + e.getMessage());
+        }
+    }
+
+    // ==================== Status ====================
+
+    /**
+     * Check whether scrubbing is paused.
+     * <p>
+     * 检查巡检是否已暂停。
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Get when a backup was last verified.
+     * <p>
+     * 获取备份最后一次校验的时间。
+     *
+     * @param id the backup ID
+     * @return epoch milliseconds, or null if not verified yet
+     */
+    public synchronized Long getLastVerified(String id) {
+        return verified.get(id);
+    }
+
+    /**
+     * Get the reason a backup is flagged.
+     * <p>
+     * 获取备份被标记的原因。
+     *
+     * @param id the backup ID
+     * @return {@link #REASON_CHECKSUM} or {@link #REASON_MISSING}, or null if not flagged
+     */
+    public synchronized String getFlagReason(String id) {
+        Flag flag = flagged.get(id);
+        return flag != null ? flag.reason : null;
+    }
+
+    /**
+     * Get the file paths of all flagged backups by ID.
+     * <p>
+     * 获取所有被标记备份的文件路径（按 ID）。
+     */
+    public synchronized Map<String, String> getFlagged() {
+        Map<String, String> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, Flag> entry : flagged.entrySet()) {
+            paths.put(entry.getKey(), entry.getValue().path);
+        }
+        return paths;
+    }
+
+    /**
+     * Get the backups left in the current pass, or -1 before the pass has been listed.
+     * <p>
+     * 获取当前轮次剩余的备份数；本轮尚未列出时返回 -1。
+     */
+    public synchronized int getPassRemaining() {
+        return pending != null ? pending.size() : -1;
+    }
+
+    public synchronized long getPassChecked() {
+        return passChecked;
+    }
+
+    public synchronized long getPassCorrupt() {
+        return passCorrupt;
+    }
+
+    public synchronized long getPassMissing() {
+        return passMissing;
+    }
+
+    public synchronized long getPasses() {
+        return passes;
+    }
+
+    public synchronized long getLastPassFinished() {
+        return lastPassFinished;
+    }
+
+    public synchronized long getLastPassChecked() {
+        return lastPassChecked;
+    }
+
+    /**
+     * Get the share of backups found corrupt or missing in the last full pass.
+     * <p>
+     * 获取上一完整轮次中损坏或缺失备份所占的比例。
+     *
+     * @return the rate between 0 and 1, or 0 before the first pass finished
+     */
+    public synchronized double getLastPassCorruptionRate() {
+        return lastPassChecked == 0 ? 0.0 : (double) (lastPassCorrupt + lastPassMissing) / lastPassChecked;
+    }
+
+    /**
+     * Get the share of backups found corrupt or missing so far in the current pass.
+     * <p>
+     * 获取当前轮次中到目前为止损坏或缺失备份所占的比例。
+     */
+    public synchronized double getPassCorruptionRate() {
+        return passChecked == 0 ? 0.0 : (double) (passCorrupt + passMissing) / passChecked;
+    }
+
+    private static final class Flag {
+        private final String reason;
+        private final String path;
+        private final long detectedAt;
+
+        private Flag(String reason, String path, long detectedAt) {
+            this.reason = reason;
+            this.path = path;
+            this.detectedAt = detectedAt;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared disk budget for backup I/O, in bytes and operations per second, with separate
+ * lanes so player-facing work (DEATH, QUIT, MANUAL, restores) never queues behind
+ * background work (AUTO, saveall, retention, journal replay).
+ * Backup writes and deletes {@link #charge} without waiting; {@link BackupPipeline} holds a
+ * lane's queued work back while {@link #nanosUntilAvailable} reports debt, so its workers stay
+ * free for the other lane. Dedicated background threads such as the scrubber
+ * {@link #acquire reserve} and sleep until their reservation is due.
+ * <p>
+ * 备份 I/O 的共享磁盘预算，按每秒字节数和操作数限制，并分为两条通道，
+ * 使面向玩家的操作（DEATH、QUIT、MANUAL、恢复）不会排在后台任务（AUTO、saveall、清理、日志重放）之后。
+ * 备份写入和删除直接扣除额度而不等待；通道欠额期间 {@link BackupPipeline} 暂缓该通道的排队任务，
+ * 工作线程可继续处理另一条通道。扫描器等专用后台线程预约额度并休眠至预约到期。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class IoThrottle {
+
+    private final Budget[] budgets;
+    private final LongConsumer sleeper;
+
+    IoThrottle(long foregroundBytesPerSecond, int foregroundOpsPerSecond,
+            long backgroundBytesPerSecond, int backgroundOpsPerSecond) {
+        this(foregroundBytesPerSecond, foregroundOpsPerSecond, backgroundBytesPerSecond, backgroundOpsPerSecond,
+            System::nanoTime, IoThrottle::sleep);
+    }
+
+    IoThrottle(long foregroundBytesPerSecond, int foregroundOpsPerSecond,
+            long backgroundBytesPerSecond, int backgroundOpsPerSecond, LongSupplier clock, LongConsumer sleeper) {
+        this.budgets = new Budget[] {
+            new Budget(foregroundBytesPerSecond, foregroundOpsPerSecond, clock),
+            new Budget(backgroundBytesPerSecond, backgroundOpsPerSecond, clock)
+        };
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Reserve one operation of the given size and wait until the lane's budget covers it.
+     * Must not be called on the main thread.
+     * <p>
+     * 预约一次指定大小的操作，并等待至通道预算足以覆盖。不得在主线程调用。
+     *
+     * @param lane the lane
+     * @param bytes the bytes about to be read or written
+     */
+    void acquire(Lane lane, long bytes) {
+        Budget budget = budgets[lane.ordinal()];
+        long wait = budget.reserve(bytes);
+        if (wait > 0) {
+            budget.throttled.incrementAndGet();
+            budget.waitedNanos.addAndGet(wait);
+            sleeper.accept(wait);
+        }
+    }
+
+    /**
+     * Account for one operation without waiting.
+     * <p>
+     * 记录一次操作而不等待。
+     *
+     * @param lane the lane
+     * @param bytes the bytes read or written
+     */
+    void charge(Lane lane, long bytes) {
+        budgets[lane.ordinal()].reserve(bytes);
+    }
+
+    /**
+     * Get how long until the lane's budget admits another operation, without reserving anything.
+     * <p>
+     * 获取通道预算允许下一次操作前需要等待的时间，不预约额度。
+     *
+     * @param lane the lane
+     * @return nanoseconds to wait, or 0 if the lane has budget now
+     */
+    long nanosUntilAvailable(Lane lane) {
+        return budgets[lane.ordinal()].nanosUntilAvailable();
+    }
+
+    /**
+     * Get the operations accounted in a lane.
+     * <p>
+     * 获取通道内记录的操作数。
+     */
+    long getOps(Lane lane) {
+        return budgets[lane.ordinal()].ops.get();
+    }
+
+    /**
+     * Get the bytes accounted in a lane.
+     * <p>
+     * 获取通道内记录的字节数。
+     */
+    long getBytes(Lane lane) {
+        return budgets[lane.ordinal()].bytes.get();
+    }
+
+    /**
+     * Get how many operations in a lane had to wait for budget.
+     * <p>
+     * 获取通道内需要等待预算的操作数。
+     */
+    long getThrottledCount(Lane lane) {
+        return budgets[lane.ordinal()].throttled.get();
+    }
+
+    /**
+     * Get the total time operations in a lane spent waiting, in milliseconds.
+     * <p>
+     * 获取通道内操作等待的总时间（毫秒）。
+     */
+    long getWaitedMillis(Lane lane) {
+        return TimeUnit.NANOSECONDS.toMillis(budgets[lane.ordinal()].waitedNanos.get());
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * I/O lane.
+     * <p>
+     * I/O 通道。
+     */
+    enum Lane {
+        FOREGROUND,
+        BACKGROUND;
+
+        /**
+         * Get the lane for writing a backup with the given reason.
+         * <p>
+         * 获取写入指定原因备份所用的通道。
+         */
+        static Lane forReason(String reason) {
+            return forPriority(ReasonPriority.of(reason));
+        }
+
+        /**
+         * Get the lane for writing a backup with the given {@link ReasonPriority}.
+         * <p>
+         * 获取写入指定优先级备份所用的通道。
+         */
+        static Lane forPriority(int priority) {
+            return priority >= ReasonPriority.of("MANUAL") ? FOREGROUND : BACKGROUND;
+        }
+    }
+
+    private static final class Budget {
+        private final TokenBucket byteBucket;
+        private final TokenBucket opBucket;
+        private final AtomicLong ops = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong waitedNanos = new AtomicLong();
+
+        private Budget(long bytesPerSecond, int opsPerSecond, LongSupplier clock) {
+            this.byteBucket = bytesPerSecond > 0 ? new TokenBucket(bytesPerSecond, bytesPerSecond, clock) : null;
+            this.opBucket = opsPerSecond > 0 ? new TokenBucket(opsPerSecond, opsPerSecond, clock) : null;
+        }
+
+        /**
+         * Take the tokens now and return how long the caller owes before proceeding.
+         * Later reservations see the debt, so concurrent callers queue up fairly.
+         */
+        private synchronized long reserve(long size) {
+            ops.incrementAndGet();
+            bytes.addAndGet(size);
+            long wait = 0;
+            if (opBucket != null) {
+                wait = Math.max(wait, opBucket.nanosUntil(1));
+                opBucket.charge(1);
+            }
+            if (byteBucket != null) {
+                wait = Math.max(wait, byteBucket.nanosUntil(0));
+                byteBucket.charge(size);
+            }
+            return wait;
+        }
+
+        private synchronized long nanosUntilAvailable() {
+            long wait = 0;
+            if (opBucket != null) {
+                wait = Math.max(wait, opBucket.nanosUntil(1));
+            }
+            if (byteBucket != null) {
+                wait = Math.max(wait, byteBucket.nanosUntil(0));
+            }
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Recording is a few atomic increments, so it is cheap enough for every backup;
+ * percentiles are reported as the upper bound of their bucket.
+ * <p>
+ * 以 2 的幂微秒为桶的无锁延迟直方图。
+ * 记录只需几次原子自增，足以用于每一次备份；百分位数以所在桶的上界报告。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class LatencyHistogram {
+
+    /**
+     * Bucket 0 holds samples under 1 µs, bucket i holds [2^(i-1), 2^i) µs; the last is open-ended.
+     */
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one sample.
+     * <p>
+     * 记录一个样本。
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long sample = Math.max(0L, nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(sample / 1000L));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(sample);
+        maxNanos.accumulateAndGet(sample, Math::max);
+    }
+
+    /**
+     * Get the number of samples.
+     * <p>
+     * 获取样本数量。
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the mean latency in milliseconds.
+     * <p>
+     * 获取平均延迟（毫秒）。
+     */
+    public double getMeanMillis() {
+        long samples = count.sum();
+        return samples == 0 ? 0.0 : totalNanos.sum() / (samples * 1_000_000.0);
+    }
+
+    /**
+     * Get the sum of all latencies in milliseconds.
+     * <p>
+     * 获取所有延迟之和（毫秒）。
+     */
+    public double getSumMillis() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Get the number of buckets.
+     * <p>
+     * 获取桶的数量。
+     */
+    public static int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Get the upper bound of a bucket in milliseconds; the last bucket is unbounded.
+     * <p>
+     * 获取桶的上界（毫秒）；最后一个桶没有上界。
+     *
+     * @param bucket the bucket index
+     * @return the upper bound, or {@link Double#POSITIVE_INFINITY} for the last bucket
+     */
+    public static double getBucketUpperMillis(int bucket) {
+        return bucket >= BUCKETS - 1 ? Double.POSITIVE_INFINITY : (1L << bucket) / 1000.0;
+    }
+
+    /**
+     * Get a copy of the per-bucket sample counts.
+     * <p>
+     * 获取各桶样本数的副本。
+     *
+     * @return the counts, indexed like {@link #getBucketUpperMillis(int)}
+     */
+    public long[] getBucketCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the largest latency seen, in milliseconds.
+     * <p>
+     * 获取观测到的最大延迟（毫秒）。
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Get a latency percentile in milliseconds, rounded up to its bucket bound and
+     * never above the maximum seen.
+     * <p>
+     * 获取延迟百分位数（毫秒），向上取整到所在桶的上界，且不超过观测到的最大值。
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the percentile, or 0 without samples
+     */
+    public double getPercentileMillis(double quantile) {
+        long[] snapshot = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : snapshot) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+}
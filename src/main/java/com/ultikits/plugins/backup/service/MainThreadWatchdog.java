@@ -0,0 +1,197 @@
+package com.ultikits.plugins.backup.service;
+
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures server-thread time spent in backup code: listeners, mass-backup ticks,
+ * GUI rendering and restores. Each timed call may mark steps; a call over the threshold
+ * is reported with its step breakdown. A rolling one-minute total shows the module's
+ * share of tick time. Calls off the main thread are not counted.
+ * <p>
+ * 测量备份代码占用的服务器主线程时间：监听器、批量备份的每刻任务、GUI 渲染和恢复。
+ * 每次计时可标记步骤；超过阈值的调用会连同步骤明细一起报告。
+ * 滚动一分钟的总耗时反映本模块占用的刻时间。不在主线程上的调用不计入。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class MainThreadWatchdog {
+
+    private static final int WINDOW_SECONDS = 60;
+    private static final Timing NOOP = new Timing(null, null, 0L);
+
+    private final long thresholdNanos;
+    private final BooleanSupplier onMainThread;
+    private final LongSupplier clock;
+    private final Consumer<String> reporter;
+    private final Map<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+    private final long[] slotSecond = new long[WINDOW_SECONDS];
+    private final long[] slotNanos = new long[WINDOW_SECONDS];
+
+    MainThreadWatchdog(long thresholdMillis, Consumer<String> reporter) {
+        this(thresholdMillis, MainThreadWatchdog::isPrimaryThread, System::nanoTime, reporter);
+    }
+
+    MainThreadWatchdog(long thresholdMillis, BooleanSupplier onMainThread, LongSupplier clock,
+            Consumer<String> reporter) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.onMainThread = onMainThread;
+        this.clock = clock;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Start timing a call. Use with try-with-resources.
+     * <p>
+     * 开始为一次调用计时。配合 try-with-resources 使用。
+     *
+     * @param operation the operation name, e.g. {@code listener.death}
+     * @return the timing, a no-op off the main thread
+     */
+    public Timing start(String operation) {
+        if (!onMainThread.getAsBoolean()) {
+            return NOOP;
+        }
+        return new Timing(this, operation, clock.getAsLong());
+    }
+
+    /**
+     * Start timing with a watchdog that may be absent.
+     * <p>
+     * 使用可能不存在的看门狗开始计时。
+     *
+     * @param watchdog the watchdog, or null
+     * @param operation the operation name
+     * @return the timing, a no-op if there is no watchdog
+     */
+    public static Timing start(MainThreadWatchdog watchdog, String operation) {
+        return watchdog != null ? watchdog.start(operation) : NOOP;
+    }
+
+    /**
+     * Get the main-thread time spent in the last minute, in milliseconds.
+     * <p>
+     * 获取最近一分钟占用的主线程时间（毫秒）。
+     */
+    public double getLastMinuteMillis() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong());
+        long total = 0;
+        synchronized (slotNanos) {
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                if (second - slotSecond[i] < WINDOW_SECONDS) {
+                    total += slotNanos[i];
+                }
+            }
+        }
+        return total / 1_000_000.0;
+    }
+
+    /**
+     * Get the main-thread latency of every timed operation, by name.
+     * <p>
+     * 按名称获取每个计时操作的主线程耗时。
+     */
+    public Map<String, LatencyHistogram> getOperations() {
+        return Collections.unmodifiableMap(new TreeMap<>(operations));
+    }
+
+    private void finish(Timing timing, long end) {
+        long elapsed = end - timing.startNanos;
+        operations.computeIfAbsent(timing.operation, name -> new LatencyHistogram()).record(elapsed);
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(end);
+        int slot = (int) (second % WINDOW_SECONDS);
+        synchronized (slotNanos) {
+            if (slotSecond[slot] != second) {
+                slotSecond[slot] = second;
+                slotNanos[slot] = 0;
+            }
+            slotNanos[slot] += elapsed;
+        }
+
+        if (thresholdNanos > 0 && elapsed > thresholdNanos) {
+            StringBuilder message = new StringBuilder()
+                .append(timing.operation).append(" took ").append(millis(elapsed)).append(" ms on the main thread");
+            if (timing.steps != null) {
+                message.append(" (");
+                for (int i = 0; i < timing.steps.size(); i++) {
+                    if (i > 0) {
+                        message.append(", ");
+                    }
+                    message.append(timing.steps.get(i)).append(' ').append(millis(timing.stepNanos.get(i))).append(" ms");
+                }
+                message.append(')');
+            }
+            message.append("; last minute total ").append(String.format("%.1f", getLastMinuteMillis())).append(" ms");
+            reporter.accept(message.toString());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static boolean isPrimaryThread() {
+        return Bukkit.getServer() != null && Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * One timed call.
+     * <p>
+     * 一次计时调用。
+     */
+    public static final class Timing implements AutoCloseable {
+        private final MainThreadWatchdog watchdog;
+        private final String operation;
+        private final long startNanos;
+        private long lastMark;
+        private List<String> steps;
+        private List<Long> stepNanos;
+
+        private Timing(MainThreadWatchdog watchdog, String operation, long startNanos) {
+            this.watchdog = watchdog;
+            this.operation = operation;
+            this.startNanos = startNanos;
+            this.lastMark = startNanos;
+        }
+
+        /**
+         * End a step of the breakdown here; the step covers the time since the previous mark.
+         * <p>
+         * 在此结束明细中的一个步骤；该步骤涵盖自上一次标记以来的时间。
+         *
+         * @param step the step name
+         */
+        public void mark(String step) {
+            if (watchdog == null) {
+                return;
+            }
+            long now = watchdog.clock.getAsLong();
+            if (steps == null) {
+                steps = new ArrayList<>(4);
+                stepNanos = new ArrayList<>(4);
+            }
+            steps.add(step);
+            stepNanos.add(now - lastMark);
+            lastMark = now;
+        }
+
+        @Override
+        public void close() {
+            if (watchdog != null) {
+                watchdog.finish(this, watchdog.clock.getAsLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.ultikits.plugins.backup.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Optional HTTP endpoint on the JDK's built-in server for monitoring scrapes.
+ * {@code /metrics} serves {@link BackupService#collectMetrics()} and the operation and phase
+ * latency histograms in Prometheus text format; {@code /health} serves a JSON summary and
+ * answers 503 while a backup or restore has failed, or a write was shed, in the last five minutes.
+ * Failures are tracked by sampling the lifetime counters, so a server recovers on its own
+ * once the window passes; the lifetime totals are reported as fields only.
+ * <p>
+ * 基于 JDK 内置 HTTP 服务器的可选监控端点。
+ * {@code /metrics} 以 Prometheus 文本格式输出 {@link BackupService#collectMetrics()} 以及操作与阶段的延迟直方图；
+ * {@code /health} 输出 JSON 健康摘要，最近五分钟内有备份或恢复失败、或写入被丢弃时返回 503。
+ * 失败通过对累计计数采样来跟踪，窗口过后自动恢复；累计总数仅作为字段输出。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class MetricsEndpoint {
+
+    private static final String PREFIX = "ultibackup_";
+    private static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final long HEALTH_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long SAMPLE_INTERVAL_SECONDS = 15;
+    // Counters whose increase within the window marks the server degraded
+    private static final String[] FAILURE_COUNTERS = {
+        "operations.create.failures", "operations.restore.failures", "queue.shed"
+    };
+
+    private final BackupService service;
+    private final String host;
+    private final int port;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private HttpServer server;
+    private ScheduledExecutorService executor;
+
+    public MetricsEndpoint(BackupService service, String host, int port) {
+        this(service, host, port, HEALTH_WINDOW_NANOS, System::nanoTime);
+    }
+
+    MetricsEndpoint(BackupService service, String host, int port, long windowNanos, LongSupplier clock) {
+        this.service = service;
+        this.host = host;
+        this.port = port;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Bind the server and start answering requests.
+     * <p>
+     * 绑定端口并开始处理请求。
+     *
+     * @throws IOException if the address cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        HttpServer created = HttpServer.create(new InetSocketAddress(host, port), 0);
+        created.createContext("/metrics", exchange -> handle(exchange, "/metrics"));
+        created.createContext("/health", exchange -> handle(exchange, "/health"));
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "UltiBackup-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        created.setExecutor(executor);
+        synchronized (samples) {
+            samples.clear();
+        }
+        sample();
+        // Sample between probes too, so the window does not depend on how often /health is scraped
+        executor.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_SECONDS, SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        created.start();
+        server = created;
+    }
+
+    /**
+     * Stop the server; requests in flight are abandoned.
+     * <p>
+     * 停止服务器；正在处理的请求会被放弃。
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Get the bound port, which differs from the configured one when that was 0.
+     * <p>
+     * 获取实际绑定的端口；配置为 0 时与配置值不同。
+     *
+     * @return the port, or -1 when stopped
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            if (!path.equals(exchange.getRequestURI().getPath())) {
+                respond(exchange, 404, "text/plain; charset=utf-8", "Not Found\n");
+            } else if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                respond(exchange, 405, "text/plain; charset=utf-8", "Method Not Allowed\n");
+            } else if ("/metrics".equals(path)) {
+                respond(exchange, 200, PROMETHEUS_TYPE, renderPrometheus());
+            } else {
+                Map<String, Number> metrics = service.collectMetrics();
+                long[] recent = recentFailures(metrics);
+                respond(exchange, isHealthy(recent) ? 200 : 503, JSON_TYPE, renderHealth(metrics, recent));
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "text/plain; charset=utf-8", "Failed to collect metrics: " + e + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, head ? -1 : bytes.length);
+        if (!head) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Render every metric as a Prometheus gauge, plus the operation and phase histograms.
+     * <p>
+     * 将所有指标渲染为 Prometheus gauge，并附加操作与阶段的直方图。
+     *
+     * @return the exposition text
+     */
+    String renderPrometheus() {
+        StringBuilder out = new StringBuilder(16384);
+        for (Map.Entry<String, Number> entry : service.collectMetrics().entrySet()) {
+            String name = PREFIX + sanitize(entry.getKey());
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(format(entry.getValue())).append('\n');
+        }
+
+        BackupMetrics metrics = service.getMetrics();
+        String operations = PREFIX + "operation_duration_seconds";
+        out.append("# HELP ").append(operations).append(" Latency of backup operations.\n");
+        out.append("# TYPE ").append(operations).append(" histogram\n");
+        for (BackupMetrics.Operation operation : BackupMetrics.Operation.values()) {
+            appendHistogram(out, operations, "operation", operation.name(), metrics.getLatency(operation));
+        }
+        String phases = PREFIX + "phase_duration_seconds";
+        out.append("# HELP ").append(phases).append(" Latency of each backup write phase.\n");
+        out.append("# TYPE ").append(phases).append(" histogram\n");
+        for (BackupMetrics.Phase phase : BackupMetrics.Phase.values()) {
+            appendHistogram(out, phases, "phase", phase.name(), metrics.getLatency(phase));
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String label, String value,
+            LatencyHistogram histogram) {
+        String labels = label + "=\"" + value.toLowerCase(Locale.ROOT) + "\"";
+        long[] buckets = histogram.getBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i];
+            double upperMillis = LatencyHistogram.getBucketUpperMillis(i);
+            // Divide from microseconds once so bounds print exactly, e.g. 0.004096
+            double upper = Double.isInfinite(upperMillis) ? upperMillis : Math.round(upperMillis * 1000.0) / 1_000_000.0;
+            out.append(name).append("_bucket{").append(labels).append(",le=\"").append(format(upper))
+                .append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ")
+            .append(format(histogram.getSumMillis() / 1000.0)).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Render a JSON health summary.
+     * <p>
+     * 渲染 JSON 健康摘要。
+     */
+    String renderHealth(Map<String, Number> metrics, long[] recent) {
+        StringBuilder out = new StringBuilder(512);
+        out.append("{\"status\":\"").append(isHealthy(recent) ? "ok" : "degraded").append('"');
+        appendField(out, "window_seconds", TimeUnit.NANOSECONDS.toSeconds(windowNanos));
+        appendField(out, "recent_backup_failures", recent[0]);
+        appendField(out, "recent_restore_failures", recent[1]);
+        appendField(out, "recent_queue_shed", recent[2]);
+        appendField(out, "uptime_seconds", metrics.get("uptime_seconds"));
+        appendField(out, "backups", metrics.get("operations.create.count"));
+        appendField(out, "backup_failures", metrics.get("operations.create.failures"));
+        appendField(out, "restore_failures", metrics.get("operations.restore.failures"));
+        appendField(out, "backup_p99_ms", metrics.get("operations.create.p99_ms"));
+        appendField(out, "queue_pending", metrics.get("queue.pending"));
+        appendField(out, "queue_shed", metrics.get("queue.shed"));
+        appendField(out, "rate_limit_held", metrics.get("rate_limit.held"));
+        appendField(out, "main_thread_last_minute_ms", metrics.get("main_thread.last_minute_ms"));
+        return out.append("}\n").toString();
+    }
+
+    /**
+     * Healthy while no backup or restore failed and no write was shed within the window.
+     */
+    private static boolean isHealthy(long[] recent) {
+        for (long count : recent) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sample() {
+        try {
+            recentFailures(service.collectMetrics());
+        } catch (RuntimeException e) {
+            // A failed sample only widens the window; keep the schedule alive
+        }
+    }
+
+    /**
+     * Record the failure counters and get how much each grew within the window.
+     * The baseline is the newest sample at least a window old, or the first one taken.
+     *
+     * @return increases in {@link #FAILURE_COUNTERS} order
+     */
+    long[] recentFailures(Map<String, Number> metrics) {
+        long now = clock.getAsLong();
+        long[] totals = new long[FAILURE_COUNTERS.length];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = longValue(metrics.get(FAILURE_COUNTERS[i]));
+        }
+        synchronized (samples) {
+            samples.addLast(new Sample(now, totals));
+            while (samples.size() > 1) {
+                Sample first = samples.pollFirst();
+                if (now - samples.peekFirst().nanos < windowNanos) {
+                    samples.addFirst(first);
+                    break;
+                }
+            }
+            long[] baseline = samples.peekFirst().totals;
+            long[] recent = new long[totals.length];
+            for (int i = 0; i < totals.length; i++) {
+                // Counters only reset with the service; treat a drop as a fresh start
+                recent[i] = Math.max(0L, totals[i] - baseline[i]);
+            }
+            return recent;
+        }
+    }
+
+    private static void appendField(StringBuilder out, String name, Number value) {
+        String text = format(value != null ? value : 0);
+        // JSON has no NaN or infinity
+        out.append(",\"").append(name).append("\":").append(text.endsWith("Inf") || "NaN".equals(text) ? "null" : text);
+    }
+
+    private static long longValue(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+
+    private static String sanitize(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+            name.append(valid ? c : '_');
+        }
+        return name.toString();
+    }
+
+    private static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            double number = value.doubleValue();
+            if (Double.isNaN(number)) {
+                return "NaN";
+            }
+            if (Double.isInfinite(number)) {
+                return number > 0 ? "+Inf" : "-Inf";
+            }
+            return Double.toString(number);
+        }
+        return value.toString();
+    }
+
+    private static final class Sample {
+        private final long nanos;
+        private final long[] totals;
+
+        private Sample(long nanos, long[] totals) {
+            this.nanos = nanos;
+            this.totals = totals;
+        }
+    }
+}
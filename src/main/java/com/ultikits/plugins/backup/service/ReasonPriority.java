@@ -0,0 +1,49 @@
+package com.ultikits.plugins.backup.service;
+
+/**
+ * Priority of backup reasons, shared by coalescing and the persistence queue.
+ * DEATH keeps the pre-death inventory and players ask about it first, so it ranks
+ * highest; AUTO is routine and ranks lowest.
+ * <p>
+ * 备份原因的优先级，供合并与持久化队列共用。
+ * DEATH 保存死亡前的背包且玩家最关心，因此优先级最高；AUTO 为例行备份，优先级最低。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+final class ReasonPriority {
+
+    /**
+     * Priority of AUTO and unknown reasons.
+     */
+    static final int LOWEST = 0;
+
+    private ReasonPriority() {
+    }
+
+    /**
+     * Get the priority of a backup reason; higher is more important.
+     * <p>
+     * 获取备份原因的优先级；数值越大越重要。
+     *
+     * @param reason the backup reason
+     * @return the priority
+     */
+    static int of(String reason) {
+        if (reason == null) {
+            return LOWEST;
+        }
+        switch (reason) {
+            case "DEATH":
+                return 4;
+            case "QUIT":
+                return 3;
+            case "MANUAL":
+                return 2;
+            case "ADMIN":
+                return 1;
+            default:
+                return LOWEST;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Holds each player's snapshot for a short window before handing it to the workers,
+ * so near-simultaneous triggers (death then quit, saveall during the auto tick) are
+ * written once. A later snapshot replaces the pending one unless its reason has lower
+ * {@link ReasonPriority}; every caller receives the result of the single write, and the
+ * snapshot that lost is handed to the discard callback.
+ * <p>
+ * 在交给工作线程前将每个玩家的快照保留一个短暂窗口，
+ * 使几乎同时触发的备份（死亡后退出、自动备份期间执行 saveall）只写入一次。
+ * 后到的快照会替换待处理的快照，除非其原因优先级更低；所有调用方都会得到这一次写入的结果，
+ * 被淘汰的快照交给丢弃回调。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class SnapshotCoalescer {
+
+    private final long windowMillis;
+    private final Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream;
+    private final Consumer<InventorySnapshot> discarded;
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private ScheduledExecutorService timer;
+    private boolean closed;
+
+    SnapshotCoalescer(long windowMillis, Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream) {
+        this(windowMillis, downstream, snapshot -> { });
+    }
+
+    SnapshotCoalescer(long windowMillis, Function<InventorySnapshot, CompletableFuture<BackupMetadata>> downstream,
+            Consumer<InventorySnapshot> discarded) {
+        this.windowMillis = Math.max(0L, windowMillis);
+        this.downstream = downstream;
+        this.discarded = discarded;
+    }
+
+    /**
+     * Submit a snapshot, merging it with a pending one for the same player.
+     * <p>
+     * 提交快照，并与同一玩家待处理的快照合并。
+     *
+     * @param snapshot the snapshot
+     * @return future completed with the metadata of the write this snapshot ended up in
+     */
+    CompletableFuture<BackupMetadata> submit(InventorySnapshot snapshot) {
+        String key = snapshot.getPlayerUuid();
+        Pending created = null;
+        Pending existing = null;
+        InventorySnapshot dropped = null;
+        synchronized (this) {
+            if (windowMillis > 0 && !closed && key != null) {
+                existing = pending.get(key);
+                if (existing != null) {
+                    if (ReasonPriority.of(reasonOf(snapshot)) >= ReasonPriority.of(reasonOf(existing.snapshot))) {
+                        dropped = existing.snapshot;
+                        existing.snapshot = snapshot;
+                    } else {
+                        dropped = snapshot;
+                    }
+                    coalesced.incrementAndGet();
+                } else {
+                    Pending entry = new Pending(snapshot);
+                    pending.put(key, entry);
+                    try {
+                        timer().schedule(() -> dispatch(key, entry), windowMillis, TimeUnit.MILLISECONDS);
+                        return entry.future;
+                    } catch (RejectedExecutionException e) {
+                        // Timer already stopped; dispatch on the caller instead
+                        created = entry;
+                    }
+                }
+            }
+        }
+        if (existing != null) {
+            discarded.accept(dropped);
+            return existing.future;
+        }
+        if (created != null) {
+            dispatch(key, created);
+            return created.future;
+        }
+        return downstream.apply(snapshot);
+    }
+
+    /**
+     * Dispatch every pending snapshot immediately.
+     * <p>
+     * 立即派发所有待处理的快照。
+     */
+    void flush() {
+        List<Map.Entry<String, Pending>> ready;
+        synchronized (this) {
+            ready = new ArrayList<>(pending.entrySet());
+        }
+        for (Map.Entry<String, Pending> entry : ready) {
+            dispatch(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stop delaying snapshots and dispatch what is pending.
+     * Later submissions go straight to the workers.
+     * <p>
+     * 停止延迟快照并派发待处理项。之后的提交会直接交给工作线程。
+     */
+    void shutdown() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            closed = true;
+            current = timer;
+            timer = null;
+        }
+        if (current != null) {
+            current.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Get how many submissions were merged into an already pending backup.
+     * <p>
+     * 获取被合并到已有待处理备份中的提交次数。
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void dispatch(String key, Pending entry) {
+        InventorySnapshot snapshot;
+        synchronized (this) {
+            // Already dispatched by flush() or the timer
+            if (!pending.remove(key, entry)) {
+                return;
+            }
+            snapshot = entry.snapshot;
+        }
+        try {
+            downstream.apply(snapshot).whenComplete((metadata, error) -> {
+                if (error != null) {
+                    entry.future.completeExceptionally(error);
+                } else {
+                    entry.future.complete(metadata);
+                }
+            });
+        } catch (RuntimeException e) {
+            entry.future.completeExceptionally(e);
+        }
+    }
+
+    private ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiBackup-Coalesce");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+
+    private static String reasonOf(InventorySnapshot snapshot) {
+        return snapshot.getMetadata() != null ? snapshot.getMetadata().getBackupReason() : null;
+    }
+
+    private static final class Pending {
+        private final CompletableFuture<BackupMetadata> future = new CompletableFuture<>();
+        private InventorySnapshot snapshot;
+
+        private Pending(InventorySnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running per-player and server-wide totals of stored backups, their payload bytes and
+ * item stacks, updated as backups are created and deleted so lookups never touch the disk.
+ * <p>
+ * 按玩家与全服统计已存储备份的数量、负载字节数和物品堆数量，
+ * 随备份的创建与删除增量更新，查询无需访问磁盘。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+public class StorageLedger {
+
+    private final Map<String, Usage> players = new ConcurrentHashMap<>();
+    private final AtomicLong backups = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+
+    /**
+     * Count a stored backup.
+     * <p>
+     * 计入一个已存储的备份。
+     *
+     * @param metadata the backup metadata, with payload size and item count set
+     */
+    public void add(BackupMetadata metadata) {
+        apply(metadata, 1);
+    }
+
+    /**
+     * Remove a deleted backup from the totals.
+     * <p>
+     * 从统计中移除一个已删除的备份。
+     *
+     * @param metadata the backup metadata
+     */
+    public void remove(BackupMetadata metadata) {
+        apply(metadata, -1);
+    }
+
+    /**
+     * Replace all totals with the given backups.
+     * <p>
+     * 用给定的备份重建全部统计。
+     *
+     * @param stored every stored backup
+     */
+    public synchronized void reset(Collection<BackupMetadata> stored) {
+        players.clear();
+        backups.set(0L);
+        bytes.set(0L);
+        items.set(0L);
+        for (BackupMetadata metadata : stored) {
+            add(metadata);
+        }
+    }
+
+    private void apply(BackupMetadata metadata, int sign) {
+        if (metadata == null || metadata.getPlayerUuid() == null) {
+            return;
+        }
+        long size = Math.max(0L, metadata.getPayloadBytes());
+        long stacks = Math.max(0, metadata.getItemCount());
+        boolean[] applied = new boolean[1];
+        players.compute(metadata.getPlayerUuid(), (uuid, usage) -> {
+            Usage current = usage != null ? usage : Usage.EMPTY;
+            if (sign < 0 && current.backups == 0) {
+                // Deleting something never counted (e.g. twice); keep totals non-negative
+                return usage;
+            }
+            applied[0] = true;
+            Usage updated = new Usage(metadata.getPlayerName() != null ? metadata.getPlayerName() : current.playerName,
+                current.backups + sign, Math.max(0L, current.bytes + sign * size),
+                Math.max(0L, current.items + sign * stacks));
+            return updated.backups == 0 ? null : updated;
+        });
+        if (applied[0]) {
+            backups.addAndGet(sign);
+            bytes.addAndGet(sign * size);
+            items.addAndGet(sign * stacks);
+        }
+    }
+
+    /**
+     * Get one player's usage.
+     * <p>
+     * 获取某玩家的存储占用。
+     *
+     * @param playerUuid the player UUID
+     * @return the usage, empty if the player has no backups
+     */
+    public Usage getUsage(UUID playerUuid) {
+        Usage usage = players.get(playerUuid.toString());
+        return usage != null ? usage : Usage.EMPTY;
+    }
+
+    /**
+     * Get the players using the most bytes.
+     * <p>
+     * 获取占用字节数最多的玩家。
+     *
+     * @param limit how many players to return
+     * @return player UUIDs with their usage, largest first
+     */
+    public List<Map.Entry<String, Usage>> getTopPlayers(int limit) {
+        List<Map.Entry<String, Usage>> entries = new ArrayList<>(players.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().bytes, a.getValue().bytes));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Get the number of players with backups.
+     * <p>
+     * 获取拥有备份的玩家数量。
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Get the number of stored backups.
+     * <p>
+     * 获取已存储的备份数量。
+     */
+    public long getTotalBackups() {
+        return backups.get();
+    }
+
+    /**
+     * Get the payload bytes of all stored backups.
+     * <p>
+     * 获取所有已存储备份的负载字节数。
+     */
+    public long getTotalBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Get the item stacks in all stored backups.
+     * <p>
+     * 获取所有已存储备份中的物品堆数量。
+     */
+    public long getTotalItems() {
+        return items.get();
+    }
+
+    /**
+     * Backups, payload bytes and item stacks stored for one player.
+     * <p>
+     * 单个玩家已存储的备份数、负载字节数和物品堆数量。
+     */
+    @Getter
+    public static final class Usage {
+
+        static final Usage EMPTY = new Usage(null, 0, 0L, 0L);
+
+        private final String playerName;
+        private final int backups;
+        private final long bytes;
+        private final long items;
+
+        Usage(String playerName, int backups, long bytes, long items) {
+            this.playerName = playerName;
+            this.backups = backups;
+            this.bytes = bytes;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of reentrant locks keyed by player UUID.
+ * Operations on one player are serialized while different players almost always
+ * map to different stripes and run in parallel, without a lock object per player.
+ * <p>
+ * 按玩家 UUID 分段的固定可重入锁集合。
+ * 同一玩家的操作被串行化，不同玩家几乎总是落在不同分段上并行执行，且无需为每个玩家创建锁对象。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLocks(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the lock guarding a player.
+     * <p>
+     * 获取保护某个玩家的锁。
+     *
+     * @param playerUuid the player UUID string; null maps to a fixed stripe
+     * @return the lock
+     */
+    Lock forKey(String playerUuid) {
+        if (playerUuid == null) {
+            return stripes[0];
+        }
+        int hash = playerUuid.hashCode();
+        // Spread high bits so UUIDs differing only in their tail still fan out
+        hash ^= (hash >>> 16);
+        return stripes[hash & mask];
+    }
+
+    int size() {
+        return stripes.length;
+    }
+}
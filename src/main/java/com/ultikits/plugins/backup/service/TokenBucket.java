@@ -0,0 +1,75 @@
+package com.ultikits.plugins.backup.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket refilled continuously at a fixed rate up to a burst capacity.
+ * {@link #charge(double)} may drive the balance negative, which lets costs that are
+ * only known afterwards (bytes written) be paid back before the next admission.
+ * <p>
+ * 以固定速率持续补充、上限为突发容量的令牌桶。
+ * {@link #charge(double)} 可使余额为负，从而让事后才知道的开销（写入字节数）在下次放行前偿还。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class TokenBucket {
+
+    private final double perNano;
+    private final double capacity;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long last;
+
+    TokenBucket(double perSecond, double capacity, LongSupplier clock) {
+        this.perNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1.0, capacity);
+        this.clock = clock;
+        this.tokens = this.capacity;
+        this.last = clock.getAsLong();
+    }
+
+    /**
+     * Get how long until the balance reaches the given amount.
+     * <p>
+     * 获取余额达到指定数量还需等待的时间。
+     *
+     * @param amount the tokens needed
+     * @return nanoseconds to wait, 0 if already available
+     */
+    synchronized long nanosUntil(double amount) {
+        refill();
+        double missing = Math.min(amount, capacity) - tokens;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / perNano);
+    }
+
+    /**
+     * Remove tokens, possibly leaving a negative balance.
+     * <p>
+     * 扣除令牌，余额可能为负。
+     *
+     * @param amount the tokens to remove
+     */
+    synchronized void charge(double amount) {
+        refill();
+        tokens -= amount;
+    }
+
+    /**
+     * Check whether the bucket has refilled completely, i.e. carries no state worth keeping.
+     * <p>
+     * 检查令牌桶是否已完全补满，即无需保留其状态。
+     */
+    synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - last) * perNano);
+        last = now;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ultikits.plugins.backup.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of checksum verification results.
+ * Entries are keyed by backup ID and pinned to the file identity observed at
+ * hash time (size, modification time and inode where the file system exposes one),
+ * so any change to the file forces a re-hash.
+ * <p>
+ * 有界 LRU 校验结果缓存。
+ * 条目以备份 ID 为键，并绑定哈希时观察到的文件标识（大小、修改时间以及文件系统提供的 inode），
+ * 因此文件的任何变化都会强制重新计算哈希。
+ *
+ * @author wisdomme
+ * @version 2.0.0
+ */
+class VerificationCache {
+
+    private final Map<String, Entry> entries;
+
+    VerificationCache(int capacity) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Read the current identity of a file.
+     * <p>
+     * 读取文件当前的标识。
+     *
+     * @param file the file
+     * @return the file identity
+     * @throws IOException if the file attributes cannot be read
+     */
+    static FileIdentity identify(File file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return new FileIdentity(attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.fileKey());
+    }
+
+    /**
+     * Look up a cached result.
+     * <p>
+     * 查找缓存的结果。
+     *
+     * @param key the cache key (backup ID)
+     * @param identity the current file identity
+     * @param expectedChecksum the checksum being verified against
+     * @return the cached result, or null on miss
+     */
+    synchronized Boolean get(String key, FileIdentity identity, String expectedChecksum) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.identity.equals(identity) || !Objects.equals(entry.expectedChecksum, expectedChecksum)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.valid;
+    }
+
+    /**
+     * Store a verification result.
+     * <p>
+     * 存储校验结果。
+     */
+    synchronized void put(String key, FileIdentity identity, String expectedChecksum, boolean valid) {
+        entries.put(key, new Entry(identity, expectedChecksum, valid));
+    }
+
+    /**
+     * Drop the cached result for a key.
+     * <p>
+     * 移除指定键的缓存结果。
+     */
+    synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * File identity snapshot: size, mtime and inode (file key).
+     * <p>
+     * 文件标识快照：大小、修改时间和 inode（文件键）。
+     */
+    static final class FileIdentity {
+        private final long size;
+        private final long lastModified;
+        private final Object fileKey;
+
+        FileIdentity(long size, long lastModified, Object fileKey) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FileIdentity)) return false;
+            FileIdentity that = (FileIdentity) o;
+            return size == that.size
+                && lastModified == that.lastModified
+                && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, fileKey);
+        }
+    }
+
+    private static final class Entry {
+        private final FileIdentity identity;
+        private final String expectedChecksum;
+        private final boolean valid;
+
+        private Entry(FileIdentity identity, String expectedChecksum, boolean valid) {
+            this.identity = identity;
+            this.expectedChecksum = expectedChecksum;
+            this.valid = valid;
+        }
+    }
+}
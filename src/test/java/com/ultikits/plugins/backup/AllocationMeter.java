@@ -0,0 +1,67 @@
+package com.ultikits.plugins.backup;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap bytes allocated by the current thread using the HotSpot thread allocation
+ * counters ({@code com.sun.management.ThreadMXBean}).
+ * <p>
+ * Only allocations on the calling thread are counted, so work handed to other threads (fsync
+ * batches, worker pools) is excluded. Tests should skip with an assumption when
+ * {@link #isSupported()} is false.
+ */
+public final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private AllocationMeter() {}
+
+    /**
+     * Whether this JVM can count per-thread allocations.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Run an operation repeatedly and return the mean bytes it allocated per call.
+     * Warm-up calls let the JIT settle (escape analysis changes the result) and are not counted.
+     *
+     * @param warmup calls to run before measuring
+     * @param iterations calls to measure
+     * @param operation the operation
+     * @return mean bytes allocated per measured call
+     */
+    public static long bytesPerCall(int warmup, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (THREADS.getThreadAllocatedBytes(thread) - before) / iterations;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /**
+     * An operation under measurement.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+}
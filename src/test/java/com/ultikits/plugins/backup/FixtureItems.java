@@ -0,0 +1,256 @@
+package com.ultikits.plugins.backup;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.bukkit.configuration.serialization.SerializableAs;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Item stacks whose serialized form matches what a 1.20 server writes, including item meta,
+ * without needing a running server or {@code ItemFactory}.
+ * <p>
+ * Spigot only has real {@code ItemMeta} inside CraftBukkit, so {@link Stack} carries the meta
+ * map itself and {@link #register()} routes {@code org.bukkit.inventory.ItemStack} and
+ * {@code ItemMeta} YAML back to these classes. Shared with the benchmark module through the
+ * test jar.
+ */
+public final class FixtureItems {
+
+    /**
+     * Data version written by 1.20.1 servers.
+     */
+    public static final int DATA_VERSION = 3465;
+
+    private FixtureItems() {}
+
+    /**
+     * Make YAML item stacks deserialize to {@link Stack} and item meta to {@link Meta}.
+     */
+    public static void register() {
+        ConfigurationSerialization.registerClass(Stack.class);
+        ConfigurationSerialization.registerClass(Meta.class);
+    }
+
+    /**
+     * Restore the default item stack deserialization.
+     */
+    public static void unregister() {
+        ConfigurationSerialization.unregisterClass(Stack.class);
+        ConfigurationSerialization.unregisterClass(Meta.class);
+    }
+
+    /**
+     * A plain stack without meta.
+     */
+    public static Stack item(Material type, int amount) {
+        return new Stack(type, amount, null);
+    }
+
+    /**
+     * A stack with the given meta entries.
+     */
+    public static Stack item(Material type, int amount, Map<String, Object> meta) {
+        return new Stack(type, amount, new Meta(meta));
+    }
+
+    /**
+     * Named, enchanted and damaged gear, as an anvil-renamed tool or armor piece is stored.
+     */
+    public static Stack enchanted(Material type, String name, List<String> lore,
+            Map<String, Integer> enchants, int damage) {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("meta-type", "UNSPECIFIC");
+        if (name != null) {
+            meta.put("display-name", text(name, "gold"));
+        }
+        if (lore != null && !lore.isEmpty()) {
+            List<String> lines = new ArrayList<>(lore.size());
+            for (String line : lore) {
+                lines.add(text(line, "gray"));
+            }
+            meta.put("lore", lines);
+        }
+        meta.put("enchants", new LinkedHashMap<>(enchants));
+        meta.put("repair-cost", enchants.size() * 2 + 1);
+        if (damage > 0) {
+            meta.put("Damage", damage);
+        }
+        return item(type, 1, meta);
+    }
+
+    /**
+     * A signed written book.
+     */
+    public static Stack book(String title, String author, List<String> pages) {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("meta-type", "BOOK_SIGNED");
+        meta.put("title", title);
+        meta.put("author", author);
+        List<String> json = new ArrayList<>(pages.size());
+        for (String page : pages) {
+            json.add(text(page, null));
+        }
+        meta.put("pages", json);
+        meta.put("generation", 0);
+        return item(Material.WRITTEN_BOOK, 1, meta);
+    }
+
+    /**
+     * A shulker box holding items. Like a server, the block entity is stored as opaque
+     * compressed base64 under {@code internal}.
+     */
+    public static Stack shulker(Material box, ItemStack[] contents) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) {
+                yaml.set("Items." + i, contents[i]);
+            }
+        }
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("meta-type", "TILE_ENTITY");
+        meta.put("blockMaterial", box.name());
+        meta.put("internal", Base64.getEncoder().encodeToString(gzip(yaml.saveToString())));
+        return item(box, 1, meta);
+    }
+
+    /**
+     * A bundle holding items, stored as a list of nested item stacks like a server does.
+     */
+    public static Stack bundle(List<ItemStack> contents) {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("meta-type", "BUNDLE");
+        meta.put("items", new ArrayList<>(contents));
+        return item(Material.BUNDLE, 1, meta);
+    }
+
+    private static String text(String value, String color) {
+        StringBuilder json = new StringBuilder("{\"extra\":[{");
+        if (color != null) {
+            json.append("\"color\":\"").append(color).append("\",");
+        }
+        json.append("\"italic\":false,\"text\":\"").append(value.replace("\"", "\\\"")).append("\"}],\"text\":\"\"}");
+        return json.toString();
+    }
+
+    private static byte[] gzip(String data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Item stack that serializes its own meta map instead of going through {@code ItemFactory}.
+     */
+    @SerializableAs("org.bukkit.inventory.ItemStack")
+    public static final class Stack extends ItemStack {
+
+        private final Meta meta;
+
+        public Stack(Material type, int amount, Meta meta) {
+            super(type, amount);
+            this.meta = meta;
+        }
+
+        public Meta getMeta() {
+            return meta;
+        }
+
+        @Override
+        public boolean hasItemMeta() {
+            return meta != null;
+        }
+
+        @Override
+        public boolean isSimilar(ItemStack stack) {
+            return stack instanceof Stack && getType() == stack.getType()
+                && Objects.equals(meta, ((Stack) stack).meta);
+        }
+
+        @Override
+        public Map<String, Object> serialize() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("v", DATA_VERSION);
+            result.put("type", getType().name());
+            if (getAmount() != 1) {
+                result.put("amount", getAmount());
+            }
+            if (meta != null) {
+                result.put("meta", meta);
+            }
+            return result;
+        }
+
+        public static Stack deserialize(Map<String, Object> args) {
+            Material type = Material.getMaterial((String) args.get("type"));
+            int amount = args.containsKey("amount") ? ((Number) args.get("amount")).intValue() : 1;
+            Object meta = args.get("meta");
+            return new Stack(type, amount, meta instanceof Meta ? (Meta) meta : null);
+        }
+
+        @Override
+        public Stack clone() {
+            return (Stack) super.clone();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Stack && isSimilar((Stack) obj) && getAmount() == ((Stack) obj).getAmount();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getType(), getAmount(), meta);
+        }
+    }
+
+    /**
+     * Item meta as the plain map a server serializes it to.
+     */
+    @SerializableAs("ItemMeta")
+    public static final class Meta implements ConfigurationSerializable {
+
+        private final Map<String, Object> values;
+
+        public Meta(Map<String, Object> values) {
+            this.values = new LinkedHashMap<>(values);
+        }
+
+        @Override
+        public Map<String, Object> serialize() {
+            return new LinkedHashMap<>(values);
+        }
+
+        public static Meta deserialize(Map<String, Object> args) {
+            Map<String, Object> values = new LinkedHashMap<>(args);
+            values.remove(ConfigurationSerialization.SERIALIZED_TYPE_KEY);
+            return new Meta(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Meta && values.equals(((Meta) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
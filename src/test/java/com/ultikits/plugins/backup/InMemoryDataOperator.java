@@ -0,0 +1,174 @@
+package com.ultikits.plugins.backup;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import com.ultikits.ultitools.interfaces.Query;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe in-memory {@link DataOperator} for backup metadata.
+ * <p>
+ * Supports the calls the service makes ({@code insert}, {@code update}, {@code getById},
+ * {@code delById} and {@code query().where(column).eq(value).list()}) without Mockito, so worker
+ * threads can use it concurrently and allocation measurements are not dominated by invocation recording.
+ * <p>
+ * In SQL mode it behaves like a database table: every insert generates a new ID, even for an
+ * entity that already has one, and rows are stored and returned as copies.
+ */
+public final class InMemoryDataOperator {
+
+    private final Map<String, BackupMetadata> rows = new ConcurrentHashMap<>();
+    private final boolean sql;
+    private volatile boolean failUpdates;
+    private final DataOperator<BackupMetadata> operator = createOperator();
+
+    public InMemoryDataOperator() {
+        this(false);
+    }
+
+    public InMemoryDataOperator(boolean sql) {
+        this.sql = sql;
+    }
+
+    public DataOperator<BackupMetadata> getOperator() {
+        return operator;
+    }
+
+    public Map<String, BackupMetadata> getRows() {
+        return rows;
+    }
+
+    /**
+     * Make every following {@code update} throw, as a lost database connection would.
+     */
+    public void setFailUpdates(boolean failUpdates) {
+        this.failUpdates = failUpdates;
+    }
+
+    /**
+     * Count the rows stored for one player.
+     */
+    public int countFor(UUID playerUuid) {
+        int count = 0;
+        for (BackupMetadata metadata : rows.values()) {
+            if (playerUuid.toString().equals(metadata.getPlayerUuid())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DataOperator<BackupMetadata> createOperator() {
+        return (DataOperator<BackupMetadata>) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{DataOperator.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "insert":
+                        BackupMetadata metadata = (BackupMetadata) args[0];
+                        if (sql || metadata.getId() == null) {
+                            metadata.setId(UUID.randomUUID().toString());
+                        }
+                        rows.put(metadata.getId(), stored(metadata));
+                        return null;
+                    case "update":
+                        BackupMetadata updated = (BackupMetadata) args[0];
+                        if (failUpdates) {
+                            throw new IllegalStateException("Update failed");
+                        }
+                        if (rows.replace(updated.getId(), stored(updated)) == null) {
+                            throw new IllegalStateException("No row with ID " + updated.getId());
+                        }
+                        return null;
+                    case "getById":
+                        return stored(rows.get(String.valueOf(args[0])));
+                    case "delById":
+                        rows.remove(String.valueOf(args[0]));
+                        return null;
+                    case "query":
+                        return query();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "InMemoryDataOperator";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Query<BackupMetadata> query() {
+        String[] column = new String[1];
+        Object[] value = new Object[1];
+        return (Query<BackupMetadata>) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Query.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "where":
+                        column[0] = (String) args[0];
+                        return proxy;
+                    case "eq":
+                        value[0] = args[0];
+                        return proxy;
+                    case "list":
+                        List<BackupMetadata> result = new ArrayList<>();
+                        for (BackupMetadata metadata : rows.values()) {
+                            if (column[0] == null || String.valueOf(value[0]).equals(columnValue(metadata, column[0]))) {
+                                result.add(stored(metadata));
+                            }
+                        }
+                        return result;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * The object to keep or hand out: the same reference, or a copy in SQL mode.
+     */
+    private BackupMetadata stored(BackupMetadata metadata) {
+        if (!sql || metadata == null) {
+            return metadata;
+        }
+        BackupMetadata copy = BackupMetadata.builder()
+            .playerUuid(metadata.getPlayerUuid())
+            .playerName(metadata.getPlayerName())
+            .backupTime(metadata.getBackupTime())
+            .backupReason(metadata.getBackupReason())
+            .filePath(metadata.getFilePath())
+            .checksum(metadata.getChecksum())
+            .worldName(metadata.getWorldName())
+            .locationX(metadata.getLocationX())
+            .locationY(metadata.getLocationY())
+            .locationZ(metadata.getLocationZ())
+            .expLevel(metadata.getExpLevel())
+            .payloadBytes(metadata.getPayloadBytes())
+            .itemCount(metadata.getItemCount())
+            .baseId(metadata.getBaseId())
+            .captureId(metadata.getCaptureId())
+            .build();
+        copy.setId(metadata.getId());
+        return copy;
+    }
+
+    private static String columnValue(BackupMetadata metadata, String column) {
+        switch (column) {
+            case "player_uuid":
+                return metadata.getPlayerUuid();
+            case "file_path":
+                return metadata.getFilePath();
+            case "capture_id":
+                return metadata.getCaptureId();
+            default:
+                throw new UnsupportedOperationException("Unsupported column: " + column);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.ultikits.plugins.backup;
+
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generator of realistic player inventories for round-trip, size and speed tests.
+ * <p>
+ * Items are built with {@link FixtureItems}, so callers must {@link FixtureItems#register()}
+ * before deserializing them. The same seed always yields the same sequence of snapshots, and
+ * each {@link Profile} fixes the mix of plain stacks, enchanted gear, written books, shulker
+ * boxes and bundles. Shared with the benchmark module through the test jar.
+ */
+public final class InventoryCorpus {
+
+    private static final int STORAGE_SLOTS = 36;
+    private static final int ENDERCHEST_SLOTS = 27;
+    private static final int SHULKER_SLOTS = 27;
+
+    private static final Material[] STACKABLES = {
+        Material.COBBLESTONE, Material.DIRT, Material.OAK_LOG, Material.SPRUCE_PLANKS, Material.STONE_BRICKS,
+        Material.DEEPSLATE, Material.GLASS, Material.SAND, Material.IRON_INGOT, Material.GOLD_INGOT,
+        Material.DIAMOND, Material.EMERALD, Material.REDSTONE, Material.LAPIS_LAZULI, Material.COAL,
+        Material.TORCH, Material.COOKED_BEEF, Material.GOLDEN_CARROT, Material.BREAD, Material.ARROW,
+        Material.ENDER_PEARL, Material.SNOWBALL, Material.EXPERIENCE_BOTTLE, Material.OBSIDIAN,
+        Material.WHITE_WOOL, Material.BONE_MEAL, Material.STRING, Material.GUNPOWDER, Material.NETHERITE_SCRAP
+    };
+
+    private static final Material[] SHULKER_BOXES = {
+        Material.SHULKER_BOX, Material.WHITE_SHULKER_BOX, Material.RED_SHULKER_BOX, Material.BLUE_SHULKER_BOX,
+        Material.GREEN_SHULKER_BOX, Material.BLACK_SHULKER_BOX, Material.PURPLE_SHULKER_BOX
+    };
+
+    private static final Kit[] TOOLS = {
+        new Kit(Material.NETHERITE_SWORD, 2031, "sharpness", 5, "looting", 3, "fire_aspect", 2,
+            "sweeping", 3, "knockback", 2, "unbreaking", 3, "mending", 1),
+        new Kit(Material.DIAMOND_SWORD, 1561, "sharpness", 5, "looting", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.NETHERITE_PICKAXE, 2031, "efficiency", 5, "fortune", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.DIAMOND_PICKAXE, 1561, "efficiency", 5, "silk_touch", 1, "unbreaking", 3, "mending", 1),
+        new Kit(Material.NETHERITE_AXE, 2031, "efficiency", 5, "sharpness", 5, "unbreaking", 3, "mending", 1),
+        new Kit(Material.DIAMOND_SHOVEL, 1561, "efficiency", 5, "unbreaking", 3, "mending", 1),
+        new Kit(Material.BOW, 384, "power", 5, "punch", 2, "flame", 1, "infinity", 1, "unbreaking", 3),
+        new Kit(Material.CROSSBOW, 465, "quick_charge", 3, "multishot", 1, "unbreaking", 3, "mending", 1),
+        new Kit(Material.TRIDENT, 250, "loyalty", 3, "impaling", 5, "channeling", 1, "unbreaking", 3, "mending", 1),
+        new Kit(Material.FISHING_ROD, 64, "luck_of_the_sea", 3, "lure", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.ELYTRA, 432, "unbreaking", 3, "mending", 1)
+    };
+
+    private static final Kit[] ARMOR = {
+        new Kit(Material.NETHERITE_BOOTS, 481, "protection", 4, "feather_falling", 4, "depth_strider", 3,
+            "soul_speed", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.NETHERITE_LEGGINGS, 555, "protection", 4, "swift_sneak", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.NETHERITE_CHESTPLATE, 592, "protection", 4, "thorns", 3, "unbreaking", 3, "mending", 1),
+        new Kit(Material.NETHERITE_HELMET, 407, "protection", 4, "respiration", 3, "aqua_affinity", 1,
+            "unbreaking", 3, "mending", 1)
+    };
+
+    private static final String[] NAME_WORDS = {
+        "Ancient", "Cursed", "Frostbitten", "Starforged", "Hollow", "Ember", "Warden's", "Ender",
+        "Blade", "Pick", "Aegis", "Fang", "Harvester", "Whisper", "Relic", "Crown",
+        "龙之", "破晓", "星辰", "守护者", "之刃", "之镐"
+    };
+
+    private static final String[] LORE_LINES = {
+        "Forged in the nether", "Looted from a bastion", "Owner: %s", "Kills: %d", "Blocks mined: %d",
+        "Season %d champion", "Do not trade", "传说中的武器", "击杀数: %d", "Bound to %s"
+    };
+
+    private static final String[] WORDS = {
+        "the", "village", "diamond", "north", "portal", "farm", "base", "coordinates", "iron", "trade",
+        "castle", "river", "mob", "spawner", "ender", "dragon", "we", "built", "found", "left",
+        "chest", "under", "mountain", "之", "村庄", "坐标", "钻石", "下界", "要塞", "基地"
+    };
+
+    private static final String[] PLAYER_NAMES = {
+        "Steve", "Alex", "Notch", "jeb_", "Dinnerbone", "Herobrine", "小明", "wisdomme"
+    };
+
+    /**
+     * Mix of items in a generated inventory.
+     * <p>
+     * Weights are relative chances for each filled slot to hold a plain stack, enchanted gear,
+     * a written book, a filled shulker box or a bundle.
+     */
+    public enum Profile {
+        /** Barely used inventory: a few plain stacks and a tool, empty ender chest. */
+        SPARSE(0.25, 0.0, 0.0, false, 8, 2, 0, 0, 0),
+        /** A survival player's everyday inventory. */
+        TYPICAL(0.7, 0.4, 0.75, false, 12, 4, 1, 1, 1),
+        /** Late-game hoarder: full everywhere, heavily enchanted, with nested containers. */
+        HEAVY(1.0, 1.0, 1.0, true, 3, 6, 2, 5, 2),
+        /** Full storage of plain stacks only. */
+        FULL(1.0, 1.0, 1.0, false, 1, 0, 0, 0, 0),
+        /** Storage full of enchanted, named gear. */
+        ENCHANTED(1.0, 1.0, 1.0, true, 0, 1, 0, 0, 0),
+        /** Storage full of long written books. */
+        BOOKS(1.0, 1.0, 1.0, false, 0, 0, 1, 0, 0),
+        /** Storage and ender chest full of filled shulker boxes. */
+        SHULKERS(1.0, 1.0, 1.0, false, 0, 0, 0, 1, 0),
+        /** Storage full of bundles. */
+        BUNDLES(1.0, 1.0, 1.0, false, 0, 0, 0, 0, 1);
+
+        private final double storageFill;
+        private final double armorFill;
+        private final double enderchestFill;
+        private final boolean overEnchanted;
+        private final int[] weights;
+
+        Profile(double storageFill, double armorFill, double enderchestFill, boolean overEnchanted, int... weights) {
+            this.storageFill = storageFill;
+            this.armorFill = armorFill;
+            this.enderchestFill = enderchestFill;
+            this.overEnchanted = overEnchanted;
+            this.weights = weights;
+        }
+    }
+
+    private final Random random;
+
+    public InventoryCorpus(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * A fixed-size dataset generated from its own seed, independent of any other corpus.
+     */
+    public static List<InventorySnapshot> dataset(long seed, Profile profile, int count) {
+        InventoryCorpus corpus = new InventoryCorpus(seed);
+        List<InventorySnapshot> snapshots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            snapshots.add(corpus.next(profile));
+        }
+        return snapshots;
+    }
+
+    /**
+     * The next snapshot for the profile, with armor, offhand, ender chest and experience captured.
+     */
+    public InventorySnapshot next(Profile profile) {
+        ItemStack[] storage = new ItemStack[STORAGE_SLOTS];
+        for (int i = 0; i < storage.length; i++) {
+            if (random.nextDouble() < profile.storageFill) {
+                storage[i] = item(profile);
+            }
+        }
+
+        ItemStack[] armor = new ItemStack[ARMOR.length];
+        for (int i = 0; i < armor.length; i++) {
+            if (random.nextDouble() < profile.armorFill) {
+                armor[i] = gear(ARMOR[i], profile.overEnchanted);
+            }
+        }
+
+        ItemStack[] enderchest = new ItemStack[ENDERCHEST_SLOTS];
+        for (int i = 0; i < enderchest.length; i++) {
+            if (random.nextDouble() < profile.enderchestFill) {
+                enderchest[i] = profile == Profile.SHULKERS ? shulker(Profile.TYPICAL) : item(profile);
+            }
+        }
+
+        ItemStack offhand = random.nextDouble() < profile.armorFill
+            ? FixtureItems.item(random.nextBoolean() ? Material.TOTEM_OF_UNDYING : Material.SHIELD, 1)
+            : null;
+
+        return InventorySnapshot.builder()
+            .storageContents(storage)
+            .armorContents(armor)
+            .offhandItem(offhand)
+            .enderchestContents(enderchest)
+            .expLevel(random.nextInt(profile.overEnchanted ? 100 : 31))
+            .expProgress(random.nextFloat())
+            .armorCaptured(true)
+            .enderchestCaptured(true)
+            .expCaptured(true)
+            .build();
+    }
+
+    /**
+     * One item drawn from the profile's mix.
+     */
+    public ItemStack item(Profile profile) {
+        switch (pick(profile.weights)) {
+            case 0:
+                return stack();
+            case 1:
+                return gear(TOOLS[random.nextInt(TOOLS.length)], profile.overEnchanted);
+            case 2:
+                return book();
+            case 3:
+                return shulker(profile);
+            default:
+                return bundle();
+        }
+    }
+
+    private int pick(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No weight selected");
+    }
+
+    private ItemStack stack() {
+        Material type = STACKABLES[random.nextInt(STACKABLES.length)];
+        int max = type.getMaxStackSize();
+        // Most stacks in a real inventory are full.
+        int amount = random.nextInt(3) == 0 ? 1 + random.nextInt(max) : max;
+        return FixtureItems.item(type, amount);
+    }
+
+    private ItemStack gear(Kit kit, boolean overEnchanted) {
+        Map<String, Integer> enchants = new LinkedHashMap<>();
+        for (int i = 0; i < kit.enchants.length; i++) {
+            if (overEnchanted || random.nextInt(3) > 0) {
+                int level = 1 + random.nextInt(kit.levels[i]);
+                // Command-given gear above vanilla limits is common on servers.
+                enchants.put(kit.enchants[i], overEnchanted ? level + kit.levels[i] : level);
+            }
+        }
+        String name = random.nextInt(5) < 2 ? name() : null;
+        List<String> lore = new ArrayList<>();
+        int lines = name == null ? 0 : random.nextInt(6);
+        for (int i = 0; i < lines; i++) {
+            lore.add(loreLine());
+        }
+        return FixtureItems.enchanted(kit.type, name, lore, enchants, random.nextInt(kit.durability));
+    }
+
+    private ItemStack book() {
+        int count = 1 + random.nextInt(30);
+        List<String> pages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pages.add(sentence(50 + random.nextInt(206)));
+        }
+        return FixtureItems.book(sentence(4 + random.nextInt(12)).trim(), player(), pages);
+    }
+
+    private ItemStack shulker(Profile profile) {
+        ItemStack[] contents = new ItemStack[SHULKER_SLOTS];
+        // Shulker boxes cannot hold shulker boxes.
+        int[] weights = profile.weights.clone();
+        weights[3] = 0;
+        if (weights[0] + weights[1] + weights[2] + weights[4] == 0) {
+            weights[0] = 1;
+        }
+        for (int i = 0; i < contents.length; i++) {
+            if (random.nextDouble() < Math.max(profile.storageFill, 0.5)) {
+                contents[i] = pick(weights) == 1
+                    ? gear(TOOLS[random.nextInt(TOOLS.length)], profile.overEnchanted)
+                    : stack();
+            }
+        }
+        return FixtureItems.shulker(SHULKER_BOXES[random.nextInt(SHULKER_BOXES.length)], contents);
+    }
+
+    private ItemStack bundle() {
+        int count = 1 + random.nextInt(4);
+        List<ItemStack> contents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // A bundle holds one stack's worth of items in total.
+            contents.add(FixtureItems.item(STACKABLES[random.nextInt(STACKABLES.length)], 1 + random.nextInt(16)));
+        }
+        return FixtureItems.bundle(contents);
+    }
+
+    private String name() {
+        return NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " " + NAME_WORDS[random.nextInt(NAME_WORDS.length)];
+    }
+
+    private String loreLine() {
+        String line = LORE_LINES[random.nextInt(LORE_LINES.length)];
+        if (line.contains("%s")) {
+            return String.format(line, player());
+        }
+        return line.contains("%d") ? String.format(line, random.nextInt(100000)) : line;
+    }
+
+    private String player() {
+        return PLAYER_NAMES[random.nextInt(PLAYER_NAMES.length)];
+    }
+
+    private String sentence(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    /**
+     * An item type with its durability and the enchantments players put on it.
+     */
+    private static final class Kit {
+        private final Material type;
+        private final int durability;
+        private final String[] enchants;
+        private final int[] levels;
+
+        private Kit(Material type, int durability, Object... enchants) {
+            this.type = type;
+            this.durability = durability;
+            this.enchants = new String[enchants.length / 2];
+            this.levels = new int[enchants.length / 2];
+            for (int i = 0; i < this.enchants.length; i++) {
+                this.enchants[i] = (String) enchants[i * 2];
+                this.levels[i] = (Integer) enchants[i * 2 + 1];
+            }
+        }
+    }
+}
@@ -85,6 +85,11 @@ public final class UltiBackupTestHelper {
         lenient().when(config.isBackupArmor()).thenReturn(true);
         lenient().when(config.isBackupEnderchest()).thenReturn(true);
         lenient().when(config.isBackupExp()).thenReturn(true);
+        lenient().when(config.getWorkerThreads()).thenReturn(2);
+        lenient().when(config.getCapturesPerTick()).thenReturn(10);
+        lenient().when(config.getQueueCapacity()).thenReturn(1000);
+        lenient().when(config.getFsyncPolicy()).thenReturn("batched");
+        lenient().when(config.getFsyncBatchIntervalMs()).thenReturn(100);
         return config;
     }
 
@@ -98,6 +103,7 @@ public final class UltiBackupTestHelper {
         lenient().when(player.getLevel()).thenReturn(30);
         lenient().when(player.getExp()).thenReturn(0.5f);
         lenient().when(player.hasPermission(anyString())).thenReturn(true);
+        lenient().when(player.isOnline()).thenReturn(true);
 
         World world = mock(World.class);
         lenient().when(world.getName()).thenReturn("world");
@@ -2,7 +2,11 @@ package com.ultikits.plugins.backup.commands;
 
 import com.ultikits.plugins.backup.UltiBackupTestHelper;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.service.BackupBatchReport;
+import com.ultikits.plugins.backup.service.BackupMetrics;
 import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.plugins.backup.service.IntegrityScrubber;
+import com.ultikits.plugins.backup.service.StorageLedger;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 
 import org.bukkit.Bukkit;
@@ -10,8 +14,11 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
+import org.mockito.stubbing.Answer;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -169,12 +176,12 @@ class BackupCommandTest {
         void validRestore() {
             List<BackupMetadata> backups = createBackupList(3);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 2);
 
-            verify(backupService).restoreBackup(player, backups.get(1));
+            verify(backupService).restoreBackupAsync(eq(player), eq(backups.get(1)), any());
             verify(player).sendMessage("backup.message.restored");
         }
     }
@@ -185,6 +192,26 @@ class BackupCommandTest {
     @DisplayName("saveAllPlayers")
     class SaveAllPlayers {
 
+        private final org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+        private final org.bukkit.scheduler.BukkitScheduler scheduler = mock(org.bukkit.scheduler.BukkitScheduler.class);
+        private final List<Runnable> mainThread = new ArrayList<>();
+
+        /**
+         * Queue tasks handed to the main thread instead of running them.
+         */
+        private MockedStatic<Bukkit> mockMainThread() {
+            org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+            when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+            when(scheduler.runTask(eq(bukkitPlugin), any(Runnable.class))).thenAnswer(inv -> {
+                mainThread.add(inv.getArgument(1));
+                return null;
+            });
+            MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class);
+            bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+            bukkitMock.when(Bukkit::getScheduler).thenReturn(scheduler);
+            return bukkitMock;
+        }
+
         @Test
         @DisplayName("Should deny when no admin permission")
         void noPermission() {
@@ -199,11 +226,131 @@ class BackupCommandTest {
         @DisplayName("Should call saveAllOnlinePlayers when permitted")
         void withPermission() {
             when(player.hasPermission("ultibackup.admin")).thenReturn(true);
-            when(backupService.saveAllOnlinePlayers()).thenReturn(5);
+            when(backupService.saveAllOnlinePlayers())
+                    .thenReturn(CompletableFuture.completedFuture(new BackupBatchReport(5, 5, 100L)));
 
-            command.saveAllPlayers(player);
+            try (MockedStatic<Bukkit> ignored = mockMainThread()) {
+                command.saveAllPlayers(player);
+            }
+            mainThread.forEach(Runnable::run);
 
             verify(backupService).saveAllOnlinePlayers();
+            verify(player).sendMessage("backup.message.saveall_complete");
+            verify(player).sendMessage("backup.message.saveall_stats");
+        }
+
+        @Test
+        @DisplayName("Should report only after the batch finishes")
+        void reportsOnCompletion() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(true);
+            CompletableFuture<BackupBatchReport> pending = new CompletableFuture<>();
+            when(backupService.saveAllOnlinePlayers()).thenReturn(pending);
+
+            try (MockedStatic<Bukkit> ignored = mockMainThread()) {
+                command.saveAllPlayers(player);
+                verify(player, never()).sendMessage("backup.message.saveall_complete");
+
+                pending.complete(new BackupBatchReport(2, 1, 50L));
+            }
+
+            // Completion only schedules the report; it is sent from the main thread
+            verify(player, never()).sendMessage("backup.message.saveall_complete");
+            mainThread.forEach(Runnable::run);
+            verify(player).sendMessage("backup.message.saveall_complete");
+        }
+    }
+
+    // ==================== stats ====================
+
+    @Nested
+    @DisplayName("showStats")
+    class ShowStats {
+
+        @Test
+        @DisplayName("Should deny when no admin permission")
+        void noPermission() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(false);
+
+            command.showStats(player);
+
+            verify(player).sendMessage("backup.message.no_permission");
+            verify(backupService, never()).getMetrics();
+        }
+
+        @Test
+        @DisplayName("Should show every operation, phase and the queue")
+        void showsStats() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(true);
+            when(backupService.getMetrics()).thenReturn(new BackupMetrics());
+            when(backupService.collectMetrics()).thenReturn(new HashMap<>());
+            StorageLedger storage = new StorageLedger();
+            storage.add(BackupMetadata.builder().playerUuid(UUID.randomUUID().toString())
+                    .playerName("Alice").payloadBytes(4096L).itemCount(3).build());
+            when(backupService.getStorageLedger()).thenReturn(storage);
+
+            command.showStats(player);
+
+            verify(player).sendMessage("backup.message.stats_header");
+            verify(player, times(BackupMetrics.Operation.values().length))
+                    .sendMessage("backup.message.stats_operation");
+            verify(player, times(BackupMetrics.Phase.values().length))
+                    .sendMessage("backup.message.stats_phase");
+            verify(player).sendMessage("backup.message.stats_queue");
+            verify(player).sendMessage("backup.message.stats_main_thread");
+            verify(player).sendMessage("backup.message.stats_written");
+            verify(player).sendMessage("backup.message.stats_storage");
+            verify(player).sendMessage("backup.message.stats_storage_player");
+        }
+    }
+
+    // ==================== scrub ====================
+
+    @Nested
+    @DisplayName("scrub")
+    class Scrub {
+
+        @Test
+        @DisplayName("Should deny when no admin permission")
+        void noPermission() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(false);
+
+            command.showScrub(player);
+            command.pauseScrub(player);
+
+            verify(player, times(2)).sendMessage("backup.message.no_permission");
+            verify(backupService, never()).getScrubber();
+        }
+
+        @Test
+        @DisplayName("Should show progress and flagged backups")
+        void showsStatus() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(true);
+            IntegrityScrubber scrubber = mock(IntegrityScrubber.class);
+            when(scrubber.getFlagged()).thenReturn(Collections.singletonMap("id-1", "backups/a.yml"));
+            when(scrubber.getFlagReason("id-1")).thenReturn(IntegrityScrubber.REASON_CHECKSUM);
+            when(backupService.getScrubber()).thenReturn(scrubber);
+
+            command.showScrub(player);
+
+            verify(player).sendMessage("backup.message.scrub_status");
+            verify(player).sendMessage("backup.message.scrub_last_pass");
+            verify(player).sendMessage("backup.message.scrub_flagged");
+        }
+
+        @Test
+        @DisplayName("Should pause and resume the scrubber")
+        void pauseAndResume() {
+            when(player.hasPermission("ultibackup.admin")).thenReturn(true);
+            IntegrityScrubber scrubber = mock(IntegrityScrubber.class);
+            when(backupService.getScrubber()).thenReturn(scrubber);
+
+            command.pauseScrub(player);
+            command.resumeScrub(player);
+
+            verify(scrubber).pause();
+            verify(scrubber).resume();
+            verify(player).sendMessage("backup.message.scrub_paused");
+            verify(player).sendMessage("backup.message.scrub_resumed");
         }
     }
 
@@ -234,6 +381,8 @@ class BackupCommandTest {
 
             verify(player).sendMessage("backup.help.header");
             verify(player).sendMessage("backup.help.saveall");
+            verify(player).sendMessage("backup.help.stats");
+            verify(player).sendMessage("backup.help.scrub");
             verify(player).sendMessage("backup.help.admin");
         }
     }
@@ -250,7 +399,7 @@ class BackupCommandTest {
             List<String> suggestions = command.suggestSubcommands();
 
             assertThat(suggestions).containsExactly(
-                    "list", "create", "restore", "help", "admin", "saveall");
+                    "list", "create", "restore", "help", "admin", "saveall", "stats", "scrub");
         }
     }
 
@@ -265,8 +414,8 @@ class BackupCommandTest {
         void checksumFailed() {
             List<BackupMetadata> backups = createBackupList(3);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.CHECKSUM_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.CHECKSUM_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 1);
 
@@ -279,8 +428,8 @@ class BackupCommandTest {
         void notFound() {
             List<BackupMetadata> backups = createBackupList(3);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.NOT_FOUND);
+            doAnswer(respond(BackupService.RestoreResult.NOT_FOUND))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 1);
 
@@ -292,8 +441,8 @@ class BackupCommandTest {
         void loadFailed() {
             List<BackupMetadata> backups = createBackupList(3);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.LOAD_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.LOAD_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 1);
 
@@ -305,8 +454,8 @@ class BackupCommandTest {
         void restoreFailed() {
             List<BackupMetadata> backups = createBackupList(3);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.RESTORE_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.RESTORE_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 1);
 
@@ -563,8 +712,8 @@ class BackupCommandTest {
             // Instead, test the restore success message path
             List<BackupMetadata> backups = createBackupList(1);
             when(backupService.getBackups(playerUuid)).thenReturn(backups);
-            when(backupService.restoreBackup(eq(player), any()))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).restoreBackupAsync(eq(player), any(), any());
 
             command.restoreBackup(player, 1);
 
@@ -673,4 +822,11 @@ class BackupCommandTest {
         }
         return list;
     }
+
+    private static Answer<Void> respond(BackupService.RestoreResult result) {
+        return invocation -> {
+            invocation.<Consumer<BackupService.RestoreResult>>getArgument(2).accept(result);
+            return null;
+        };
+    }
 }
@@ -67,6 +67,106 @@ class BackupConfigTest {
             BackupConfig config = createRealConfig();
             assertThat(config.isBackupExp()).isTrue();
         }
+
+        @Test
+        @DisplayName("Should default to 2 worker threads and 10 captures per tick")
+        void performanceDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getWorkerThreads()).isEqualTo(2);
+            assertThat(config.getCapturesPerTick()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should default to batched fsync every 100 ms")
+        void fsyncDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(FsyncPolicy.parse(config.getFsyncPolicy())).isEqualTo(FsyncPolicy.BATCHED);
+            assertThat(config.getFsyncBatchIntervalMs()).isEqualTo(100);
+        }
+
+        @Test
+        @DisplayName("Should coalesce backups within 250 ms by default")
+        void coalesceDefault() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getCoalesceWindowMs()).isEqualTo(250);
+        }
+
+        @Test
+        @DisplayName("Should adapt mass backups to tick time by default")
+        void adaptiveDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getMsptThreshold()).isEqualTo(55);
+            assertThat(config.getMaxDeferSeconds()).isEqualTo(300);
+        }
+
+        @Test
+        @DisplayName("Should budget foreground and background disk I/O separately by default")
+        void ioDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getForegroundKbPerSecond()).isEqualTo(32768);
+            assertThat(config.getForegroundOpsPerSecond()).isEqualTo(1000);
+            assertThat(config.getBackgroundKbPerSecond()).isEqualTo(4096);
+            assertThat(config.getBackgroundOpsPerSecond()).isEqualTo(100);
+        }
+
+        @Test
+        @DisplayName("Should write the metrics file by default")
+        void metricsFileDefault() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.isMetricsFileEnabled()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should rate limit backups by default")
+        void rateLimitDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getPlayerBackupsPerMinute()).isEqualTo(6);
+            assertThat(config.getPlayerBurst()).isEqualTo(3);
+            assertThat(config.getPlayerKbPerSecond()).isEqualTo(512);
+            assertThat(config.getGlobalBackupsPerSecond()).isEqualTo(50);
+            assertThat(config.getGlobalKbPerSecond()).isEqualTo(16384);
+        }
+
+        @Test
+        @DisplayName("Should queue up to 1000 backups by default")
+        void queueCapacityDefault() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getQueueCapacity()).isEqualTo(1000);
+        }
+
+        @Test
+        @DisplayName("Should report main-thread calls over 5 ms by default")
+        void watchdogThresholdDefault() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.getWatchdogThresholdMs()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should keep the metrics endpoint off and on localhost by default")
+        void metricsHttpDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.isMetricsHttpEnabled()).isFalse();
+            assertThat(config.getMetricsHttpHost()).isEqualTo("127.0.0.1");
+            assertThat(config.getMetricsHttpPort()).isEqualTo(9465);
+        }
+
+        @Test
+        @DisplayName("Should scrub in small batches with quarantine on by default")
+        void scrubDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.isScrubEnabled()).isTrue();
+            assertThat(config.getScrubBatchSize()).isEqualTo(32);
+            assertThat(config.getScrubThreads()).isEqualTo(2);
+            assertThat(config.isScrubQuarantine()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should write full backups by default, with a keyframe every 10 when deltas are on")
+        void deltaDefaults() {
+            BackupConfig config = createRealConfig();
+            assertThat(config.isDeltaEnabled()).isFalse();
+            assertThat(config.getDeltaKeyframeInterval()).isEqualTo(10);
+        }
     }
 
     @Nested
@@ -147,4 +247,25 @@ class BackupConfigTest {
         BackupConfig config = mock(BackupConfig.class, withSettings().useConstructor("config/backup.yml").defaultAnswer(CALLS_REAL_METHODS));
         return config;
     }
+
+    @Nested
+    @DisplayName("FsyncPolicy")
+    class FsyncPolicyParsing {
+
+        @Test
+        @DisplayName("Should parse config values case-insensitively")
+        void parsesValues() {
+            assertThat(FsyncPolicy.parse("none")).isEqualTo(FsyncPolicy.NONE);
+            assertThat(FsyncPolicy.parse("PER_FILE")).isEqualTo(FsyncPolicy.PER_FILE);
+            assertThat(FsyncPolicy.parse(" per-file ")).isEqualTo(FsyncPolicy.PER_FILE);
+            assertThat(FsyncPolicy.parse("Batched")).isEqualTo(FsyncPolicy.BATCHED);
+        }
+
+        @Test
+        @DisplayName("Should fall back to batched for unknown or missing values")
+        void fallsBack() {
+            assertThat(FsyncPolicy.parse("sometimes")).isEqualTo(FsyncPolicy.BATCHED);
+            assertThat(FsyncPolicy.parse(null)).isEqualTo(FsyncPolicy.BATCHED);
+        }
+    }
 }
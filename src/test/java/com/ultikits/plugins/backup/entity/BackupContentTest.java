@@ -1,5 +1,7 @@
 package com.ultikits.plugins.backup.entity;
 
+import com.ultikits.plugins.backup.FixtureItems;
+import com.ultikits.plugins.backup.InventoryCorpus;
 import com.ultikits.plugins.backup.UltiBackupTestHelper;
 
 import org.bukkit.Material;
@@ -9,11 +11,17 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -102,6 +110,31 @@ class BackupContentTest {
             assertThat(checksum).isNotNull().hasSize(64);
         }
 
+        @Test
+        @DisplayName("Should replace an existing file atomically without leaving a temp file")
+        void atomicReplace() throws IOException {
+            File file = tempDir.resolve("atomic.yml").toFile();
+            BackupContent.builder().inventoryContents("first").build().saveToFile(file);
+
+            String checksum = BackupContent.builder().inventoryContents("second").build().saveToFile(file);
+
+            assertThat(BackupContent.verifyChecksum(file, checksum)).isTrue();
+            assertThat(BackupContent.loadFromFile(file).getInventoryContents()).isEqualTo("second");
+            assertThat(new File(file.getPath() + BackupContent.TEMP_SUFFIX)).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should write the same text as toFileText")
+        void fileTextMatches() throws IOException {
+            BackupContent content = BackupContent.builder().inventoryContents("inv").expLevel(3).build();
+            File file = tempDir.resolve("text.yml").toFile();
+
+            String checksum = content.saveToFile(file);
+
+            assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+                    .isEqualTo(BackupContent.toFileText(content.toYaml(), checksum));
+        }
+
         @Test
         @DisplayName("Should create parent directories when saving")
         void createParentDirs() throws IOException {
@@ -405,6 +438,21 @@ class BackupContentTest {
             assertThat(content.getExpLevel()).isZero();
             assertThat(content.getExpProgress()).isZero();
         }
+
+        @Test
+        @DisplayName("Should build the same content from a captured snapshot")
+        void fromSnapshotMatchesFromPlayer() {
+            Player player = UltiBackupTestHelper.createMockPlayer("P", UUID.randomUUID());
+
+            BackupContent direct = BackupContent.fromPlayer(player, true, false, true);
+            BackupContent viaSnapshot = BackupContent.fromSnapshot(
+                    InventorySnapshot.capture(player, null, true, false, true));
+
+            assertThat(viaSnapshot.getInventoryContents()).isEqualTo(direct.getInventoryContents());
+            assertThat(viaSnapshot.getArmorContents()).isEqualTo(direct.getArmorContents());
+            assertThat(viaSnapshot.getEnderchestContents()).isNull();
+            assertThat(viaSnapshot.getExpLevel()).isEqualTo(30);
+        }
     }
 
     // ==================== restoreToPlayer ====================
@@ -638,7 +686,7 @@ class BackupContentTest {
         @Test
         @DisplayName("Should set all fields")
         void allFields() {
-            BackupContent content = new BackupContent("inv", "armor", "offhand", "ender", 50, 0.9f);
+            BackupContent content = new BackupContent("inv", "armor", "offhand", "ender", 50, 0.9f, "base-1");
 
             assertThat(content.getInventoryContents()).isEqualTo("inv");
             assertThat(content.getArmorContents()).isEqualTo("armor");
@@ -646,6 +694,7 @@ class BackupContentTest {
             assertThat(content.getEnderchestContents()).isEqualTo("ender");
             assertThat(content.getExpLevel()).isEqualTo(50);
             assertThat(content.getExpProgress()).isEqualTo(0.9f);
+            assertThat(content.getBaseId()).isEqualTo("base-1");
         }
     }
 
@@ -950,4 +999,228 @@ class BackupContentTest {
             assertThat(content.getOffhandItem()).isNotNull();
         }
     }
+
+    // ==================== Items with meta ====================
+
+    @Nested
+    @DisplayName("Items with meta")
+    class ItemsWithMeta {
+
+        @BeforeEach
+        void registerFixtures() {
+            FixtureItems.register();
+        }
+
+        @AfterEach
+        void unregisterFixtures() {
+            FixtureItems.unregister();
+        }
+
+        @Test
+        @DisplayName("Should round-trip enchanted gear, books and shulker boxes through a file")
+        void roundTrip(@TempDir Path dir) throws IOException {
+            Map<String, Integer> enchants = new LinkedHashMap<>();
+            enchants.put("sharpness", 5);
+            enchants.put("unbreaking", 3);
+            ItemStack[] storage = new ItemStack[36];
+            storage[0] = FixtureItems.enchanted(Material.DIAMOND_SWORD, "Blade",
+                    Arrays.asList("First line", "Second line"), enchants, 12);
+            storage[1] = FixtureItems.book("Notes", "Steve", Arrays.asList("page one", "page \"two\""));
+            storage[2] = FixtureItems.shulker(Material.SHULKER_BOX,
+                    new ItemStack[]{FixtureItems.item(Material.DIAMOND, 64)});
+            storage[35] = FixtureItems.item(Material.COBBLESTONE, 32);
+            InventorySnapshot snapshot = InventorySnapshot.builder().storageContents(storage).build();
+
+            File file = dir.resolve("meta.yml").toFile();
+            BackupContent.fromSnapshot(snapshot).saveToFile(file);
+            ItemStack[] restored = BackupContent.loadFromFile(file).getInventoryItems();
+
+            assertThat(restored).containsExactly(storage);
+        }
+    }
+
+    // ==================== Inventory Corpus ====================
+
+    @Nested
+    @DisplayName("Inventory Corpus")
+    class Corpus {
+
+        @BeforeEach
+        void registerFixtures() {
+            FixtureItems.register();
+        }
+
+        @AfterEach
+        void unregisterFixtures() {
+            FixtureItems.unregister();
+        }
+
+        @ParameterizedTest
+        @EnumSource(InventoryCorpus.Profile.class)
+        @DisplayName("Should round-trip every corpus profile through a file")
+        void roundTrip(InventoryCorpus.Profile profile, @TempDir Path dir) throws IOException {
+            List<InventorySnapshot> snapshots = InventoryCorpus.dataset(7L, profile, 5);
+            for (int i = 0; i < snapshots.size(); i++) {
+                InventorySnapshot snapshot = snapshots.get(i);
+                File file = dir.resolve(i + ".yml").toFile();
+                String checksum = BackupContent.fromSnapshot(snapshot).saveToFile(file);
+
+                assertThat(BackupContent.verifyChecksum(file, checksum)).isTrue();
+                BackupContent loaded = BackupContent.loadFromFile(file);
+                assertSameSlots(loaded.getInventoryItems(), snapshot.getStorageContents());
+                assertSameSlots(loaded.getArmorItems(), snapshot.getArmorContents());
+                assertThat(loaded.getOffhandItemStack()).isEqualTo(snapshot.getOffhandItem());
+                assertSameSlots(loaded.getEnderchestItems(), snapshot.getEnderchestContents());
+                assertThat(loaded.getExpLevel()).isEqualTo(snapshot.getExpLevel());
+            }
+        }
+
+        @Test
+        @DisplayName("Should generate identical content from the same seed")
+        void deterministic() {
+            List<InventorySnapshot> first = InventoryCorpus.dataset(42L, InventoryCorpus.Profile.HEAVY, 3);
+            List<InventorySnapshot> second = InventoryCorpus.dataset(42L, InventoryCorpus.Profile.HEAVY, 3);
+            List<InventorySnapshot> other = InventoryCorpus.dataset(43L, InventoryCorpus.Profile.HEAVY, 3);
+
+            for (int i = 0; i < first.size(); i++) {
+                String yaml = BackupContent.fromSnapshot(first.get(i)).toYaml();
+                assertThat(BackupContent.fromSnapshot(second.get(i)).toYaml()).isEqualTo(yaml);
+                assertThat(BackupContent.fromSnapshot(other.get(i)).toYaml()).isNotEqualTo(yaml);
+            }
+        }
+
+        @Test
+        @DisplayName("Should grow payloads from sparse to typical to heavy")
+        void sizesOrdered() {
+            long sparse = payloadBytes(InventoryCorpus.Profile.SPARSE);
+            long typical = payloadBytes(InventoryCorpus.Profile.TYPICAL);
+            long heavy = payloadBytes(InventoryCorpus.Profile.HEAVY);
+
+            assertThat(sparse).isLessThan(typical);
+            assertThat(typical).isLessThan(heavy);
+        }
+
+        private long payloadBytes(InventoryCorpus.Profile profile) {
+            long bytes = 0;
+            for (InventorySnapshot snapshot : InventoryCorpus.dataset(1L, profile, 20)) {
+                bytes += BackupContent.fromSnapshot(snapshot).toYaml().getBytes(StandardCharsets.UTF_8).length;
+            }
+            return bytes;
+        }
+    }
+
+    @Nested
+    @DisplayName("Deltas")
+    class Deltas {
+
+        private InventorySnapshot keyframe;
+
+        @BeforeEach
+        void registerFixtures() {
+            FixtureItems.register();
+            keyframe = InventoryCorpus.dataset(11L, InventoryCorpus.Profile.TYPICAL, 1).get(0);
+        }
+
+        @AfterEach
+        void unregisterFixtures() {
+            FixtureItems.unregister();
+        }
+
+        @Test
+        @DisplayName("Should store only the slots that changed")
+        void storesChanges() {
+            InventorySnapshot next = change(keyframe, 0, FixtureItems.item(Material.DIAMOND, 5), firstFilled(keyframe, 1));
+
+            BackupContent delta = BackupContent.delta(keyframe, next, "base-1");
+
+            assertThat(delta.isDelta()).isTrue();
+            assertThat(delta.getBaseId()).isEqualTo("base-1");
+            assertThat(delta.getArmorContents()).isEmpty();
+            assertThat(delta.getEnderchestContents()).isEmpty();
+            assertThat(delta.getOffhandItem()).isNull();
+            assertThat(delta.getInventoryContents()).contains("cleared");
+            assertThat(delta.toYaml().length()).isLessThan(BackupContent.fromSnapshot(next).toYaml().length() / 2);
+        }
+
+        @Test
+        @DisplayName("Should rebuild the full state from a keyframe and a delta on disk")
+        void rebuildsFromFiles() throws IOException {
+            InventorySnapshot next = change(keyframe, 0, FixtureItems.item(Material.DIAMOND, 5), firstFilled(keyframe, 1));
+            File keyframeFile = tempDir.resolve("keyframe.yml").toFile();
+            File deltaFile = tempDir.resolve("delta.yml").toFile();
+            BackupContent.fromSnapshot(keyframe).saveToFile(keyframeFile);
+            String checksum = BackupContent.delta(keyframe, next, "base-1").saveToFile(deltaFile);
+
+            BackupContent delta = BackupContent.loadFromFile(deltaFile);
+            BackupContent rebuilt = BackupContent.loadFromFile(keyframeFile).applyDelta(delta);
+
+            assertThat(BackupContent.verifyChecksum(deltaFile, checksum)).isTrue();
+            assertThat(delta.getBaseId()).isEqualTo("base-1");
+            assertThat(delta.getOffhandItem()).isNull();
+            assertThat(rebuilt.isDelta()).isFalse();
+            assertSameSlots(rebuilt.getInventoryItems(), next.getStorageContents());
+            assertSameSlots(rebuilt.getArmorItems(), next.getArmorContents());
+            assertThat(rebuilt.getOffhandItemStack()).isEqualTo(next.getOffhandItem());
+            assertSameSlots(rebuilt.getEnderchestItems(), next.getEnderchestContents());
+            assertThat(rebuilt.getExpLevel()).isEqualTo(next.getExpLevel());
+        }
+
+        @Test
+        @DisplayName("Should fold two deltas into one against the first base")
+        void foldsDeltas() {
+            int slot = firstFilled(keyframe, 1);
+            InventorySnapshot second = change(keyframe, 0, FixtureItems.item(Material.DIAMOND, 5), slot);
+            InventorySnapshot third = change(second, slot, FixtureItems.item(Material.EMERALD, 9), 0);
+            BackupContent first = BackupContent.delta(keyframe, second, "keyframe");
+            BackupContent last = BackupContent.delta(second, third, "second");
+
+            BackupContent folded = first.applyDelta(last);
+            BackupContent rebuilt = BackupContent.fromSnapshot(keyframe).applyDelta(folded);
+
+            assertThat(folded.getBaseId()).isEqualTo("keyframe");
+            assertSameSlots(rebuilt.getInventoryItems(), third.getStorageContents());
+            assertThat(rebuilt.getInventoryItems()[0]).isNull();
+            assertThat(rebuilt.getInventoryItems()[slot]).isEqualTo(FixtureItems.item(Material.EMERALD, 9));
+        }
+
+        /**
+         * Copy a snapshot with one slot set and another emptied.
+         */
+        private InventorySnapshot change(InventorySnapshot base, int setSlot, ItemStack item, int clearSlot) {
+            ItemStack[] storage = base.getStorageContents().clone();
+            storage[setSlot] = item;
+            storage[clearSlot] = null;
+            return InventorySnapshot.builder()
+                    .storageContents(storage)
+                    .armorContents(base.getArmorContents())
+                    .offhandItem(base.getOffhandItem())
+                    .enderchestContents(base.getEnderchestContents())
+                    .expLevel(base.getExpLevel() + 1)
+                    .expProgress(base.getExpProgress())
+                    .armorCaptured(base.isArmorCaptured())
+                    .enderchestCaptured(base.isEnderchestCaptured())
+                    .expCaptured(base.isExpCaptured())
+                    .build();
+        }
+
+        private int firstFilled(InventorySnapshot snapshot, int from) {
+            ItemStack[] storage = snapshot.getStorageContents();
+            for (int i = from; i < storage.length; i++) {
+                if (storage[i] != null) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("No filled slot");
+        }
+    }
+
+    /**
+     * Trailing empty slots are not stored, so compare slot by slot.
+     */
+    private static void assertSameSlots(ItemStack[] restored, ItemStack[] original) {
+        for (int i = 0; i < original.length; i++) {
+            ItemStack actual = restored != null && i < restored.length ? restored[i] : null;
+            assertThat(actual).as("slot %d", i).isEqualTo(original[i]);
+        }
+    }
 }
@@ -311,7 +311,7 @@ class BackupMetadataTest {
             BackupMetadata metadata = new BackupMetadata(
                     "uuid-all", "AllName", 55555L, "DEATH",
                     "backups/all.yml", "check-all", "the_end",
-                    5.0, 10.0, 15.0, 25);
+                    5.0, 10.0, 15.0, 25, 2048L, 40, "base-1");
 
             assertThat(metadata.getPlayerUuid()).isEqualTo("uuid-all");
             assertThat(metadata.getPlayerName()).isEqualTo("AllName");
@@ -324,6 +324,9 @@ class BackupMetadataTest {
             assertThat(metadata.getLocationY()).isEqualTo(10.0);
             assertThat(metadata.getLocationZ()).isEqualTo(15.0);
             assertThat(metadata.getExpLevel()).isEqualTo(25);
+            assertThat(metadata.getPayloadBytes()).isEqualTo(2048L);
+            assertThat(metadata.getItemCount()).isEqualTo(40);
+            assertThat(metadata.getBaseId()).isEqualTo("base-1");
         }
     }
 
@@ -0,0 +1,86 @@
+package com.ultikits.plugins.backup.entity;
+
+import com.ultikits.plugins.backup.UltiBackupTestHelper;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.*;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("InventorySnapshot Tests")
+class InventorySnapshotTest {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UltiBackupTestHelper.setUp();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        UltiBackupTestHelper.tearDown();
+    }
+
+    @Test
+    @DisplayName("Should clone items so later inventory changes are not seen")
+    void clonesItems() {
+        Player player = UltiBackupTestHelper.createMockPlayer("P", UUID.randomUUID());
+        ItemStack live = mock(ItemStack.class);
+        ItemStack copy = mock(ItemStack.class);
+        when(live.clone()).thenReturn(copy);
+        when(player.getInventory().getStorageContents()).thenReturn(new ItemStack[]{live, null});
+
+        InventorySnapshot snapshot = InventorySnapshot.capture(player, null, false, false, false);
+
+        assertThat(snapshot.getStorageContents()).containsExactly(copy, null);
+    }
+
+    @Test
+    @DisplayName("Should count non-empty stacks across every captured section")
+    void countsItems() {
+        InventorySnapshot snapshot = InventorySnapshot.builder()
+                .storageContents(new ItemStack[]{new ItemStack(Material.STONE, 64), null,
+                        new ItemStack(Material.AIR), new ItemStack(Material.DIAMOND, 3)})
+                .armorContents(new ItemStack[]{null, new ItemStack(Material.IRON_HELMET)})
+                .offhandItem(new ItemStack(Material.SHIELD))
+                .enderchestContents(new ItemStack[]{new ItemStack(Material.DIRT)})
+                .build();
+
+        assertThat(snapshot.countItems()).isEqualTo(5);
+        assertThat(InventorySnapshot.builder().build().countItems()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should only read sections that are enabled")
+    void respectsFlags() {
+        Player player = UltiBackupTestHelper.createMockPlayer("P", UUID.randomUUID());
+
+        InventorySnapshot snapshot = InventorySnapshot.capture(player, null, false, false, false);
+
+        assertThat(snapshot.isArmorCaptured()).isFalse();
+        assertThat(snapshot.getArmorContents()).isNull();
+        assertThat(snapshot.getEnderchestContents()).isNull();
+        assertThat(snapshot.getExpLevel()).isZero();
+        verify(player.getInventory(), never()).getArmorContents();
+        verify(player, never()).getEnderChest();
+    }
+
+    @Test
+    @DisplayName("Should capture exp and expose metadata player UUID")
+    void capturesExpAndMetadata() {
+        UUID uuid = UUID.randomUUID();
+        Player player = UltiBackupTestHelper.createMockPlayer("P", uuid);
+        BackupMetadata metadata = BackupMetadata.builder().playerUuid(uuid.toString()).build();
+
+        InventorySnapshot snapshot = InventorySnapshot.capture(player, metadata, true, true, true);
+
+        assertThat(snapshot.getExpLevel()).isEqualTo(30);
+        assertThat(snapshot.getExpProgress()).isEqualTo(0.5f);
+        assertThat(snapshot.getPlayerUuid()).isEqualTo(uuid.toString());
+        assertThat(snapshot.getMetadata()).isSameAs(metadata);
+    }
+}
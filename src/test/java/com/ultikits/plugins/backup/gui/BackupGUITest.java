@@ -1,5 +1,6 @@
 package com.ultikits.plugins.backup.gui;
 
+import com.ultikits.plugins.backup.AllocationMeter;
 import com.ultikits.plugins.backup.UltiBackupTestHelper;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
 import com.ultikits.plugins.backup.service.BackupService;
@@ -20,6 +21,7 @@ import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,9 +41,17 @@ class BackupGUITest {
     void setUp() throws Exception {
         UltiBackupTestHelper.setUp();
         plugin = UltiBackupTestHelper.getMockPlugin();
+        GuiItems.clear();
 
         backupService = mock(BackupService.class);
         targetUuid = UUID.randomUUID();
+
+        // Deliver async loads immediately with whatever getBackups is stubbed to return
+        lenient().doAnswer(inv -> {
+            Consumer<List<BackupMetadata>> callback = inv.getArgument(1);
+            callback.accept(backupService.getBackups(inv.getArgument(0)));
+            return null;
+        }).when(backupService).getBackupsAsync(any(UUID.class), any());
         viewer = UltiBackupTestHelper.createMockPlayer("Viewer", UUID.randomUUID());
 
         // Mock ItemMeta for ItemStack operations
@@ -204,6 +214,138 @@ class BackupGUITest {
         }
     }
 
+    // ==================== Async Loading ====================
+
+    @Nested
+    @DisplayName("Async Loading")
+    class AsyncLoading {
+
+        @Test
+        @DisplayName("Should render placeholders until backups arrive")
+        void placeholdersWhileLoading() {
+            List<Consumer<List<BackupMetadata>>> pending = new ArrayList<>();
+            doAnswer(inv -> {
+                pending.add(inv.getArgument(1));
+                return null;
+            }).when(backupService).getBackupsAsync(eq(targetUuid), any());
+
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+
+            assertThat(gui.isLoading()).isTrue();
+            assertThat(gui.getBackupAtSlot(0)).isNull();
+            verify(backupService, never()).getBackups(any());
+
+            pending.get(0).accept(createBackupList(3));
+
+            assertThat(gui.isLoading()).isFalse();
+            assertThat(gui.getBackupAtSlot(2)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should discard responses superseded by a newer refresh")
+        void discardsStaleResponse() {
+            List<Consumer<List<BackupMetadata>>> pending = new ArrayList<>();
+            doAnswer(inv -> {
+                pending.add(inv.getArgument(1));
+                return null;
+            }).when(backupService).getBackupsAsync(eq(targetUuid), any());
+
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+            gui.refresh();
+
+            pending.get(1).accept(createBackupList(2));
+            pending.get(0).accept(createBackupList(5));
+
+            assertThat(gui.getBackupAtSlot(1)).isNotNull();
+            assertThat(gui.getBackupAtSlot(4)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should clamp the current page when a refresh shrinks the list")
+        void clampsPageOnShrink() {
+            when(backupService.getBackups(targetUuid))
+                    .thenReturn(createBackupList(50))
+                    .thenReturn(createBackupList(3));
+
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+            gui.nextPage();
+            gui.refresh();
+
+            assertThat(gui.getBackupAtSlot(0)).isNotNull();
+            assertThat(gui.getBackupAtSlot(0).getBackupTime()).isEqualTo(1000L);
+        }
+    }
+
+    // ==================== Diff Rendering ====================
+
+    @Nested
+    @DisplayName("Diff Rendering")
+    class DiffRendering {
+
+        @Test
+        @DisplayName("Should not write any slot when nothing changed")
+        void noWritesWhenUnchanged() {
+            when(backupService.getBackups(targetUuid)).thenReturn(createBackupList(5));
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+            Inventory inventory = gui.getInventory();
+            clearInvocations(inventory);
+
+            gui.updateInventory();
+
+            verify(inventory, never()).setItem(anyInt(), any());
+            verify(inventory, never()).clear();
+        }
+
+        @Test
+        @DisplayName("Should only write changed slots on page change")
+        void writesOnlyChangedSlots() {
+            when(backupService.getBackups(targetUuid)).thenReturn(createBackupList(50));
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+            Inventory inventory = gui.getInventory();
+            clearInvocations(inventory);
+
+            gui.nextPage();
+
+            // Page 2 holds only 5 backups: slots 5..44 are cleared, the create button is untouched
+            verify(inventory).setItem(5, null);
+            verify(inventory, never()).setItem(eq(47), any());
+        }
+
+        @Test
+        @DisplayName("Should reuse prebuilt navigation items across instances")
+        void reusesNavigationItems() {
+            when(backupService.getBackups(targetUuid)).thenReturn(Collections.emptyList());
+
+            new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+            new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+
+            verify(plugin, times(1)).i18n("backup.gui.create_new");
+            verify(plugin, times(1)).i18n("backup.gui.create_new_lore");
+        }
+    }
+
+    // ==================== Allocation Budget ====================
+
+    @Nested
+    @DisplayName("Allocation Budget")
+    class AllocationBudget {
+
+        /** Allowed allocation to re-render an unchanged page of 45 backups. */
+        private static final long RERENDER_BYTES = 32 * 1024;
+
+        @Test
+        @DisplayName("Should re-render an unchanged page within its allocation budget")
+        void rerender() throws Exception {
+            Assumptions.assumeTrue(AllocationMeter.isSupported(), "Thread allocation counters unavailable");
+            when(backupService.getBackups(targetUuid)).thenReturn(createBackupList(90));
+            BackupGUI gui = new BackupGUI(plugin, backupService, viewer, targetUuid, "Target");
+
+            long bytes = AllocationMeter.bytesPerCall(50, 200, gui::updateInventory);
+
+            assertThat(bytes).isLessThanOrEqualTo(RERENDER_BYTES);
+        }
+    }
+
     // ==================== Properties ====================
 
     @Nested
@@ -0,0 +1,109 @@
+package com.ultikits.plugins.backup.gui;
+
+import com.ultikits.plugins.backup.UltiBackupTestHelper;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BackupLoreRenderer Tests")
+class BackupLoreRendererTest {
+
+    private UltiToolsPlugin plugin;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UltiBackupTestHelper.setUp();
+        plugin = UltiBackupTestHelper.getMockPlugin();
+        when(plugin.i18n("backup.gui.reason")).thenReturn("Reason: {REASON}");
+        when(plugin.i18n("backup.gui.world")).thenReturn("World: {WORLD}");
+        when(plugin.i18n("backup.gui.location")).thenReturn("Location: {LOCATION}");
+        when(plugin.i18n("backup.gui.level")).thenReturn("Level: {LEVEL}");
+        BackupLoreRenderer.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        BackupLoreRenderer.reset();
+        UltiBackupTestHelper.tearDown();
+    }
+
+    @Test
+    @DisplayName("Should render every lore line with placeholders substituted")
+    void rendersLore() {
+        BackupMetadata backup = createBackup("id-1");
+
+        List<String> lore = BackupLoreRenderer.get(plugin).lore(backup);
+
+        assertThat(lore).containsExactly(
+                "Reason: DEATH",
+                "World: world_nether",
+                "Location: 100.4, 64.0, -200.6",
+                "Level: 42",
+                "",
+                "backup.gui.click_restore",
+                "backup.gui.click_preview",
+                "backup.gui.click_delete");
+    }
+
+    @Test
+    @DisplayName("Should memoize lore per backup")
+    void memoizes() {
+        BackupLoreRenderer renderer = BackupLoreRenderer.get(plugin);
+        BackupMetadata backup = createBackup("id-1");
+
+        assertThat(renderer.lore(backup)).isSameAs(renderer.lore(createBackup("id-1")));
+        assertThat(renderer.lore(backup)).isNotSameAs(renderer.lore(createBackup("id-2")));
+    }
+
+    @Test
+    @DisplayName("Should resolve i18n only once per language")
+    void compilesOnce() {
+        BackupLoreRenderer.get(plugin).lore(createBackup("id-1"));
+        BackupLoreRenderer.get(plugin).lore(createBackup("id-2"));
+
+        verify(plugin, times(1)).i18n("backup.gui.reason");
+        verify(plugin, times(1)).i18n("backup.gui.click_delete");
+    }
+
+    @Test
+    @DisplayName("Should recompile after reset")
+    void resetRecompiles() {
+        BackupLoreRenderer first = BackupLoreRenderer.get(plugin);
+        BackupLoreRenderer.reset();
+
+        assertThat(BackupLoreRenderer.get(plugin)).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should format one decimal place like %.1f")
+    void oneDecimal() {
+        StringBuilder sb = new StringBuilder();
+        BackupLoreRenderer.appendOneDecimal(sb, 12.34);
+        sb.append('|');
+        BackupLoreRenderer.appendOneDecimal(sb, -0.96);
+        sb.append('|');
+        BackupLoreRenderer.appendOneDecimal(sb, 5.0);
+
+        assertThat(sb.toString()).isEqualTo("12.3|-1.0|5.0");
+    }
+
+    private BackupMetadata createBackup(String id) {
+        BackupMetadata backup = BackupMetadata.builder()
+                .backupTime(1700000000000L)
+                .backupReason("DEATH")
+                .worldName("world_nether")
+                .locationX(100.44)
+                .locationY(64.0)
+                .locationZ(-200.56)
+                .expLevel(42)
+                .build();
+        backup.setId(id);
+        return backup;
+    }
+}
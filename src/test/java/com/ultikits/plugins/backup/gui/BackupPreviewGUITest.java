@@ -40,6 +40,8 @@ class BackupPreviewGUITest {
     void setUp() throws Exception {
         UltiBackupTestHelper.setUp();
         plugin = UltiBackupTestHelper.getMockPlugin();
+        GuiItems.clear();
+        DecodedSectionCache.shared().clear();
 
         viewer = UltiBackupTestHelper.createMockPlayer("Viewer", UUID.randomUUID());
 
@@ -363,6 +365,83 @@ class BackupPreviewGUITest {
         }
     }
 
+    // ==================== Decoded section cache ====================
+
+    @Nested
+    @DisplayName("Decoded section cache")
+    class DecodedSections {
+
+        @Test
+        @DisplayName("Should decode each section once per session across tab switches")
+        void decodesOncePerSession() {
+            BackupContent mockContent = mock(BackupContent.class);
+            when(mockContent.getInventoryItems()).thenReturn(new ItemStack[] {new ItemStack(Material.STONE)});
+            when(mockContent.getArmorItems()).thenReturn(new ItemStack[4]);
+
+            BackupPreviewGUI gui = new BackupPreviewGUI(plugin, viewer, metadata, mockContent);
+            gui.handleTabClick(46);
+            gui.handleTabClick(45);
+            gui.handleTabClick(46);
+            gui.handleTabClick(45);
+
+            verify(mockContent, times(1)).getInventoryItems();
+            verify(mockContent, times(1)).getArmorItems();
+            verify(mockContent, times(1)).getOffhandItemStack();
+        }
+
+        @Test
+        @DisplayName("Should share decoded sections between viewers of the same backup")
+        void sharesAcrossViewers() {
+            BackupContent mockContent = mock(BackupContent.class);
+            when(mockContent.getInventoryItems()).thenReturn(new ItemStack[] {new ItemStack(Material.STONE)});
+
+            new BackupPreviewGUI(plugin, viewer, metadata, mockContent);
+            Player otherViewer = UltiBackupTestHelper.createMockPlayer("Other", UUID.randomUUID());
+            new BackupPreviewGUI(plugin, otherViewer, metadata, mockContent);
+
+            verify(mockContent, times(1)).getInventoryItems();
+        }
+
+        @Test
+        @DisplayName("Should remember empty sections without re-decoding")
+        void cachesEmptySections() {
+            BackupContent mockContent = mock(BackupContent.class);
+            when(mockContent.getInventoryItems()).thenReturn(null);
+
+            BackupPreviewGUI gui = new BackupPreviewGUI(plugin, viewer, metadata, mockContent);
+            gui.updateInventory();
+
+            verify(mockContent, times(1)).getInventoryItems();
+            assertThat(DecodedSectionCache.shared().get("preview-id", DecodedSectionCache.Section.INVENTORY))
+                    .isSameAs(DecodedSectionCache.EMPTY);
+        }
+
+        @Test
+        @DisplayName("Should bypass the shared cache when the backup has no ID")
+        void noSharedCacheWithoutId() {
+            metadata.setId(null);
+            BackupContent mockContent = mock(BackupContent.class);
+
+            new BackupPreviewGUI(plugin, viewer, metadata, mockContent);
+            new BackupPreviewGUI(plugin, viewer, metadata, mockContent);
+
+            verify(mockContent, times(2)).getInventoryItems();
+            assertThat(DecodedSectionCache.shared().size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should evict least recently used sections beyond capacity")
+        void boundedSize() {
+            DecodedSectionCache cache = new DecodedSectionCache(2);
+            cache.put("a", DecodedSectionCache.Section.INVENTORY, DecodedSectionCache.EMPTY);
+            cache.put("b", DecodedSectionCache.Section.INVENTORY, DecodedSectionCache.EMPTY);
+            cache.put("c", DecodedSectionCache.Section.INVENTORY, DecodedSectionCache.EMPTY);
+
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(cache.get("a", DecodedSectionCache.Section.INVENTORY)).isNull();
+        }
+    }
+
     // ==================== isTabSlot edge cases ====================
 
     @Nested
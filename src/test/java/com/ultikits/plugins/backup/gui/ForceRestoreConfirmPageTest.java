@@ -1,329 +1,338 @@
-package com.ultikits.plugins.backup.gui;
-
-import com.ultikits.plugins.backup.UltiBackupTestHelper;
-import com.ultikits.plugins.backup.entity.BackupMetadata;
-import com.ultikits.plugins.backup.service.BackupService;
-import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
-
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
-import org.bukkit.event.inventory.ClickType;
-import org.bukkit.event.inventory.InventoryAction;
-import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryType;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryView;
-import org.junit.jupiter.api.*;
-import org.mockito.MockedStatic;
-
-import java.util.UUID;
-
-import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.*;
-
-/**
- * Tests for ForceRestoreConfirmPage.
- * <p>
- * Since ForceRestoreConfirmPage extends BaseConfirmationPage (ObliviateInv framework),
- * the constructor calls super() which stores fields but does not do Bukkit I/O.
- * We test onConfirm, onCancel, getOkButtonName, getCancelButtonName, setupDialogContent,
- * and the static open() method via reflection/direct invocation.
- */
-@DisplayName("ForceRestoreConfirmPage Tests")
-class ForceRestoreConfirmPageTest {
-
-    private UltiToolsPlugin plugin;
-    private BackupService backupService;
-    private Player viewer;
-    private Player target;
-    private BackupMetadata metadata;
-    private UUID targetUuid;
-
-    @BeforeEach
-    void setUp() throws Exception {
-        UltiBackupTestHelper.setUp();
-        plugin = UltiBackupTestHelper.getMockPlugin();
-        backupService = mock(BackupService.class);
-
-        targetUuid = UUID.randomUUID();
-        viewer = UltiBackupTestHelper.createMockPlayer("Admin", UUID.randomUUID());
-        target = UltiBackupTestHelper.createMockPlayer("Target", targetUuid);
-
-        metadata = BackupMetadata.builder()
-                .playerUuid(targetUuid.toString())
-                .playerName("Target")
-                .backupTime(1700000000000L)
-                .backupReason("MANUAL")
-                .worldName("world")
-                .locationX(0)
-                .locationY(64)
-                .locationZ(0)
-                .expLevel(15)
-                .build();
-        metadata.setId("force-restore-id");
-    }
-
-    @AfterEach
-    void tearDown() throws Exception {
-        UltiBackupTestHelper.tearDown();
-    }
-
-    // ==================== onConfirm ====================
-
-    @Nested
-    @DisplayName("onConfirm")
-    class OnConfirm {
-
-        @Test
-        @DisplayName("Should send force_restored message on SUCCESS")
-        void successResult() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(viewer).sendMessage("backup.message.force_restored");
-        }
-
-        @Test
-        @DisplayName("Should notify target when different from viewer on SUCCESS")
-        void successNotifiesTarget() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(target).sendMessage(argThat(
-                    (String msg) -> msg.contains("restored_by_admin")));
-        }
-
-        @Test
-        @DisplayName("Should not notify target when same as viewer on SUCCESS")
-        void successSamePerson() {
-            // Use target as both viewer and target
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, target, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
-
-            InventoryClickEvent event = createClickEvent(target);
-            page.onConfirm(event);
-
-            verify(target).sendMessage("backup.message.force_restored");
-            // Should not send restored_by_admin since viewer == target
-            verify(target, never()).sendMessage(argThat(
-                    (String msg) -> msg.contains("restored_by_admin")));
-        }
-
-        @Test
-        @DisplayName("Should log warning on successful force restore")
-        void logsWarning() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(UltiBackupTestHelper.getMockLogger()).warn(
-                    argThat((String msg) -> msg.contains("force-restored")
-                            && msg.contains("Admin") && msg.contains("Target")));
-        }
-
-        @Test
-        @DisplayName("Should send load_failed on LOAD_FAILED result")
-        void loadFailed() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.LOAD_FAILED);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(viewer).sendMessage("backup.message.load_failed");
-        }
-
-        @Test
-        @DisplayName("Should send restore_failed on RESTORE_FAILED result")
-        void restoreFailed() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.RESTORE_FAILED);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(viewer).sendMessage("backup.message.restore_failed");
-        }
-
-        @Test
-        @DisplayName("Should send restore_failed on unexpected result (default case)")
-        void defaultResult() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.NOT_FOUND);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(viewer).sendMessage("backup.message.restore_failed");
-        }
-
-        @Test
-        @DisplayName("Should send restore_failed on CHECKSUM_FAILED result (default case)")
-        void checksumFailedDefault() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            when(backupService.forceRestore(target, metadata))
-                    .thenReturn(BackupService.RestoreResult.CHECKSUM_FAILED);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onConfirm(event);
-
-            verify(viewer).sendMessage("backup.message.restore_failed");
-        }
-    }
-
-    // ==================== onCancel ====================
-
-    @Nested
-    @DisplayName("onCancel")
-    class OnCancel {
-
-        @Test
-        @DisplayName("Should send restore_cancelled message")
-        void sendsCancelledMessage() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            InventoryClickEvent event = createClickEvent(viewer);
-            page.onCancel(event);
-
-            verify(viewer).sendMessage("backup.message.restore_cancelled");
-        }
-    }
-
-    // ==================== Button Names ====================
-
-    @Nested
-    @DisplayName("Button Names")
-    class ButtonNames {
-
-        @Test
-        @DisplayName("Should return i18n key for OK button")
-        void okButtonName() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            String name = page.getOkButtonName();
-
-            assertThat(name).isEqualTo("backup.confirm.button_confirm");
-        }
-
-        @Test
-        @DisplayName("Should return i18n key for Cancel button")
-        void cancelButtonName() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            String name = page.getCancelButtonName();
-
-            assertThat(name).isEqualTo("backup.confirm.button_cancel");
-        }
-    }
-
-    // ==================== Static open() Method ====================
-
-    @Nested
-    @DisplayName("Static open() Method")
-    class StaticOpen {
-
-        @Test
-        @DisplayName("Should send player_offline when target is null")
-        void targetOffline() {
-            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
-                bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(null);
-
-                ForceRestoreConfirmPage.open(plugin, viewer, metadata, backupService);
-            }
-
-            verify(viewer).sendMessage(argThat(
-                    (String msg) -> msg.contains("player_offline")));
-        }
-    }
-
-    // ==================== setupDialogContent ====================
-
-    @Nested
-    @DisplayName("setupDialogContent")
-    class SetupDialogContent {
-
-        @Test
-        @DisplayName("Should not throw when called with mock event")
-        void doesNotThrow() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            // setupDialogContent creates ItemStack and calls addItem
-            // This would NPE without Bukkit mocking for ItemMeta, but
-            // the test verifies the method can be invoked
-            assertThatCode(() -> {
-                try {
-                    page.setupDialogContent(null);
-                } catch (NullPointerException e) {
-                    // Expected because ItemStack.getItemMeta() needs Bukkit server
-                    // But we've validated the method is reachable
-                }
-            }).doesNotThrowAnyException();
-        }
-    }
-
-    // ==================== Constructor ====================
-
-    @Nested
-    @DisplayName("Constructor")
-    class Constructor {
-
-        @Test
-        @DisplayName("Should create instance with all fields")
-        void createsInstance() {
-            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
-                    plugin, viewer, metadata, backupService, target);
-
-            // Just verify the constructor doesn't throw
-            assertThat(page).isNotNull();
-        }
-    }
-
-    // --- Helper ---
-
-    private InventoryClickEvent createClickEvent(Player whoClicked) {
-        Inventory inventory = mock(Inventory.class);
-        InventoryView view = mock(InventoryView.class);
-        when(view.getTopInventory()).thenReturn(inventory);
-        when(view.getPlayer()).thenReturn(whoClicked);
-
-        return new InventoryClickEvent(
-                view, InventoryType.SlotType.CONTAINER, 5,
-                ClickType.LEFT, InventoryAction.PICKUP_ALL);
-    }
-}
+package com.ultikits.plugins.backup.gui;
+
+import com.ultikits.plugins.backup.UltiBackupTestHelper;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.service.BackupService;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+import org.mockito.stubbing.Answer;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ForceRestoreConfirmPage.
+ * <p>
+ * Since ForceRestoreConfirmPage extends BaseConfirmationPage (ObliviateInv framework),
+ * the constructor calls super() which stores fields but does not do Bukkit I/O.
+ * We test onConfirm, onCancel, getOkButtonName, getCancelButtonName, setupDialogContent,
+ * and the static open() method via reflection/direct invocation.
+ */
+@DisplayName("ForceRestoreConfirmPage Tests")
+class ForceRestoreConfirmPageTest {
+
+    private UltiToolsPlugin plugin;
+    private BackupService backupService;
+    private Player viewer;
+    private Player target;
+    private BackupMetadata metadata;
+    private UUID targetUuid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UltiBackupTestHelper.setUp();
+        plugin = UltiBackupTestHelper.getMockPlugin();
+        backupService = mock(BackupService.class);
+
+        targetUuid = UUID.randomUUID();
+        viewer = UltiBackupTestHelper.createMockPlayer("Admin", UUID.randomUUID());
+        target = UltiBackupTestHelper.createMockPlayer("Target", targetUuid);
+
+        metadata = BackupMetadata.builder()
+                .playerUuid(targetUuid.toString())
+                .playerName("Target")
+                .backupTime(1700000000000L)
+                .backupReason("MANUAL")
+                .worldName("world")
+                .locationX(0)
+                .locationY(64)
+                .locationZ(0)
+                .expLevel(15)
+                .build();
+        metadata.setId("force-restore-id");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        UltiBackupTestHelper.tearDown();
+    }
+
+    // ==================== onConfirm ====================
+
+    @Nested
+    @DisplayName("onConfirm")
+    class OnConfirm {
+
+        @Test
+        @DisplayName("Should send force_restored message on SUCCESS")
+        void successResult() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(viewer).sendMessage("backup.message.force_restored");
+        }
+
+        @Test
+        @DisplayName("Should notify target when different from viewer on SUCCESS")
+        void successNotifiesTarget() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(target).sendMessage(argThat(
+                    (String msg) -> msg.contains("restored_by_admin")));
+        }
+
+        @Test
+        @DisplayName("Should not notify target when same as viewer on SUCCESS")
+        void successSamePerson() {
+            // Use target as both viewer and target
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, target, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(target);
+            page.onConfirm(event);
+
+            verify(target).sendMessage("backup.message.force_restored");
+            // Should not send restored_by_admin since viewer == target
+            verify(target, never()).sendMessage(argThat(
+                    (String msg) -> msg.contains("restored_by_admin")));
+        }
+
+        @Test
+        @DisplayName("Should log warning on successful force restore")
+        void logsWarning() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(UltiBackupTestHelper.getMockLogger()).warn(
+                    argThat((String msg) -> msg.contains("force-restored")
+                            && msg.contains("Admin") && msg.contains("Target")));
+        }
+
+        @Test
+        @DisplayName("Should send load_failed on LOAD_FAILED result")
+        void loadFailed() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.LOAD_FAILED))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(viewer).sendMessage("backup.message.load_failed");
+        }
+
+        @Test
+        @DisplayName("Should send restore_failed on RESTORE_FAILED result")
+        void restoreFailed() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.RESTORE_FAILED))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(viewer).sendMessage("backup.message.restore_failed");
+        }
+
+        @Test
+        @DisplayName("Should send restore_failed on unexpected result (default case)")
+        void defaultResult() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.NOT_FOUND))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(viewer).sendMessage("backup.message.restore_failed");
+        }
+
+        @Test
+        @DisplayName("Should send restore_failed on CHECKSUM_FAILED result (default case)")
+        void checksumFailedDefault() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            doAnswer(respond(BackupService.RestoreResult.CHECKSUM_FAILED))
+                    .when(backupService).forceRestoreAsync(eq(target), eq(metadata), any());
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onConfirm(event);
+
+            verify(viewer).sendMessage("backup.message.restore_failed");
+        }
+    }
+
+    // ==================== onCancel ====================
+
+    @Nested
+    @DisplayName("onCancel")
+    class OnCancel {
+
+        @Test
+        @DisplayName("Should send restore_cancelled message")
+        void sendsCancelledMessage() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            InventoryClickEvent event = createClickEvent(viewer);
+            page.onCancel(event);
+
+            verify(viewer).sendMessage("backup.message.restore_cancelled");
+        }
+    }
+
+    // ==================== Button Names ====================
+
+    @Nested
+    @DisplayName("Button Names")
+    class ButtonNames {
+
+        @Test
+        @DisplayName("Should return i18n key for OK button")
+        void okButtonName() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            String name = page.getOkButtonName();
+
+            assertThat(name).isEqualTo("backup.confirm.button_confirm");
+        }
+
+        @Test
+        @DisplayName("Should return i18n key for Cancel button")
+        void cancelButtonName() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            String name = page.getCancelButtonName();
+
+            assertThat(name).isEqualTo("backup.confirm.button_cancel");
+        }
+    }
+
+    // ==================== Static open() Method ====================
+
+    @Nested
+    @DisplayName("Static open() Method")
+    class StaticOpen {
+
+        @Test
+        @DisplayName("Should send player_offline when target is null")
+        void targetOffline() {
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(null);
+
+                ForceRestoreConfirmPage.open(plugin, viewer, metadata, backupService);
+            }
+
+            verify(viewer).sendMessage(argThat(
+                    (String msg) -> msg.contains("player_offline")));
+        }
+    }
+
+    // ==================== setupDialogContent ====================
+
+    @Nested
+    @DisplayName("setupDialogContent")
+    class SetupDialogContent {
+
+        @Test
+        @DisplayName("Should not throw when called with mock event")
+        void doesNotThrow() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            // setupDialogContent creates ItemStack and calls addItem
+            // This would NPE without Bukkit mocking for ItemMeta, but
+            // the test verifies the method can be invoked
+            assertThatCode(() -> {
+                try {
+                    page.setupDialogContent(null);
+                } catch (NullPointerException e) {
+                    // Expected because ItemStack.getItemMeta() needs Bukkit server
+                    // But we've validated the method is reachable
+                }
+            }).doesNotThrowAnyException();
+        }
+    }
+
+    // ==================== Constructor ====================
+
+    @Nested
+    @DisplayName("Constructor")
+    class Constructor {
+
+        @Test
+        @DisplayName("Should create instance with all fields")
+        void createsInstance() {
+            ForceRestoreConfirmPage page = new ForceRestoreConfirmPage(
+                    plugin, viewer, metadata, backupService, target);
+
+            // Just verify the constructor doesn't throw
+            assertThat(page).isNotNull();
+        }
+    }
+
+    // --- Helper ---
+
+    private InventoryClickEvent createClickEvent(Player whoClicked) {
+        Inventory inventory = mock(Inventory.class);
+        InventoryView view = mock(InventoryView.class);
+        when(view.getTopInventory()).thenReturn(inventory);
+        when(view.getPlayer()).thenReturn(whoClicked);
+
+        return new InventoryClickEvent(
+                view, InventoryType.SlotType.CONTAINER, 5,
+                ClickType.LEFT, InventoryAction.PICKUP_ALL);
+    }
+
+    private static Answer<Void> respond(BackupService.RestoreResult result) {
+        return invocation -> {
+            invocation.<Consumer<BackupService.RestoreResult>>getArgument(2).accept(result);
+            return null;
+        };
+    }
+}
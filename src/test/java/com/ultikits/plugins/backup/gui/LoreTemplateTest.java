@@ -0,0 +1,43 @@
+package com.ultikits.plugins.backup.gui;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LoreTemplate Tests")
+class LoreTemplateTest {
+
+    private static final LoreTemplate.Resolver UPPER_NAME = (name, out) -> out.append(name.toLowerCase());
+
+    @Test
+    @DisplayName("Should substitute placeholders in order")
+    void substitutes() {
+        LoreTemplate template = LoreTemplate.compile("§7World: §f{WORLD} at {LOCATION}!");
+
+        assertThat(template.render(UPPER_NAME)).isEqualTo("§7World: §fworld at location!");
+    }
+
+    @Test
+    @DisplayName("Should return literal text when there are no placeholders")
+    void literalOnly() {
+        LoreTemplate template = LoreTemplate.compile("§aLeft-click: Restore");
+
+        assertThat(template.render((name, out) -> fail("resolver should not be called")))
+                .isEqualTo("§aLeft-click: Restore");
+    }
+
+    @Test
+    @DisplayName("Should handle placeholders at both ends")
+    void placeholdersAtEdges() {
+        LoreTemplate template = LoreTemplate.compile("{A}-{B}");
+
+        assertThat(template.render(UPPER_NAME)).isEqualTo("a-b");
+    }
+
+    @Test
+    @DisplayName("Should keep unmatched and empty braces as literal text")
+    void unmatchedBraces() {
+        assertThat(LoreTemplate.compile("a { b").render(UPPER_NAME)).isEqualTo("a { b");
+        assertThat(LoreTemplate.compile("a {} b").render(UPPER_NAME)).isEqualTo("a {} b");
+    }
+}
@@ -0,0 +1,90 @@
+package com.ultikits.plugins.backup.gui;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SlotRenderer Tests")
+class SlotRendererTest {
+
+    private Inventory inventory;
+    private SlotRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        inventory = mock(Inventory.class);
+        renderer = new SlotRenderer(9);
+    }
+
+    @Test
+    @DisplayName("Should write all non-empty slots on first render")
+    void firstRender() {
+        ItemStack[] layout = new ItemStack[9];
+        layout[0] = new ItemStack(Material.STONE);
+        layout[8] = new ItemStack(Material.DIRT);
+
+        int writes = renderer.render(inventory, layout);
+
+        assertThat(writes).isEqualTo(2);
+        verify(inventory).setItem(0, layout[0]);
+        verify(inventory).setItem(8, layout[8]);
+    }
+
+    @Test
+    @DisplayName("Should skip slots holding the same item instance")
+    void skipsUnchanged() {
+        ItemStack stone = new ItemStack(Material.STONE);
+        ItemStack[] layout = new ItemStack[9];
+        layout[0] = stone;
+        renderer.render(inventory, layout);
+        clearInvocations(inventory);
+
+        ItemStack[] next = new ItemStack[9];
+        next[0] = stone;
+
+        assertThat(renderer.render(inventory, next)).isZero();
+        verify(inventory, never()).setItem(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should write slots whose item instance changed")
+    void writesReplacedInstances() {
+        ItemStack[] layout = new ItemStack[9];
+        layout[0] = new ItemStack(Material.STONE);
+        renderer.render(inventory, layout);
+
+        ItemStack[] next = new ItemStack[9];
+        next[0] = new ItemStack(Material.DIRT);
+
+        assertThat(renderer.render(inventory, next)).isEqualTo(1);
+        verify(inventory).setItem(0, next[0]);
+    }
+
+    @Test
+    @DisplayName("Should clear slots that become empty")
+    void clearsRemovedSlots() {
+        ItemStack[] layout = new ItemStack[9];
+        layout[3] = new ItemStack(Material.STONE);
+        renderer.render(inventory, layout);
+
+        renderer.render(inventory, new ItemStack[9]);
+
+        verify(inventory).setItem(3, null);
+    }
+
+    @Test
+    @DisplayName("Should rewrite everything after invalidate")
+    void invalidate() {
+        ItemStack[] layout = new ItemStack[9];
+        layout[1] = new ItemStack(Material.STONE);
+        renderer.render(inventory, layout);
+        renderer.invalidate();
+
+        assertThat(renderer.render(inventory, layout)).isEqualTo(1);
+    }
+}
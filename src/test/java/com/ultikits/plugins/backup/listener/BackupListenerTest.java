@@ -19,8 +19,10 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryView;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
+import org.mockito.stubbing.Answer;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -70,7 +72,8 @@ class BackupListenerTest {
             PlayerDeathEvent event = createDeathEvent(player);
             listener.onPlayerDeath(event);
 
-            verify(backupService).createBackup(player, "DEATH");
+            verify(backupService).submitBackup(player, "DEATH");
+            verify(backupService, never()).createBackup(any(), anyString());
         }
 
         @Test
@@ -81,7 +84,7 @@ class BackupListenerTest {
             PlayerDeathEvent event = createDeathEvent(player);
             listener.onPlayerDeath(event);
 
-            verify(backupService, never()).createBackup(any(), anyString());
+            verify(backupService, never()).submitBackup(any(), anyString());
         }
 
         @Test
@@ -93,7 +96,7 @@ class BackupListenerTest {
             PlayerDeathEvent event = createDeathEvent(player);
             listener.onPlayerDeath(event);
 
-            verify(backupService, never()).createBackup(any(), anyString());
+            verify(backupService, never()).submitBackup(any(), anyString());
         }
     }
 
@@ -111,7 +114,8 @@ class BackupListenerTest {
             PlayerQuitEvent event = new PlayerQuitEvent(player, "left");
             listener.onPlayerQuit(event);
 
-            verify(backupService).createBackup(player, "QUIT");
+            verify(backupService).backupOnQuit(player);
+            verify(backupService, never()).createBackup(any(), anyString());
         }
 
         @Test
@@ -122,7 +126,7 @@ class BackupListenerTest {
             PlayerQuitEvent event = new PlayerQuitEvent(player, "left");
             listener.onPlayerQuit(event);
 
-            verify(backupService, never()).createBackup(any(), anyString());
+            verify(backupService, never()).backupOnQuit(any());
         }
 
         @Test
@@ -134,7 +138,7 @@ class BackupListenerTest {
             PlayerQuitEvent event = new PlayerQuitEvent(player, "left");
             listener.onPlayerQuit(event);
 
-            verify(backupService, never()).createBackup(any(), anyString());
+            verify(backupService, never()).backupOnQuit(any());
         }
     }
 
@@ -185,6 +189,8 @@ class BackupListenerTest {
             listener.onBackupGUIClick(event);
 
             assertThat(event.isCancelled()).isFalse();
+            // Not timed, so other inventories don't inflate the module's main-thread cost
+            verify(backupService, never()).getWatchdog();
         }
     }
 
@@ -238,6 +244,8 @@ class BackupListenerTest {
             listener.onPreviewGUIClick(event);
 
             assertThat(event.isCancelled()).isFalse();
+            // Not timed, so other inventories don't inflate the module's main-thread cost
+            verify(backupService, never()).getWatchdog();
         }
     }
 
@@ -355,7 +363,7 @@ class BackupListenerTest {
             InventoryClickEvent event = createClickEventForHolder(gui, player, 10);
             listener.onBackupGUIClick(event);
 
-            verify(backupService, never()).restoreBackup(any(), any());
+            verify(backupService, never()).restoreBackupAsync(any(), any(), any());
         }
 
         @Test
@@ -416,8 +424,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(targetPlayer);
@@ -469,8 +477,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.NOT_FOUND);
+            doAnswer(respond(BackupService.RestoreResult.NOT_FOUND))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(targetPlayer);
@@ -496,8 +504,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.LOAD_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.LOAD_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(targetPlayer);
@@ -523,8 +531,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.RESTORE_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.RESTORE_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(targetPlayer);
@@ -550,8 +558,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.CHECKSUM_FAILED);
+            doAnswer(respond(BackupService.RestoreResult.CHECKSUM_FAILED))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 // First call returns targetPlayer (for handleRestore),
@@ -586,8 +594,8 @@ class BackupListenerTest {
             when(gui.getTargetUuid()).thenReturn(targetUuid);
             when(gui.getBackupAtSlot(3)).thenReturn(backup);
 
-            when(backupService.restoreBackup(targetPlayer, backup))
-                    .thenReturn(BackupService.RestoreResult.SUCCESS);
+            doAnswer(respond(BackupService.RestoreResult.SUCCESS))
+                    .when(backupService).restoreBackupAsync(eq(targetPlayer), eq(backup), any());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(() -> Bukkit.getPlayer(targetUuid)).thenReturn(targetPlayer);
@@ -765,4 +773,11 @@ class BackupListenerTest {
                 view, InventoryType.SlotType.CONTAINER, rawSlot,
                 ClickType.RIGHT, InventoryAction.PICKUP_HALF);
     }
+
+    private static Answer<Void> respond(BackupService.RestoreResult result) {
+        return invocation -> {
+            invocation.<Consumer<BackupService.RestoreResult>>getArgument(2).accept(result);
+            return null;
+        };
+    }
 }
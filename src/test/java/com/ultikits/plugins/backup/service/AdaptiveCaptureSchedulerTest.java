@@ -0,0 +1,109 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AdaptiveCaptureScheduler Tests")
+class AdaptiveCaptureSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private int tick(AdaptiveCaptureScheduler.Run run, long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        return run.next();
+    }
+
+    @Test
+    @DisplayName("Should always use the full budget when disabled")
+    void disabled() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(10, 0, 300, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(true);
+
+        assertThat(tick(run, 0)).isEqualTo(10);
+        assertThat(tick(run, 500)).isEqualTo(10);
+        assertThat(scheduler.getThrottledTicks()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should use the full budget on a healthy server")
+    void healthy() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(10, 55, 300, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(false);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(tick(run, 50)).isEqualTo(10);
+        }
+        assertThat(scheduler.getAverageTickMillis()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Should never sample a tick below 50 ms")
+    void tickFloor() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(10, 55, 300, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(false);
+
+        tick(run, 0);
+        tick(run, 5);
+        tick(run, 5);
+
+        assertThat(scheduler.getAverageTickMillis()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Should halve the budget of a non-deferrable run under lag, never below one")
+    void shrinksUnderLag() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(8, 55, 300, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(false);
+
+        assertThat(tick(run, 0)).isEqualTo(8);
+        assertThat(tick(run, 100)).isEqualTo(4);
+        assertThat(tick(run, 100)).isEqualTo(2);
+        assertThat(tick(run, 100)).isEqualTo(1);
+        assertThat(tick(run, 100)).isEqualTo(1);
+        assertThat(scheduler.getDeferredTicks()).isZero();
+        assertThat(scheduler.getThrottledTicks()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should defer an AUTO round under lag and ramp back up with headroom")
+    void defersAndCatchesUp() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(4, 55, 300, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(true);
+
+        assertThat(tick(run, 0)).isZero();
+        assertThat(tick(run, 200)).isZero();
+        assertThat(tick(run, 200)).isZero();
+        assertThat(run.getDeferredTicks()).isEqualTo(2);
+
+        int captured = 0;
+        for (int i = 0; i < 40 && captured == 0; i++) {
+            captured = tick(run, 50);
+        }
+        assertThat(captured).isEqualTo(1);
+        assertThat(tick(run, 50)).isEqualTo(2);
+        assertThat(tick(run, 50)).isEqualTo(3);
+        assertThat(tick(run, 50)).isEqualTo(4);
+        assertThat(scheduler.getDeferredRounds()).isEqualTo(1);
+        assertThat(scheduler.getForcedRounds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run a deferred AUTO round anyway after the maximum deferral")
+    void forcedAfterMaxDefer() {
+        AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(4, 55, 1, now::get);
+        AdaptiveCaptureScheduler.Run run = scheduler.start(true);
+
+        tick(run, 0);
+        // One second of 200 ms ticks is five ticks, not the 20 of a healthy server
+        for (int i = 0; i < 5; i++) {
+            assertThat(tick(run, 200)).isZero();
+        }
+        assertThat(tick(run, 200)).isEqualTo(1);
+        assertThat(scheduler.getForcedRounds()).isEqualTo(1);
+        assertThat(scheduler.getDeferredTicks()).isEqualTo(5);
+    }
+}
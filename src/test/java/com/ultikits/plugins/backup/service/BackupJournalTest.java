@@ -0,0 +1,210 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupContent;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BackupJournal Tests")
+class BackupJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private BackupJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("pending.journal").toFile();
+        journal = new BackupJournal(file);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    private static BackupMetadata metadata(String name) {
+        return BackupMetadata.builder()
+                .playerUuid("uuid-" + name)
+                .playerName(name)
+                .backupTime(1700000000000L)
+                .backupReason("QUIT")
+                .filePath("backups/" + name + ".yml")
+                .worldName("world")
+                .locationX(1.5)
+                .locationY(64)
+                .locationZ(-3.25)
+                .expLevel(7)
+                .itemCount(12)
+                .captureId("capture-" + name)
+                .build();
+    }
+
+    private static BackupContent content() {
+        return BackupContent.builder()
+                .inventoryContents("items:\n  '0': stone\n")
+                .armorContents("")
+                .expLevel(7)
+                .expProgress(0.25f)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should recover uncommitted entries with metadata and content")
+    void recoversUncommitted() throws Exception {
+        journal.append(metadata("Alice"), content());
+        journal.close();
+
+        List<BackupJournal.Entry> entries = new BackupJournal(file).recover();
+
+        assertThat(entries).hasSize(1);
+        BackupMetadata recovered = entries.get(0).getMetadata();
+        assertThat(recovered.getPlayerName()).isEqualTo("Alice");
+        assertThat(recovered.getFilePath()).isEqualTo("backups/Alice.yml");
+        assertThat(recovered.getBackupTime()).isEqualTo(1700000000000L);
+        assertThat(recovered.getLocationZ()).isEqualTo(-3.25);
+        assertThat(recovered.getItemCount()).isEqualTo(12);
+        assertThat(recovered.getCaptureId()).isEqualTo("capture-Alice");
+        BackupContent recoveredContent = entries.get(0).getContent();
+        assertThat(recoveredContent.getInventoryContents()).isEqualTo("items:\n  '0': stone\n");
+        assertThat(recoveredContent.getArmorContents()).isEmpty();
+        assertThat(recoveredContent.getEnderchestContents()).isNull();
+        assertThat(recoveredContent.getExpProgress()).isEqualTo(0.25f);
+    }
+
+    @Test
+    @DisplayName("Should keep the base of a delta and its unchanged offhand")
+    void recoversDelta() throws Exception {
+        BackupMetadata metadata = metadata("Alice");
+        metadata.setBaseId("base-1");
+        BackupContent delta = content();
+        delta.setBaseId("base-1");
+        journal.append(metadata, delta);
+        journal.close();
+
+        BackupJournal.Entry entry = new BackupJournal(file).recover().get(0);
+
+        assertThat(entry.getMetadata().getBaseId()).isEqualTo("base-1");
+        assertThat(entry.getContent().isDelta()).isTrue();
+        assertThat(entry.getContent().getOffhandItem()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should make deferred writes durable on the next sync")
+    void writeThenSync() throws Exception {
+        long first = journal.write(metadata("Alice"), content());
+        long second = journal.write(metadata("Bob"), content());
+        journal.sync();
+        journal.close();
+
+        List<BackupJournal.Entry> entries = new BackupJournal(file).recover();
+
+        assertThat(second).isGreaterThan(first);
+        assertThat(entries).extracting(e -> e.getMetadata().getPlayerName()).containsExactly("Alice", "Bob");
+    }
+
+    @Test
+    @DisplayName("Should skip committed entries")
+    void skipsCommitted() throws Exception {
+        long first = journal.append(metadata("Alice"), content());
+        journal.append(metadata("Bob"), content());
+        journal.commit(first);
+        journal.close();
+
+        List<BackupJournal.Entry> entries = new BackupJournal(file).recover();
+
+        assertThat(entries).extracting(e -> e.getMetadata().getPlayerName()).containsExactly("Bob");
+    }
+
+    @Test
+    @DisplayName("Should truncate once nothing is outstanding")
+    void truncatesWhenDrained() throws Exception {
+        long first = journal.append(metadata("Alice"), content());
+        long second = journal.append(metadata("Bob"), content());
+        journal.commit(first);
+        journal.commit(second);
+
+        assertThat(file.length()).isZero();
+        assertThat(journal.getOutstanding()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn tail and keep new appends readable")
+    void ignoresTornTail() throws Exception {
+        journal.append(metadata("Alice"), content());
+        journal.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[]{1, 0, 0, 0});
+        }
+
+        BackupJournal reopened = new BackupJournal(file);
+        assertThat(reopened.recover()).hasSize(1);
+        reopened.append(metadata("Bob"), content());
+        reopened.close();
+
+        assertThat(new BackupJournal(file).recover())
+                .extracting(e -> e.getMetadata().getPlayerName())
+                .containsExactly("Alice", "Bob");
+    }
+
+    @Test
+    @DisplayName("Should keep recovered entries outstanding until committed")
+    void recoveredEntriesOutstanding() throws Exception {
+        journal.append(metadata("Alice"), content());
+        journal.close();
+
+        BackupJournal reopened = new BackupJournal(file);
+        List<BackupJournal.Entry> entries = reopened.recover();
+        long fresh = reopened.append(metadata("Bob"), content());
+        reopened.commit(fresh);
+
+        assertThat(fresh).isGreaterThan(entries.get(0).getSequence());
+        assertThat(file.length()).isPositive();
+
+        reopened.commit(entries.get(0).getSequence());
+        assertThat(file.length()).isZero();
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should accept concurrent appends from several workers")
+    void concurrentAppends() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String name = "P" + i;
+                futures.add(pool.submit(() -> journal.append(metadata(name), content())));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        journal.close();
+
+        assertThat(new BackupJournal(file).recover()).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Should return nothing when the journal does not exist")
+    void missingFile() throws Exception {
+        assertThat(journal.recover()).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BackupMetrics Tests")
+class BackupMetricsTest {
+
+    @Test
+    @DisplayName("Should count operations and failures separately")
+    void operations() {
+        BackupMetrics metrics = new BackupMetrics();
+        long start = System.nanoTime();
+
+        metrics.operation(BackupMetrics.Operation.CREATE, start, true);
+        metrics.operation(BackupMetrics.Operation.CREATE, start, false);
+
+        assertThat(metrics.getLatency(BackupMetrics.Operation.CREATE).getCount()).isEqualTo(2);
+        assertThat(metrics.getFailures(BackupMetrics.Operation.CREATE)).isEqualTo(1);
+        assertThat(metrics.getLatency(BackupMetrics.Operation.LOAD).getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should chain phases from the returned timestamp")
+    void phases() {
+        BackupMetrics metrics = new BackupMetrics();
+        long start = System.nanoTime();
+
+        long next = metrics.phase(BackupMetrics.Phase.SERIALIZE, start);
+        metrics.phase(BackupMetrics.Phase.WRITE, next);
+
+        assertThat(next).isGreaterThanOrEqualTo(start);
+        assertThat(metrics.getLatency(BackupMetrics.Phase.SERIALIZE).getCount()).isEqualTo(1);
+        assertThat(metrics.getLatency(BackupMetrics.Phase.WRITE).getCount()).isEqualTo(1);
+        assertThat(metrics.getLatency(BackupMetrics.Phase.INSERT).getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should flatten every counter under dotted keys")
+    void writeTo() {
+        BackupMetrics metrics = new BackupMetrics();
+        metrics.addBytesWritten(2048);
+        metrics.operation(BackupMetrics.Operation.RESTORE, System.nanoTime(), false);
+
+        Map<String, Number> out = new HashMap<>();
+        metrics.writeTo(out);
+
+        assertThat(out).containsEntry("bytes_written", 2048L)
+                .containsEntry("operations.restore.count", 1L)
+                .containsEntry("operations.restore.failures", 1L)
+                .containsKeys("operations.create.p99_ms", "phases.cleanup.max_ms", "uptime_seconds");
+    }
+}
@@ -0,0 +1,287 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BackupPipeline Tests")
+class BackupPipelineTest {
+
+    private BackupPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete with the persisted metadata")
+    void completesWithMetadata() throws Exception {
+        BackupMetadata metadata = BackupMetadata.builder().playerName("P").build();
+        pipeline = new BackupPipeline(1, snapshot -> metadata);
+
+        BackupMetadata result = pipeline.submit(mock(InventorySnapshot.class)).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).isSameAs(metadata);
+    }
+
+    @Test
+    @DisplayName("Should run persistence on named worker threads")
+    void runsOnWorkers() throws Exception {
+        Set<String> names = Collections.synchronizedSet(new HashSet<>());
+        pipeline = new BackupPipeline(2, snapshot -> {
+            names.add(Thread.currentThread().getName());
+            return null;
+        });
+
+        pipeline.submit(mock(InventorySnapshot.class)).get(5, TimeUnit.SECONDS);
+
+        assertThat(names).hasSize(1).allMatch(name -> name.startsWith("UltiBackup-Worker-"));
+    }
+
+    @Test
+    @DisplayName("Should persist snapshots in parallel")
+    void runsInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        pipeline = new BackupPipeline(2, snapshot -> {
+            bothStarted.countDown();
+            try {
+                bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        CompletableFuture<BackupMetadata> first = pipeline.submit(mock(InventorySnapshot.class));
+        CompletableFuture<BackupMetadata> second = pipeline.submit(mock(InventorySnapshot.class));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(bothStarted.getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fall back to one worker for non-positive thread counts")
+    void clampsThreadCount() throws Exception {
+        pipeline = new BackupPipeline(0, snapshot -> null);
+
+        assertThat(pipeline.submit(mock(InventorySnapshot.class)).get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally when the persister throws")
+    void propagatesFailure() {
+        pipeline = new BackupPipeline(1, snapshot -> {
+            throw new IllegalStateException("boom");
+        });
+
+        CompletableFuture<BackupMetadata> future = pipeline.submit(mock(InventorySnapshot.class));
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should wait for queued snapshots on drain")
+    void drainWaitsForQueued() throws Exception {
+        AtomicInteger written = new AtomicInteger();
+        pipeline = new BackupPipeline(1, snapshot -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.incrementAndGet();
+            return null;
+        });
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(mock(InventorySnapshot.class));
+        }
+
+        assertThat(pipeline.drain(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(written.get()).isEqualTo(5);
+        assertThat(pipeline.getPending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should persist on the caller after drain instead of dropping")
+    void persistsAfterDrain() throws Exception {
+        BackupMetadata metadata = BackupMetadata.builder().build();
+        pipeline = new BackupPipeline(1, snapshot -> metadata);
+        pipeline.drain(5, TimeUnit.SECONDS);
+
+        CompletableFuture<BackupMetadata> future = pipeline.submit(mock(InventorySnapshot.class));
+
+        assertThat(future).isCompleted();
+        assertThat(future.get()).isSameAs(metadata);
+    }
+
+    private static InventorySnapshot snapshot(String reason) {
+        return InventorySnapshot.builder()
+                .metadata(BackupMetadata.builder().playerName(reason).backupReason(reason).build())
+                .build();
+    }
+
+    /**
+     * Single worker blocked on the first snapshot so later ones queue up.
+     */
+    private List<String> startBlocked(CountDownLatch release, int capacity) throws Exception {
+        return startBlocked(release, capacity, snapshot -> { });
+    }
+
+    private List<String> startBlocked(CountDownLatch release, int capacity,
+            Consumer<InventorySnapshot> discarded) throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        pipeline = new BackupPipeline(1, capacity, snapshot -> {
+            String reason = snapshot.getMetadata().getBackupReason();
+            if ("BLOCK".equals(reason)) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                order.add(reason);
+            }
+            return snapshot.getMetadata();
+        }, discarded);
+        pipeline.submit(snapshot("BLOCK"));
+        started.await(5, TimeUnit.SECONDS);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Should serve queued snapshots by reason priority, then age")
+    void priorityOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = startBlocked(release, 100);
+
+        pipeline.submit(snapshot("AUTO"));
+        pipeline.submit(snapshot("MANUAL"));
+        pipeline.submit(snapshot("DEATH"));
+        pipeline.submit(snapshot("QUIT"));
+        CompletableFuture<BackupMetadata> last = pipeline.submit(snapshot("ADMIN"));
+        release.countDown();
+        pipeline.drain(5, TimeUnit.SECONDS);
+
+        assertThat(last).isCompleted();
+        assertThat(order).containsExactly("DEATH", "QUIT", "MANUAL", "ADMIN", "AUTO");
+    }
+
+    @Test
+    @DisplayName("Should shed the youngest AUTO entry when over capacity")
+    void shedsAuto() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<InventorySnapshot> discarded = Collections.synchronizedList(new ArrayList<>());
+        List<String> order = startBlocked(release, 2, discarded::add);
+
+        CompletableFuture<BackupMetadata> oldAuto = pipeline.submit(snapshot("AUTO"));
+        InventorySnapshot young = snapshot("AUTO");
+        CompletableFuture<BackupMetadata> youngAuto = pipeline.submit(young);
+        CompletableFuture<BackupMetadata> death = pipeline.submit(snapshot("DEATH"));
+
+        assertThat(youngAuto).isCompletedWithValue(null);
+        assertThat(discarded).containsExactly(young);
+        assertThat(pipeline.getShedCount()).isEqualTo(1);
+        assertThat(pipeline.getQueued()).isEqualTo(2);
+
+        release.countDown();
+        pipeline.drain(5, TimeUnit.SECONDS);
+        assertThat(death.get()).isNotNull();
+        assertThat(oldAuto.get()).isNotNull();
+        assertThat(order).containsExactly("DEATH", "AUTO");
+    }
+
+    @Test
+    @DisplayName("Should never shed non-AUTO entries, even over capacity")
+    void keepsImportantOverCapacity() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = startBlocked(release, 1);
+
+        pipeline.submit(snapshot("DEATH"));
+        pipeline.submit(snapshot("MANUAL"));
+        pipeline.submit(snapshot("QUIT"));
+
+        assertThat(pipeline.getShedCount()).isZero();
+        release.countDown();
+        pipeline.drain(5, TimeUnit.SECONDS);
+        assertThat(order).containsExactly("DEATH", "QUIT", "MANUAL");
+    }
+
+    @Test
+    @DisplayName("Should hold work whose I/O lane is out of budget without blocking other lanes")
+    void holdsOutOfBudgetLane() throws Exception {
+        AtomicBoolean backgroundOpen = new AtomicBoolean();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        pipeline = new BackupPipeline(1, 100, snapshot -> {
+            order.add(snapshot.getMetadata().getBackupReason());
+            return snapshot.getMetadata();
+        }, snapshot -> { }, priority -> IoThrottle.Lane.forPriority(priority) == IoThrottle.Lane.FOREGROUND
+                || backgroundOpen.get() ? 0L : TimeUnit.MILLISECONDS.toNanos(10));
+
+        CompletableFuture<BackupMetadata> auto = pipeline.submit(snapshot("AUTO"));
+        CompletableFuture<BackupMetadata> death = pipeline.submit(snapshot("DEATH"));
+
+        assertThat(death.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(auto).isNotDone();
+
+        backgroundOpen.set(true);
+        assertThat(auto.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(order).containsExactly("DEATH", "AUTO");
+        assertThat(pipeline.getDeferredCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write held work without waiting for budget on drain")
+    void drainIgnoresBudget() throws Exception {
+        pipeline = new BackupPipeline(1, 100, snapshot -> snapshot.getMetadata(), snapshot -> { },
+                priority -> TimeUnit.HOURS.toNanos(1));
+
+        CompletableFuture<BackupMetadata> auto = pipeline.submit(snapshot("AUTO"));
+
+        assertThat(pipeline.drain(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(auto).isCompleted();
+    }
+
+    @Nested
+    @DisplayName("BackupBatchReport")
+    class BatchReport {
+
+        @Test
+        @DisplayName("Should derive failed count and throughput")
+        void derivedValues() {
+            BackupBatchReport report = new BackupBatchReport(10, 8, 2000L);
+
+            assertThat(report.getFailed()).isEqualTo(2);
+            assertThat(report.getThroughput()).isEqualTo(4.0);
+        }
+
+        @Test
+        @DisplayName("Should not divide by zero for instant batches")
+        void zeroElapsed() {
+            BackupBatchReport report = new BackupBatchReport(0, 0, 0L);
+
+            assertThat(report.getThroughput()).isZero();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BackupRateLimiter Tests")
+class BackupRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<InventorySnapshot> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<InventorySnapshot> discarded = Collections.synchronizedList(new ArrayList<>());
+    private BackupRateLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        if (limiter != null) {
+            limiter.shutdown();
+        }
+    }
+
+    private BackupRateLimiter create(BackupRateLimiter.Limits limits, long bytesPerBackup) {
+        limiter = new BackupRateLimiter(limits, now::get, snapshot -> {
+            written.add(snapshot);
+            return CompletableFuture.completedFuture(snapshot.getMetadata());
+        }, metadata -> bytesPerBackup, discarded::add);
+        return limiter;
+    }
+
+    private static InventorySnapshot snapshot(String uuid, String reason) {
+        BackupMetadata metadata = BackupMetadata.builder().playerUuid(uuid).backupReason(reason).build();
+        return InventorySnapshot.builder().metadata(metadata).build();
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    @DisplayName("Should pass everything through when no limit is set")
+    void disabled() {
+        create(BackupRateLimiter.Limits.builder().build(), 0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.submit(snapshot("a", "DEATH"))).isCompleted();
+        }
+        assertThat(written).hasSize(20);
+        assertThat(limiter.getDeferredCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold a death loop after the burst and keep only the latest snapshot")
+    void deathLoop() throws Exception {
+        create(BackupRateLimiter.Limits.builder().playerBackupsPerSecond(0.1).playerBurst(2).build(), 0);
+
+        limiter.submit(snapshot("a", "DEATH"));
+        limiter.submit(snapshot("a", "DEATH"));
+        CompletableFuture<BackupMetadata> third = limiter.submit(snapshot("a", "DEATH"));
+        InventorySnapshot latest = snapshot("a", "DEATH");
+        CompletableFuture<BackupMetadata> fourth = limiter.submit(latest);
+
+        assertThat(written).hasSize(2);
+        assertThat(third).isNotDone();
+        assertThat(limiter.getHeldCount()).isEqualTo(1);
+        assertThat(limiter.getDeferredCount()).isEqualTo(1);
+        assertThat(limiter.getMergedCount()).isEqualTo(1);
+
+        limiter.release();
+        assertThat(written).hasSize(2);
+
+        advanceSeconds(10);
+        limiter.release();
+        assertThat(written).hasSize(3).last().isSameAs(latest);
+        assertThat(third.get()).isSameAs(latest.getMetadata());
+        assertThat(fourth.get()).isSameAs(latest.getMetadata());
+    }
+
+    @Test
+    @DisplayName("Should not let a held snapshot be replaced by a lower-priority one")
+    void keepsHigherPriority() {
+        create(BackupRateLimiter.Limits.builder().playerBackupsPerSecond(1).playerBurst(1).build(), 0);
+        limiter.submit(snapshot("a", "AUTO"));
+        InventorySnapshot death = snapshot("a", "DEATH");
+        limiter.submit(death);
+        limiter.submit(snapshot("a", "AUTO"));
+
+        advanceSeconds(1);
+        limiter.release();
+
+        assertThat(written).hasSize(2).last().isSameAs(death);
+    }
+
+    @Test
+    @DisplayName("Should discard held snapshots that were replaced or lost to the held one")
+    void discardsReplaced() {
+        create(BackupRateLimiter.Limits.builder().playerBackupsPerSecond(1).playerBurst(1).build(), 0);
+        limiter.submit(snapshot("a", "AUTO"));
+        InventorySnapshot held = snapshot("a", "QUIT");
+        limiter.submit(held);
+        InventorySnapshot death = snapshot("a", "DEATH");
+        limiter.submit(death);
+        InventorySnapshot auto = snapshot("a", "AUTO");
+        limiter.submit(auto);
+
+        assertThat(discarded).containsExactly(held, auto);
+    }
+
+    @Test
+    @DisplayName("Should limit each player independently")
+    void perPlayer() {
+        create(BackupRateLimiter.Limits.builder().playerBackupsPerSecond(1).playerBurst(1).build(), 0);
+
+        limiter.submit(snapshot("a", "DEATH"));
+        limiter.submit(snapshot("a", "DEATH"));
+        limiter.submit(snapshot("b", "DEATH"));
+
+        assertThat(written).hasSize(2);
+        assertThat(limiter.getHeldCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply the global limit across players")
+    void global() {
+        create(BackupRateLimiter.Limits.builder().globalBackupsPerSecond(2).build(), 0);
+
+        limiter.submit(snapshot("a", "AUTO"));
+        limiter.submit(snapshot("b", "AUTO"));
+        limiter.submit(snapshot("c", "AUTO"));
+
+        assertThat(written).hasSize(2);
+        advanceSeconds(1);
+        limiter.release();
+        assertThat(written).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should hold a player's next backup until bytes written are paid back")
+    void bytes() {
+        create(BackupRateLimiter.Limits.builder().playerBytesPerSecond(1000).build(), 3000);
+
+        limiter.submit(snapshot("a", "AUTO"));
+        limiter.submit(snapshot("a", "AUTO"));
+        assertThat(written).hasSize(1);
+
+        advanceSeconds(1);
+        limiter.release();
+        assertThat(written).hasSize(1);
+
+        advanceSeconds(2);
+        limiter.release();
+        assertThat(written).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should write held snapshots on shutdown and pass later ones through")
+    void shutdownFlushes() {
+        create(BackupRateLimiter.Limits.builder().playerBackupsPerSecond(0.01).playerBurst(1).build(), 0);
+        limiter.submit(snapshot("a", "QUIT"));
+        CompletableFuture<BackupMetadata> held = limiter.submit(snapshot("a", "QUIT"));
+
+        limiter.shutdown();
+
+        assertThat(held).isCompleted();
+        assertThat(limiter.submit(snapshot("a", "QUIT"))).isCompleted();
+        assertThat(written).hasSize(3);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Load test of the whole service through {@link LoadHarness}.
+ * <p>
+ * Scale with {@code -Dultibackup.load.players=500 -Dultibackup.load.minutes=30}.
+ */
+@DisplayName("BackupService Load Tests")
+class BackupServiceLoadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should persist every backup and keep retention under simulated load")
+    void simulatedPlayers() throws Exception {
+        LoadHarness.Settings settings = LoadHarness.Settings.builder()
+                .players(Integer.getInteger("ultibackup.load.players", 100))
+                .minutes(Integer.getInteger("ultibackup.load.minutes", 5))
+                .build();
+
+        try (LoadHarness harness = new LoadHarness(settings, tempDir.toFile())) {
+            LoadHarness.Report report = harness.run();
+            System.out.println("[load] " + report);
+
+            assertThat(report.getBackups()).isPositive();
+            assertThat(report.getFailedBackups()).isZero();
+            assertThat(report.getFailedRestores()).isZero();
+            assertThat(report.getDiskBytes()).isPositive();
+            for (UUID uuid : harness.playerIds()) {
+                assertThat(harness.rowsFor(uuid)).isLessThanOrEqualTo(settings.getMaxBackupsPerPlayer());
+            }
+        }
+    }
+}
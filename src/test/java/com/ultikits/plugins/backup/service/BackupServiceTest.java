@@ -1,14 +1,20 @@
 package com.ultikits.plugins.backup.service;
 
+import com.ultikits.plugins.backup.AllocationMeter;
+import com.ultikits.plugins.backup.FixtureItems;
+import com.ultikits.plugins.backup.InMemoryDataOperator;
 import com.ultikits.plugins.backup.UltiBackupTestHelper;
 import com.ultikits.plugins.backup.config.BackupConfig;
 import com.ultikits.plugins.backup.entity.BackupContent;
 import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
 import com.ultikits.ultitools.interfaces.DataOperator;
 import com.ultikits.ultitools.interfaces.Query;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
@@ -16,8 +22,15 @@ import org.mockito.MockedStatic;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -127,6 +140,49 @@ class BackupServiceTest {
         }
     }
 
+    // ==================== getBackupsAsync ====================
+
+    @Nested
+    @DisplayName("getBackupsAsync")
+    class GetBackupsAsync {
+
+        @Test
+        @DisplayName("Should query off-thread and deliver on the main thread")
+        void queriesAsyncAndCallsBack() throws Exception {
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+
+            Query<BackupMetadata> query = mock(Query.class);
+            when(dataOperator.query()).thenReturn(query);
+            when(query.where("player_uuid")).thenReturn(query);
+            when(query.eq(playerUuid.toString())).thenReturn(query);
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(
+                    BackupMetadata.builder().backupTime(1000L).build())));
+
+            org.bukkit.scheduler.BukkitScheduler scheduler = mock(org.bukkit.scheduler.BukkitScheduler.class);
+            when(scheduler.runTaskAsynchronously(eq(bukkitPlugin), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(eq(bukkitPlugin), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+
+            List<List<BackupMetadata>> received = new ArrayList<>();
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getScheduler).thenReturn(scheduler);
+
+                service.getBackupsAsync(playerUuid, received::add);
+            }
+
+            assertThat(received).hasSize(1);
+            assertThat(received.get(0)).hasSize(1);
+            verify(scheduler).runTaskAsynchronously(eq(bukkitPlugin), any(Runnable.class));
+            verify(scheduler).runTask(eq(bukkitPlugin), any(Runnable.class));
+        }
+    }
+
     // ==================== restoreBackup ====================
 
     @Nested
@@ -318,59 +374,159 @@ class BackupServiceTest {
     class SaveAllOnlinePlayers {
 
         @Test
-        @DisplayName("Should return 0 when no online players")
-        void noPlayers() {
+        @DisplayName("Should report 0 when no online players")
+        void noPlayers() throws Exception {
             BackupService spyService = spy(service);
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.emptyList());
 
-                int count = spyService.saveAllOnlinePlayers();
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
 
-                assertThat(count).isZero();
+                assertThat(report.getTotal()).isZero();
+                assertThat(report.getSucceeded()).isZero();
+                bukkitMock.verify(Bukkit::getScheduler, never());
             }
         }
 
         @Test
         @DisplayName("Should skip players without permission")
-        void skipsNoPermission() {
+        void skipsNoPermission() throws Exception {
             Player noPermPlayer = UltiBackupTestHelper.createMockPlayer("NoPerms", UUID.randomUUID());
             when(noPermPlayer.hasPermission("ultibackup.auto")).thenReturn(false);
 
             BackupService spyService = spy(service);
-            doReturn(null).when(spyService).createBackup(any(), anyString());
 
             try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
                 bukkitMock.when(Bukkit::getOnlinePlayers)
                         .thenReturn(Collections.singletonList(noPermPlayer));
 
-                int count = spyService.saveAllOnlinePlayers();
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
 
-                assertThat(count).isZero();
-                verify(spyService, never()).createBackup(any(), anyString());
+                assertThat(report.getTotal()).isZero();
+                verify(spyService, never()).captureSnapshot(any(), anyString());
             }
         }
 
         @Test
-        @DisplayName("Should count successful backups")
-        void countsSuccess() {
+        @DisplayName("Should count successful and failed backups")
+        void countsSuccess() throws Exception {
             Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
             Player p2 = UltiBackupTestHelper.createMockPlayer("P2", UUID.randomUUID());
+            InventorySnapshot s1 = mock(InventorySnapshot.class);
+            InventorySnapshot s2 = mock(InventorySnapshot.class);
 
             BackupService spyService = spy(service);
-            doReturn(BackupMetadata.builder().build()).when(spyService).createBackup(p1, "ADMIN");
-            doReturn(null).when(spyService).createBackup(p2, "ADMIN");
+            doReturn(s1).when(spyService).captureSnapshot(p1, "ADMIN");
+            doReturn(s2).when(spyService).captureSnapshot(p2, "ADMIN");
+            doReturn(CompletableFuture.completedFuture(BackupMetadata.builder().build()))
+                    .when(spyService).submitSnapshot(s1);
+            doReturn(CompletableFuture.completedFuture(null)).when(spyService).submitSnapshot(s2);
 
-            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
                 bukkitMock.when(Bukkit::getOnlinePlayers)
                         .thenReturn(Arrays.asList(p1, p2));
 
-                int count = spyService.saveAllOnlinePlayers();
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
 
-                assertThat(count).isEqualTo(1);
+                assertThat(report.getTotal()).isEqualTo(2);
+                assertThat(report.getSucceeded()).isEqualTo(1);
+                assertThat(report.getFailed()).isEqualTo(1);
+            }
+        }
+
+        @Test
+        @DisplayName("Should capture at most captures_per_tick players per tick")
+        void capturesInSlices() throws Exception {
+            when(config.getCapturesPerTick()).thenReturn(2);
+            List<Player> players = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                players.add(UltiBackupTestHelper.createMockPlayer("P" + i, UUID.randomUUID()));
+            }
+
+            BackupService spyService = spy(service);
+            doReturn(mock(InventorySnapshot.class)).when(spyService).captureSnapshot(any(), anyString());
+            doReturn(CompletableFuture.completedFuture(BackupMetadata.builder().build()))
+                    .when(spyService).submitSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(players);
+
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
+
+                assertThat(report.getSucceeded()).isEqualTo(5);
+                // 5 players at 2 per tick -> 3 ticks
+                assertThat(ticks).isEqualTo(3);
+            }
+        }
+
+        @Test
+        @DisplayName("Should skip players who log out before their slice")
+        void skipsOfflinePlayers() throws Exception {
+            Player gone = UltiBackupTestHelper.createMockPlayer("Gone", UUID.randomUUID());
+            when(gone.isOnline()).thenReturn(false);
+
+            BackupService spyService = spy(service);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(gone));
+
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
+
+                assertThat(report.getTotal()).isEqualTo(1);
+                assertThat(report.getSucceeded()).isZero();
+                verify(spyService, never()).captureSnapshot(any(), anyString());
+            }
+        }
+
+        @Test
+        @DisplayName("Should persist captured snapshots on the worker pool")
+        void persistsOnWorkers() throws Exception {
+            Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
+            BackupService spyService = spy(service);
+            Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+            doAnswer(inv -> {
+                threads.add(Thread.currentThread().getName());
+                return ((InventorySnapshot) inv.getArgument(0)).getMetadata();
+            }).when(spyService).persistSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(p1));
+
+                BackupBatchReport report = spyService.saveAllOnlinePlayers().get(5, TimeUnit.SECONDS);
+
+                assertThat(report.getSucceeded()).isEqualTo(1);
+                assertThat(threads).allMatch(name -> name.startsWith("UltiBackup-Worker-"));
             }
         }
     }
 
+    private int ticks;
+
+    /**
+     * Mock Bukkit with a scheduler that runs repeating tasks inline and counts ticks.
+     */
+    @SuppressWarnings("unchecked")
+    private MockedStatic<Bukkit> mockImmediateScheduler() throws Exception {
+        UltiBackupTestHelper.setField(service, "bukkitPlugin", mock(org.bukkit.plugin.Plugin.class));
+        org.bukkit.scheduler.BukkitScheduler scheduler = mock(org.bukkit.scheduler.BukkitScheduler.class);
+        ticks = 0;
+        when(scheduler.runTaskTimer(any(org.bukkit.plugin.Plugin.class),
+                any(java.util.function.Consumer.class), eq(0L), eq(1L))).thenAnswer(inv -> {
+            java.util.function.Consumer<org.bukkit.scheduler.BukkitTask> body = inv.getArgument(1);
+            org.bukkit.scheduler.BukkitTask task = mock(org.bukkit.scheduler.BukkitTask.class);
+            boolean[] cancelled = new boolean[1];
+            doAnswer(c -> cancelled[0] = true).when(task).cancel();
+            while (!cancelled[0]) {
+                ticks++;
+                body.accept(task);
+            }
+            return task;
+        });
+        MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class);
+        bukkitMock.when(Bukkit::getScheduler).thenReturn(scheduler);
+        return bukkitMock;
+    }
+
     // ==================== forceRestore with content ====================
 
     @Nested
@@ -448,6 +604,91 @@ class BackupServiceTest {
         }
     }
 
+    // ==================== restoreBackupAsync ====================
+
+    @Nested
+    @DisplayName("restoreBackupAsync")
+    class RestoreBackupAsync {
+
+        private org.bukkit.scheduler.BukkitScheduler scheduler;
+
+        @BeforeEach
+        void setUpScheduler() throws Exception {
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+            scheduler = mock(org.bukkit.scheduler.BukkitScheduler.class);
+            when(scheduler.runTaskAsynchronously(eq(bukkitPlugin), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(eq(bukkitPlugin), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+        }
+
+        private BackupService.RestoreResult restore(BackupService target, BackupMetadata metadata, boolean verify) {
+            List<BackupService.RestoreResult> received = new ArrayList<>();
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getScheduler).thenReturn(scheduler);
+                if (verify) {
+                    target.restoreBackupAsync(player, metadata, received::add);
+                } else {
+                    target.forceRestoreAsync(player, metadata, received::add);
+                }
+            }
+            assertThat(received).hasSize(1);
+            return received.get(0);
+        }
+
+        @Test
+        @DisplayName("Should restore the current row, not the listed one")
+        void restoresCurrentRow() {
+            BackupService spyService = spy(service);
+            BackupMetadata listed = BackupMetadata.builder().id("b1").filePath("old.yml").build();
+            BackupMetadata current = BackupMetadata.builder().id("b1").filePath("old.r1.yml").build();
+            when(dataOperator.getById("b1")).thenReturn(current);
+            doReturn(true).when(spyService).verifyChecksum(current);
+            doReturn(BackupContent.builder().expLevel(10).build()).when(spyService).loadBackupContent(current);
+
+            assertThat(restore(spyService, listed, true)).isEqualTo(BackupService.RestoreResult.SUCCESS);
+            verify(spyService, never()).loadBackupContent(listed);
+        }
+
+        @Test
+        @DisplayName("Should report NOT_FOUND when the backup was deleted after listing")
+        void deletedSinceListing() {
+            BackupService spyService = spy(service);
+            BackupMetadata listed = BackupMetadata.builder().id("b1").filePath("old.yml").build();
+            when(dataOperator.getById("b1")).thenReturn(null);
+
+            assertThat(restore(spyService, listed, true)).isEqualTo(BackupService.RestoreResult.NOT_FOUND);
+            verify(spyService, never()).loadBackupContent(any());
+        }
+
+        @Test
+        @DisplayName("Should report CHECKSUM_FAILED without loading")
+        void checksumFails() {
+            BackupService spyService = spy(service);
+            BackupMetadata metadata = BackupMetadata.builder().build();
+            doReturn(false).when(spyService).verifyChecksum(metadata);
+
+            assertThat(restore(spyService, metadata, true)).isEqualTo(BackupService.RestoreResult.CHECKSUM_FAILED);
+            verify(spyService, never()).loadBackupContent(any());
+        }
+
+        @Test
+        @DisplayName("Should skip verification when forced")
+        void forceSkipsVerification() {
+            BackupService spyService = spy(service);
+            BackupMetadata metadata = BackupMetadata.builder().build();
+            doReturn(null).when(spyService).loadBackupContent(metadata);
+
+            assertThat(restore(spyService, metadata, false)).isEqualTo(BackupService.RestoreResult.LOAD_FAILED);
+            verify(spyService, never()).verifyChecksum(any());
+        }
+    }
+
     // ==================== verifyChecksum with real file ====================
 
     @Nested
@@ -497,6 +738,31 @@ class BackupServiceTest {
             assertThat(service.verifyChecksum(metadata)).isFalse();
         }
 
+        @Test
+        @DisplayName("Should re-hash after a cached pass when the file changes")
+        void cachedResultInvalidatedByChange() throws Exception {
+            BackupContent content = BackupContent.builder()
+                    .inventoryContents("cached-data")
+                    .build();
+            File backupFile = tempDir.resolve("cached_test.yml").toFile();
+            String checksum = content.saveToFile(backupFile);
+
+            BackupMetadata metadata = spy(BackupMetadata.builder()
+                    .filePath("cached_test.yml")
+                    .checksum(checksum)
+                    .build());
+            metadata.setId("cached-id");
+            doReturn(backupFile).when(metadata).getBackupFile();
+
+            assertThat(service.verifyChecksum(metadata)).isTrue();
+            assertThat(service.verifyChecksum(metadata)).isTrue();
+
+            java.nio.file.Files.write(backupFile.toPath(),
+                    "\nextra: tampered".getBytes(), java.nio.file.StandardOpenOption.APPEND);
+
+            assertThat(service.verifyChecksum(metadata)).isFalse();
+        }
+
         @Test
         @DisplayName("Should return false when file does not exist")
         void fileNotExist() {
@@ -725,6 +991,100 @@ class BackupServiceTest {
             verify(dataOperator, never()).delById(anyString());
         }
 
+        @Test
+        @DisplayName("Should give concurrent same-millisecond backups distinct files")
+        void concurrentSamePlayer() throws Exception {
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+
+            Query<BackupMetadata> query = mock(Query.class);
+            when(dataOperator.query()).thenReturn(query);
+            when(query.where("player_uuid")).thenReturn(query);
+            when(query.eq(anyString())).thenReturn(query);
+            when(query.list()).thenAnswer(inv -> new ArrayList<>());
+
+            List<InventorySnapshot> snapshots = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                BackupMetadata metadata = BackupMetadata.fromPlayer(player, "DEATH");
+                metadata.setBackupTime(5000L);
+                metadata.setFilePath(metadata.generateFilePath());
+                snapshots.add(InventorySnapshot.capture(player, metadata, true, true, true));
+            }
+
+            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+            List<java.util.concurrent.Future<BackupMetadata>> results = new ArrayList<>();
+            try {
+                for (InventorySnapshot snapshot : snapshots) {
+                    results.add(pool.submit(() -> service.persistSnapshot(snapshot)));
+                }
+                Set<String> paths = new HashSet<>();
+                for (java.util.concurrent.Future<BackupMetadata> result : results) {
+                    paths.add(result.get(5, TimeUnit.SECONDS).getFilePath());
+                }
+
+                assertThat(paths).hasSize(4);
+                for (String path : paths) {
+                    assertThat(new File(tempDir.toFile(), path)).exists();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should account writes to the I/O lane of their reason")
+        void accountsIoByReason() throws Exception {
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+
+            Query<BackupMetadata> query = mock(Query.class);
+            when(dataOperator.query()).thenReturn(query);
+            when(query.where("player_uuid")).thenReturn(query);
+            when(query.eq(anyString())).thenReturn(query);
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            service.createBackup(player, "DEATH");
+            service.createBackup(player, "AUTO");
+            service.createBackup(player, "AUTO");
+
+            IoThrottle throttle = service.getIoThrottle();
+            assertThat(throttle.getOps(IoThrottle.Lane.FOREGROUND)).isEqualTo(1);
+            assertThat(throttle.getOps(IoThrottle.Lane.BACKGROUND)).isEqualTo(2);
+            assertThat(throttle.getBytes(IoThrottle.Lane.BACKGROUND)).isPositive();
+            // Charged with the encoded file size, not the serialized character count
+            ArgumentCaptor<BackupMetadata> inserted = ArgumentCaptor.forClass(BackupMetadata.class);
+            verify(dataOperator, times(3)).insert(inserted.capture());
+            File death = new File(tempDir.toFile(), inserted.getAllValues().get(0).getFilePath());
+            assertThat(throttle.getBytes(IoThrottle.Lane.FOREGROUND)).isEqualTo(death.length());
+        }
+
+        @Test
+        @DisplayName("Should record create latency, every write phase and bytes written")
+        void recordsMetrics() throws Exception {
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+
+            Query<BackupMetadata> query = mock(Query.class);
+            when(dataOperator.query()).thenReturn(query);
+            when(query.where("player_uuid")).thenReturn(query);
+            when(query.eq(anyString())).thenReturn(query);
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            BackupMetadata result = service.createBackup(player, "MANUAL");
+
+            BackupMetrics metrics = service.getMetrics();
+            assertThat(metrics.getLatency(BackupMetrics.Operation.CREATE).getCount()).isEqualTo(1);
+            assertThat(metrics.getFailures(BackupMetrics.Operation.CREATE)).isZero();
+            for (BackupMetrics.Phase phase : BackupMetrics.Phase.values()) {
+                assertThat(metrics.getLatency(phase).getCount()).as(phase.name()).isEqualTo(1);
+            }
+            assertThat(metrics.getBytesWritten())
+                    .isEqualTo(new File(tempDir.toFile(), result.getFilePath()).length());
+        }
+
         @Test
         @DisplayName("Should use config flags for backup content")
         void usesConfigFlags() throws Exception {
@@ -764,29 +1124,58 @@ class BackupServiceTest {
             BackupService spyService = spy(service);
             spyService.autoBackupAll();
 
-            verify(spyService, never()).createBackup(any(), anyString());
+            verify(spyService, never()).backupOnlinePlayers(anyString());
         }
 
         @Test
         @DisplayName("Should backup all online players with permission")
-        void backupsOnlinePlayers() {
+        void backupsOnlinePlayers() throws Exception {
             when(config.isAutoBackupEnabled()).thenReturn(true);
 
             Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
             Player p2 = UltiBackupTestHelper.createMockPlayer("P2", UUID.randomUUID());
 
             BackupService spyService = spy(service);
-            doReturn(BackupMetadata.builder().build()).when(spyService).createBackup(any(), eq("AUTO"));
+            doReturn(mock(InventorySnapshot.class)).when(spyService).captureSnapshot(any(), eq("AUTO"));
+            doReturn(CompletableFuture.completedFuture(BackupMetadata.builder().build()))
+                    .when(spyService).submitSnapshot(any());
 
-            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
                 bukkitMock.when(Bukkit::getOnlinePlayers)
                         .thenReturn(Arrays.asList(p1, p2));
 
                 spyService.autoBackupAll();
             }
 
-            verify(spyService).createBackup(p1, "AUTO");
-            verify(spyService).createBackup(p2, "AUTO");
+            verify(spyService).captureSnapshot(p1, "AUTO");
+            verify(spyService).captureSnapshot(p2, "AUTO");
+        }
+
+        @Test
+        @DisplayName("Should wait for the server to catch up before capturing")
+        void defersWhileLagging() throws Exception {
+            when(config.isAutoBackupEnabled()).thenReturn(true);
+            long[] clock = {0L};
+            int[] calls = {0};
+            AdaptiveCaptureScheduler scheduler = new AdaptiveCaptureScheduler(10, 55, 300,
+                    () -> clock[0] += TimeUnit.MILLISECONDS.toNanos(calls[0]++ < 3 ? 200 : 50));
+            UltiBackupTestHelper.setField(service, "captureScheduler", scheduler);
+
+            Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
+            BackupService spyService = spy(service);
+            doReturn(mock(InventorySnapshot.class)).when(spyService).captureSnapshot(any(), eq("AUTO"));
+            doReturn(CompletableFuture.completedFuture(BackupMetadata.builder().build()))
+                    .when(spyService).submitSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(p1));
+
+                spyService.autoBackupAll();
+            }
+
+            verify(spyService).captureSnapshot(p1, "AUTO");
+            assertThat(scheduler.getDeferredRounds()).isEqualTo(1);
+            assertThat(ticks).isGreaterThan(3);
         }
 
         @Test
@@ -806,29 +1195,34 @@ class BackupServiceTest {
                 spyService.autoBackupAll();
             }
 
-            verify(spyService, never()).createBackup(any(), anyString());
+            verify(spyService, never()).captureSnapshot(any(), anyString());
         }
 
         @Test
         @DisplayName("Should count successful backups and log")
-        void countsAndLogs() {
+        void countsAndLogs() throws Exception {
             when(config.isAutoBackupEnabled()).thenReturn(true);
 
             Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
             Player p2 = UltiBackupTestHelper.createMockPlayer("P2", UUID.randomUUID());
+            InventorySnapshot s1 = mock(InventorySnapshot.class);
+            InventorySnapshot s2 = mock(InventorySnapshot.class);
 
             BackupService spyService = spy(service);
-            doReturn(BackupMetadata.builder().build()).when(spyService).createBackup(p1, "AUTO");
-            doReturn(null).when(spyService).createBackup(p2, "AUTO");
+            doReturn(s1).when(spyService).captureSnapshot(p1, "AUTO");
+            doReturn(s2).when(spyService).captureSnapshot(p2, "AUTO");
+            doReturn(CompletableFuture.completedFuture(BackupMetadata.builder().build()))
+                    .when(spyService).submitSnapshot(s1);
+            doReturn(CompletableFuture.completedFuture(null)).when(spyService).submitSnapshot(s2);
 
-            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+            try (MockedStatic<Bukkit> bukkitMock = mockImmediateScheduler()) {
                 bukkitMock.when(Bukkit::getOnlinePlayers)
                         .thenReturn(Arrays.asList(p1, p2));
 
                 spyService.autoBackupAll();
             }
 
-            verify(UltiBackupTestHelper.getMockLogger())
+            verify(UltiBackupTestHelper.getMockLogger(), timeout(5000))
                     .info(argThat((String msg) -> msg.contains("1 players")));
         }
 
@@ -851,6 +1245,182 @@ class BackupServiceTest {
         }
     }
 
+    // ==================== coalescing ====================
+
+    @Nested
+    @DisplayName("coalescing")
+    class Coalescing {
+
+        @Test
+        @DisplayName("Should write a death and an immediate quit as one DEATH backup")
+        void deathThenQuit() throws Exception {
+            when(config.getCoalesceWindowMs()).thenReturn(200);
+            BackupService spyService = spy(service);
+            List<String> written = Collections.synchronizedList(new ArrayList<>());
+            doAnswer(inv -> {
+                BackupMetadata metadata = ((InventorySnapshot) inv.getArgument(0)).getMetadata();
+                written.add(metadata.getBackupReason());
+                return metadata;
+            }).when(spyService).persistSnapshot(any());
+
+            CompletableFuture<BackupMetadata> death = spyService.submitBackup(player, "DEATH");
+            CompletableFuture<BackupMetadata> quit = spyService.backupOnQuit(player);
+
+            assertThat(quit.get(5, TimeUnit.SECONDS)).isSameAs(death.get(5, TimeUnit.SECONDS));
+            assertThat(written).containsExactly("DEATH");
+        }
+
+        @Test
+        @DisplayName("Should journal snapshots when submitted and commit the one superseded")
+        void journalsOnSubmit() throws Exception {
+            when(config.getCoalesceWindowMs()).thenReturn(60_000);
+            File journalFile = new File(tempDir.toFile(), "backups/pending.journal");
+            BackupJournal journal = new BackupJournal(journalFile);
+            UltiBackupTestHelper.setField(service, "journal", journal);
+            ExecutorService journalThread = Executors.newSingleThreadExecutor();
+            UltiBackupTestHelper.setField(service, "journalSyncer", journalThread);
+            BackupService spyService = spy(service);
+            doAnswer(inv -> ((InventorySnapshot) inv.getArgument(0)).getMetadata())
+                    .when(spyService).persistSnapshot(any());
+
+            spyService.submitBackup(player, "QUIT");
+            journalThread.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertThat(journal.getOutstanding()).isEqualTo(1);
+
+            spyService.submitBackup(player, "DEATH");
+            journalThread.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertThat(journal.getOutstanding()).isEqualTo(1);
+            verify(spyService, never()).persistSnapshot(any());
+            journal.close();
+
+            journalThread.shutdown();
+
+            List<BackupJournal.Entry> entries = new BackupJournal(journalFile).recover();
+            assertThat(entries).extracting(e -> e.getMetadata().getBackupReason()).containsExactly("DEATH");
+            assertThat(entries.get(0).getMetadata().getCaptureId()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should flush coalescing windows on shutdown")
+        void flushedOnShutdown() throws Exception {
+            when(config.getCoalesceWindowMs()).thenReturn(5000);
+            BackupService spyService = spy(service);
+            doAnswer(inv -> ((InventorySnapshot) inv.getArgument(0)).getMetadata())
+                    .when(spyService).persistSnapshot(any());
+
+            CompletableFuture<BackupMetadata> pending = spyService.submitBackup(player, "AUTO");
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.emptyList());
+                spyService.shutdown();
+            }
+
+            assertThat(pending).isCompleted();
+        }
+    }
+
+    // ==================== shutdown ====================
+
+    @Nested
+    @DisplayName("shutdown")
+    class Shutdown {
+
+        @Test
+        @DisplayName("Should capture every online player as QUIT and wait for the writes")
+        void capturesAndDrains() {
+            when(config.isBackupOnQuit()).thenReturn(true);
+            Player p1 = UltiBackupTestHelper.createMockPlayer("P1", UUID.randomUUID());
+            Player p2 = UltiBackupTestHelper.createMockPlayer("P2", UUID.randomUUID());
+
+            BackupService spyService = spy(service);
+            List<String> written = Collections.synchronizedList(new ArrayList<>());
+            doAnswer(inv -> {
+                Thread.sleep(50);
+                BackupMetadata metadata = ((InventorySnapshot) inv.getArgument(0)).getMetadata();
+                written.add(metadata.getPlayerName() + ":" + metadata.getBackupReason());
+                return metadata;
+            }).when(spyService).persistSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Arrays.asList(p1, p2));
+
+                spyService.shutdown();
+            }
+
+            // shutdown() returns only after both writes finished
+            assertThat(written).containsExactlyInAnyOrder("P1:QUIT", "P2:QUIT");
+            assertThat(spyService.isShuttingDown()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should skip quit events for players already captured")
+        void dedupesQuitEvents() throws Exception {
+            when(config.isBackupOnQuit()).thenReturn(true);
+            BackupService spyService = spy(service);
+            doAnswer(inv -> ((InventorySnapshot) inv.getArgument(0)).getMetadata())
+                    .when(spyService).persistSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(player));
+
+                spyService.shutdown();
+            }
+
+            assertThat(spyService.backupOnQuit(player).get(5, TimeUnit.SECONDS)).isNull();
+            verify(spyService, times(1)).captureSnapshot(player, "QUIT");
+        }
+
+        @Test
+        @DisplayName("Should still persist quit backups submitted after the drain")
+        void persistsLateQuit() throws Exception {
+            when(config.isBackupOnQuit()).thenReturn(true);
+            Player late = UltiBackupTestHelper.createMockPlayer("Late", UUID.randomUUID());
+            BackupService spyService = spy(service);
+            doAnswer(inv -> ((InventorySnapshot) inv.getArgument(0)).getMetadata())
+                    .when(spyService).persistSnapshot(any());
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(player));
+                spyService.shutdown();
+            }
+
+            BackupMetadata result = spyService.backupOnQuit(late).get(5, TimeUnit.SECONDS);
+
+            assertThat(result).isNotNull();
+            assertThat(result.getPlayerName()).isEqualTo("Late");
+        }
+
+        @Test
+        @DisplayName("Should not capture when quit backups are disabled")
+        void quitBackupDisabled() {
+            when(config.isBackupOnQuit()).thenReturn(false);
+            BackupService spyService = spy(service);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(player));
+
+                spyService.shutdown();
+            }
+
+            verify(spyService, never()).captureSnapshot(any(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should skip players without the auto permission")
+        void skipsNoPermission() {
+            when(config.isBackupOnQuit()).thenReturn(true);
+            when(player.hasPermission("ultibackup.auto")).thenReturn(false);
+            BackupService spyService = spy(service);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.singletonList(player));
+
+                spyService.shutdown();
+            }
+
+            verify(spyService, never()).captureSnapshot(any(), anyString());
+        }
+    }
+
     // ==================== init ====================
 
     @Nested
@@ -882,6 +1452,101 @@ class BackupServiceTest {
             assertThat(new File(dataFolder, "backups")).isDirectory();
             assertThat(newService.getBackupsDirectory()).isNotNull();
         }
+
+        @Test
+        @DisplayName("Should replay uncommitted journal entries on startup")
+        @SuppressWarnings("unchecked")
+        void replaysJournal() throws Exception {
+            File dataFolder = tempDir.resolve("replay_test").toFile();
+            File backupsDir = new File(dataFolder, "backups");
+            backupsDir.mkdirs();
+
+            BackupMetadata pending = BackupMetadata.builder()
+                    .playerUuid(playerUuid.toString())
+                    .playerName("TestPlayer")
+                    .backupTime(1000L)
+                    .backupReason("QUIT")
+                    .filePath("backups/" + playerUuid + "_1000.yml")
+                    .build();
+            BackupMetadata alreadyStored = BackupMetadata.builder()
+                    .playerUuid(playerUuid.toString())
+                    .playerName("TestPlayer")
+                    .backupTime(2000L)
+                    .backupReason("QUIT")
+                    .filePath("backups/" + playerUuid + "_2000.yml")
+                    .captureId("capture-2")
+                    .build();
+            BackupJournal crashed = new BackupJournal(new File(backupsDir, "pending.journal"));
+            crashed.append(pending, BackupContent.builder().inventoryContents("").build());
+            crashed.append(alreadyStored, BackupContent.builder().inventoryContents("").build());
+            crashed.close();
+
+            // Per-file fsync commits the journal synchronously
+            when(config.getFsyncPolicy()).thenReturn("per_file");
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(dataFolder);
+            when(UltiBackupTestHelper.getMockPlugin().getDataOperator(BackupMetadata.class))
+                    .thenReturn(dataOperator);
+            Query<BackupMetadata> query = mock(Query.class);
+            when(dataOperator.query()).thenReturn(query);
+            when(query.where(anyString())).thenReturn(query);
+            when(query.eq(anyString())).thenReturn(query);
+            when(query.list()).thenAnswer(inv -> new ArrayList<>());
+            Query<BackupMetadata> storedQuery = mock(Query.class);
+            // Stored under another path than the journaled one, found by its capture ID
+            when(query.eq("capture-2")).thenReturn(storedQuery);
+            when(storedQuery.list()).thenReturn(Collections.singletonList(alreadyStored));
+
+            BackupService newService = new BackupService();
+            UltiBackupTestHelper.setField(newService, "plugin", UltiBackupTestHelper.getMockPlugin());
+            UltiBackupTestHelper.setField(newService, "config", config);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+                bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+                when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+
+                newService.init();
+            }
+
+            ArgumentCaptor<BackupMetadata> inserted = ArgumentCaptor.forClass(BackupMetadata.class);
+            verify(dataOperator).insert(inserted.capture());
+            assertThat(inserted.getValue().getFilePath()).isEqualTo(pending.getFilePath());
+            assertThat(new File(dataFolder, pending.getFilePath())).exists();
+            assertThat(new File(backupsDir, "pending.journal").length()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should start the metrics endpoint when enabled and stop it on shutdown")
+        void startsMetricsEndpoint() throws Exception {
+            File dataFolder = tempDir.resolve("endpoint_test").toFile();
+            dataFolder.mkdirs();
+            when(config.isMetricsHttpEnabled()).thenReturn(true);
+            when(config.getMetricsHttpHost()).thenReturn("127.0.0.1");
+            when(config.getMetricsHttpPort()).thenReturn(0);
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(dataFolder);
+
+            BackupService newService = new BackupService();
+            UltiBackupTestHelper.setField(newService, "plugin", UltiBackupTestHelper.getMockPlugin());
+            UltiBackupTestHelper.setField(newService, "config", config);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+                bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+                bukkitMock.when(Bukkit::getOnlinePlayers).thenReturn(Collections.emptyList());
+                when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+
+                newService.init();
+                MetricsEndpoint endpoint = newService.getMetricsEndpoint();
+                assertThat(endpoint).isNotNull();
+                assertThat(endpoint.getPort()).isPositive();
+
+                newService.shutdown();
+                assertThat(newService.getMetricsEndpoint()).isNull();
+                assertThat(endpoint.getPort()).isEqualTo(-1);
+            }
+        }
     }
 
     // ==================== verifyChecksum IOException path ====================
@@ -966,4 +1631,461 @@ class BackupServiceTest {
             assertThat(service.verifyChecksum(metadata)).isFalse();
         }
     }
+
+    // ==================== metrics ====================
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("Should expose queue gauges before the pipeline exists")
+        void gaugesWithoutPipeline() {
+            Map<String, Number> metrics = service.collectMetrics();
+
+            assertThat(metrics).containsEntry("queue.queued", 0)
+                    .containsEntry("rate_limit.held", 0)
+                    .containsKeys("operations.create.count", "io.background.bytes", "scheduler.deferred_rounds",
+                            "main_thread.last_minute_ms", "storage.bytes", "scrub.passes");
+        }
+
+        @Test
+        @DisplayName("Should write the metrics file when enabled")
+        void writesFile() throws Exception {
+            when(config.isMetricsFileEnabled()).thenReturn(true);
+            service.getMetrics().addBytesWritten(4096);
+
+            service.writeMetricsFile();
+
+            File file = new File(new File(tempDir.toFile(), "backups"), "metrics.yml");
+            org.bukkit.configuration.file.YamlConfiguration yaml =
+                    org.bukkit.configuration.file.YamlConfiguration.loadConfiguration(file);
+            assertThat(yaml.getLong("bytes_written")).isEqualTo(4096L);
+            assertThat(yaml.contains("operations.create.p99_ms")).isTrue();
+            assertThat(yaml.contains("queue.pending")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should not write the metrics file when disabled")
+        void disabled() {
+            when(config.isMetricsFileEnabled()).thenReturn(false);
+
+            service.writeMetricsFile();
+
+            assertThat(new File(new File(tempDir.toFile(), "backups"), "metrics.yml")).doesNotExist();
+        }
+    }
+
+    // ==================== storage accounting ====================
+
+    @Nested
+    @DisplayName("Storage accounting")
+    class StorageAccounting {
+
+        private final InMemoryDataOperator database = new InMemoryDataOperator();
+        private org.bukkit.plugin.Plugin bukkitPlugin;
+
+        @BeforeEach
+        void setUpStorage() throws Exception {
+            UltiBackupTestHelper.setField(service, "dataOperator", database.getOperator());
+            bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+            when(config.getMaxBackupsPerPlayer()).thenReturn(Integer.MAX_VALUE);
+        }
+
+        @Test
+        @DisplayName("Should record payload size and item count and update totals on create and delete")
+        void createAndDelete() {
+            when(player.getInventory().getStorageContents()).thenReturn(new ItemStack[]{
+                FixtureItems.item(Material.STONE, 64), null, FixtureItems.item(Material.DIAMOND, 3)});
+
+            BackupMetadata metadata = service.createBackup(player, "MANUAL");
+
+            assertThat(metadata.getItemCount()).isEqualTo(2);
+            assertThat(metadata.getPayloadBytes())
+                    .isEqualTo(new File(tempDir.toFile(), metadata.getFilePath()).length());
+            StorageLedger.Usage usage = service.getStorageLedger().getUsage(playerUuid);
+            assertThat(usage.getBackups()).isEqualTo(1);
+            assertThat(usage.getBytes()).isEqualTo(metadata.getPayloadBytes());
+            assertThat(service.collectMetrics()).containsEntry("storage.items", 2L);
+
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+                bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+                when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+
+                service.deleteBackup(metadata);
+            }
+
+            assertThat(service.getStorageLedger().getUsage(playerUuid).getBackups()).isZero();
+            assertThat(service.getStorageLedger().getTotalBytes()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should seed totals on init, measuring backups written before sizes were recorded")
+        void seedsOnInit() throws Exception {
+            BackupMetadata recorded = UltiBackupTestHelper.createSampleMetadata(playerUuid, "TestPlayer");
+            recorded.setId("recorded");
+            recorded.setPayloadBytes(100L);
+            recorded.setItemCount(4);
+            database.getOperator().insert(recorded);
+            BackupMetadata legacy = UltiBackupTestHelper.createSampleMetadata(playerUuid, "TestPlayer");
+            legacy.setId("legacy");
+            legacy.setFilePath("backups/legacy.yml");
+            database.getOperator().insert(legacy);
+            File backupsDir = new File(tempDir.toFile(), "backups");
+            Files.write(new File(backupsDir, "legacy.yml").toPath(), new byte[10]);
+            when(UltiBackupTestHelper.getMockPlugin().getDataOperator(BackupMetadata.class))
+                    .thenReturn(database.getOperator());
+
+            BackupService newService = new BackupService();
+            UltiBackupTestHelper.setField(newService, "plugin", UltiBackupTestHelper.getMockPlugin());
+            UltiBackupTestHelper.setField(newService, "config", config);
+            try (MockedStatic<Bukkit> bukkitMock = mockStatic(Bukkit.class)) {
+                org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+                bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+                when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+
+                newService.init();
+            }
+
+            StorageLedger ledger = newService.getStorageLedger();
+            assertThat(ledger.getUsage(playerUuid).getBackups()).isEqualTo(2);
+            assertThat(ledger.getTotalBytes()).isEqualTo(110L);
+            assertThat(ledger.getTotalItems()).isEqualTo(4L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Delta Backups")
+    class DeltaBackups {
+
+        private final InMemoryDataOperator database = new InMemoryDataOperator();
+        private org.bukkit.plugin.Plugin bukkitPlugin;
+        private MockedStatic<Bukkit> bukkitMock;
+
+        @BeforeEach
+        void setUpDeltas() throws Exception {
+            FixtureItems.register();
+            UltiBackupTestHelper.setField(service, "dataOperator", database.getOperator());
+            bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+            when(config.getMaxBackupsPerPlayer()).thenReturn(Integer.MAX_VALUE);
+            when(config.isDeltaEnabled()).thenReturn(true);
+            when(config.getDeltaKeyframeInterval()).thenReturn(3);
+            // getBackupFile and onDelete resolve files through the UltiTools plugin
+            bukkitMock = mockStatic(Bukkit.class);
+            org.bukkit.plugin.PluginManager pm = mock(org.bukkit.plugin.PluginManager.class);
+            bukkitMock.when(Bukkit::getPluginManager).thenReturn(pm);
+            when(pm.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+        }
+
+        @AfterEach
+        void tearDownDeltas() {
+            bukkitMock.close();
+            FixtureItems.unregister();
+        }
+
+        private BackupMetadata backup(ItemStack... storage) {
+            when(player.getInventory().getStorageContents()).thenReturn(storage);
+            return service.createBackup(player, "MANUAL");
+        }
+
+        @Test
+        @DisplayName("Should chain deltas and write a keyframe every interval")
+        void chainsDeltas() {
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata first = backup(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata second = backup(null, FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata next = backup(FixtureItems.item(Material.GOLD_INGOT, 1), null);
+
+            assertThat(keyframe.getBaseId()).isNull();
+            assertThat(first.getBaseId()).isEqualTo(keyframe.getId());
+            assertThat(second.getBaseId()).isEqualTo(first.getId());
+            assertThat(next.getBaseId()).isNull();
+            assertThat(second.getPayloadBytes()).isLessThan(keyframe.getPayloadBytes());
+            assertThat(service.collectMetrics()).containsEntry("delta.keyframes", 2L).containsEntry("delta.deltas", 2L);
+        }
+
+        @Test
+        @DisplayName("Should verify and load a delta as the full inventory")
+        void loadsFullState() {
+            backup(FixtureItems.item(Material.STONE, 64), null);
+            backup(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata delta = backup(null, FixtureItems.item(Material.DIAMOND, 3));
+
+            BackupContent content = service.loadBackupContent(delta);
+
+            assertThat(service.verifyChecksum(delta)).isTrue();
+            assertThat(content.isDelta()).isFalse();
+            assertThat(content.getInventoryItems()).containsExactly(null, FixtureItems.item(Material.DIAMOND, 3));
+        }
+
+        @Test
+        @DisplayName("Should fail verification when a base is corrupt")
+        void corruptBase() throws Exception {
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata delta = backup(FixtureItems.item(Material.STONE, 32), null);
+            Files.write(keyframe.getBackupFile().toPath(), "inventory: ''\n".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+
+            assertThat(service.verifyChecksum(delta)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should rebase a delta into a keyframe when its keyframe is deleted")
+        void rebasesOnDelete() {
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata first = backup(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata second = backup(null, FixtureItems.item(Material.DIAMOND, 3));
+            File original = first.getBackupFile();
+
+            assertThat(service.deleteBackup(keyframe)).isTrue();
+
+            assertThat(first.getFilePath()).endsWith(".r1.yml");
+            assertThat(original).doesNotExist();
+            assertThat(first.getBaseId()).isNull();
+            assertThat(second.getBaseId()).isEqualTo(first.getId());
+            assertThat(service.verifyChecksum(first)).isTrue();
+            assertThat(service.verifyChecksum(second)).isTrue();
+            assertThat(service.loadBackupContent(first).getInventoryItems())
+                    .containsExactly(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            assertThat(service.loadBackupContent(second).getInventoryItems())
+                    .containsExactly(null, FixtureItems.item(Material.DIAMOND, 3));
+            assertThat(service.collectMetrics()).containsEntry("delta.rebased", 1L);
+        }
+
+        @Test
+        @DisplayName("Should keep IDs and links when the database generates a new ID on every insert")
+        void rebaseKeepsIds() throws Exception {
+            InMemoryDataOperator table = new InMemoryDataOperator(true);
+            UltiBackupTestHelper.setField(service, "dataOperator", table.getOperator());
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata first = backup(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata second = backup(null, FixtureItems.item(Material.DIAMOND, 3));
+
+            assertThat(service.deleteBackup(keyframe.getId())).isTrue();
+
+            BackupMetadata rebased = service.getBackup(first.getId());
+            BackupMetadata dependent = service.getBackup(second.getId());
+            assertThat(table.getRows()).hasSize(2);
+            assertThat(rebased.getBaseId()).isNull();
+            assertThat(dependent.getBaseId()).isEqualTo(first.getId());
+            assertThat(service.verifyChecksum(dependent)).isTrue();
+            assertThat(service.loadBackupContent(dependent).getInventoryItems())
+                    .containsExactly(null, FixtureItems.item(Material.DIAMOND, 3));
+        }
+
+        @Test
+        @DisplayName("Should keep a dependent's file and row intact when the rebase cannot be stored")
+        void rebaseUpdateFails() throws Exception {
+            InMemoryDataOperator table = new InMemoryDataOperator(true);
+            UltiBackupTestHelper.setField(service, "dataOperator", table.getOperator());
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata first = backup(FixtureItems.item(Material.STONE, 64), FixtureItems.item(Material.DIAMOND, 3));
+            String path = first.getFilePath();
+            table.setFailUpdates(true);
+
+            assertThat(service.deleteBackup(keyframe.getId())).isFalse();
+
+            BackupMetadata stored = service.getBackup(first.getId());
+            assertThat(stored.getFilePath()).isEqualTo(path);
+            assertThat(stored.getBaseId()).isEqualTo(keyframe.getId());
+            assertThat(service.verifyChecksum(stored)).isTrue();
+            assertThat(new File(tempDir.toFile(), path.replace(".yml", ".r1.yml"))).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should fold a deleted delta into the next one")
+        void foldsMiddleDelete() {
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 64), null);
+            BackupMetadata first = backup(null, FixtureItems.item(Material.DIAMOND, 3));
+            BackupMetadata second = backup(FixtureItems.item(Material.EMERALD, 2), FixtureItems.item(Material.DIAMOND, 3));
+
+            service.deleteBackup(first);
+
+            assertThat(second.getBaseId()).isEqualTo(keyframe.getId());
+            assertThat(service.loadBackupContent(second).getInventoryItems())
+                    .containsExactly(FixtureItems.item(Material.EMERALD, 2), FixtureItems.item(Material.DIAMOND, 3));
+        }
+
+        @Test
+        @DisplayName("Should expire a delta chain as a whole without rewriting any backup")
+        void retention() {
+            when(config.getMaxBackupsPerPlayer()).thenReturn(2);
+
+            backup(FixtureItems.item(Material.STONE, 64), null);
+            backup(FixtureItems.item(Material.STONE, 1), null);
+            backup(FixtureItems.item(Material.STONE, 2), null);
+            BackupMetadata keyframe = backup(FixtureItems.item(Material.STONE, 3), null);
+
+            // The newest two span both chains, so the first chain is still needed
+            assertThat(keyframe.getBaseId()).isNull();
+            assertThat(database.countFor(playerUuid)).isEqualTo(4);
+            assertThat(service.getIoThrottle().getBytes(IoThrottle.Lane.BACKGROUND)).isZero();
+
+            BackupMetadata delta = backup(FixtureItems.item(Material.STONE, 4), null);
+
+            assertThat(database.countFor(playerUuid)).isEqualTo(2);
+            // Each delete is charged to the background lane with the size of the file it removes
+            assertThat(service.getIoThrottle().getOps(IoThrottle.Lane.BACKGROUND)).isEqualTo(3);
+            assertThat(service.getIoThrottle().getBytes(IoThrottle.Lane.BACKGROUND)).isPositive();
+            assertThat(delta.getBaseId()).isEqualTo(keyframe.getId());
+            assertThat(service.collectMetrics()).containsEntry("delta.rebased", 0L);
+            assertThat(service.verifyChecksum(delta)).isTrue();
+            assertThat(service.loadBackupContent(delta).getInventoryItems())
+                    .containsExactly(FixtureItems.item(Material.STONE, 4));
+        }
+    }
+
+    @Nested
+    @DisplayName("Integrity Scrub")
+    class Scrub {
+
+        private final InMemoryDataOperator database = new InMemoryDataOperator();
+
+        @BeforeEach
+        void setUpScrub() throws Exception {
+            UltiBackupTestHelper.setField(service, "dataOperator", database.getOperator());
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+            when(config.getMaxBackupsPerPlayer()).thenReturn(Integer.MAX_VALUE);
+            when(config.getScrubBatchSize()).thenReturn(10);
+            when(config.getScrubThreads()).thenReturn(1);
+        }
+
+        @AfterEach
+        void tearDownScrub() {
+            service.getScrubber().shutdown();
+        }
+
+        @Test
+        @DisplayName("Should do nothing when disabled")
+        void disabled() {
+            service.createBackup(player, "MANUAL");
+
+            service.scrubBackups();
+
+            assertThat(service.getScrubber().getPassChecked()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should flag bit rot the verification cache would miss")
+        void flagsBitRot() throws Exception {
+            when(config.isScrubEnabled()).thenReturn(true);
+            BackupMetadata metadata = spy(service.createBackup(player, "MANUAL"));
+            File file = new File(tempDir.toFile(), metadata.getFilePath());
+            doReturn(file).when(metadata).getBackupFile();
+            assertThat(service.verifyChecksum(metadata)).isTrue();
+            long modified = file.lastModified();
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            bytes[bytes.length - 2] ^= 1;
+            Files.write(file.toPath(), bytes);
+            file.setLastModified(modified);
+
+            service.scrubBackups();
+
+            assertThat(service.getScrubber().getFlagReason(metadata.getId()))
+                    .isEqualTo(IntegrityScrubber.REASON_CHECKSUM);
+            assertThat(service.collectMetrics()).containsEntry("scrub.corrupt", 1L);
+            assertThat(service.verifyChecksum(metadata)).isFalse();
+        }
+    }
+
+    // ==================== allocation budgets ====================
+
+    /**
+     * Bytes allocated on the calling thread per call. A failure usually means per-item
+     * YamlConfiguration instances or string churn crept back into a hot path.
+     */
+    @Nested
+    @DisplayName("Allocation budget")
+    class AllocationBudget {
+
+        /** Allowed allocation per captured slot in createBackup, beyond the cost of an empty inventory. */
+        private static final long CREATE_BYTES_PER_SLOT = 16 * 1024;
+
+        /** Allowed allocation of one getBackups call returning 200 backups. */
+        private static final long GET_BACKUPS_BYTES = 16 * 1024;
+
+        private final InMemoryDataOperator database = new InMemoryDataOperator();
+
+        @BeforeEach
+        void setUpMeasurement() throws Exception {
+            Assumptions.assumeTrue(AllocationMeter.isSupported(), "Thread allocation counters unavailable");
+            UltiBackupTestHelper.setField(service, "dataOperator", database.getOperator());
+            org.bukkit.plugin.Plugin bukkitPlugin = mock(org.bukkit.plugin.Plugin.class);
+            when(bukkitPlugin.getDataFolder()).thenReturn(tempDir.toFile());
+            UltiBackupTestHelper.setField(service, "bukkitPlugin", bukkitPlugin);
+            // Retention deletes go through Bukkit; keep them out of the measurement
+            when(config.getMaxBackupsPerPlayer()).thenReturn(Integer.MAX_VALUE);
+        }
+
+        @Test
+        @DisplayName("createBackup should stay within its per-slot budget")
+        void createBackup() throws Exception {
+            Player empty = UltiBackupTestHelper.createMockPlayer("Empty", UUID.randomUUID());
+            Player full = UltiBackupTestHelper.createMockPlayer("Full", UUID.randomUUID());
+            int slots = fill(full);
+
+            long emptyBytes = measureCreate(empty);
+            long fullBytes = measureCreate(full);
+
+            assertThat((fullBytes - emptyBytes) / slots)
+                    .as("bytes per slot (empty %d B, full %d B per call)", emptyBytes, fullBytes)
+                    .isLessThanOrEqualTo(CREATE_BYTES_PER_SLOT);
+        }
+
+        @Test
+        @DisplayName("getBackups should stay within its budget for 200 backups")
+        void getBackups() throws Exception {
+            for (int i = 0; i < 200; i++) {
+                BackupMetadata metadata = UltiBackupTestHelper.createSampleMetadata(playerUuid, "TestPlayer");
+                metadata.setId("backup-" + i);
+                metadata.setBackupTime(i);
+                database.getOperator().insert(metadata);
+            }
+
+            long bytes = AllocationMeter.bytesPerCall(50, 200, () -> {
+                if (service.getBackups(playerUuid).size() != 200) {
+                    throw new AssertionError("getBackups lost rows");
+                }
+            });
+
+            assertThat(bytes).isLessThanOrEqualTo(GET_BACKUPS_BYTES);
+        }
+
+        private long measureCreate(Player target) throws Exception {
+            return AllocationMeter.bytesPerCall(20, 40, () -> {
+                if (service.createBackup(target, "MANUAL") == null) {
+                    throw new AssertionError("createBackup failed");
+                }
+                // Distinct timestamps keep ensureUniqueFilePath from probing taken paths
+                Thread.sleep(2);
+            });
+        }
+
+        private int fill(Player target) {
+            ItemStack[] storage = new ItemStack[36];
+            for (int i = 0; i < storage.length; i++) {
+                storage[i] = FixtureItems.item(Material.COBBLESTONE, i + 1);
+            }
+            ItemStack[] armor = {
+                FixtureItems.item(Material.IRON_BOOTS, 1), FixtureItems.item(Material.IRON_LEGGINGS, 1),
+                FixtureItems.item(Material.IRON_CHESTPLATE, 1), FixtureItems.item(Material.IRON_HELMET, 1)
+            };
+            ItemStack[] enderchest = new ItemStack[27];
+            for (int i = 0; i < enderchest.length; i++) {
+                enderchest[i] = FixtureItems.item(Material.DIAMOND, i + 1);
+            }
+            when(target.getInventory().getStorageContents()).thenReturn(storage);
+            when(target.getInventory().getArmorContents()).thenReturn(armor);
+            when(target.getInventory().getItemInOffHand()).thenReturn(FixtureItems.item(Material.SHIELD, 1));
+            when(target.getEnderChest().getContents()).thenReturn(enderchest);
+            return storage.length + armor.length + 1 + enderchest.length;
+        }
+    }
 }
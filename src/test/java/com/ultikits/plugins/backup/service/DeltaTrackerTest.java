@@ -0,0 +1,98 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DeltaTracker Tests")
+class DeltaTrackerTest {
+
+    private final DeltaTracker tracker = new DeltaTracker(2);
+
+    private static InventorySnapshot snapshot(String uuid, boolean enderchest) {
+        return InventorySnapshot.builder()
+                .metadata(BackupMetadata.builder().playerUuid(uuid).build())
+                .storageContents(new ItemStack[36])
+                .armorCaptured(true)
+                .enderchestCaptured(enderchest)
+                .expCaptured(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should start every player with a keyframe")
+    void firstIsKeyframe() {
+        assertThat(tracker.baseFor(snapshot("a", true), 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should chain deltas until the keyframe interval is reached")
+    void keyframeInterval() {
+        tracker.record("k", snapshot("a", true), null);
+        DeltaTracker.Base first = tracker.baseFor(snapshot("a", true), 3);
+        assertThat(first.getBackupId()).isEqualTo("k");
+
+        tracker.record("d1", snapshot("a", true), first);
+        DeltaTracker.Base second = tracker.baseFor(snapshot("a", true), 3);
+        assertThat(second.getChainLength()).isEqualTo(1);
+
+        tracker.record("d2", snapshot("a", true), second);
+        assertThat(tracker.baseFor(snapshot("a", true), 3)).isNull();
+        assertThat(tracker.getKeyframeCount()).isEqualTo(1);
+        assertThat(tracker.getDeltaCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write a keyframe when the captured sections change")
+    void sectionsChanged() {
+        tracker.record("k", snapshot("a", true), null);
+
+        assertThat(tracker.baseFor(snapshot("a", false), 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should write every backup in full with an interval of 1")
+    void intervalOne() {
+        tracker.record("k", snapshot("a", true), null);
+
+        assertThat(tracker.baseFor(snapshot("a", true), 1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should forget a deleted base but not a newer one")
+    void forget() {
+        tracker.record("k", snapshot("a", true), null);
+
+        tracker.forget("a", "other");
+        assertThat(tracker.baseFor(snapshot("a", true), 10)).isNotNull();
+
+        tracker.forget("a", "k");
+        assertThat(tracker.baseFor(snapshot("a", true), 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should detect a base replaced by a concurrent backup")
+    void isCurrent() {
+        tracker.record("k", snapshot("a", true), null);
+        DeltaTracker.Base base = tracker.baseFor(snapshot("a", true), 10);
+
+        tracker.record("k2", snapshot("a", true), null);
+
+        assertThat(tracker.isCurrent("a", base)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used player")
+    void evicts() {
+        tracker.record("a1", snapshot("a", true), null);
+        tracker.record("b1", snapshot("b", true), null);
+        tracker.record("c1", snapshot("c", true), null);
+
+        assertThat(tracker.baseFor(snapshot("a", true), 10)).isNull();
+        assertThat(tracker.baseFor(snapshot("c", true), 10)).isNotNull();
+    }
+}
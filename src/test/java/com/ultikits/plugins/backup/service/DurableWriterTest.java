@@ -0,0 +1,116 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.config.FsyncPolicy;
+import com.ultikits.plugins.backup.entity.BackupContent;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DurableWriter Tests")
+class DurableWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DurableWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should be durable immediately with no fsync")
+    void nonePolicy() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.NONE, 100);
+        File target = tempDir.resolve("none.yml").toFile();
+
+        CompletableFuture<Void> durable = writer.write(target, bytes("data"));
+
+        assertThat(durable).isCompleted();
+        assertThat(Files.readAllBytes(target.toPath())).isEqualTo(bytes("data"));
+    }
+
+    @Test
+    @DisplayName("Should be durable on return with per-file fsync")
+    void perFilePolicy() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.PER_FILE, 100);
+        File target = tempDir.resolve("sub/per_file.yml").toFile();
+
+        CompletableFuture<Void> durable = writer.write(target, bytes("data"));
+
+        assertThat(durable).isCompleted();
+        assertThat(target).exists();
+        assertThat(new File(target.getPath() + BackupContent.TEMP_SUFFIX)).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should complete batched writes on the next flush")
+    void batchedPolicy() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.BATCHED, 60_000);
+        File first = tempDir.resolve("a.yml").toFile();
+        File second = tempDir.resolve("b.yml").toFile();
+
+        CompletableFuture<Void> firstDurable = writer.write(first, bytes("a"));
+        CompletableFuture<Void> secondDurable = writer.write(second, bytes("b"));
+
+        // Renamed into place right away, durable only after the batch runs
+        assertThat(first).exists();
+        assertThat(firstDurable).isNotDone();
+
+        writer.flush();
+
+        assertThat(firstDurable).isCompleted();
+        assertThat(secondDurable).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Should flush batches on its own interval")
+    void batchedInterval() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.BATCHED, 10);
+
+        CompletableFuture<Void> durable = writer.write(tempDir.resolve("tick.yml").toFile(), bytes("x"));
+
+        durable.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should treat files deleted before the batch as done")
+    void deletedBeforeFlush() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.BATCHED, 60_000);
+        File target = tempDir.resolve("gone.yml").toFile();
+        CompletableFuture<Void> durable = writer.write(target, bytes("x"));
+        Files.delete(target.toPath());
+
+        writer.flush();
+
+        assertThat(durable).isCompleted();
+        assertThat(durable.isCompletedExceptionally()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should flush pending writes on shutdown")
+    void shutdownFlushes() throws Exception {
+        writer = new DurableWriter(FsyncPolicy.BATCHED, 60_000);
+        CompletableFuture<Void> durable = writer.write(tempDir.resolve("last.yml").toFile(), bytes("x"));
+
+        writer.shutdown();
+
+        assertThat(durable).isCompleted();
+    }
+}
@@ -0,0 +1,246 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupContent;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("IntegrityScrubber Tests")
+class IntegrityScrubberTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File dataFolder;
+    private File stateFile;
+    private File quarantine;
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final List<String> warnings = new ArrayList<>();
+    private final List<BackupMetadata> stored = new ArrayList<>();
+    private IntegrityScrubber scrubber;
+
+    @BeforeEach
+    void setUp() {
+        dataFolder = tempDir.toFile();
+        stateFile = new File(dataFolder, "backups/scrub.yml");
+        quarantine = new File(dataFolder, "backups/quarantine");
+        scrubber = create(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scrubber.shutdown();
+    }
+
+    private IntegrityScrubber create(boolean quarantineCorrupt) {
+        return new IntegrityScrubber(stateFile, quarantine, dataFolder, new IoThrottle(0L, 0, 0L, 0), 2,
+            quarantineCorrupt, now::get, warnings::add);
+    }
+
+    private BackupMetadata store(String id) throws IOException {
+        String yaml = "inventory: '" + id + "'\n";
+        String path = "backups/" + id + ".yml";
+        File file = new File(dataFolder, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), BackupContent.toFileText(yaml, BackupContent.calculateChecksum(yaml))
+            .getBytes(StandardCharsets.UTF_8));
+        BackupMetadata metadata = BackupMetadata.builder()
+            .id(id)
+            .playerName("Steve")
+            .filePath(path)
+            .checksum(BackupContent.calculateChecksum(yaml))
+            .build();
+        stored.add(metadata);
+        return metadata;
+    }
+
+    private List<BackupMetadata> run(int batchSize) {
+        return scrubber.runBatch(batchSize, () -> new ArrayList<>(stored), this::reload);
+    }
+
+    private BackupMetadata reload(BackupMetadata metadata) {
+        for (BackupMetadata current : stored) {
+            if (current.getId().equals(metadata.getId())) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private void corrupt(BackupMetadata metadata) throws IOException {
+        File file = new File(dataFolder, metadata.getFilePath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(file.toPath(), bytes);
+    }
+
+    @Test
+    @DisplayName("Should verify backups in batches and record when each was verified")
+    void batches() throws IOException {
+        store("a");
+        store("b");
+        store("c");
+
+        assertThat(run(2)).isEmpty();
+        assertThat(scrubber.getPassChecked()).isEqualTo(2);
+        assertThat(scrubber.getPassRemaining()).isEqualTo(1);
+        assertThat(scrubber.getLastVerified("a")).isEqualTo(1_000L);
+        assertThat(scrubber.getLastVerified("c")).isNull();
+
+        run(2);
+        run(2);
+
+        assertThat(scrubber.getPasses()).isEqualTo(1);
+        assertThat(scrubber.getLastPassChecked()).isEqualTo(3);
+        assertThat(scrubber.getLastPassCorruptionRate()).isZero();
+        assertThat(scrubber.getPassChecked()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should flag and quarantine a corrupt file and report the corruption rate")
+    void quarantinesCorrupt() throws IOException {
+        store("a");
+        BackupMetadata bad = store("b");
+        corrupt(bad);
+
+        List<BackupMetadata> flagged = run(10);
+        run(10);
+
+        assertThat(flagged).containsExactly(bad);
+        assertThat(scrubber.getFlagReason("b")).isEqualTo(IntegrityScrubber.REASON_CHECKSUM);
+        assertThat(scrubber.getFlagged()).containsEntry("b", "backups/b.yml");
+        assertThat(new File(dataFolder, "backups/b.yml")).doesNotExist();
+        assertThat(new File(quarantine, "b.yml")).exists();
+        assertThat(scrubber.getLastPassCorruptionRate()).isEqualTo(0.5);
+        assertThat(warnings).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should leave corrupt files in place when quarantine is off")
+    void noQuarantine() throws IOException {
+        scrubber.shutdown();
+        scrubber = create(false);
+        corrupt(store("a"));
+
+        run(10);
+
+        assertThat(scrubber.getFlagReason("a")).isEqualTo(IntegrityScrubber.REASON_CHECKSUM);
+        assertThat(new File(dataFolder, "backups/a.yml")).exists();
+    }
+
+    @Test
+    @DisplayName("Should flag missing files but ignore backups deleted during the pass")
+    void missing() throws IOException {
+        BackupMetadata gone = store("a");
+        BackupMetadata deleted = store("b");
+        new File(dataFolder, gone.getFilePath()).delete();
+        new File(dataFolder, deleted.getFilePath()).delete();
+        scrubber.runBatch(10, () -> new ArrayList<>(stored), metadata -> metadata != deleted ? metadata : null);
+
+        assertThat(scrubber.getFlagReason("a")).isEqualTo(IntegrityScrubber.REASON_MISSING);
+        assertThat(scrubber.getFlagReason("b")).isNull();
+        assertThat(scrubber.getPassMissing()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should judge a backup rewritten during the pass by its current row")
+    void rewrittenDuringPass() throws IOException {
+        BackupMetadata original = store("a");
+        List<BackupMetadata> passStart = new ArrayList<>(stored);
+        // Rebased to a new file and the row repointed, as deleting its base does
+        stored.remove(original);
+        BackupMetadata rebased = store("a.r1");
+        rebased.setId("a");
+        new File(dataFolder, original.getFilePath()).delete();
+
+        scrubber.runBatch(10, () -> passStart, this::reload);
+
+        assertThat(scrubber.getFlagReason("a")).isNull();
+        assertThat(scrubber.getPassMissing()).isZero();
+        assertThat(new File(dataFolder, rebased.getFilePath())).exists();
+    }
+
+    @Test
+    @DisplayName("Should only check that legacy backups without a checksum exist")
+    void legacy() throws IOException {
+        BackupMetadata legacy = store("a");
+        legacy.setChecksum(null);
+
+        run(10);
+
+        assertThat(scrubber.getFlagReason("a")).isNull();
+        assertThat(scrubber.getLastVerified("a")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should do nothing while paused")
+    void paused() throws IOException {
+        store("a");
+        scrubber.pause();
+
+        run(10);
+
+        assertThat(scrubber.isPaused()).isTrue();
+        assertThat(scrubber.getPassChecked()).isZero();
+
+        scrubber.resume();
+        run(10);
+
+        assertThat(scrubber.getPassChecked()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should resume the pass after a restart from the saved cursor")
+    void resumesAfterRestart() throws IOException {
+        store("a");
+        store("b");
+        store("c");
+        run(2);
+        scrubber.pause();
+        scrubber.shutdown();
+
+        scrubber = create(true);
+        assertThat(scrubber.isPaused()).isTrue();
+        assertThat(scrubber.getPassChecked()).isEqualTo(2);
+        assertThat(scrubber.getLastVerified("b")).isEqualTo(1_000L);
+        scrubber.resume();
+        now.set(2_000L);
+        run(10);
+
+        assertThat(scrubber.getPassChecked()).isEqualTo(3);
+        assertThat(scrubber.getLastVerified("a")).isEqualTo(1_000L);
+        assertThat(scrubber.getLastVerified("c")).isEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("Should forget backups not seen again in the next pass")
+    void prunesDeleted() throws IOException {
+        store("a");
+        BackupMetadata bad = store("b");
+        corrupt(bad);
+        run(10);
+        run(10);
+
+        stored.remove(bad);
+        now.set(5_000L);
+        run(10);
+        run(10);
+
+        assertThat(scrubber.getPasses()).isEqualTo(2);
+        assertThat(scrubber.getFlagged()).isEmpty();
+        assertThat(scrubber.getLastVerified("b")).isNull();
+        assertThat(scrubber.getLastVerified("a")).isEqualTo(5_000L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("IoThrottle Tests")
+class IoThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private IoThrottle create(long fgBytes, int fgOps, long bgBytes, int bgOps) {
+        return new IoThrottle(fgBytes, fgOps, bgBytes, bgOps, now::get, nanos -> {
+            sleeps.add(nanos);
+            now.addAndGet(nanos);
+        });
+    }
+
+    @Test
+    @DisplayName("Should never wait when limits are disabled")
+    void disabled() {
+        IoThrottle throttle = create(0, 0, 0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            throttle.acquire(IoThrottle.Lane.BACKGROUND, 1_000_000);
+        }
+
+        assertThat(sleeps).isEmpty();
+        assertThat(throttle.getOps(IoThrottle.Lane.BACKGROUND)).isEqualTo(100);
+        assertThat(throttle.getBytes(IoThrottle.Lane.BACKGROUND)).isEqualTo(100_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should pace operations to the ops budget")
+    void opsBudget() {
+        IoThrottle throttle = create(0, 0, 0, 2);
+
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 0);
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 0);
+        assertThat(sleeps).isEmpty();
+
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 0);
+        assertThat(sleeps).hasSize(1);
+        assertThat(sleeps.get(0)).isCloseTo(TimeUnit.MILLISECONDS.toNanos(500), within(10L));
+        assertThat(throttle.getThrottledCount(IoThrottle.Lane.BACKGROUND)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should make the next operation pay for bytes beyond the budget")
+    void bytesBudget() {
+        IoThrottle throttle = create(0, 0, 1000, 0);
+
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 3000);
+        assertThat(sleeps).isEmpty();
+
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 10);
+        assertThat(sleeps).hasSize(1);
+        assertThat(sleeps.get(0)).isCloseTo(TimeUnit.SECONDS.toNanos(2), within(10L));
+        assertThat(throttle.getWaitedMillis(IoThrottle.Lane.BACKGROUND)).isBetween(1999L, 2000L);
+    }
+
+    @Test
+    @DisplayName("Should keep foreground work independent of background debt")
+    void lanesIndependent() {
+        IoThrottle throttle = create(1000, 0, 1000, 0);
+
+        throttle.acquire(IoThrottle.Lane.BACKGROUND, 50_000);
+        throttle.acquire(IoThrottle.Lane.FOREGROUND, 500);
+
+        assertThat(sleeps).isEmpty();
+        assertThat(throttle.getOps(IoThrottle.Lane.FOREGROUND)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should charge main-thread work without waiting, delaying the next worker")
+    void chargeDoesNotWait() {
+        IoThrottle throttle = create(1000, 0, 0, 0);
+
+        throttle.charge(IoThrottle.Lane.FOREGROUND, 2000);
+        throttle.charge(IoThrottle.Lane.FOREGROUND, 2000);
+        assertThat(sleeps).isEmpty();
+
+        throttle.acquire(IoThrottle.Lane.FOREGROUND, 0);
+        assertThat(sleeps).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should report when a lane has budget again without reserving it")
+    void nanosUntilAvailable() {
+        IoThrottle throttle = create(0, 0, 1000, 0);
+
+        assertThat(throttle.nanosUntilAvailable(IoThrottle.Lane.BACKGROUND)).isZero();
+        throttle.charge(IoThrottle.Lane.BACKGROUND, 3000);
+
+        assertThat(throttle.nanosUntilAvailable(IoThrottle.Lane.BACKGROUND))
+                .isCloseTo(TimeUnit.SECONDS.toNanos(2), within(10L));
+        assertThat(throttle.nanosUntilAvailable(IoThrottle.Lane.FOREGROUND)).isZero();
+        assertThat(throttle.getOps(IoThrottle.Lane.BACKGROUND)).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(throttle.nanosUntilAvailable(IoThrottle.Lane.BACKGROUND)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should treat DEATH, QUIT and MANUAL as foreground and the rest as background")
+    void lanes() {
+        assertThat(IoThrottle.Lane.forReason("DEATH")).isEqualTo(IoThrottle.Lane.FOREGROUND);
+        assertThat(IoThrottle.Lane.forReason("QUIT")).isEqualTo(IoThrottle.Lane.FOREGROUND);
+        assertThat(IoThrottle.Lane.forReason("MANUAL")).isEqualTo(IoThrottle.Lane.FOREGROUND);
+        assertThat(IoThrottle.Lane.forReason("ADMIN")).isEqualTo(IoThrottle.Lane.BACKGROUND);
+        assertThat(IoThrottle.Lane.forReason("AUTO")).isEqualTo(IoThrottle.Lane.BACKGROUND);
+        assertThat(IoThrottle.Lane.forPriority(ReasonPriority.of("QUIT"))).isEqualTo(IoThrottle.Lane.FOREGROUND);
+    }
+}
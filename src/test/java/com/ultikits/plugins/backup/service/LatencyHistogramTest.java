@@ -0,0 +1,75 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report zeros without samples")
+    void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMeanMillis()).isZero();
+        assertThat(histogram.getPercentileMillis(0.99)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should track count, mean and max")
+    void summary() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getMeanMillis()).isEqualTo(2.0);
+        assertThat(histogram.getMaxMillis()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should place percentiles within a factor of two of the true value")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(histogram.getPercentileMillis(0.50)).isBetween(0.1, 0.2);
+        assertThat(histogram.getPercentileMillis(0.99)).isBetween(0.1, 0.2);
+        assertThat(histogram.getPercentileMillis(1.0)).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Should expose bucket counts under power-of-two microsecond bounds")
+    void buckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+        long[] counts = histogram.getBucketCounts();
+        assertThat(counts).hasSize(LatencyHistogram.getBucketCount());
+        assertThat(counts[2]).isEqualTo(2);
+        assertThat(counts[10]).isEqualTo(1);
+        assertThat(LatencyHistogram.getBucketUpperMillis(2)).isEqualTo(0.004);
+        assertThat(LatencyHistogram.getBucketUpperMillis(10)).isEqualTo(1.024);
+        assertThat(LatencyHistogram.getBucketUpperMillis(LatencyHistogram.getBucketCount() - 1)).isInfinite();
+        assertThat(histogram.getSumMillis()).isEqualTo(1.006);
+    }
+
+    @Test
+    @DisplayName("Should ignore negative samples' sign")
+    void negative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.getCount()).isEqualTo(1);
+        assertThat(histogram.getMaxMillis()).isZero();
+    }
+}
@@ -0,0 +1,405 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.FixtureItems;
+import com.ultikits.plugins.backup.InMemoryDataOperator;
+import com.ultikits.plugins.backup.InventoryCorpus;
+import com.ultikits.plugins.backup.UltiBackupTestHelper;
+import com.ultikits.plugins.backup.config.BackupConfig;
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.ultitools.interfaces.DataOperator;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives a fully initialized {@link BackupService} with simulated players who die, quit,
+ * rejoin and get auto-backed up on a simulated clock. Files go to a real directory and
+ * metadata to an in-memory {@link DataOperator}; the Bukkit server is a mock whose
+ * scheduler advances only when the harness ticks it.
+ * <p>
+ * The harness thread plays the server thread, so main-thread capture runs inline and the
+ * worker pool, journal and fsync batching run for real.
+ */
+final class LoadHarness implements AutoCloseable {
+
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final Settings settings;
+    private final File dataFolder;
+    private final Random random;
+    private final InventoryCorpus corpus;
+    private final BackupService service = new BackupService();
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final List<Player> online = new ArrayList<>();
+    private final List<RepeatingTask> tasks = new ArrayList<>();
+    private final List<CompletableFuture<BackupMetadata>> submitted = new ArrayList<>();
+    private final InMemoryDataOperator database = new InMemoryDataOperator();
+    private final Thread serverThread = Thread.currentThread();
+    private final Server previousServer;
+
+    private int deaths;
+    private int quits;
+    private int autoRounds;
+    private int restores;
+    private int restoreFailures;
+
+    LoadHarness(Settings settings, File dataFolder) throws Exception {
+        this.settings = settings;
+        this.dataFolder = dataFolder;
+        this.random = new Random(settings.getSeed());
+        this.corpus = new InventoryCorpus(settings.getSeed());
+        FixtureItems.register();
+
+        UltiBackupTestHelper.setUp();
+        BackupConfig config = UltiBackupTestHelper.createDefaultConfig();
+        when(config.isAutoBackupEnabled()).thenReturn(true);
+        when(config.getMaxBackupsPerPlayer()).thenReturn(settings.getMaxBackupsPerPlayer());
+        when(UltiBackupTestHelper.getMockPlugin().getDataOperator(any())).thenReturn(database.getOperator());
+
+        previousServer = installServer();
+        UltiBackupTestHelper.setField(service, "plugin", UltiBackupTestHelper.getMockPlugin());
+        UltiBackupTestHelper.setField(service, "config", config);
+        service.init();
+
+        for (int i = 0; i < settings.getPlayers(); i++) {
+            SimulatedPlayer player = new SimulatedPlayer("Player" + i, new UUID(0L, i));
+            players.add(player);
+            online.add(player.player);
+        }
+    }
+
+    /**
+     * Run the configured number of simulated minutes, wait for every write, and report.
+     */
+    Report run() throws Exception {
+        long startNanos = System.nanoTime();
+        int seconds = settings.getMinutes() * 60;
+        for (int second = 1; second <= seconds; second++) {
+            simulateSecond(second);
+        }
+        while (!tasks.isEmpty()) {
+            tick();
+        }
+        awaitWrites();
+        long wallNanos = System.nanoTime() - startNanos;
+        return report(seconds, wallNanos);
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            service.shutdown();
+        } finally {
+            setServer(previousServer);
+            FixtureItems.unregister();
+            UltiBackupTestHelper.tearDown();
+        }
+    }
+
+    BackupService getService() {
+        return service;
+    }
+
+    /**
+     * Count the metadata rows stored for one player.
+     */
+    int rowsFor(UUID uuid) {
+        return database.countFor(uuid);
+    }
+
+    List<UUID> playerIds() {
+        List<UUID> ids = new ArrayList<>();
+        for (SimulatedPlayer player : players) {
+            ids.add(player.uuid);
+        }
+        return ids;
+    }
+
+    private void simulateSecond(int second) {
+        double deathChance = settings.getDeathsPerPlayerHour() / 3600.0;
+        double quitChance = 1.0 / (settings.getSessionMinutes() * 60.0);
+        double joinChance = 1.0 / (settings.getOfflineMinutes() * 60.0);
+
+        for (SimulatedPlayer player : players) {
+            if (player.online) {
+                double roll = random.nextDouble();
+                if (roll < deathChance) {
+                    player.mutate();
+                    submitted.add(service.submitBackup(player.player, "DEATH"));
+                    deaths++;
+                } else if (roll < deathChance + quitChance) {
+                    player.mutate();
+                    submitted.add(service.backupOnQuit(player.player));
+                    player.setOnline(false);
+                    quits++;
+                } else if (random.nextInt(10) == 0) {
+                    player.mutate();
+                }
+            } else if (random.nextDouble() < joinChance) {
+                player.setOnline(true);
+            }
+        }
+
+        if (second % (settings.getAutoIntervalMinutes() * 60) == 0) {
+            service.autoBackupAll();
+            autoRounds++;
+        }
+        if (random.nextDouble() < settings.getRestoresPerMinute() / 60.0) {
+            restoreRandomPlayer();
+        }
+        for (int i = 0; i < TICKS_PER_SECOND; i++) {
+            tick();
+        }
+    }
+
+    private void restoreRandomPlayer() {
+        if (online.isEmpty()) {
+            return;
+        }
+        Player player = online.get(random.nextInt(online.size()));
+        List<BackupMetadata> backups = service.getBackups(player.getUniqueId());
+        if (backups.isEmpty()) {
+            return;
+        }
+        restores++;
+        if (service.restoreBackup(player, backups.get(0)) != BackupService.RestoreResult.SUCCESS) {
+            restoreFailures++;
+        }
+    }
+
+    private void tick() {
+        Iterator<RepeatingTask> iterator = new ArrayList<>(tasks).iterator();
+        while (iterator.hasNext()) {
+            RepeatingTask task = iterator.next();
+            task.body.accept(task.handle);
+            if (task.cancelled) {
+                tasks.remove(task);
+            }
+        }
+    }
+
+    private void awaitWrites() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        CompletableFuture.allOf(submitted.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        while (service.collectMetrics().get("queue.pending").intValue() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Backups still pending after 60 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private Report report(int simulatedSeconds, long wallNanos) throws IOException {
+        BackupMetrics metrics = service.getMetrics();
+        LatencyHistogram create = metrics.getLatency(BackupMetrics.Operation.CREATE);
+        LatencyHistogram restore = metrics.getLatency(BackupMetrics.Operation.RESTORE);
+        long failed = metrics.getFailures(BackupMetrics.Operation.CREATE);
+        long backups = create.getCount() - failed;
+
+        long diskBytes = 0;
+        long files = 0;
+        try (Stream<Path> walk = Files.walk(service.getBackupsDirectory().toPath())) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isRegularFile(path)) {
+                    diskBytes += Files.size(path);
+                    files++;
+                }
+            }
+        }
+
+        return Report.builder()
+            .players(settings.getPlayers())
+            .simulatedSeconds(simulatedSeconds)
+            .wallMillis(TimeUnit.NANOSECONDS.toMillis(wallNanos))
+            .deaths(deaths)
+            .quits(quits)
+            .autoRounds(autoRounds)
+            .backups(backups)
+            .failedBackups(failed)
+            .backupsPerSecond(backups / Math.max(1e-9, wallNanos / 1e9))
+            .createP99Millis(create.getPercentileMillis(0.99))
+            .restores(restores)
+            .failedRestores(restoreFailures)
+            .restoreP99Millis(restore.getPercentileMillis(0.99))
+            .diskBytes(diskBytes)
+            .files(files)
+            .mainThreadMillis(service.getWatchdog().getLastMinuteMillis())
+            .build();
+    }
+
+    // ==================== Fake server ====================
+
+    @SuppressWarnings("unchecked")
+    private Server installServer() throws Exception {
+        Plugin bukkitPlugin = mock(Plugin.class, withSettings().stubOnly());
+        when(bukkitPlugin.getDataFolder()).thenReturn(dataFolder);
+        PluginManager pluginManager = mock(PluginManager.class, withSettings().stubOnly());
+        when(pluginManager.getPlugin("UltiTools")).thenReturn(bukkitPlugin);
+
+        BukkitScheduler scheduler = mock(BukkitScheduler.class, withSettings().stubOnly());
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Consumer.class), anyLong(), anyLong())).thenAnswer(inv -> {
+            RepeatingTask task = new RepeatingTask(inv.getArgument(1));
+            tasks.add(task);
+            return task.handle;
+        });
+        when(scheduler.runTaskAsynchronously(any(Plugin.class), any(Runnable.class))).thenAnswer(inv -> {
+            CompletableFuture.runAsync(inv.getArgument(1));
+            return null;
+        });
+        when(scheduler.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(inv -> {
+            ((Runnable) inv.getArgument(1)).run();
+            return null;
+        });
+
+        Server server = mock(Server.class, withSettings().stubOnly());
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(server.getScheduler()).thenReturn(scheduler);
+        when(server.getOnlinePlayers()).thenAnswer(inv -> new ArrayList<>(online));
+        when(server.isPrimaryThread()).thenAnswer(inv -> Thread.currentThread() == serverThread);
+
+        Server previous = Bukkit.getServer();
+        setServer(server);
+        return previous;
+    }
+
+    /**
+     * Bukkit only allows setting the server once per JVM, so swap the field directly.
+     */
+    private static void setServer(Server server) throws Exception {
+        Field field = Bukkit.class.getDeclaredField("server");
+        field.setAccessible(true); // NOPMD - test harness swaps the static server
+        field.set(null, server);
+    }
+
+    // ==================== Simulated state ====================
+
+    private final class SimulatedPlayer {
+        private final UUID uuid;
+        private final Player player;
+        private final ItemStack[] storage;
+        private boolean online = true;
+
+        private SimulatedPlayer(String name, UUID uuid) {
+            this.uuid = uuid;
+            this.player = UltiBackupTestHelper.createMockPlayer(name, uuid);
+            this.storage = corpus.next(InventoryCorpus.Profile.TYPICAL).getStorageContents();
+            when(player.getInventory().getStorageContents()).thenAnswer(inv -> storage.clone());
+            when(player.isOnline()).thenAnswer(inv -> online);
+        }
+
+        private void mutate() {
+            storage[random.nextInt(storage.length)] = corpus.item(InventoryCorpus.Profile.TYPICAL);
+        }
+
+        private void setOnline(boolean value) {
+            online = value;
+            if (value) {
+                LoadHarness.this.online.add(player);
+            } else {
+                LoadHarness.this.online.remove(player);
+            }
+        }
+    }
+
+    private static final class RepeatingTask {
+        private final Consumer<BukkitTask> body;
+        private final BukkitTask handle = mock(BukkitTask.class, withSettings().stubOnly());
+        private boolean cancelled;
+
+        private RepeatingTask(Consumer<BukkitTask> body) {
+            this.body = body;
+            doAnswer(inv -> cancelled = true).when(handle).cancel();
+        }
+    }
+
+    // ==================== Settings and report ====================
+
+    /**
+     * Load shape. Rates are per simulated time; the defaults compress a busy evening.
+     */
+    @Getter
+    @Builder
+    static final class Settings {
+        @Builder.Default
+        private final int players = 100;
+        @Builder.Default
+        private final int minutes = 5;
+        @Builder.Default
+        private final double deathsPerPlayerHour = 6;
+        @Builder.Default
+        private final double sessionMinutes = 20;
+        @Builder.Default
+        private final double offlineMinutes = 5;
+        @Builder.Default
+        private final int autoIntervalMinutes = 1;
+        @Builder.Default
+        private final double restoresPerMinute = 10;
+        @Builder.Default
+        private final int maxBackupsPerPlayer = 10;
+        @Builder.Default
+        private final long seed = 7L;
+    }
+
+    /**
+     * Outcome of one run.
+     */
+    @Getter
+    @Builder
+    static final class Report {
+        private final int players;
+        private final int simulatedSeconds;
+        private final long wallMillis;
+        private final int deaths;
+        private final int quits;
+        private final int autoRounds;
+        private final long backups;
+        private final long failedBackups;
+        private final double backupsPerSecond;
+        private final double createP99Millis;
+        private final int restores;
+        private final int failedRestores;
+        private final double restoreP99Millis;
+        private final long diskBytes;
+        private final long files;
+        private final double mainThreadMillis;
+
+        @Override
+        public String toString() {
+            return String.format("%d players, %d s simulated in %d ms: %d backups (%d failed, %.1f/s; "
+                    + "%d deaths, %d quits, %d auto rounds), create p99 %.2f ms, %d restores (%d failed) "
+                    + "p99 %.2f ms, %d KB in %d files, main thread %.1f ms in the last minute",
+                players, simulatedSeconds, wallMillis, backups, failedBackups, backupsPerSecond,
+                deaths, quits, autoRounds, createP99Millis, restores, failedRestores,
+                restoreP99Millis, diskBytes / 1024, files, mainThreadMillis);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MainThreadWatchdog Tests")
+class MainThreadWatchdogTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final AtomicBoolean mainThread = new AtomicBoolean(true);
+    private final List<String> reports = new ArrayList<>();
+
+    private MainThreadWatchdog create(long thresholdMillis) {
+        return new MainThreadWatchdog(thresholdMillis, mainThread::get, now::get, reports::add);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    @DisplayName("Should record each operation separately")
+    void recordsOperations() {
+        MainThreadWatchdog watchdog = create(0);
+
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("listener.death")) {
+            advanceMillis(2);
+        }
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("listener.death")) {
+            advanceMillis(4);
+        }
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("gui.render")) {
+            advanceMillis(1);
+        }
+
+        assertThat(watchdog.getOperations()).containsOnlyKeys("gui.render", "listener.death");
+        assertThat(watchdog.getOperations().get("listener.death").getCount()).isEqualTo(2);
+        assertThat(watchdog.getLastMinuteMillis()).isCloseTo(7.0, within(0.001));
+        assertThat(reports).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore calls off the main thread")
+    void offMainThread() {
+        MainThreadWatchdog watchdog = create(1);
+        mainThread.set(false);
+
+        try (MainThreadWatchdog.Timing timing = watchdog.start("restore")) {
+            advanceMillis(50);
+            timing.mark("load");
+        }
+
+        assertThat(watchdog.getOperations()).isEmpty();
+        assertThat(watchdog.getLastMinuteMillis()).isZero();
+        assertThat(reports).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report slow calls with their step breakdown")
+    void reportsSlowCalls() {
+        MainThreadWatchdog watchdog = create(5);
+
+        try (MainThreadWatchdog.Timing timing = watchdog.start("restore")) {
+            advanceMillis(3);
+            timing.mark("load");
+            advanceMillis(4);
+            timing.mark("apply");
+        }
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("listener.quit")) {
+            advanceMillis(1);
+        }
+
+        assertThat(reports).hasSize(1);
+        assertThat(reports.get(0))
+                .startsWith("restore took 7.00 ms on the main thread")
+                .contains("(load 3.00 ms, apply 4.00 ms)")
+                .endsWith("last minute total 7.0 ms");
+    }
+
+    @Test
+    @DisplayName("Should drop time older than one minute from the rolling total")
+    void rollingMinute() {
+        MainThreadWatchdog watchdog = create(0);
+
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("batch.auto")) {
+            advanceMillis(10);
+        }
+        advanceMillis(30_000);
+        try (MainThreadWatchdog.Timing ignored = watchdog.start("batch.auto")) {
+            advanceMillis(5);
+        }
+        assertThat(watchdog.getLastMinuteMillis()).isCloseTo(15.0, within(0.001));
+
+        advanceMillis(40_000);
+        assertThat(watchdog.getLastMinuteMillis()).isCloseTo(5.0, within(0.001));
+        assertThat(watchdog.getOperations().get("batch.auto").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should do nothing without a watchdog")
+    void nullWatchdog() {
+        MainThreadWatchdog.Timing timing = MainThreadWatchdog.start(null, "gui.preview");
+
+        assertThatCode(() -> {
+            timing.mark("load");
+            timing.close();
+        }).doesNotThrowAnyException();
+    }
+}
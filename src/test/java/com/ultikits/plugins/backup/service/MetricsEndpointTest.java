@@ -0,0 +1,175 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MetricsEndpoint Tests")
+class MetricsEndpointTest {
+
+    private BackupService service;
+    private BackupMetrics metrics;
+    private Map<String, Number> collected;
+    private MetricsEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = mock(BackupService.class);
+        metrics = new BackupMetrics();
+        collected = new LinkedHashMap<>();
+        collected.put("uptime_seconds", 12L);
+        collected.put("operations.create.count", 3L);
+        collected.put("operations.create.failures", 0L);
+        collected.put("operations.create.p99_ms", 1.5);
+        collected.put("queue.pending", 2);
+        collected.put("main_thread.batch.death.count", 4L);
+        when(service.collectMetrics()).thenAnswer(inv -> collected);
+        when(service.getMetrics()).thenReturn(metrics);
+
+        endpoint = new MetricsEndpoint(service, "127.0.0.1", 0);
+        endpoint.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    @DisplayName("Should serve every metric as a Prometheus gauge")
+    void gauges() throws IOException {
+        HttpURLConnection connection = open("/metrics");
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).startsWith("text/plain; version=0.0.4");
+        String body = read(connection);
+        assertThat(body).contains("# TYPE ultibackup_queue_pending gauge\nultibackup_queue_pending 2\n");
+        assertThat(body).contains("ultibackup_operations_create_p99_ms 1.5\n");
+        assertThat(body).contains("ultibackup_main_thread_batch_death_count 4\n");
+    }
+
+    @Test
+    @DisplayName("Should serve cumulative latency histograms in seconds")
+    void histograms() throws IOException {
+        long now = System.nanoTime();
+        metrics.operation(BackupMetrics.Operation.CREATE, now - 3_000_000L, true);
+        metrics.operation(BackupMetrics.Operation.CREATE, now - 40_000_000L, true);
+
+        String body = read(open("/metrics"));
+
+        assertThat(body).contains("# TYPE ultibackup_operation_duration_seconds histogram");
+        assertThat(body).contains("ultibackup_operation_duration_seconds_bucket{operation=\"create\",le=\"0.004096\"} 1\n");
+        assertThat(body).contains("ultibackup_operation_duration_seconds_bucket{operation=\"create\",le=\"+Inf\"} 2\n");
+        assertThat(body).contains("ultibackup_operation_duration_seconds_count{operation=\"create\"} 2\n");
+        assertThat(body).contains("ultibackup_phase_duration_seconds_count{phase=\"write\"} 0\n");
+    }
+
+    @Test
+    @DisplayName("Should report healthy JSON while nothing failed")
+    void healthy() throws IOException {
+        HttpURLConnection connection = open("/health");
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).startsWith("application/json");
+        String body = read(connection);
+        assertThat(body).startsWith("{\"status\":\"ok\"");
+        assertThat(body).contains("\"backups\":3", "\"queue_pending\":2", "\"backup_p99_ms\":1.5", "\"queue_shed\":0");
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when backups failed or were shed recently")
+    void degraded() throws IOException {
+        collected.put("queue.shed", 1L);
+
+        HttpURLConnection connection = open("/health");
+
+        assertThat(connection.getResponseCode()).isEqualTo(503);
+        assertThat(read(connection)).startsWith("{\"status\":\"degraded\"");
+    }
+
+    @Test
+    @DisplayName("Should recover once failures leave the window, keeping lifetime totals")
+    void recovers() throws IOException {
+        AtomicLong now = new AtomicLong();
+        endpoint.stop();
+        endpoint = new MetricsEndpoint(service, "127.0.0.1", 0, 60_000L, now::get);
+        endpoint.start();
+        collected.put("operations.create.failures", 2L);
+
+        now.set(30_000L);
+        HttpURLConnection failing = open("/health");
+        assertThat(failing.getResponseCode()).isEqualTo(503);
+        assertThat(read(failing)).contains("\"recent_backup_failures\":2", "\"backup_failures\":2");
+
+        now.set(100_000L);
+        HttpURLConnection recovered = open("/health");
+        assertThat(recovered.getResponseCode()).isEqualTo(200);
+        assertThat(read(recovered)).contains("\"recent_backup_failures\":0", "\"backup_failures\":2");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown paths and non-GET methods")
+    void rejects() throws IOException {
+        assertThat(open("/metrics/extra").getResponseCode()).isEqualTo(404);
+        assertThat(open("/").getResponseCode()).isEqualTo(404);
+
+        HttpURLConnection post = open("/metrics");
+        post.setRequestMethod("POST");
+        assertThat(post.getResponseCode()).isEqualTo(405);
+    }
+
+    @Test
+    @DisplayName("Should answer 500 when collecting metrics fails")
+    void collectionFailure() throws IOException {
+        when(service.collectMetrics()).thenThrow(new IllegalStateException("boom"));
+
+        assertThat(open("/metrics").getResponseCode()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Should release the port on stop")
+    void stop() throws IOException {
+        int port = endpoint.getPort();
+        endpoint.stop();
+
+        assertThat(endpoint.getPort()).isEqualTo(-1);
+        MetricsEndpoint again = new MetricsEndpoint(service, "127.0.0.1", port);
+        again.start();
+        try {
+            assertThat(again.getPort()).isEqualTo(port);
+        } finally {
+            again.stop();
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)
+                new URL("http://127.0.0.1:" + endpoint.getPort() + path).openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
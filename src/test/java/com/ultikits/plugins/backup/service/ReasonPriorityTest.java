@@ -0,0 +1,26 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ReasonPriority Tests")
+class ReasonPriorityTest {
+
+    @Test
+    @DisplayName("Should rank DEATH over QUIT over MANUAL over ADMIN over AUTO")
+    void ordering() {
+        assertThat(ReasonPriority.of("DEATH")).isGreaterThan(ReasonPriority.of("QUIT"));
+        assertThat(ReasonPriority.of("QUIT")).isGreaterThan(ReasonPriority.of("MANUAL"));
+        assertThat(ReasonPriority.of("MANUAL")).isGreaterThan(ReasonPriority.of("ADMIN"));
+        assertThat(ReasonPriority.of("ADMIN")).isGreaterThan(ReasonPriority.of("AUTO"));
+    }
+
+    @Test
+    @DisplayName("Should treat AUTO, unknown and null reasons as lowest")
+    void lowest() {
+        assertThat(ReasonPriority.of("AUTO")).isEqualTo(ReasonPriority.LOWEST);
+        assertThat(ReasonPriority.of("SOMETHING")).isEqualTo(ReasonPriority.LOWEST);
+        assertThat(ReasonPriority.of(null)).isEqualTo(ReasonPriority.LOWEST);
+    }
+}
@@ -0,0 +1,139 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+import com.ultikits.plugins.backup.entity.InventorySnapshot;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SnapshotCoalescer Tests")
+class SnapshotCoalescerTest {
+
+    private final List<InventorySnapshot> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<InventorySnapshot> discarded = Collections.synchronizedList(new ArrayList<>());
+    private SnapshotCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    private SnapshotCoalescer create(long windowMillis) {
+        coalescer = new SnapshotCoalescer(windowMillis, snapshot -> {
+            written.add(snapshot);
+            return CompletableFuture.completedFuture(snapshot.getMetadata());
+        }, discarded::add);
+        return coalescer;
+    }
+
+    private static InventorySnapshot snapshot(String uuid, String reason) {
+        BackupMetadata metadata = BackupMetadata.builder().playerUuid(uuid).backupReason(reason).build();
+        return InventorySnapshot.builder().metadata(metadata).build();
+    }
+
+    @Test
+    @DisplayName("Should pass through immediately when the window is 0")
+    void disabled() {
+        create(0);
+
+        CompletableFuture<BackupMetadata> future = coalescer.submit(snapshot("a", "AUTO"));
+
+        assertThat(future).isCompleted();
+        assertThat(written).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should write a death followed by a quit once, keeping the death snapshot")
+    void deathThenQuit() throws Exception {
+        create(60_000);
+        InventorySnapshot death = snapshot("a", "DEATH");
+
+        CompletableFuture<BackupMetadata> first = coalescer.submit(death);
+        CompletableFuture<BackupMetadata> second = coalescer.submit(snapshot("a", "QUIT"));
+        coalescer.flush();
+
+        assertThat(written).containsExactly(death);
+        assertThat(first.get()).isSameAs(death.getMetadata());
+        assertThat(second.get()).isSameAs(death.getMetadata());
+        assertThat(coalescer.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let a newer snapshot of equal or higher priority supersede")
+    void newerSupersedes() {
+        create(60_000);
+        coalescer.submit(snapshot("a", "AUTO"));
+        InventorySnapshot admin = snapshot("a", "ADMIN");
+        coalescer.submit(admin);
+        InventorySnapshot newerAdmin = snapshot("a", "ADMIN");
+        coalescer.submit(newerAdmin);
+
+        coalescer.flush();
+
+        assertThat(written).containsExactly(newerAdmin);
+    }
+
+    @Test
+    @DisplayName("Should discard every snapshot that lost to another, whichever arrived first")
+    void discardsLosers() {
+        create(60_000);
+        InventorySnapshot auto = snapshot("a", "AUTO");
+        InventorySnapshot death = snapshot("a", "DEATH");
+        InventorySnapshot quit = snapshot("a", "QUIT");
+        coalescer.submit(auto);
+        coalescer.submit(death);
+        coalescer.submit(quit);
+
+        coalescer.flush();
+
+        assertThat(written).containsExactly(death);
+        assertThat(discarded).containsExactly(auto, quit);
+    }
+
+    @Test
+    @DisplayName("Should keep different players separate")
+    void separatePlayers() {
+        create(60_000);
+        coalescer.submit(snapshot("a", "AUTO"));
+        coalescer.submit(snapshot("b", "AUTO"));
+
+        assertThat(coalescer.getPendingCount()).isEqualTo(2);
+        coalescer.flush();
+
+        assertThat(written).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should dispatch when the window elapses")
+    void dispatchesAfterWindow() throws Exception {
+        create(20);
+
+        coalescer.submit(snapshot("a", "AUTO")).get(5, TimeUnit.SECONDS);
+
+        assertThat(written).hasSize(1);
+        assertThat(coalescer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should flush pending and pass later snapshots through after shutdown")
+    void shutdown() {
+        create(60_000);
+        CompletableFuture<BackupMetadata> pending = coalescer.submit(snapshot("a", "QUIT"));
+
+        coalescer.shutdown();
+        CompletableFuture<BackupMetadata> late = coalescer.submit(snapshot("a", "QUIT"));
+
+        assertThat(pending).isCompleted();
+        assertThat(late).isCompleted();
+        assertThat(written).hasSize(2);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ultikits.plugins.backup.service;
+
+import com.ultikits.plugins.backup.entity.BackupMetadata;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("StorageLedger Tests")
+class StorageLedgerTest {
+
+    private static final UUID ALICE = new UUID(0L, 1L);
+    private static final UUID BOB = new UUID(0L, 2L);
+
+    private final StorageLedger ledger = new StorageLedger();
+
+    private static BackupMetadata backup(UUID uuid, String name, long bytes, int items) {
+        return BackupMetadata.builder()
+                .playerUuid(uuid.toString())
+                .playerName(name)
+                .payloadBytes(bytes)
+                .itemCount(items)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should total backups per player and server-wide")
+    void totals() {
+        ledger.add(backup(ALICE, "Alice", 1000L, 10));
+        ledger.add(backup(ALICE, "Alice", 500L, 5));
+        ledger.add(backup(BOB, "Bob", 200L, 2));
+
+        StorageLedger.Usage alice = ledger.getUsage(ALICE);
+        assertThat(alice.getBackups()).isEqualTo(2);
+        assertThat(alice.getBytes()).isEqualTo(1500L);
+        assertThat(alice.getItems()).isEqualTo(15L);
+        assertThat(alice.getPlayerName()).isEqualTo("Alice");
+        assertThat(ledger.getTotalBackups()).isEqualTo(3);
+        assertThat(ledger.getTotalBytes()).isEqualTo(1700L);
+        assertThat(ledger.getTotalItems()).isEqualTo(17L);
+        assertThat(ledger.getPlayerCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should subtract deletions and drop players without backups")
+    void removes() {
+        BackupMetadata first = backup(ALICE, "Alice", 1000L, 10);
+        ledger.add(first);
+        ledger.add(backup(BOB, "Bob", 200L, 2));
+
+        ledger.remove(first);
+
+        assertThat(ledger.getUsage(ALICE).getBackups()).isZero();
+        assertThat(ledger.getPlayerCount()).isEqualTo(1);
+        assertThat(ledger.getTotalBackups()).isEqualTo(1);
+        assertThat(ledger.getTotalBytes()).isEqualTo(200L);
+    }
+
+    @Test
+    @DisplayName("Should ignore deleting a backup that was never counted")
+    void removeUnknown() {
+        ledger.add(backup(BOB, "Bob", 200L, 2));
+
+        ledger.remove(backup(ALICE, "Alice", 1000L, 10));
+        ledger.remove(null);
+
+        assertThat(ledger.getTotalBackups()).isEqualTo(1);
+        assertThat(ledger.getTotalBytes()).isEqualTo(200L);
+    }
+
+    @Test
+    @DisplayName("Should rank players by bytes used")
+    void topPlayers() {
+        ledger.add(backup(ALICE, "Alice", 100L, 1));
+        ledger.add(backup(BOB, "Bob", 900L, 1));
+        ledger.add(backup(new UUID(0L, 3L), "Carol", 500L, 1));
+
+        List<Map.Entry<String, StorageLedger.Usage>> top = ledger.getTopPlayers(2);
+
+        assertThat(top).extracting(e -> e.getValue().getPlayerName()).containsExactly("Bob", "Carol");
+    }
+
+    @Test
+    @DisplayName("Should replace totals on reset")
+    void reset() {
+        ledger.add(backup(ALICE, "Alice", 100L, 1));
+
+        ledger.reset(Arrays.asList(backup(BOB, "Bob", 300L, 3), backup(BOB, "Bob", 300L, 3)));
+
+        assertThat(ledger.getUsage(ALICE).getBackups()).isZero();
+        assertThat(ledger.getUsage(BOB).getBytes()).isEqualTo(600L);
+        assertThat(ledger.getTotalBackups()).isEqualTo(2);
+        assertThat(ledger.getTotalItems()).isEqualTo(6L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("StripedLocks Tests")
+class StripedLocksTest {
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two")
+    void roundsToPowerOfTwo() {
+        assertThat(new StripedLocks(64).size()).isEqualTo(64);
+        assertThat(new StripedLocks(50).size()).isEqualTo(64);
+        assertThat(new StripedLocks(1).size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return the same lock for the same player")
+    void sameKeySameLock() {
+        StripedLocks locks = new StripedLocks(64);
+        String uuid = UUID.randomUUID().toString();
+
+        assertThat(locks.forKey(uuid)).isSameAs(locks.forKey(new String(uuid)));
+    }
+
+    @Test
+    @DisplayName("Should spread players across stripes")
+    void spreadsKeys() {
+        StripedLocks locks = new StripedLocks(64);
+        Set<Lock> used = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            used.add(locks.forKey(UUID.randomUUID().toString()));
+        }
+
+        assertThat(used.size()).isGreaterThan(48);
+    }
+
+    @Test
+    @DisplayName("Should accept a null key")
+    void nullKey() {
+        StripedLocks locks = new StripedLocks(8);
+
+        assertThat(locks.forKey(null)).isNotNull().isSameAs(locks.forKey(null));
+    }
+
+    @Test
+    @DisplayName("Should block a second thread on the same player")
+    void serializesSamePlayer() throws Exception {
+        StripedLocks locks = new StripedLocks(64);
+        String uuid = UUID.randomUUID().toString();
+        Lock lock = locks.forKey(uuid);
+        lock.lock();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            locks.forKey(uuid).lock();
+            acquired.countDown();
+            locks.forKey(uuid).unlock();
+        });
+        try {
+            other.start();
+            assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        } finally {
+            lock.unlock();
+        }
+
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        other.join();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TokenBucket Tests")
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Should start full and allow a burst up to capacity")
+    void burst() {
+        TokenBucket bucket = new TokenBucket(1, 3, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.nanosUntil(1)).isZero();
+            bucket.charge(1);
+        }
+        assertThat(bucket.nanosUntil(1)).isCloseTo(TimeUnit.SECONDS.toNanos(1), within(10L));
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate, capped at capacity")
+    void refill() {
+        TokenBucket bucket = new TokenBucket(2, 2, now::get);
+        bucket.charge(2);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(bucket.nanosUntil(1)).isZero();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.isFull()).isTrue();
+        bucket.charge(2);
+        assertThat(bucket.nanosUntil(1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should let a charge go negative and wait for the debt to be repaid")
+    void debt() {
+        TokenBucket bucket = new TokenBucket(100, 100, now::get);
+        bucket.charge(300);
+
+        assertThat(bucket.nanosUntil(0)).isCloseTo(TimeUnit.SECONDS.toNanos(2), within(10L));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(bucket.nanosUntil(0)).isZero();
+    }
+}
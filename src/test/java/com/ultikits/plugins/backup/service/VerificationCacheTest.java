@@ -0,0 +1,92 @@
+package com.ultikits.plugins.backup.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("VerificationCache Tests")
+class VerificationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private VerificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerificationCache(2);
+    }
+
+    @Test
+    @DisplayName("Should return cached result for unchanged identity")
+    void hitOnSameIdentity() {
+        VerificationCache.FileIdentity identity = new VerificationCache.FileIdentity(10, 1000L, "inode-1");
+        cache.put("id-1", identity, "abc", true);
+
+        assertThat(cache.get("id-1", new VerificationCache.FileIdentity(10, 1000L, "inode-1"), "abc"))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Should miss when size, mtime or inode changes")
+    void missOnChangedIdentity() {
+        cache.put("id-1", new VerificationCache.FileIdentity(10, 1000L, "inode-1"), "abc", true);
+        assertThat(cache.get("id-1", new VerificationCache.FileIdentity(11, 1000L, "inode-1"), "abc")).isNull();
+
+        cache.put("id-1", new VerificationCache.FileIdentity(10, 1000L, "inode-1"), "abc", true);
+        assertThat(cache.get("id-1", new VerificationCache.FileIdentity(10, 1001L, "inode-1"), "abc")).isNull();
+
+        cache.put("id-1", new VerificationCache.FileIdentity(10, 1000L, "inode-1"), "abc", true);
+        assertThat(cache.get("id-1", new VerificationCache.FileIdentity(10, 1000L, "inode-2"), "abc")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should miss when expected checksum differs")
+    void missOnDifferentChecksum() {
+        VerificationCache.FileIdentity identity = new VerificationCache.FileIdentity(10, 1000L, null);
+        cache.put("id-1", identity, "abc", false);
+
+        assertThat(cache.get("id-1", identity, "def")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entry beyond capacity")
+    void evictsEldest() {
+        VerificationCache.FileIdentity identity = new VerificationCache.FileIdentity(1, 1L, null);
+        cache.put("a", identity, "x", true);
+        cache.put("b", identity, "x", true);
+        cache.get("a", identity, "x");
+        cache.put("c", identity, "x", true);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b", identity, "x")).isNull();
+        assertThat(cache.get("a", identity, "x")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should drop entry on invalidate")
+    void invalidate() {
+        VerificationCache.FileIdentity identity = new VerificationCache.FileIdentity(1, 1L, null);
+        cache.put("a", identity, "x", true);
+        cache.invalidate("a");
+
+        assertThat(cache.get("a", identity, "x")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read identity that changes when the file is rewritten")
+    void identifyTracksChanges() throws Exception {
+        File file = tempDir.resolve("identity.yml").toFile();
+        Files.write(file.toPath(), "one".getBytes());
+        VerificationCache.FileIdentity first = VerificationCache.identify(file);
+
+        Files.write(file.toPath(), "longer".getBytes());
+
+        assertThat(VerificationCache.identify(file)).isNotEqualTo(first);
+    }
+}